@@ -1,5 +1,7 @@
 package le2.plp.expressions2;
 
+import le2.plp.expressions2.compilacao.Compilador;
+import le2.plp.expressions2.compilacao.ExpressaoCompilada;
 import le2.plp.expressions2.expression.Expressao;
 import le2.plp.expressions2.expression.Valor;
 import le2.plp.expressions2.memory.AmbienteCompilacao;
@@ -8,16 +10,35 @@ import le2.plp.expressions2.memory.ContextoCompilacao;
 import le2.plp.expressions2.memory.ContextoExecucao;
 import le2.plp.expressions2.memory.VariavelJaDeclaradaException;
 import le2.plp.expressions2.memory.VariavelNaoDeclaradaException;
+import le2.plp.expressions2.util.Otimizador;
 
 public class Programa {
 
 	private Expressao exp;
 
+	/**
+	 * Indica se o programa deve ser executado pelo <code>Compilador</code>
+	 * em vez de interpretado.
+	 */
+	private boolean compilado;
+
+	/**
+	 * A expressao compilada, reaproveitada enquanto a expressao do programa
+	 * nao muda.
+	 */
+	private ExpressaoCompilada expressaoCompilada;
+
 	public Programa(Expressao exp){
 		this.exp = exp;
 	}
 
 	public Valor executar() throws VariavelJaDeclaradaException, VariavelNaoDeclaradaException {
+		if (compilado) {
+			if (expressaoCompilada == null) {
+				expressaoCompilada = Compilador.compilar(exp);
+			}
+			return expressaoCompilada.executar();
+		}
 		AmbienteExecucao ambExec = new ContextoExecucao();
 		return exp.avaliar(ambExec);
 	}
@@ -27,8 +48,32 @@ public class Programa {
 		return exp.checaTipo(ambComp);
 	}
 
+	/**
+	 * Substitui as sub-expressoes constantes do programa pelos seus valores.
+	 * Deve ser chamado depois de <code>checaTipo</code>.
+	 *
+	 * @return a quantidade de nos removidos da arvore do programa.
+	 */
+	public int otimizar() {
+		Otimizador otimizador = new Otimizador();
+		exp = otimizador.otimizar(exp);
+		expressaoCompilada = null;
+		return otimizador.getNosRemovidos();
+	}
+
 	public Expressao getExpressao() {
 		return exp;
 	}
 
+	public boolean isCompilado() {
+		return compilado;
+	}
+
+	public void setCompilado(boolean compilado) {
+		this.compilado = compilado;
+		if (!compilado) {
+			expressaoCompilada = null;
+		}
+	}
+
 }
@@ -0,0 +1,19 @@
+package le2.plp.expressions2.compilacao;
+
+import le2.plp.expressions2.expression.Valor;
+
+/**
+ * Trecho compilado de uma expressao cujo resultado e' do tipo Valor.
+ */
+public interface Codigo {
+
+	/**
+	 * Executa o trecho sobre o quadro dado.
+	 * 
+	 * @param quadro
+	 *            o quadro com os valores das variaveis declaradas.
+	 * @return o valor resultante da expressao.
+	 */
+	public Valor executar(Quadro quadro);
+
+}
@@ -0,0 +1,17 @@
+package le2.plp.expressions2.compilacao;
+
+/**
+ * Trecho compilado de uma expressao cujo resultado e' do tipo int.
+ */
+public interface CodigoInteiro {
+
+	/**
+	 * Executa o trecho sobre o quadro dado.
+	 * 
+	 * @param quadro
+	 *            o quadro com os valores das variaveis declaradas.
+	 * @return o inteiro resultante da expressao.
+	 */
+	public int executar(Quadro quadro);
+
+}
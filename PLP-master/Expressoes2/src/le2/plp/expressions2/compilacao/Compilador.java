@@ -0,0 +1,293 @@
+package le2.plp.expressions2.compilacao;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import le2.plp.expressions1.util.Tipo;
+import le2.plp.expressions2.declaration.DecComposta;
+import le2.plp.expressions2.declaration.DecVariavel;
+import le2.plp.expressions2.declaration.Declaracao;
+import le2.plp.expressions2.expression.ExpAnd;
+import le2.plp.expressions2.expression.ExpConcat;
+import le2.plp.expressions2.expression.ExpDeclaracao;
+import le2.plp.expressions2.expression.ExpEquals;
+import le2.plp.expressions2.expression.ExpLength;
+import le2.plp.expressions2.expression.ExpMenos;
+import le2.plp.expressions2.expression.ExpNot;
+import le2.plp.expressions2.expression.ExpOr;
+import le2.plp.expressions2.expression.ExpSoma;
+import le2.plp.expressions2.expression.ExpSub;
+import le2.plp.expressions2.expression.Expressao;
+import le2.plp.expressions2.expression.Id;
+import le2.plp.expressions2.expression.ValorBooleano;
+import le2.plp.expressions2.expression.ValorInteiro;
+import le2.plp.expressions2.expression.ValorString;
+import le2.plp.expressions2.memory.AmbienteCompilacao;
+import le2.plp.expressions2.memory.Contexto;
+import le2.plp.expressions2.memory.ContextoCompilacao;
+import le2.plp.expressions2.memory.VariavelJaDeclaradaException;
+import le2.plp.expressions2.memory.VariavelNaoDeclaradaException;
+
+/**
+ * Traduz uma expressao ja verificada quanto a tipos em um grafo de trechos
+ * especializados (<code>CodigoInteiro</code>, <code>CodigoBooleano</code> e
+ * <code>CodigoString</code>). O tipo de cada operando e' obtido de
+ * <code>getTipo</code> durante a compilacao, de modo que a execucao nao faz
+ * casts nem cria objetos <code>Valor</code> intermediarios.
+ *
+ * Cada variavel declarada recebe uma posicao propria no <code>Quadro</code>;
+ * como a linguagem nao possui funcoes, nenhuma posicao e' reutilizada por
+ * mais de uma declaracao e o escopo e' resolvido em tempo de compilacao.
+ */
+public class Compilador {
+
+	private AmbienteCompilacao tipos;
+	private Contexto<Integer> enderecos;
+	private int qtdInteiros;
+	private int qtdBooleanos;
+	private int qtdStrings;
+
+	private Compilador() {
+		tipos = new ContextoCompilacao();
+		enderecos = new Contexto<Integer>();
+	}
+
+	/**
+	 * Compila a expressao dada, que deve ter sido verificada por
+	 * <code>checaTipo</code>.
+	 *
+	 * @param exp
+	 *            a expressao a ser compilada.
+	 * @return a expressao compilada.
+	 */
+	public static ExpressaoCompilada compilar(Expressao exp)
+			throws VariavelNaoDeclaradaException, VariavelJaDeclaradaException {
+		return new Compilador().compilarRaiz(exp);
+	}
+
+	private ExpressaoCompilada compilarRaiz(Expressao exp) {
+		Tipo tipo = exp.getTipo(tipos);
+		Codigo raiz;
+		if (tipo.eInteiro()) {
+			CodigoInteiro codigo = compilarInteiro(exp);
+			raiz = q -> new ValorInteiro(codigo.executar(q));
+		} else if (tipo.eBooleano()) {
+			CodigoBooleano codigo = compilarBooleano(exp);
+			raiz = q -> new ValorBooleano(codigo.executar(q));
+		} else {
+			CodigoString codigo = compilarString(exp);
+			raiz = q -> new ValorString(codigo.executar(q));
+		}
+		return new ExpressaoCompilada(raiz, qtdInteiros, qtdBooleanos,
+				qtdStrings);
+	}
+
+	private CodigoInteiro compilarInteiro(Expressao exp) {
+		if (exp instanceof ValorInteiro) {
+			int valor = ((ValorInteiro) exp).valorPrimitivo();
+			return q -> valor;
+		}
+		if (exp instanceof Id) {
+			int endereco = enderecos.get((Id) exp);
+			return q -> q.inteiros[endereco];
+		}
+		if (exp instanceof ExpSoma) {
+			CodigoInteiro esq = compilarInteiro(((ExpSoma) exp).getEsq());
+			CodigoInteiro dir = compilarInteiro(((ExpSoma) exp).getDir());
+			return q -> esq.executar(q) + dir.executar(q);
+		}
+		if (exp instanceof ExpSub) {
+			CodigoInteiro esq = compilarInteiro(((ExpSub) exp).getEsq());
+			CodigoInteiro dir = compilarInteiro(((ExpSub) exp).getDir());
+			return q -> esq.executar(q) - dir.executar(q);
+		}
+		if (exp instanceof ExpMenos) {
+			CodigoInteiro operando = compilarInteiro(((ExpMenos) exp).getExp());
+			return q -> -operando.executar(q);
+		}
+		if (exp instanceof ExpLength) {
+			CodigoString operando = compilarString(((ExpLength) exp).getExp());
+			return q -> operando.executar(q).length();
+		}
+		if (exp instanceof ExpDeclaracao) {
+			ExpDeclaracao expDec = (ExpDeclaracao) exp;
+			Inicializacao inicializacao = abrirEscopo(expDec.getDeclaracao());
+			CodigoInteiro corpo = compilarInteiro(expDec.getExpressao());
+			fecharEscopo();
+			return q -> {
+				inicializacao.executar(q);
+				return corpo.executar(q);
+			};
+		}
+		throw new IllegalArgumentException("Expressao inteira nao suportada: " + exp);
+	}
+
+	private CodigoBooleano compilarBooleano(Expressao exp) {
+		if (exp instanceof ValorBooleano) {
+			boolean valor = ((ValorBooleano) exp).valor();
+			return q -> valor;
+		}
+		if (exp instanceof Id) {
+			int endereco = enderecos.get((Id) exp);
+			return q -> q.booleanos[endereco];
+		}
+		if (exp instanceof ExpAnd) {
+			CodigoBooleano esq = compilarBooleano(((ExpAnd) exp).getEsq());
+			CodigoBooleano dir = compilarBooleano(((ExpAnd) exp).getDir());
+			return q -> esq.executar(q) && dir.executar(q);
+		}
+		if (exp instanceof ExpOr) {
+			CodigoBooleano esq = compilarBooleano(((ExpOr) exp).getEsq());
+			CodigoBooleano dir = compilarBooleano(((ExpOr) exp).getDir());
+			return q -> esq.executar(q) || dir.executar(q);
+		}
+		if (exp instanceof ExpNot) {
+			CodigoBooleano operando = compilarBooleano(((ExpNot) exp).getExp());
+			return q -> !operando.executar(q);
+		}
+		if (exp instanceof ExpEquals) {
+			return compilarIgualdade((ExpEquals) exp);
+		}
+		if (exp instanceof ExpDeclaracao) {
+			ExpDeclaracao expDec = (ExpDeclaracao) exp;
+			Inicializacao inicializacao = abrirEscopo(expDec.getDeclaracao());
+			CodigoBooleano corpo = compilarBooleano(expDec.getExpressao());
+			fecharEscopo();
+			return q -> {
+				inicializacao.executar(q);
+				return corpo.executar(q);
+			};
+		}
+		throw new IllegalArgumentException("Expressao booleana nao suportada: " + exp);
+	}
+
+	private CodigoString compilarString(Expressao exp) {
+		if (exp instanceof ValorString) {
+			String valor = ((ValorString) exp).valor();
+			return q -> valor;
+		}
+		if (exp instanceof Id) {
+			int endereco = enderecos.get((Id) exp);
+			return q -> q.strings[endereco];
+		}
+		if (exp instanceof ExpConcat) {
+			CodigoString esq = compilarString(((ExpConcat) exp).getEsq());
+			CodigoString dir = compilarString(((ExpConcat) exp).getDir());
+			return q -> esq.executar(q) + dir.executar(q);
+		}
+		if (exp instanceof ExpDeclaracao) {
+			ExpDeclaracao expDec = (ExpDeclaracao) exp;
+			Inicializacao inicializacao = abrirEscopo(expDec.getDeclaracao());
+			CodigoString corpo = compilarString(expDec.getExpressao());
+			fecharEscopo();
+			return q -> {
+				inicializacao.executar(q);
+				return corpo.executar(q);
+			};
+		}
+		throw new IllegalArgumentException("Expressao string nao suportada: " + exp);
+	}
+
+	/**
+	 * A igualdade e' especializada pelo tipo dos operandos, que e' o mesmo
+	 * para ambos apos a verificacao de tipos.
+	 */
+	private CodigoBooleano compilarIgualdade(ExpEquals exp) {
+		Tipo tipo = exp.getEsq().getTipo(tipos);
+		if (tipo.eInteiro()) {
+			CodigoInteiro esq = compilarInteiro(exp.getEsq());
+			CodigoInteiro dir = compilarInteiro(exp.getDir());
+			return q -> esq.executar(q) == dir.executar(q);
+		} else if (tipo.eBooleano()) {
+			CodigoBooleano esq = compilarBooleano(exp.getEsq());
+			CodigoBooleano dir = compilarBooleano(exp.getDir());
+			return q -> esq.executar(q) == dir.executar(q);
+		} else {
+			CodigoString esq = compilarString(exp.getEsq());
+			CodigoString dir = compilarString(exp.getDir());
+			return q -> esq.executar(q).equals(dir.executar(q));
+		}
+	}
+
+	/**
+	 * Compila as expressoes da declaracao no escopo atual e so depois torna
+	 * visiveis as variaveis declaradas, como fazem <code>elabora</code> e
+	 * <code>incluir</code> no interpretador.
+	 */
+	private Inicializacao abrirEscopo(Declaracao declaracao) {
+		List<DecVariavel> variaveis = new ArrayList<DecVariavel>();
+		coletarVariaveis(declaracao, variaveis);
+
+		HashMap<Id, Tipo> declarados = new HashMap<Id, Tipo>();
+		int[] novosEnderecos = new int[variaveis.size()];
+		Inicializacao[] inicializacoes = new Inicializacao[variaveis.size()];
+		for (int i = 0; i < inicializacoes.length; i++) {
+			DecVariavel dec = variaveis.get(i);
+			Tipo tipo = dec.getExpressao().getTipo(tipos);
+			if (declarados.put(dec.getId(), tipo) != null) {
+				throw new VariavelJaDeclaradaException(dec.getId());
+			}
+			inicializacoes[i] = compilarInicializacao(dec.getExpressao(), tipo);
+			novosEnderecos[i] = ultimoEndereco(tipo);
+		}
+
+		tipos.incrementa();
+		enderecos.incrementa();
+		for (int i = 0; i < inicializacoes.length; i++) {
+			Id id = variaveis.get(i).getId();
+			tipos.map(id, declarados.get(id));
+			enderecos.map(id, novosEnderecos[i]);
+		}
+
+		return q -> {
+			for (Inicializacao inicializacao : inicializacoes) {
+				inicializacao.executar(q);
+			}
+		};
+	}
+
+	private void fecharEscopo() {
+		tipos.restaura();
+		enderecos.restaura();
+	}
+
+	private void coletarVariaveis(Declaracao declaracao, List<DecVariavel> variaveis) {
+		if (declaracao instanceof DecComposta) {
+			coletarVariaveis(((DecComposta) declaracao).getD1(), variaveis);
+			coletarVariaveis(((DecComposta) declaracao).getD2(), variaveis);
+		} else {
+			variaveis.add((DecVariavel) declaracao);
+		}
+	}
+
+	/**
+	 * Compila a expressao de uma variavel e reserva, depois dela, a posicao
+	 * do quadro onde o seu valor sera gravado.
+	 */
+	private Inicializacao compilarInicializacao(Expressao exp, Tipo tipo) {
+		if (tipo.eInteiro()) {
+			CodigoInteiro codigo = compilarInteiro(exp);
+			int endereco = qtdInteiros++;
+			return q -> q.inteiros[endereco] = codigo.executar(q);
+		} else if (tipo.eBooleano()) {
+			CodigoBooleano codigo = compilarBooleano(exp);
+			int endereco = qtdBooleanos++;
+			return q -> q.booleanos[endereco] = codigo.executar(q);
+		} else {
+			CodigoString codigo = compilarString(exp);
+			int endereco = qtdStrings++;
+			return q -> q.strings[endereco] = codigo.executar(q);
+		}
+	}
+
+	private int ultimoEndereco(Tipo tipo) {
+		if (tipo.eInteiro()) {
+			return qtdInteiros - 1;
+		} else if (tipo.eBooleano()) {
+			return qtdBooleanos - 1;
+		} else {
+			return qtdStrings - 1;
+		}
+	}
+}
@@ -0,0 +1,33 @@
+package le2.plp.expressions2.compilacao;
+
+import le2.plp.expressions2.expression.Valor;
+
+/**
+ * Resultado da compilacao de uma expressao: o trecho raiz e o tamanho do
+ * quadro necessario para executa-lo.
+ */
+public class ExpressaoCompilada {
+
+	private Codigo raiz;
+	private int qtdInteiros;
+	private int qtdBooleanos;
+	private int qtdStrings;
+
+	ExpressaoCompilada(Codigo raiz, int qtdInteiros, int qtdBooleanos,
+			int qtdStrings) {
+		this.raiz = raiz;
+		this.qtdInteiros = qtdInteiros;
+		this.qtdBooleanos = qtdBooleanos;
+		this.qtdStrings = qtdStrings;
+	}
+
+	/**
+	 * Executa a expressao compilada sobre um quadro novo.
+	 * 
+	 * @return o valor da expressao.
+	 */
+	public Valor executar() {
+		return raiz.executar(new Quadro(qtdInteiros, qtdBooleanos, qtdStrings));
+	}
+
+}
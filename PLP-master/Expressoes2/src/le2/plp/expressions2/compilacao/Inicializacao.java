@@ -0,0 +1,17 @@
+package le2.plp.expressions2.compilacao;
+
+/**
+ * Trecho compilado de uma declaracao, que grava no quadro os valores das
+ * variaveis declaradas.
+ */
+public interface Inicializacao {
+
+	/**
+	 * Executa as inicializacoes sobre o quadro dado.
+	 * 
+	 * @param quadro
+	 *            o quadro com os valores das variaveis declaradas.
+	 */
+	public void executar(Quadro quadro);
+
+}
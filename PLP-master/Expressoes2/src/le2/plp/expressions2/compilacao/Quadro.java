@@ -0,0 +1,21 @@
+package le2.plp.expressions2.compilacao;
+
+/**
+ * Area de armazenamento das variaveis de uma expressao compilada. Cada
+ * variavel declarada recebe, em tempo de compilacao, uma posicao fixa no
+ * vetor correspondente ao seu tipo, de modo que a execucao nao precisa
+ * consultar o ambiente nem converter valores.
+ */
+public class Quadro {
+
+	final int[] inteiros;
+	final boolean[] booleanos;
+	final String[] strings;
+
+	Quadro(int qtdInteiros, int qtdBooleanos, int qtdStrings) {
+		this.inteiros = new int[qtdInteiros];
+		this.booleanos = new boolean[qtdBooleanos];
+		this.strings = new String[qtdStrings];
+	}
+
+}
@@ -12,6 +12,14 @@ public class DecComposta implements Declaracao {
 		this.d1=d1;
 		this.d2=d2;
 	}
+
+	public Declaracao getD1() {
+		return d1;
+	}
+
+	public Declaracao getD2() {
+		return d2;
+	}
 	
 	public void elabora(AmbienteExecucao amb, AmbienteExecucao aux) {
 		d1.elabora(amb, aux);
@@ -19,6 +19,14 @@ public class ExpDeclaracao implements Expressao {
 		this.expressao = expressaoArg;
 	}
 
+	public Declaracao getDeclaracao() {
+		return declaracao;
+	}
+
+	public Expressao getExpressao() {
+		return expressao;
+	}
+
 	public Valor avaliar(AmbienteExecucao ambiente)
 			throws VariavelNaoDeclaradaException, VariavelJaDeclaradaException {
 
@@ -81,7 +89,17 @@ public class ExpDeclaracao implements Expressao {
 	 */
 	public Tipo getTipo(AmbienteCompilacao ambiente)
 			throws VariavelNaoDeclaradaException, VariavelJaDeclaradaException {
-			ambiente.incrementa();
+		Tipo tipo = ambiente.getTipoCalculado(this);
+		if (tipo == null) {
+			tipo = calcularTipo(ambiente);
+			ambiente.mapTipoCalculado(this, tipo);
+		}
+		return tipo;
+	}
+
+	private Tipo calcularTipo(AmbienteCompilacao ambiente)
+			throws VariavelNaoDeclaradaException, VariavelJaDeclaradaException {
+		ambiente.incrementa();
 		Tipo tipo = null;
 		AmbienteCompilacao aux = new ContextoCompilacao();
 		aux.incrementa();
@@ -10,7 +10,7 @@ import le2.plp.expressions2.memory.VariavelNaoDeclaradaException;
 /**
  * Um objeto desta classe representa uma Expressao de tamanho de String.
  */
-public class ExpLength extends ExpUnaria {
+public class ExpLength extends ExpUnaria implements ExpressaoInteira {
  
 	/**
 	 * Controi uma Expressao de tamanho  com a expressao especificada
@@ -35,7 +35,12 @@ public class ExpLength extends ExpUnaria {
 	 */
 	public Valor avaliar(AmbienteExecucao amb) throws VariavelJaDeclaradaException,
 			VariavelNaoDeclaradaException {
-		return new ValorInteiro (((ValorString)getExp().avaliar(amb)).valor().length());
+		return ValorInteiro.cria(((ValorString)getExp().avaliar(amb)).valor().length());
+	}
+
+	public int avaliarInteiro(AmbienteExecucao amb) throws VariavelJaDeclaradaException,
+			VariavelNaoDeclaradaException {
+		return ((ValorString)getExp().avaliar(amb)).valor().length();
 	}
 
 	/**
@@ -10,7 +10,7 @@ import le2.plp.expressions2.memory.VariavelNaoDeclaradaException;
 /**
 * Um objeto desta classe representa uma Expressao de Subtracao.
 */
-public class ExpSub extends ExpBinaria {
+public class ExpSub extends ExpBinaria implements ExpressaoInteira {
 
 	/**
 	 * Controi uma Expressao de Subtracao com as sub-expressoes especificadas.
@@ -28,10 +28,27 @@ public class ExpSub extends ExpBinaria {
 	 * Retorna o valor da Expressao de Subtracao.
 	 */
 	public Valor avaliar(AmbienteExecucao amb) throws VariavelNaoDeclaradaException, VariavelJaDeclaradaException {
-		return new ValorInteiro(
-				((ValorInteiro)getEsq().avaliar(amb)).valor() -
-				((ValorInteiro)getDir().avaliar(amb)).valor()
-		);
+		int valorEsq = esq instanceof ExpressaoInteira ? ((ExpressaoInteira) esq)
+				.avaliarInteiro(amb) : ((ValorInteiro) esq.avaliar(amb))
+				.valorPrimitivo();
+		int valorDir = dir instanceof ExpressaoInteira ? ((ExpressaoInteira) dir)
+				.avaliarInteiro(amb) : ((ValorInteiro) dir.avaliar(amb))
+				.valorPrimitivo();
+		return ValorInteiro.cria(valorEsq - valorDir);
+	}
+
+	/**
+	 * Retorna a subtracao sem criar valores intermediarios para as
+	 * sub-expressoes inteiras.
+	 */
+	public int avaliarInteiro(AmbienteExecucao amb) throws VariavelNaoDeclaradaException, VariavelJaDeclaradaException {
+		int valorEsq = esq instanceof ExpressaoInteira ? ((ExpressaoInteira) esq)
+				.avaliarInteiro(amb) : ((ValorInteiro) esq.avaliar(amb))
+				.valorPrimitivo();
+		int valorDir = dir instanceof ExpressaoInteira ? ((ExpressaoInteira) dir)
+				.avaliarInteiro(amb) : ((ValorInteiro) dir.avaliar(amb))
+				.valorPrimitivo();
+		return valorEsq - valorDir;
 	}
 
 	/**
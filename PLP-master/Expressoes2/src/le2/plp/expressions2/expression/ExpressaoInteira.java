@@ -0,0 +1,18 @@
+package le2.plp.expressions2.expression;
+
+import le2.plp.expressions2.memory.AmbienteExecucao;
+import le2.plp.expressions2.memory.VariavelJaDeclaradaException;
+import le2.plp.expressions2.memory.VariavelNaoDeclaradaException;
+
+/**
+ * Uma expressao cuja avaliacao sempre resulta em um inteiro e que pode ser
+ * avaliada sem criar objetos <code>ValorInteiro</code> intermediarios.
+ */
+public interface ExpressaoInteira extends Expressao {
+
+	/**
+	 * Avalia a expressao retornando o inteiro resultante.
+	 */
+	int avaliarInteiro(AmbienteExecucao amb) throws VariavelNaoDeclaradaException, VariavelJaDeclaradaException;
+
+}
@@ -0,0 +1,143 @@
+package le2.plp.expressions2.util;
+
+import le2.plp.expressions2.declaration.DecComposta;
+import le2.plp.expressions2.declaration.DecVariavel;
+import le2.plp.expressions2.declaration.Declaracao;
+import le2.plp.expressions2.expression.ExpAnd;
+import le2.plp.expressions2.expression.ExpBinaria;
+import le2.plp.expressions2.expression.ExpConcat;
+import le2.plp.expressions2.expression.ExpDeclaracao;
+import le2.plp.expressions2.expression.ExpEquals;
+import le2.plp.expressions2.expression.ExpLength;
+import le2.plp.expressions2.expression.ExpMenos;
+import le2.plp.expressions2.expression.ExpNot;
+import le2.plp.expressions2.expression.ExpOr;
+import le2.plp.expressions2.expression.ExpSoma;
+import le2.plp.expressions2.expression.ExpSub;
+import le2.plp.expressions2.expression.ExpUnaria;
+import le2.plp.expressions2.expression.Expressao;
+import le2.plp.expressions2.expression.ValorConcreto;
+
+/**
+ * Otimizacao aplicada a uma expressao ja verificada quanto a tipos: toda
+ * sub-expressao cujos operandos sao valores e' substituida pelo seu
+ * resultado. Os nos alterados sao reconstruidos; a expressao original nao e'
+ * modificada.
+ */
+public class Otimizador {
+
+	private int nosRemovidos;
+
+	/**
+	 * Retorna a expressao otimizada.
+	 */
+	public Expressao otimizar(Expressao exp) {
+		if (exp instanceof ExpBinaria) {
+			return otimizarBinaria((ExpBinaria) exp);
+		}
+		if (exp instanceof ExpUnaria) {
+			return otimizarUnaria((ExpUnaria) exp);
+		}
+		if (exp instanceof ExpDeclaracao) {
+			ExpDeclaracao expDec = (ExpDeclaracao) exp;
+			Declaracao declaracao = otimizar(expDec.getDeclaracao());
+			Expressao expressao = otimizar(expDec.getExpressao());
+			if (declaracao == expDec.getDeclaracao()
+					&& expressao == expDec.getExpressao()) {
+				return exp;
+			}
+			return new ExpDeclaracao(declaracao, expressao);
+		}
+		return exp;
+	}
+
+	/**
+	 * Retorna a quantidade de nos removidos pelas chamadas a
+	 * <code>otimizar</code> feitas ate agora.
+	 */
+	public int getNosRemovidos() {
+		return nosRemovidos;
+	}
+
+	private Declaracao otimizar(Declaracao declaracao) {
+		if (declaracao instanceof DecComposta) {
+			DecComposta composta = (DecComposta) declaracao;
+			Declaracao d1 = otimizar(composta.getD1());
+			Declaracao d2 = otimizar(composta.getD2());
+			if (d1 == composta.getD1() && d2 == composta.getD2()) {
+				return declaracao;
+			}
+			return new DecComposta(d1, d2);
+		}
+		if (declaracao instanceof DecVariavel) {
+			DecVariavel variavel = (DecVariavel) declaracao;
+			Expressao expressao = otimizar(variavel.getExpressao());
+			if (expressao == variavel.getExpressao()) {
+				return declaracao;
+			}
+			return new DecVariavel(variavel.getId(), expressao);
+		}
+		return declaracao;
+	}
+
+	private Expressao otimizarBinaria(ExpBinaria exp) {
+		int removidos = nosRemovidos;
+		Expressao esq = otimizar(exp.getEsq());
+		Expressao dir = otimizar(exp.getDir());
+		Expressao nova;
+		if (esq == exp.getEsq() && dir == exp.getDir()) {
+			nova = exp;
+		} else if (exp instanceof ExpSoma) {
+			nova = new ExpSoma(esq, dir);
+		} else if (exp instanceof ExpSub) {
+			nova = new ExpSub(esq, dir);
+		} else if (exp instanceof ExpAnd) {
+			nova = new ExpAnd(esq, dir);
+		} else if (exp instanceof ExpOr) {
+			nova = new ExpOr(esq, dir);
+		} else if (exp instanceof ExpEquals) {
+			nova = new ExpEquals(esq, dir);
+		} else if (exp instanceof ExpConcat) {
+			nova = new ExpConcat(esq, dir);
+		} else {
+			// operador desconhecido: descarta o que foi feito nos operandos
+			nosRemovidos = removidos;
+			return exp;
+		}
+		if (esq instanceof ValorConcreto && dir instanceof ValorConcreto) {
+			return avaliar(nova, 2);
+		}
+		return nova;
+	}
+
+	private Expressao otimizarUnaria(ExpUnaria exp) {
+		int removidos = nosRemovidos;
+		Expressao operando = otimizar(exp.getExp());
+		Expressao nova;
+		if (operando == exp.getExp()) {
+			nova = exp;
+		} else if (exp instanceof ExpMenos) {
+			nova = new ExpMenos(operando);
+		} else if (exp instanceof ExpNot) {
+			nova = new ExpNot(operando);
+		} else if (exp instanceof ExpLength) {
+			nova = new ExpLength(operando);
+		} else {
+			nosRemovidos = removidos;
+			return exp;
+		}
+		if (operando instanceof ValorConcreto) {
+			return avaliar(nova, 1);
+		}
+		return nova;
+	}
+
+	/**
+	 * Substitui por seu valor uma expressao cujos operandos sao valores. Os
+	 * valores nao consultam o ambiente, por isso nenhum e' fornecido.
+	 */
+	private Expressao avaliar(Expressao exp, int operandos) {
+		nosRemovidos += operandos;
+		return exp.avaliar(null);
+	}
+}
@@ -0,0 +1,114 @@
+package le2.plp.expressions2.util;
+
+import java.io.ByteArrayInputStream;
+
+import le2.plp.expressions2.Programa;
+import le2.plp.expressions2.parser.Exp2Parser;
+import le2.plp.expressions2.parser.ParseException;
+
+/**
+ * Executa programas da Expressoes2 no interpretador e nos modos de execucao
+ * opcionais, e verifica que cada modo produz o mesmo resultado que o
+ * interpretador.
+ */
+public class TesteModos {
+
+	private static final String[] PROGRAMAS = {
+			"let var x = 4 in let var x = x + 1, var y = x in x + y",
+			"let var a = 3, var b = 4 in let var c = a + b - 1 in "
+					+ "(c + 2 + 3 == 11) and not false",
+			"let var s = \"ab\" ++ \"cd\" in length (s ++ \"e\") + -2 - (1 + 1)",
+			"let var x = 1 + 2 + 3 + 4 + 5 in let var y = x + x, var z = \"q\" "
+					+ "in (y == 30) or (length z == 2)",
+			"let var a = 3, var s = \"ab\" in let var a = 2, var b = a, "
+					+ "var t = s ++ \"cd\" in ((a + b) == 5) and "
+					+ "(length t == 4) and (not (t == \"x\")) or false",
+			"let var x = let var y = 10 in y - 3 in -x + length (\"z\" ++ \"w\")",
+			"let var s = \"a\" in s ++ s ++ \"b\"" };
+
+	/**
+	 * Quantos nos <code>otimizar</code> remove de cada programa.
+	 */
+	private static final int[] NOS_REMOVIDOS = { 0, 1, 5, 8, 0, 3, 0 };
+
+	private static Exp2Parser parser;
+
+	public static void main(String[] args) throws ParseException {
+		for (int i = 0; i < PROGRAMAS.length; i++) {
+			verificarCompilado(PROGRAMAS[i]);
+			verificarOtimizado(PROGRAMAS[i], NOS_REMOVIDOS[i]);
+		}
+
+		System.out.println("TesteModos: ok");
+	}
+
+	/**
+	 * Compara o interpretador com o <code>Compilador</code>. O programa
+	 * compilado e' executado duas vezes, a segunda com a expressao compilada
+	 * guardada pelo programa.
+	 */
+	private static void verificarCompilado(String codigo) throws ParseException {
+		Programa programa = ler(codigo);
+		programa.setCompilado(true);
+		verificar("compilado", codigo, executar(programa));
+		verificar("compilado de novo", codigo, executar(programa));
+	}
+
+	/**
+	 * Compara o interpretador com o programa otimizado, interpretado e
+	 * compilado, e verifica quantos nos a otimizacao removeu.
+	 */
+	private static void verificarOtimizado(String codigo, int removidos)
+			throws ParseException {
+		Programa programa = ler(codigo);
+		int obtidos = programa.otimizar();
+		if (obtidos != removidos) {
+			throw new IllegalStateException("otimizado: " + codigo
+					+ ": esperados " + removidos + " nos removidos, obtidos "
+					+ obtidos);
+		}
+		verificar("otimizado", codigo, executar(programa));
+		programa.setCompilado(true);
+		verificar("otimizado e compilado", codigo, executar(programa));
+	}
+
+	private static void verificar(String modo, String codigo, String obtido)
+			throws ParseException {
+		String esperado = executar(ler(codigo));
+		if (!esperado.equals(obtido)) {
+			throw new IllegalStateException(modo + ": " + codigo
+					+ ": esperado " + esperado + ", obtido " + obtido);
+		}
+		System.out.println(modo + ": " + codigo + " = " + obtido);
+	}
+
+	/**
+	 * Retorna o valor do programa como texto, ou o nome do erro lancado.
+	 */
+	private static String executar(Programa programa) {
+		try {
+			return String.valueOf(programa.executar());
+		} catch (RuntimeException e) {
+			return e.getClass().getSimpleName();
+		}
+	}
+
+	/**
+	 * Le e verifica os tipos de um programa. O parser gerado e' estatico,
+	 * portanto e' criado uma unica vez e reiniciado a cada leitura.
+	 */
+	private static Programa ler(String codigo) throws ParseException {
+		ByteArrayInputStream entrada = new ByteArrayInputStream(codigo
+				.getBytes());
+		if (parser == null) {
+			parser = new Exp2Parser(entrada);
+		} else {
+			Exp2Parser.ReInit(entrada);
+		}
+		Programa programa = Exp2Parser.Input();
+		if (!programa.checaTipo()) {
+			throw new IllegalStateException("tipos invalidos: " + codigo);
+		}
+		return programa;
+	}
+}
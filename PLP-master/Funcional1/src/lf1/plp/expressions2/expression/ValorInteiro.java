@@ -3,17 +3,88 @@ package lf1.plp.expressions2.expression;
 import lf1.plp.expressions1.util.Tipo;
 import lf1.plp.expressions1.util.TipoPrimitivo;
 import lf1.plp.expressions2.memory.AmbienteCompilacao;
+import lf1.plp.expressions2.memory.AmbienteExecucao;
 
 /**
  * Objetos desta classe encapsulam valor inteiro.
  */
-public class ValorInteiro extends ValorConcreto<Integer> {
+public class ValorInteiro extends ValorConcreto<Integer> implements
+		ExpressaoInteira {
+
+	private static final int MENOR_EM_CACHE = -128;
+
+	private static final int MAIOR_EM_CACHE = 1023;
+
+	/**
+	 * Instancias compartilhadas dos valores entre <code>MENOR_EM_CACHE</code>
+	 * e <code>MAIOR_EM_CACHE</code>.
+	 */
+	private static final ValorInteiro[] CACHE = new ValorInteiro[MAIOR_EM_CACHE
+			- MENOR_EM_CACHE + 1];
+
+	static {
+		for (int i = 0; i < CACHE.length; i++) {
+			CACHE[i] = new ValorInteiro(i + MENOR_EM_CACHE);
+		}
+	}
+
+	private final int valor;
 
 	/**
 	 * Cria <code>ValorInteiro</code> contendo o valor fornecido.
 	 */
-	public ValorInteiro(Integer valor) {
-		super(valor);
+	public ValorInteiro(int valor) {
+		this.valor = valor;
+	}
+
+	/**
+	 * Retorna um <code>ValorInteiro</code> contendo o valor fornecido,
+	 * reutilizando a instancia compartilhada quando o valor for pequeno.
+	 */
+	public static ValorInteiro cria(int valor) {
+		if (valor >= MENOR_EM_CACHE && valor <= MAIOR_EM_CACHE) {
+			return CACHE[valor - MENOR_EM_CACHE];
+		}
+		return new ValorInteiro(valor);
+	}
+
+	/**
+	 * Retorna o inteiro encapsulado, sem conversao para <code>Integer</code>.
+	 */
+	public int valorPrimitivo() {
+		return valor;
+	}
+
+	@Override
+	public Integer valor() {
+		return valor;
+	}
+
+	public int avaliarInteiro(AmbienteExecucao amb) {
+		return valor;
+	}
+
+	@Override
+	public boolean isEquals(ValorConcreto<Integer> obj) {
+		if (obj instanceof ValorInteiro) {
+			return valor == ((ValorInteiro) obj).valor;
+		}
+		return super.isEquals(obj);
+	}
+
+	@Override
+	public String toString() {
+		return Integer.toString(valor);
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 + valor;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		return obj instanceof ValorInteiro && ((ValorInteiro) obj).valor == valor;
 	}
 
 	/**
@@ -28,6 +99,6 @@ public class ValorInteiro extends ValorConcreto<Integer> {
 	}
 
 	public ValorInteiro clone(){
-		return new ValorInteiro(this.valor());
+		return new ValorInteiro(this.valor);
 	}
 }
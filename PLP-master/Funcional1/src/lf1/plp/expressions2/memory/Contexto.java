@@ -56,24 +56,13 @@ public class Contexto<T> {
 	 *                tabela.
 	 */
 	public T get(Id idArg) throws VariavelNaoDeclaradaException {
-		try {
-			T result = null;
-			Stack<HashMap<Id, T>> auxStack = new Stack<HashMap<Id, T>>();
-			while (result == null && !pilha.empty()) {
-				HashMap<Id, T> aux = pilha.pop();
-				auxStack.push(aux);
-				result = aux.get(idArg);
-			}
-			while (!auxStack.empty()) {
-				pilha.push(auxStack.pop());
-			}
-			if (result == null)
-				throw new IdentificadorNaoDeclaradoException();
-
-			return result;
-		} catch (IdentificadorNaoDeclaradoException e) {
-			throw new VariavelNaoDeclaradaException(idArg);
+		// percorre os blocos do topo para a base sem desempilha-los
+		for (int i = pilha.size() - 1; i >= 0; i--) {
+			T result = pilha.get(i).get(idArg);
+			if (result != null)
+				return result;
 		}
+		throw new VariavelNaoDeclaradaException(idArg);
 	}
 
 	/**
@@ -1,36 +1,163 @@
 package lf1.plp.functional1;
 
+import java.util.Collections;
+import java.util.List;
+
 import lf1.plp.expressions2.expression.Expressao;
 import lf1.plp.expressions2.expression.Valor;
 import lf1.plp.expressions2.memory.AmbienteCompilacao;
 import lf1.plp.expressions2.memory.ContextoCompilacao;
 import lf1.plp.expressions2.memory.VariavelJaDeclaradaException;
 import lf1.plp.expressions2.memory.VariavelNaoDeclaradaException;
+import lf1.plp.functional1.compilacao.CompiladorJava;
+import lf1.plp.functional1.compilacao.ProgramaCompilado;
 import lf1.plp.functional1.memory.AmbienteExecucaoFuncional;
 import lf1.plp.functional1.memory.ContextoExecucaoFuncional;
+import lf1.plp.functional1.util.AvaliadorIterativo;
+import lf1.plp.functional1.util.CacheAplicacao;
+import lf1.plp.functional1.util.Memoizador;
+import lf1.plp.functional1.util.Otimizador;
 
 public class Programa {
 
 	private Expressao exp;
 
+	/**
+	 * Indica se o programa deve ser traduzido para Java e compilado antes de
+	 * ser executado.
+	 */
+	private boolean compilado;
+
+	private ProgramaCompilado programaCompilado;
+
+	/**
+	 * Indica se o compilador ja recusou o programa, que entao e' interpretado
+	 * sem nova tentativa de compilacao.
+	 */
+	private boolean compilacaoFalhou;
+
+	/**
+	 * Indica se o programa deve ser interpretado pelo
+	 * <code>AvaliadorIterativo</code>, que nao usa a pilha da thread.
+	 */
+	private boolean pilhaExplicita;
+
+	/**
+	 * A quantidade maxima de resultados guardados por funcao memoizada, ou 0
+	 * se a memoizacao esta desligada.
+	 */
+	private int capacidadeMemoizacao;
+
+	private Memoizador memoizador;
+
 	public Programa(Expressao exp) {
 		this.exp = exp;
 	}
 
 	public Valor executar()
 		throws VariavelJaDeclaradaException, VariavelNaoDeclaradaException {
+		if (compilado && programaCompilado == null && !compilacaoFalhou) {
+			programaCompilado = CompiladorJava.compilar(exp);
+			compilacaoFalhou = programaCompilado == null;
+		}
+		if (programaCompilado != null) {
+			return programaCompilado.executar();
+		}
+		// Construcoes nao suportadas pelo compilador sao interpretadas.
+		if (capacidadeMemoizacao > 0 && memoizador == null) {
+			memoizador = new Memoizador(capacidadeMemoizacao);
+			memoizador.memoizar(exp);
+		}
 		AmbienteExecucaoFuncional ambExec = new ContextoExecucaoFuncional();
+		if (pilhaExplicita) {
+			return new AvaliadorIterativo(ambExec).avaliar(exp);
+		}
 		return exp.avaliar(ambExec);
 	} 
 
 	public boolean checaTipo()
 		throws VariavelJaDeclaradaException, VariavelNaoDeclaradaException {
+		compilacaoFalhou = false;
 		AmbienteCompilacao ambComp = new ContextoCompilacao();
 		return exp.checaTipo(ambComp);
 	}
 
+	/**
+	 * Substitui as sub-expressoes constantes do programa pelos seus valores
+	 * e elimina os ramos de condicionais que nunca serao avaliados. Deve ser
+	 * chamado depois de <code>checaTipo</code>.
+	 *
+	 * @return a quantidade de nos removidos da arvore do programa.
+	 */
+	public int otimizar() {
+		Otimizador otimizador = new Otimizador();
+		exp = otimizador.otimizar(exp);
+		programaCompilado = null;
+		memoizador = null;
+		return otimizador.getNosRemovidos();
+	}
+
 	public Expressao getExpressao() {
 		return exp;
 	}
 
+	public boolean isCompilado() {
+		return compilado;
+	}
+
+	/**
+	 * Define se o programa deve ser compilado. O programa deve ter sido
+	 * verificado por <code>checaTipo</code> antes da primeira execucao
+	 * compilada.
+	 */
+	public void setCompilado(boolean compilado) {
+		this.compilado = compilado;
+		compilacaoFalhou = false;
+		if (!compilado) {
+			programaCompilado = null;
+		}
+	}
+
+	public boolean isPilhaExplicita() {
+		return pilhaExplicita;
+	}
+
+	/**
+	 * Define se o programa interpretado deve manter sua pilha de avaliacao no
+	 * heap, permitindo recursoes mais profundas que a pilha da thread.
+	 */
+	public void setPilhaExplicita(boolean pilhaExplicita) {
+		this.pilhaExplicita = pilhaExplicita;
+	}
+
+	public int getCapacidadeMemoizacao() {
+		return capacidadeMemoizacao;
+	}
+
+	/**
+	 * Define quantos resultados o interpretador recursivo guarda para cada
+	 * funcao que so depende dos seus argumentos e chama a si mesma fora de
+	 * posicao de cauda. Com 0 (o padrao) nenhuma funcao e' memoizada. O
+	 * programa deve ter sido verificado por <code>checaTipo</code>.
+	 */
+	public void setCapacidadeMemoizacao(int capacidade) {
+		this.capacidadeMemoizacao = capacidade;
+		if (memoizador != null) {
+			// desliga os caches da execucao anterior
+			new Memoizador(0).memoizar(exp);
+			memoizador = null;
+		}
+	}
+
+	/**
+	 * Retorna os caches das funcoes memoizadas na ultima execucao, com seus
+	 * contadores de acertos e falhas.
+	 */
+	public List<CacheAplicacao> getCachesMemoizacao() {
+		if (memoizador == null) {
+			return Collections.emptyList();
+		}
+		return memoizador.getCaches();
+	}
+
 }
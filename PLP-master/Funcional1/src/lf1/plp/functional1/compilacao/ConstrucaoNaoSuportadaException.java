@@ -0,0 +1,15 @@
+package lf1.plp.functional1.compilacao;
+
+/**
+ * Lancada pelo <code>GeradorJava</code> quando o programa usa uma construcao
+ * que ele nao sabe traduzir; o programa e' entao interpretado.
+ */
+public class ConstrucaoNaoSuportadaException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	public ConstrucaoNaoSuportadaException(Object construcao) {
+		super("Construcao nao suportada pelo compilador: " + construcao);
+	}
+
+}
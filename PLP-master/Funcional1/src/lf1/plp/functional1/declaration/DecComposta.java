@@ -20,6 +20,14 @@ public class DecComposta implements DeclaracaoFuncional {
 		this.d2=d2;
 	}
 
+	public DeclaracaoFuncional getD1() {
+		return d1;
+	}
+
+	public DeclaracaoFuncional getD2() {
+		return d2;
+	}
+
 	@Override
 	public boolean checaTipo(AmbienteCompilacao ambiente)
 			throws VariavelNaoDeclaradaException, VariavelJaDeclaradaException {
@@ -5,10 +5,8 @@ import static java.util.Arrays.asList;
 import static lf1.plp.expressions1.util.ToStringProvider.listToString;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 
 import lf1.plp.expressions1.util.Tipo;
 import lf1.plp.expressions2.expression.Expressao;
@@ -20,6 +18,7 @@ import lf1.plp.expressions2.memory.IdentificadorNaoDeclaradoException;
 import lf1.plp.expressions2.memory.VariavelJaDeclaradaException;
 import lf1.plp.expressions2.memory.VariavelNaoDeclaradaException;
 import lf1.plp.functional1.memory.AmbienteExecucaoFuncional;
+import lf1.plp.functional1.util.CacheAplicacao;
 import lf1.plp.functional1.util.DefFuncao;
 import lf1.plp.functional1.util.TipoFuncao;
 
@@ -28,6 +27,26 @@ public class Aplicacao implements Expressao {
 	private Id func;
 	private List<? extends Expressao> argsExpressao;
 
+	/**
+	 * Indica se esta aplicacao esta em posicao de cauda no corpo de uma
+	 * funcao. Definido durante a verificacao de tipos.
+	 */
+	private boolean chamadaCauda;
+
+	private static final Valor[] SEM_ARGUMENTOS = new Valor[0];
+
+	/**
+	 * Cache da ultima funcao chamada por esta aplicacao, valido enquanto o
+	 * ambiente e a versao das suas funcoes forem os mesmos. Como os blocos
+	 * empilhados a cada chamada nao mudam a versao, as chamadas recursivas
+	 * nao percorrem a pilha de blocos.
+	 */
+	private AmbienteExecucaoFuncional ambienteCache;
+
+	private long versaoCache;
+
+	private DefFuncao funcaoCache;
+
 	public Aplicacao(Id f, Expressao... expressoes) {
 		this(f, asList(expressoes));
 	}
@@ -42,23 +61,88 @@ public class Aplicacao implements Expressao {
 		AmbienteExecucaoFuncional ambienteFuncional = (AmbienteExecucaoFuncional) ambiente;
 
 		DefFuncao funcao;
-		try {
-			funcao = ambienteFuncional.getFuncao(func);
-		} catch (IdentificadorNaoDeclaradoException e) {
-			throw new VariavelJaDeclaradaException(func);
+		long versao = ambienteFuncional.getVersaoFuncoes();
+		if (ambienteFuncional == ambienteCache && versao == versaoCache) {
+			funcao = funcaoCache;
+		} else {
+			try {
+				funcao = ambienteFuncional.getFuncao(func);
+			} catch (IdentificadorNaoDeclaradoException e) {
+				throw new VariavelJaDeclaradaException(func);
+			}
+			ambienteCache = ambienteFuncional;
+			versaoCache = versao;
+			funcaoCache = funcao;
 		}
 
-		Map<Id, Valor> mapIdValor = resolveParametersBindings(ambiente, funcao);
+		Valor[] argumentos = resolveParametersBindings(ambiente, funcao);
+
+		CacheAplicacao cache = funcao.getCache();
+		List<Valor> chave = null;
+		if (cache != null) {
+			chave = asList(argumentos);
+			Valor vresult = cache.get(chave);
+			if (vresult != null) {
+				return vresult;
+			}
+		} else if (chamadaCauda) {
+			return new ChamadaCauda(this, funcao, argumentos);
+		}
 
 		ambiente.incrementa();
 
-		includeValueBindings(ambiente, mapIdValor);
+		includeValueBindings(ambiente, funcao.getListaId(), argumentos);
 
 		Valor vresult = funcao.getExp().avaliar(ambiente);
+		if (vresult instanceof ChamadaCauda) {
+			vresult = continuar(ambiente, funcao, (ChamadaCauda) vresult);
+		}
 		ambiente.restaura();
+
+		if (cache != null) {
+			cache.put(chave, vresult);
+		}
 		return vresult;
 	}
 
+	/**
+	 * Executa as chamadas em posicao de cauda com que termina o corpo de
+	 * <code>funcao</code>, cujo bloco e' o atual, sem crescer a pilha. Se os
+	 * parametros da funcao chamada incluem os da funcao atual, o bloco desta
+	 * e' substituido; caso contrario a funcao chamada ainda poderia ver os
+	 * parametros da atual (o escopo e' dinamico) e a chamada e' feita
+	 * normalmente, num bloco empilhado sobre o atual.
+	 */
+	private static Valor continuar(AmbienteExecucao ambiente,
+			DefFuncao funcao, ChamadaCauda cauda)
+			throws VariavelNaoDeclaradaException, VariavelJaDeclaradaException {
+		while (true) {
+			DefFuncao chamada = cauda.getFuncao();
+			if (!chamada.getListaId().containsAll(funcao.getListaId())) {
+				ambiente.incrementa();
+				includeValueBindings(ambiente, chamada.getListaId(), cauda
+						.getArgumentos());
+				Valor vresult = chamada.getExp().avaliar(ambiente);
+				if (vresult instanceof ChamadaCauda) {
+					vresult = continuar(ambiente, chamada,
+							(ChamadaCauda) vresult);
+				}
+				ambiente.restaura();
+				return vresult;
+			}
+			ambiente.restaura();
+			ambiente.incrementa();
+			funcao = chamada;
+			includeValueBindings(ambiente, funcao.getListaId(), cauda
+					.getArgumentos());
+			Valor vresult = funcao.getExp().avaliar(ambiente);
+			if (!(vresult instanceof ChamadaCauda)) {
+				return vresult;
+			}
+			cauda = (ChamadaCauda) vresult;
+		}
+	}
+
 	/**
 	 * Realiza a verificacao de tipos desta expressao.
 	 * 
@@ -129,31 +213,53 @@ public class Aplicacao implements Expressao {
 		return tipoFuncao.getTipo(ambiente, argsExpressao);
 	}
 
-	private void includeValueBindings(AmbienteExecucao ambiente,
-			Map<Id, Valor> mapIdValor) throws VariavelJaDeclaradaException {
-		for (Map.Entry<Id, Valor> mapeamento : mapIdValor.entrySet()) {
-			Id id = mapeamento.getKey();
-			Valor valor = mapeamento.getValue();
-			ambiente.map(id, valor);
+	/**
+	 * Liga cada parametro ao argumento da mesma posicao, diretamente no
+	 * bloco atual do ambiente.
+	 */
+	private static void includeValueBindings(AmbienteExecucao ambiente,
+			List<Id> parametros, Valor[] argumentos)
+			throws VariavelJaDeclaradaException {
+		switch (argumentos.length) {
+		case 0:
+			break;
+		case 1:
+			ambiente.map(parametros.get(0), argumentos[0]);
+			break;
+		case 2:
+			ambiente.map(parametros.get(0), argumentos[0]);
+			ambiente.map(parametros.get(1), argumentos[1]);
+			break;
+		default:
+			for (int i = 0; i < argumentos.length; i++) {
+				ambiente.map(parametros.get(i), argumentos[i]);
+			}
 		}
 	}
 
-	private Map<Id, Valor> resolveParametersBindings(AmbienteExecucao ambiente,
+	/**
+	 * Avalia os argumentos na ordem dos parametros. As aridades mais comuns
+	 * tem um caminho proprio, sem laco nem iterador.
+	 */
+	private Valor[] resolveParametersBindings(AmbienteExecucao ambiente,
 			DefFuncao funcao) throws VariavelNaoDeclaradaException,
 			VariavelJaDeclaradaException {
-		List<Id> parametrosId = funcao.getListaId();
-		List<? extends Expressao> expressoesValorReal = argsExpressao;
-
-		Map<Id, Valor> mapIdValor = new HashMap<Id, Valor>();
-
-		Iterator<? extends Expressao> iterExpressoesValor = expressoesValorReal
-				.iterator();
-		for (Id id : parametrosId) {
-			Expressao exp = iterExpressoesValor.next();
-			Valor valorReal = exp.avaliar(ambiente);
-			mapIdValor.put(id, valorReal);
+		List<? extends Expressao> args = argsExpressao;
+		switch (funcao.getAridade()) {
+		case 0:
+			return SEM_ARGUMENTOS;
+		case 1:
+			return new Valor[] { args.get(0).avaliar(ambiente) };
+		case 2:
+			return new Valor[] { args.get(0).avaliar(ambiente),
+					args.get(1).avaliar(ambiente) };
+		default:
+			Valor[] argumentos = new Valor[funcao.getAridade()];
+			for (int i = 0; i < argumentos.length; i++) {
+				argumentos[i] = args.get(i).avaliar(ambiente);
+			}
+			return argumentos;
 		}
-		return mapIdValor;
 	}
 
 	/**
@@ -171,6 +277,14 @@ public class Aplicacao implements Expressao {
 		return null;
 	}
 	
+	public boolean isChamadaCauda() {
+		return chamadaCauda;
+	}
+
+	public void setChamadaCauda(boolean chamadaCauda) {
+		this.chamadaCauda = chamadaCauda;
+	}
+
 	public Aplicacao clone() {
 		Aplicacao retorno;
 		ArrayList<Expressao> novaLista = new ArrayList<Expressao>(this.argsExpressao.size());
@@ -182,6 +296,7 @@ public class Aplicacao implements Expressao {
 		}
 		
 		retorno = new Aplicacao(this.func.clone(), novaLista);
+		retorno.setChamadaCauda(chamadaCauda);
 		
 		return retorno;
 	}
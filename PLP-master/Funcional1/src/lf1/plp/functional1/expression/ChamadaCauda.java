@@ -0,0 +1,68 @@
+package lf1.plp.functional1.expression;
+
+import lf1.plp.expressions1.util.Tipo;
+import lf1.plp.expressions2.expression.Expressao;
+import lf1.plp.expressions2.expression.Valor;
+import lf1.plp.expressions2.memory.AmbienteCompilacao;
+import lf1.plp.expressions2.memory.AmbienteExecucao;
+import lf1.plp.expressions2.memory.VariavelJaDeclaradaException;
+import lf1.plp.expressions2.memory.VariavelNaoDeclaradaException;
+import lf1.plp.functional1.util.DefFuncao;
+
+/**
+ * Resultado de uma aplicacao em posicao de cauda. Em vez de avaliar o corpo
+ * da funcao chamada, a aplicacao devolve a chamada pendente, com os
+ * argumentos ja avaliados, para a aplicacao que esta avaliando o corpo
+ * atual; esta a executa no mesmo laco. Nunca escapa de
+ * <code>Aplicacao</code>.
+ */
+class ChamadaCauda implements Valor {
+
+	/**
+	 * A aplicacao que produziu esta chamada, usada na verificacao de tipos.
+	 */
+	private Aplicacao aplicacao;
+
+	private DefFuncao funcao;
+
+	private Valor[] argumentos;
+
+	public ChamadaCauda(Aplicacao aplicacao, DefFuncao funcao, Valor[] argumentos) {
+		this.aplicacao = aplicacao;
+		this.funcao = funcao;
+		this.argumentos = argumentos;
+	}
+
+	public DefFuncao getFuncao() {
+		return funcao;
+	}
+
+	/**
+	 * Retorna os argumentos, na ordem dos parametros da funcao.
+	 */
+	public Valor[] getArgumentos() {
+		return argumentos;
+	}
+
+	public Valor avaliar(AmbienteExecucao amb) {
+		return this;
+	}
+
+	public boolean checaTipo(AmbienteCompilacao amb)
+			throws VariavelNaoDeclaradaException, VariavelJaDeclaradaException {
+		return aplicacao.checaTipo(amb);
+	}
+
+	public Tipo getTipo(AmbienteCompilacao amb)
+			throws VariavelNaoDeclaradaException, VariavelJaDeclaradaException {
+		return aplicacao.getTipo(amb);
+	}
+
+	public Expressao reduzir(AmbienteExecucao ambiente) {
+		return this;
+	}
+
+	public ChamadaCauda clone() {
+		return this;
+	}
+}
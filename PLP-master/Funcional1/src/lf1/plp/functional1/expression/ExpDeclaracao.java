@@ -31,6 +31,10 @@ public class ExpDeclaracao implements Expressao {
 		this.expressao = expressao;
 	}
 
+	public DeclaracaoFuncional getDeclaracao() {
+		return declaracao;
+	}
+
 	/**
 	 * Returns the expressao.
 	 * 
@@ -114,6 +118,16 @@ public class ExpDeclaracao implements Expressao {
 	 */
 	public Tipo getTipo(AmbienteCompilacao ambiente)
 			throws VariavelNaoDeclaradaException, VariavelJaDeclaradaException {
+		Tipo tipo = ambiente.getTipoCalculado(this);
+		if (tipo == null) {
+			tipo = calcularTipo(ambiente);
+			ambiente.mapTipoCalculado(this, tipo);
+		}
+		return tipo;
+	}
+
+	private Tipo calcularTipo(AmbienteCompilacao ambiente)
+			throws VariavelNaoDeclaradaException, VariavelJaDeclaradaException {
 		ambiente.incrementa();
 		AmbienteCompilacao aux = new ContextoCompilacao();
 		aux.incrementa();
@@ -97,6 +97,16 @@ public class IfThenElse implements Expressao {
 	 */
 	public Tipo getTipo(AmbienteCompilacao amb)
 			throws VariavelNaoDeclaradaException, VariavelJaDeclaradaException {
+		Tipo tipo = amb.getTipoCalculado(this);
+		if (tipo == null) {
+			tipo = calcularTipo(amb);
+			amb.mapTipoCalculado(this, tipo);
+		}
+		return tipo;
+	}
+
+	private Tipo calcularTipo(AmbienteCompilacao amb)
+			throws VariavelNaoDeclaradaException, VariavelJaDeclaradaException {
 		return then.getTipo(amb).intersecao(elseExpressao.getTipo(amb));
 	}
 
@@ -7,4 +7,10 @@ import lf1.plp.functional1.util.DefFuncao;
 public interface AmbienteExecucaoFuncional extends AmbienteExecucao,
 		AmbienteFuncional<DefFuncao> {
 
+	/**
+	 * Retorna um numero que so muda quando o resultado de
+	 * <code>getFuncao</code> pode mudar para algum identificador.
+	 */
+	public long getVersaoFuncoes();
+
 }
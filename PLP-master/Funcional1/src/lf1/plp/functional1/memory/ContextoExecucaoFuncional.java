@@ -82,6 +82,10 @@ public class ContextoExecucaoFuncional implements AmbienteExecucaoFuncional {
 		return contextoFuncional.get(idArg);
 	}
 	
+	public long getVersaoFuncoes() {
+		return contextoFuncional.getVersao();
+	}
+
 	public ContextoExecucaoFuncional clone() {
 		return this;
 	}
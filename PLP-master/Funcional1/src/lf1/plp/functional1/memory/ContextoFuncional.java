@@ -7,10 +7,36 @@ import java.util.Stack;
 import lf1.plp.expressions2.expression.Id;
 import lf1.plp.expressions2.memory.Ambiente;
 import lf1.plp.expressions2.memory.Contexto;
+import lf1.plp.expressions2.memory.VariavelJaDeclaradaException;
 import lf1.plp.functional1.util.DefFuncao;
 
 public class ContextoFuncional extends Contexto<DefFuncao> implements Ambiente<DefFuncao> {
 
+	/**
+	 * Muda sempre que um identificador passa a denotar outra funcao: quando
+	 * uma funcao e' mapeada ou quando um bloco com funcoes e' removido. Os
+	 * blocos vazios empilhados a cada chamada nao a alteram.
+	 */
+	private long versao;
+
+	@Override
+	public void map(Id idArg, DefFuncao funcao)
+			throws VariavelJaDeclaradaException {
+		versao++;
+		super.map(idArg, funcao);
+	}
+
+	@Override
+	public void restaura() {
+		if (!pilha.pop().isEmpty()) {
+			versao++;
+		}
+	}
+
+	public long getVersao() {
+		return versao;
+	}
+
 	public ContextoFuncional clone() {
 		ContextoFuncional retorno = new ContextoFuncional();
 		
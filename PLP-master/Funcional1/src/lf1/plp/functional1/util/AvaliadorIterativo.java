@@ -0,0 +1,351 @@
+package lf1.plp.functional1.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+import lf1.plp.expressions2.expression.ExpAnd;
+import lf1.plp.expressions2.expression.ExpBinaria;
+import lf1.plp.expressions2.expression.ExpConcat;
+import lf1.plp.expressions2.expression.ExpEquals;
+import lf1.plp.expressions2.expression.ExpLength;
+import lf1.plp.expressions2.expression.ExpMenos;
+import lf1.plp.expressions2.expression.ExpNot;
+import lf1.plp.expressions2.expression.ExpOr;
+import lf1.plp.expressions2.expression.ExpSoma;
+import lf1.plp.expressions2.expression.ExpSub;
+import lf1.plp.expressions2.expression.ExpUnaria;
+import lf1.plp.expressions2.expression.Expressao;
+import lf1.plp.expressions2.expression.Id;
+import lf1.plp.expressions2.expression.Valor;
+import lf1.plp.expressions2.expression.ValorBooleano;
+import lf1.plp.expressions2.expression.ValorConcreto;
+import lf1.plp.expressions2.expression.ValorInteiro;
+import lf1.plp.expressions2.expression.ValorString;
+import lf1.plp.expressions2.memory.VariavelJaDeclaradaException;
+import lf1.plp.expressions2.memory.VariavelNaoDeclaradaException;
+import lf1.plp.functional1.declaration.DecComposta;
+import lf1.plp.functional1.declaration.DecVariavel;
+import lf1.plp.functional1.declaration.DeclaracaoFuncional;
+import lf1.plp.functional1.expression.Aplicacao;
+import lf1.plp.functional1.expression.ExpDeclaracao;
+import lf1.plp.functional1.expression.IfThenElse;
+import lf1.plp.functional1.memory.AmbienteExecucaoFuncional;
+import lf1.plp.functional1.memory.ContextoExecucaoFuncional;
+
+/**
+ * Avalia uma expressao sem recursao em Java: os passos pendentes ficam numa
+ * pilha de controle e os resultados intermediarios numa pilha de valores,
+ * ambas no heap. A profundidade de recursao dos programas fica limitada pela
+ * memoria disponivel, e nao pelo tamanho da pilha da thread.
+ *
+ * A ordem de avaliacao e as operacoes sobre o ambiente sao as mesmas de
+ * <code>Expressao.avaliar</code>, portanto os resultados sao identicos aos
+ * do interpretador recursivo. Nos desconhecidos sao avaliados
+ * recursivamente.
+ */
+public class AvaliadorIterativo {
+
+	/**
+	 * Pilha de controle. Uma <code>Expressao</code> indica que ela deve ser
+	 * avaliada; um <code>Passo</code> indica o que fazer com os valores ja
+	 * calculados.
+	 */
+	private Deque<Object> controle = new ArrayDeque<Object>();
+
+	private Deque<Valor> valores = new ArrayDeque<Valor>();
+
+	private AmbienteExecucaoFuncional ambiente;
+
+	public AvaliadorIterativo(AmbienteExecucaoFuncional ambiente) {
+		this.ambiente = ambiente;
+	}
+
+	/**
+	 * Retorna o valor da expressao dada no ambiente deste avaliador.
+	 */
+	public Valor avaliar(Expressao exp) throws VariavelNaoDeclaradaException,
+			VariavelJaDeclaradaException {
+		controle.push(exp);
+		while (!controle.isEmpty()) {
+			Object topo = controle.pop();
+			if (topo instanceof Expressao) {
+				avaliarPasso((Expressao) topo);
+			} else {
+				executar((Passo) topo);
+			}
+		}
+		return valores.pop();
+	}
+
+	private void avaliarPasso(Expressao exp)
+			throws VariavelNaoDeclaradaException, VariavelJaDeclaradaException {
+		if (exp instanceof ValorConcreto) {
+			valores.push((Valor) exp);
+		} else if (exp instanceof Id) {
+			valores.push(ambiente.get((Id) exp));
+		} else if (exp instanceof ExpAnd || exp instanceof ExpOr) {
+			// o operando direito so e' avaliado se necessario
+			controle.push(new Passo(Passo.LOGICA, exp));
+			controle.push(((ExpBinaria) exp).getEsq());
+		} else if (exp instanceof ExpSoma || exp instanceof ExpSub
+				|| exp instanceof ExpEquals || exp instanceof ExpConcat) {
+			ExpBinaria binaria = (ExpBinaria) exp;
+			controle.push(new Passo(Passo.BINARIA, exp));
+			controle.push(binaria.getDir());
+			controle.push(binaria.getEsq());
+		} else if (exp instanceof ExpMenos || exp instanceof ExpNot
+				|| exp instanceof ExpLength) {
+			controle.push(new Passo(Passo.UNARIA, exp));
+			controle.push(((ExpUnaria) exp).getExp());
+		} else if (exp instanceof IfThenElse) {
+			controle.push(new Passo(Passo.ESCOLHA, exp));
+			controle.push(((IfThenElse) exp).getCondicao());
+		} else if (exp instanceof Aplicacao) {
+			avaliarAplicacao((Aplicacao) exp);
+		} else if (exp instanceof ExpDeclaracao) {
+			avaliarDeclaracao((ExpDeclaracao) exp);
+		} else {
+			valores.push(exp.avaliar(ambiente));
+		}
+	}
+
+	/**
+	 * Os argumentos sao avaliados da esquerda para a direita no ambiente de
+	 * quem chama; o corpo so e' empilhado quando todos estiverem prontos.
+	 */
+	private void avaliarAplicacao(Aplicacao aplicacao)
+			throws VariavelNaoDeclaradaException {
+		DefFuncao funcao = ambiente.getFuncao(aplicacao.getFunc());
+		Passo chamada = new Passo(Passo.CHAMADA, aplicacao);
+		chamada.funcao = funcao;
+		controle.push(chamada);
+
+		List<? extends Expressao> argumentos = aplicacao.getArgsExpressao();
+		for (int i = funcao.getAridade() - 1; i >= 0; i--) {
+			controle.push(argumentos.get(i));
+		}
+	}
+
+	/**
+	 * As declaracoes sao elaboradas num ambiente auxiliar, como em
+	 * <code>ExpDeclaracao.avaliar</code>, e so depois incluidas no ambiente.
+	 */
+	private void avaliarDeclaracao(ExpDeclaracao expDec)
+			throws VariavelJaDeclaradaException {
+		ambiente.incrementa();
+		AmbienteExecucaoFuncional aux = new ContextoExecucaoFuncional();
+		aux.incrementa();
+
+		controle.push(new Passo(Passo.RESTAURA, expDec));
+		controle.push(expDec.getExpressao());
+		Passo inclusao = new Passo(Passo.INCLUSAO, expDec);
+		inclusao.auxiliar = aux;
+		controle.push(inclusao);
+
+		Deque<DeclaracaoFuncional> pendentes = new ArrayDeque<DeclaracaoFuncional>();
+		pendentes.push(expDec.getDeclaracao());
+		List<Object> elaboracao = new ArrayList<Object>();
+		while (!pendentes.isEmpty()) {
+			DeclaracaoFuncional declaracao = pendentes.pop();
+			if (declaracao instanceof DecComposta) {
+				DecComposta composta = (DecComposta) declaracao;
+				pendentes.push(composta.getD2());
+				pendentes.push(composta.getD1());
+			} else {
+				if (declaracao instanceof DecVariavel) {
+					elaboracao.add(((DecVariavel) declaracao).getExpressao());
+				}
+				Passo passo = new Passo(Passo.ELABORACAO, declaracao);
+				passo.auxiliar = aux;
+				elaboracao.add(passo);
+			}
+		}
+		for (int i = elaboracao.size() - 1; i >= 0; i--) {
+			controle.push(elaboracao.get(i));
+		}
+	}
+
+	private void executar(Passo passo) throws VariavelNaoDeclaradaException,
+			VariavelJaDeclaradaException {
+		switch (passo.operacao) {
+		case Passo.BINARIA: {
+			Valor dir = valores.pop();
+			Valor esq = valores.pop();
+			valores.push(aplicarBinaria((ExpBinaria) passo.alvo, esq, dir));
+			break;
+		}
+		case Passo.LOGICA: {
+			boolean esq = ((ValorBooleano) valores.pop()).valor();
+			ExpBinaria exp = (ExpBinaria) passo.alvo;
+			if (esq == (exp instanceof ExpOr)) {
+				valores.push(new ValorBooleano(esq));
+			} else {
+				// o resultado e' o do operando direito
+				controle.push(exp.getDir());
+			}
+			break;
+		}
+		case Passo.UNARIA:
+			valores.push(aplicarUnaria((ExpUnaria) passo.alvo, valores.pop()));
+			break;
+		case Passo.ESCOLHA: {
+			IfThenElse se = (IfThenElse) passo.alvo;
+			if (((ValorBooleano) valores.pop()).valor()) {
+				controle.push(se.getThen());
+			} else {
+				controle.push(se.getElseExpressao());
+			}
+			break;
+		}
+		case Passo.CHAMADA:
+			chamar(passo);
+			break;
+		case Passo.ELABORACAO: {
+			DeclaracaoFuncional declaracao = (DeclaracaoFuncional) passo.alvo;
+			if (declaracao instanceof DecVariavel) {
+				passo.auxiliar.map(((DecVariavel) declaracao).getId(),
+						valores.pop());
+			} else {
+				declaracao.elabora(ambiente, passo.auxiliar);
+			}
+			break;
+		}
+		case Passo.INCLUSAO:
+			((ExpDeclaracao) passo.alvo).getDeclaracao().incluir(ambiente,
+					passo.auxiliar);
+			passo.auxiliar.restaura();
+			break;
+		case Passo.RESTAURA:
+			ambiente.restaura();
+			break;
+		case Passo.MEMORIZA:
+			passo.funcao.getCache().put(passo.chave, valores.peek());
+			break;
+		default:
+			throw new IllegalStateException();
+		}
+	}
+
+	/**
+	 * Liga os argumentos ja avaliados aos parametros e empilha o corpo,
+	 * seguido da restauracao do ambiente. Uma chamada em posicao de cauda
+	 * encontra no topo a restauracao da funcao atual; se os parametros da
+	 * funcao chamada incluem os da atual, o bloco desta e' substituido e a
+	 * restauracao e' reaproveitada, mantendo as pilhas constantes.
+	 *
+	 * Uma funcao memoizada consulta o seu cache, como em
+	 * <code>Aplicacao.avaliar</code>; se o resultado nao esta no cache, ele
+	 * e' guardado depois da restauracao, e a chamada nunca substitui o bloco
+	 * de quem chama.
+	 */
+	private void chamar(Passo chamada) throws VariavelJaDeclaradaException {
+		DefFuncao funcao = chamada.funcao;
+		List<Id> parametros = funcao.getListaId();
+		Valor[] argumentos = new Valor[parametros.size()];
+		for (int i = argumentos.length - 1; i >= 0; i--) {
+			argumentos[i] = valores.pop();
+		}
+		CacheAplicacao cache = funcao.getCache();
+		if (cache != null) {
+			List<Valor> chave = Arrays.asList(argumentos);
+			Valor resultado = cache.get(chave);
+			if (resultado != null) {
+				valores.push(resultado);
+				return;
+			}
+			Passo memorizacao = new Passo(Passo.MEMORIZA, chamada.alvo);
+			memorizacao.funcao = funcao;
+			memorizacao.chave = chave;
+			controle.push(memorizacao);
+		}
+		Object topo = controle.peek();
+		if (((Aplicacao) chamada.alvo).isChamadaCauda()
+				&& topo instanceof Passo
+				&& ((Passo) topo).operacao == Passo.RESTAURA
+				&& ((Passo) topo).funcao != null
+				&& parametros.containsAll(((Passo) topo).funcao.getListaId())) {
+			ambiente.restaura();
+			((Passo) topo).funcao = funcao;
+		} else {
+			Passo restauracao = new Passo(Passo.RESTAURA, chamada.alvo);
+			restauracao.funcao = funcao;
+			controle.push(restauracao);
+		}
+
+		ambiente.incrementa();
+		for (int i = 0; i < argumentos.length; i++) {
+			ambiente.map(parametros.get(i), argumentos[i]);
+		}
+		controle.push(funcao.getExp());
+	}
+
+	private Valor aplicarBinaria(ExpBinaria exp, Valor esq, Valor dir) {
+		if (exp instanceof ExpSoma) {
+			return ValorInteiro.cria(((ValorInteiro) esq).valorPrimitivo()
+					+ ((ValorInteiro) dir).valorPrimitivo());
+		}
+		if (exp instanceof ExpSub) {
+			return ValorInteiro.cria(((ValorInteiro) esq).valorPrimitivo()
+					- ((ValorInteiro) dir).valorPrimitivo());
+		}
+		if (exp instanceof ExpEquals) {
+			return new ValorBooleano(iguais(esq, dir));
+		}
+		return new ValorString(((ValorString) esq).valor()
+				+ ((ValorString) dir).valor());
+	}
+
+	/**
+	 * Compara dois valores concretos, como <code>ExpEquals.avaliar</code>.
+	 */
+	@SuppressWarnings("unchecked")
+	private static boolean iguais(Valor esq, Valor dir) {
+		ValorConcreto<Object> concreto = (ValorConcreto<Object>) esq;
+		return concreto.isEquals((ValorConcreto<Object>) dir);
+	}
+
+	private Valor aplicarUnaria(ExpUnaria exp, Valor operando) {
+		if (exp instanceof ExpMenos) {
+			return ValorInteiro.cria(-((ValorInteiro) operando)
+					.valorPrimitivo());
+		}
+		if (exp instanceof ExpNot) {
+			return new ValorBooleano(!((ValorBooleano) operando).valor());
+		}
+		return ValorInteiro.cria(((ValorString) operando).valor().length());
+	}
+
+	/**
+	 * Passo pendente na pilha de controle.
+	 */
+	private static class Passo {
+
+		static final int BINARIA = 0;
+		static final int LOGICA = 1;
+		static final int UNARIA = 2;
+		static final int ESCOLHA = 3;
+		static final int CHAMADA = 4;
+		static final int ELABORACAO = 5;
+		static final int INCLUSAO = 6;
+		static final int RESTAURA = 7;
+		static final int MEMORIZA = 8;
+
+		final int operacao;
+
+		final Object alvo;
+
+		DefFuncao funcao;
+
+		AmbienteExecucaoFuncional auxiliar;
+
+		List<Valor> chave;
+
+		Passo(int operacao, Object alvo) {
+			this.operacao = operacao;
+			this.alvo = alvo;
+		}
+	}
+}
@@ -9,6 +9,8 @@ import lf1.plp.expressions2.expression.Id;
 import lf1.plp.expressions2.memory.AmbienteCompilacao;
 import lf1.plp.expressions2.memory.VariavelJaDeclaradaException;
 import lf1.plp.expressions2.memory.VariavelNaoDeclaradaException;
+import lf1.plp.functional1.expression.Aplicacao;
+import lf1.plp.functional1.expression.IfThenElse;
 
 public class DefFuncao {
 
@@ -16,6 +18,12 @@ public class DefFuncao {
 
 	protected Expressao exp;
 
+	/**
+	 * Os resultados ja calculados desta funcao, ou <code>null</code> se ela
+	 * nao e' memoizada.
+	 */
+	private CacheAplicacao cache;
+
 	public DefFuncao(List<Id> argsId, Expressao exp) {
 		this.argsId = argsId;
 		this.exp = exp;
@@ -29,6 +37,14 @@ public class DefFuncao {
 		return exp;
 	}
 
+	public CacheAplicacao getCache() {
+		return cache;
+	}
+
+	public void setCache(CacheAplicacao cache) {
+		this.cache = cache;
+	}
+
 	/**
 	 * Retorna a aridade desta funcao.
 	 * 
@@ -64,12 +80,32 @@ public class DefFuncao {
 		// Chama o checa tipo da express�o para veririficar se o corpo da
 		// fun��o est� correto. Isto ir� inferir o tipo dos par�metros.
 		boolean result = exp.checaTipo(ambiente);
+		if (result) {
+			marcarChamadasCauda(exp);
+		}
 
 		ambiente.restaura();
 
 		return result;
 	}
 
+	/**
+	 * Marca as aplicacoes em posicao de cauda: o proprio corpo e os ramos de
+	 * um <code>if</code> que esteja em posicao de cauda. O valor dessas
+	 * aplicacoes e' o resultado da funcao, portanto elas podem ser executadas
+	 * sem empilhar um novo bloco.
+	 */
+	private static void marcarChamadasCauda(Expressao exp) {
+		while (exp instanceof IfThenElse) {
+			IfThenElse se = (IfThenElse) exp;
+			marcarChamadasCauda(se.getThen());
+			exp = se.getElseExpressao();
+		}
+		if (exp instanceof Aplicacao) {
+			((Aplicacao) exp).setChamadaCauda(true);
+		}
+	}
+
 	/**
 	 * Retorna os tipos possiveis desta fun��o.
 	 * 
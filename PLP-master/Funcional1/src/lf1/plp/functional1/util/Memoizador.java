@@ -0,0 +1,170 @@
+package lf1.plp.functional1.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lf1.plp.expressions2.expression.ExpBinaria;
+import lf1.plp.expressions2.expression.ExpUnaria;
+import lf1.plp.expressions2.expression.Expressao;
+import lf1.plp.expressions2.expression.Id;
+import lf1.plp.expressions2.expression.ValorConcreto;
+import lf1.plp.functional1.declaration.DecComposta;
+import lf1.plp.functional1.declaration.DecFuncao;
+import lf1.plp.functional1.declaration.DecVariavel;
+import lf1.plp.functional1.declaration.DeclaracaoFuncional;
+import lf1.plp.functional1.expression.Aplicacao;
+import lf1.plp.functional1.expression.ExpDeclaracao;
+import lf1.plp.functional1.expression.IfThenElse;
+
+/**
+ * Liga um <code>CacheAplicacao</code> a cada funcao cujo resultado depende
+ * apenas dos argumentos e que chama a si mesma fora de posicao de cauda, como
+ * a definicao ingenua de fibonacci. O corpo de uma funcao assim usa apenas os
+ * parametros, constantes, operadores, condicionais e chamadas a propria
+ * funcao; como o escopo e' dinamico, qualquer outro identificador poderia ter
+ * valores diferentes a cada chamada. As chamadas em posicao de cauda sao
+ * marcadas por <code>checaTipo</code>, que deve ser chamado antes.
+ */
+public class Memoizador {
+
+	private int capacidade;
+
+	private List<CacheAplicacao> caches = new ArrayList<CacheAplicacao>();
+
+	/**
+	 * @param capacidade
+	 *            a quantidade maxima de resultados guardados por funcao; com
+	 *            0, os caches ligados antes sao desligados.
+	 */
+	public Memoizador(int capacidade) {
+		this.capacidade = capacidade;
+	}
+
+	/**
+	 * Liga um novo cache a cada funcao elegivel declarada em <code>exp</code>
+	 * e desliga o das demais.
+	 */
+	public void memoizar(Expressao exp) {
+		if (exp instanceof ExpBinaria) {
+			ExpBinaria binaria = (ExpBinaria) exp;
+			memoizar(binaria.getEsq());
+			memoizar(binaria.getDir());
+		} else if (exp instanceof ExpUnaria) {
+			memoizar(((ExpUnaria) exp).getExp());
+		} else if (exp instanceof IfThenElse) {
+			IfThenElse se = (IfThenElse) exp;
+			memoizar(se.getCondicao());
+			memoizar(se.getThen());
+			memoizar(se.getElseExpressao());
+		} else if (exp instanceof Aplicacao) {
+			for (Expressao argumento : ((Aplicacao) exp).getArgsExpressao()) {
+				memoizar(argumento);
+			}
+		} else if (exp instanceof ExpDeclaracao) {
+			ExpDeclaracao expDec = (ExpDeclaracao) exp;
+			memoizar(expDec.getDeclaracao());
+			memoizar(expDec.getExpressao());
+		}
+	}
+
+	/**
+	 * Retorna os caches ligados pelas chamadas a <code>memoizar</code> feitas
+	 * ate agora.
+	 */
+	public List<CacheAplicacao> getCaches() {
+		return caches;
+	}
+
+	private void memoizar(DeclaracaoFuncional declaracao) {
+		if (declaracao instanceof DecComposta) {
+			DecComposta composta = (DecComposta) declaracao;
+			memoizar(composta.getD1());
+			memoizar(composta.getD2());
+		} else if (declaracao instanceof DecVariavel) {
+			memoizar(((DecVariavel) declaracao).getExpressao());
+		} else if (declaracao instanceof DecFuncao) {
+			DecFuncao funcao = (DecFuncao) declaracao;
+			Expressao corpo = funcao.getExpressao();
+			memoizar(corpo);
+			CacheAplicacao cache = null;
+			if (capacidade > 0
+					&& elegivel(funcao.getId(), funcao.getListaId(), corpo)
+					&& chamaForaDaCauda(funcao.getId(), corpo)) {
+				cache = new CacheAplicacao(funcao.getId(), capacidade);
+				caches.add(cache);
+			}
+			funcao.getFuncao().setCache(cache);
+		}
+	}
+
+	private static boolean elegivel(Id funcao, List<Id> parametros,
+			Expressao exp) {
+		if (exp instanceof ValorConcreto) {
+			return true;
+		}
+		if (exp instanceof Id) {
+			return parametros.contains(exp);
+		}
+		if (exp instanceof ExpBinaria) {
+			ExpBinaria binaria = (ExpBinaria) exp;
+			return elegivel(funcao, parametros, binaria.getEsq())
+					&& elegivel(funcao, parametros, binaria.getDir());
+		}
+		if (exp instanceof ExpUnaria) {
+			return elegivel(funcao, parametros, ((ExpUnaria) exp).getExp());
+		}
+		if (exp instanceof IfThenElse) {
+			IfThenElse se = (IfThenElse) exp;
+			return elegivel(funcao, parametros, se.getCondicao())
+					&& elegivel(funcao, parametros, se.getThen())
+					&& elegivel(funcao, parametros, se.getElseExpressao());
+		}
+		if (exp instanceof Aplicacao) {
+			Aplicacao aplicacao = (Aplicacao) exp;
+			if (!funcao.equals(aplicacao.getFunc())) {
+				return false;
+			}
+			for (Expressao argumento : aplicacao.getArgsExpressao()) {
+				if (!elegivel(funcao, parametros, argumento)) {
+					return false;
+				}
+			}
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Indica se <code>exp</code> contem uma chamada a <code>funcao</code>
+	 * fora de posicao de cauda. Chamadas em posicao de cauda ja sao
+	 * executadas sem crescer a pilha e nao se beneficiam do cache.
+	 */
+	private static boolean chamaForaDaCauda(Id funcao, Expressao exp) {
+		if (exp instanceof ExpBinaria) {
+			ExpBinaria binaria = (ExpBinaria) exp;
+			return chamaForaDaCauda(funcao, binaria.getEsq())
+					|| chamaForaDaCauda(funcao, binaria.getDir());
+		}
+		if (exp instanceof ExpUnaria) {
+			return chamaForaDaCauda(funcao, ((ExpUnaria) exp).getExp());
+		}
+		if (exp instanceof IfThenElse) {
+			IfThenElse se = (IfThenElse) exp;
+			return chamaForaDaCauda(funcao, se.getCondicao())
+					|| chamaForaDaCauda(funcao, se.getThen())
+					|| chamaForaDaCauda(funcao, se.getElseExpressao());
+		}
+		if (exp instanceof Aplicacao) {
+			Aplicacao aplicacao = (Aplicacao) exp;
+			if (!aplicacao.isChamadaCauda()) {
+				return true;
+			}
+			for (Expressao argumento : aplicacao.getArgsExpressao()) {
+				if (chamaForaDaCauda(funcao, argumento)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+}
@@ -0,0 +1,243 @@
+package lf1.plp.functional1.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lf1.plp.expressions2.expression.ExpAnd;
+import lf1.plp.expressions2.expression.ExpBinaria;
+import lf1.plp.expressions2.expression.ExpConcat;
+import lf1.plp.expressions2.expression.ExpEquals;
+import lf1.plp.expressions2.expression.ExpLength;
+import lf1.plp.expressions2.expression.ExpMenos;
+import lf1.plp.expressions2.expression.ExpNot;
+import lf1.plp.expressions2.expression.ExpOr;
+import lf1.plp.expressions2.expression.ExpSoma;
+import lf1.plp.expressions2.expression.ExpSub;
+import lf1.plp.expressions2.expression.ExpUnaria;
+import lf1.plp.expressions2.expression.Expressao;
+import lf1.plp.expressions2.expression.ValorBooleano;
+import lf1.plp.expressions2.expression.ValorConcreto;
+import lf1.plp.functional1.declaration.DecComposta;
+import lf1.plp.functional1.declaration.DecFuncao;
+import lf1.plp.functional1.declaration.DecVariavel;
+import lf1.plp.functional1.declaration.DeclaracaoFuncional;
+import lf1.plp.functional1.expression.Aplicacao;
+import lf1.plp.functional1.expression.ExpDeclaracao;
+import lf1.plp.functional1.expression.IfThenElse;
+
+/**
+ * Otimizacao aplicada a uma expressao ja verificada quanto a tipos: toda
+ * sub-expressao cujos operandos sao valores e' substituida pelo seu
+ * resultado, e todo <code>if</code> cuja condicao e' um valor e' substituido
+ * pelo ramo escolhido. Os nos alterados sao reconstruidos; a expressao
+ * original nao e' modificada.
+ */
+public class Otimizador {
+
+	private int nosRemovidos;
+
+	/**
+	 * Retorna a expressao otimizada.
+	 */
+	public Expressao otimizar(Expressao exp) {
+		if (exp instanceof ExpBinaria) {
+			return otimizarBinaria((ExpBinaria) exp);
+		}
+		if (exp instanceof ExpUnaria) {
+			return otimizarUnaria((ExpUnaria) exp);
+		}
+		if (exp instanceof IfThenElse) {
+			return otimizarIfThenElse((IfThenElse) exp);
+		}
+		if (exp instanceof Aplicacao) {
+			Aplicacao aplicacao = (Aplicacao) exp;
+			List<Expressao> argumentos = new ArrayList<Expressao>();
+			boolean alterou = false;
+			for (Expressao argumento : aplicacao.getArgsExpressao()) {
+				Expressao novo = otimizar(argumento);
+				alterou |= novo != argumento;
+				argumentos.add(novo);
+			}
+			if (!alterou) {
+				return exp;
+			}
+			Aplicacao nova = new Aplicacao(aplicacao.getFunc(), argumentos);
+			nova.setChamadaCauda(aplicacao.isChamadaCauda());
+			return nova;
+		}
+		if (exp instanceof ExpDeclaracao) {
+			ExpDeclaracao expDec = (ExpDeclaracao) exp;
+			DeclaracaoFuncional declaracao = otimizar(expDec.getDeclaracao());
+			Expressao expressao = otimizar(expDec.getExpressao());
+			if (declaracao == expDec.getDeclaracao()
+					&& expressao == expDec.getExpressao()) {
+				return exp;
+			}
+			return new ExpDeclaracao(declaracao, expressao);
+		}
+		return exp;
+	}
+
+	/**
+	 * Retorna a quantidade de nos removidos pelas chamadas a
+	 * <code>otimizar</code> feitas ate agora.
+	 */
+	public int getNosRemovidos() {
+		return nosRemovidos;
+	}
+
+	private DeclaracaoFuncional otimizar(DeclaracaoFuncional declaracao) {
+		if (declaracao instanceof DecComposta) {
+			DecComposta composta = (DecComposta) declaracao;
+			DeclaracaoFuncional d1 = otimizar(composta.getD1());
+			DeclaracaoFuncional d2 = otimizar(composta.getD2());
+			if (d1 == composta.getD1() && d2 == composta.getD2()) {
+				return declaracao;
+			}
+			return new DecComposta(d1, d2);
+		}
+		if (declaracao instanceof DecVariavel) {
+			DecVariavel variavel = (DecVariavel) declaracao;
+			Expressao expressao = otimizar(variavel.getExpressao());
+			if (expressao == variavel.getExpressao()) {
+				return declaracao;
+			}
+			return new DecVariavel(variavel.getId(), expressao);
+		}
+		if (declaracao instanceof DecFuncao) {
+			DecFuncao funcao = (DecFuncao) declaracao;
+			Expressao expressao = otimizar(funcao.getExpressao());
+			if (expressao == funcao.getExpressao()) {
+				return declaracao;
+			}
+			return new DecFuncao(funcao.getId(), funcao.getListaId(),
+					expressao);
+		}
+		return declaracao;
+	}
+
+	private Expressao otimizarBinaria(ExpBinaria exp) {
+		int removidos = nosRemovidos;
+		Expressao esq = otimizar(exp.getEsq());
+		Expressao dir = otimizar(exp.getDir());
+		Expressao nova;
+		if (esq == exp.getEsq() && dir == exp.getDir()) {
+			nova = exp;
+		} else if (exp instanceof ExpSoma) {
+			nova = new ExpSoma(esq, dir);
+		} else if (exp instanceof ExpSub) {
+			nova = new ExpSub(esq, dir);
+		} else if (exp instanceof ExpAnd) {
+			nova = new ExpAnd(esq, dir);
+		} else if (exp instanceof ExpOr) {
+			nova = new ExpOr(esq, dir);
+		} else if (exp instanceof ExpEquals) {
+			nova = new ExpEquals(esq, dir);
+		} else if (exp instanceof ExpConcat) {
+			nova = new ExpConcat(esq, dir);
+		} else {
+			// operador desconhecido: descarta o que foi feito nos operandos
+			nosRemovidos = removidos;
+			return exp;
+		}
+		if (esq instanceof ValorConcreto && dir instanceof ValorConcreto) {
+			return avaliar(nova, 2);
+		}
+		return nova;
+	}
+
+	private Expressao otimizarUnaria(ExpUnaria exp) {
+		int removidos = nosRemovidos;
+		Expressao operando = otimizar(exp.getExp());
+		Expressao nova;
+		if (operando == exp.getExp()) {
+			nova = exp;
+		} else if (exp instanceof ExpMenos) {
+			nova = new ExpMenos(operando);
+		} else if (exp instanceof ExpNot) {
+			nova = new ExpNot(operando);
+		} else if (exp instanceof ExpLength) {
+			nova = new ExpLength(operando);
+		} else {
+			nosRemovidos = removidos;
+			return exp;
+		}
+		if (operando instanceof ValorConcreto) {
+			return avaliar(nova, 1);
+		}
+		return nova;
+	}
+
+	/**
+	 * Como o interpretador so avalia o ramo escolhido, o ramo descartado
+	 * pode ser removido mesmo que nao termine.
+	 */
+	private Expressao otimizarIfThenElse(IfThenElse exp) {
+		Expressao condicao = otimizar(exp.getCondicao());
+		if (condicao instanceof ValorBooleano) {
+			boolean valor = ((ValorBooleano) condicao).valor();
+			Expressao descartado = valor ? exp.getElseExpressao() : exp
+					.getThen();
+			nosRemovidos += 2 + contar(descartado);
+			return otimizar(valor ? exp.getThen() : exp.getElseExpressao());
+		}
+		Expressao then = otimizar(exp.getThen());
+		Expressao senao = otimizar(exp.getElseExpressao());
+		if (condicao == exp.getCondicao() && then == exp.getThen()
+				&& senao == exp.getElseExpressao()) {
+			return exp;
+		}
+		return new IfThenElse(condicao, then, senao);
+	}
+
+	/**
+	 * Substitui por seu valor uma expressao cujos operandos sao valores. Os
+	 * valores nao consultam o ambiente, por isso nenhum e' fornecido.
+	 */
+	private Expressao avaliar(Expressao exp, int operandos) {
+		nosRemovidos += operandos;
+		return exp.avaliar(null);
+	}
+
+	private static int contar(Expressao exp) {
+		if (exp instanceof ExpBinaria) {
+			ExpBinaria binaria = (ExpBinaria) exp;
+			return 1 + contar(binaria.getEsq()) + contar(binaria.getDir());
+		}
+		if (exp instanceof ExpUnaria) {
+			return 1 + contar(((ExpUnaria) exp).getExp());
+		}
+		if (exp instanceof IfThenElse) {
+			IfThenElse se = (IfThenElse) exp;
+			return 1 + contar(se.getCondicao()) + contar(se.getThen())
+					+ contar(se.getElseExpressao());
+		}
+		if (exp instanceof Aplicacao) {
+			int total = 1;
+			for (Expressao argumento : ((Aplicacao) exp).getArgsExpressao()) {
+				total += contar(argumento);
+			}
+			return total;
+		}
+		if (exp instanceof ExpDeclaracao) {
+			ExpDeclaracao expDec = (ExpDeclaracao) exp;
+			return 1 + contar(expDec.getDeclaracao())
+					+ contar(expDec.getExpressao());
+		}
+		return 1;
+	}
+
+	private static int contar(DeclaracaoFuncional declaracao) {
+		if (declaracao instanceof DecComposta) {
+			DecComposta composta = (DecComposta) declaracao;
+			return contar(composta.getD1()) + contar(composta.getD2());
+		}
+		if (declaracao instanceof DecVariavel) {
+			return contar(((DecVariavel) declaracao).getExpressao());
+		}
+		if (declaracao instanceof DecFuncao) {
+			return contar(((DecFuncao) declaracao).getExpressao());
+		}
+		return 0;
+	}
+}
@@ -0,0 +1,276 @@
+package lf1.plp.functional1.util;
+
+import java.io.ByteArrayInputStream;
+
+import lf1.plp.functional1.Programa;
+import lf1.plp.functional1.parser.Func1Parser;
+import lf1.plp.functional1.parser.ParseException;
+
+/**
+ * Executa programas da Funcional1 no interpretador e nos modos de execucao
+ * opcionais, e verifica que cada modo produz o mesmo resultado que o
+ * interpretador.
+ */
+public class TesteModos {
+
+	private static final String[] PROGRAMAS = {
+			"let fun fat n = if n == 0 then 1 else n + fat(n - 1) in fat(100)",
+			"let fun soma x acc = if x == 0 then acc else soma(x - 1, acc + x) "
+					+ "in soma(3000, 0)",
+			"let fun fib n = if n == 0 then 0 else if n == 1 then 1 "
+					+ "else fib(n - 1) + fib(n - 2) in fib(18)",
+			"let var x = 3 in let var y = x in let var x = 10 in "
+					+ "x + y - (let var z = \"ab\" in length z)",
+			"let fun dobro x = x + x in let fun f n s = let var t = s ++ \"x\" in "
+					+ "if n == 0 then length t else f(n - 1, t) + dobro(1) "
+					+ "in f(5, \"\") + dobro(-3)",
+			"let fun id x = x in id(3)",
+			"let fun f x = if 1 + 1 == 2 then x + (2 + 3) "
+					+ "else f(x - 1) + length (\"ab\" ++ \"c\") "
+					+ "in f(-(4)) + (if not true then 7 else 8)" };
+
+	/**
+	 * Quantos nos <code>otimizar</code> remove de cada programa.
+	 */
+	private static final int[] NOS_REMOVIDOS = { 0, 0, 0, 0, 1, 0, 22 };
+
+	private static Func1Parser parser;
+
+	public static void main(String[] args) throws ParseException {
+		for (int i = 0; i < PROGRAMAS.length; i++) {
+			verificarCompilado(PROGRAMAS[i]);
+			verificarOtimizado(PROGRAMAS[i], NOS_REMOVIDOS[i]);
+			verificarMemoizado(PROGRAMAS[i]);
+			verificarPilhaExplicita(PROGRAMAS[i]);
+		}
+		verificarPilhaProfunda();
+		verificarCauda("let fun conta n acc = if n == 0 then acc "
+				+ "else conta(n - 1, acc + 1) in conta(100000, 0)", "100000");
+		verificarCauda("let fun par n = if n == 0 then true "
+				+ "else if n == 1 then false else par(n - 2) in par(100001)",
+				"false");
+		// com o escopo dinamico, o mesmo ponto de chamada encontra funcoes
+		// diferentes quando um let redefine a funcao chamada ou termina
+		verificarRedefinicao("let fun f x = x + 10 in let fun g y = f(y) in "
+				+ "g(1) + (let fun f x = x - 1 in g(1)) + g(1)", "22");
+		verificarRedefinicao("let fun h x = 1 in let fun f n = if n == 0 "
+				+ "then 0 else h(n) + (if n == 3 then (let fun h x = 100 in "
+				+ "f(n - 1)) else f(n - 1)) in f(5) + f(2)", "205");
+		verificarRedefinicao("let fun h x = 100 in let fun f n = if n == 0 "
+				+ "then h(0) else let fun h x = n in f(n - 1) + h(0) "
+				+ "in f(3) + h(0)", "106");
+		verificarCache("let fun fib n = if n == 0 then 0 else if n == 1 then 1 "
+				+ "else fib(n - 1) + fib(n - 2) in fib(18)", 100,
+				"fib: 16 acertos, 19 falhas, 19 resultados",
+				"fib: 17 acertos, 19 falhas, 19 resultados");
+		verificarCache("let fun fib n = if n == 0 then 0 else if n == 1 then 1 "
+				+ "else fib(n - 1) + fib(n - 2) in fib(18)", 2,
+				"fib: 180 acertos, 869 falhas, 2 resultados",
+				"fib: 181 acertos, 869 falhas, 2 resultados");
+		verificarCache("let var k = 1 in let fun f n = if n == 0 then k "
+				+ "else f(n - 1) + f(n - 1) in f(10)", 100,
+				"", "");
+		verificarBemTipado("let fun id x = x in if id(true) then id(1) else 2", "1");
+		verificarBemTipado("let fun id x = x in id(\"a\") ++ \"b\"", "\"ab\"");
+		verificarBemTipado("let fun const x y = x in const(1, \"a\") + const(2, true)", "3");
+		verificarBemTipado("let fun k x y = y in k(1, k(\"a\", 2)) + 1", "3");
+		verificarBemTipado("let fun g x = x == x in g(1) and g(\"a\")", "true");
+		verificarMalTipado("let fun id x = x in id(3) ++ \"a\"");
+		verificarMalTipado("let fun const x y = x in const(\"a\", 1) + 1");
+		verificarMalTipado("let fun f x y = if x then y else 1 in f(true, \"s\")");
+		verificarMalTipado("let fun p x y = x == y in p(1, \"a\")");
+
+		System.out.println("TesteModos: ok");
+	}
+
+	/**
+	 * Compara o interpretador com o <code>CompiladorJava</code>. O programa
+	 * compilado e' executado duas vezes, a segunda com a classe compilada
+	 * guardada pelo programa.
+	 */
+	private static void verificarCompilado(String codigo) throws ParseException {
+		Programa programa = ler(codigo);
+		programa.setCompilado(true);
+		verificar("compilado", codigo, executar(programa));
+		verificar("compilado de novo", codigo, executar(programa));
+	}
+
+	/**
+	 * Compara o interpretador com o programa otimizado, interpretado e
+	 * compilado, e verifica quantos nos a otimizacao removeu.
+	 */
+	private static void verificarOtimizado(String codigo, int removidos)
+			throws ParseException {
+		Programa programa = ler(codigo);
+		int obtidos = programa.otimizar();
+		if (obtidos != removidos) {
+			throw new IllegalStateException("otimizado: " + codigo
+					+ ": esperados " + removidos + " nos removidos, obtidos "
+					+ obtidos);
+		}
+		verificar("otimizado", codigo, executar(programa));
+		programa.setCompilado(true);
+		verificar("otimizado e compilado", codigo, executar(programa));
+	}
+
+	/**
+	 * Compara o interpretador com o <code>AvaliadorIterativo</code>.
+	 */
+	private static void verificarPilhaExplicita(String codigo)
+			throws ParseException {
+		Programa programa = ler(codigo);
+		programa.setPilhaExplicita(true);
+		verificar("pilha explicita", codigo, executar(programa));
+	}
+
+	/**
+	 * Avalia com a pilha explicita uma recursao que nao e' de cauda e e'
+	 * profunda demais para a pilha do Java, onde o interpretador lancaria
+	 * <code>StackOverflowError</code>.
+	 */
+	private static void verificarPilhaProfunda() throws ParseException {
+		String codigo = "let fun conta n = if n == 0 then 0 "
+				+ "else 1 + conta(n - 1) in conta(10000)";
+		Programa programa = ler(codigo);
+		programa.setPilhaExplicita(true);
+		verificar("pilha explicita", codigo, "10000", executar(programa));
+	}
+
+	/**
+	 * Executa uma recursao de cauda mais profunda do que a pilha do Java
+	 * suportaria se cada chamada empilhasse um novo bloco, no interpretador,
+	 * no programa compilado e com a pilha explicita.
+	 */
+	private static void verificarCauda(String codigo, String esperado)
+			throws ParseException {
+		verificar("cauda", codigo, esperado, executar(ler(codigo)));
+		Programa programa = ler(codigo);
+		programa.setCompilado(true);
+		verificar("cauda compilada", codigo, esperado, executar(programa));
+		programa = ler(codigo);
+		programa.setPilhaExplicita(true);
+		verificar("cauda com pilha explicita", codigo, esperado,
+				executar(programa));
+	}
+
+	/**
+	 * Verifica o resultado de um programa cujas chamadas encontram funcoes
+	 * diferentes a cada execucao do mesmo ponto de chamada. O interpretador
+	 * executa o programa duas vezes, a segunda com a funcao guardada por cada
+	 * <code>Aplicacao</code> na execucao anterior, e o resultado tambem e'
+	 * comparado com a pilha explicita, que nao usa essa funcao guardada.
+	 */
+	private static void verificarRedefinicao(String codigo, String esperado)
+			throws ParseException {
+		Programa programa = ler(codigo);
+		verificar("redefinicao", codigo, esperado, executar(programa));
+		verificar("redefinicao de novo", codigo, esperado, executar(programa));
+		programa = ler(codigo);
+		programa.setPilhaExplicita(true);
+		verificar("redefinicao com pilha explicita", codigo, esperado,
+				executar(programa));
+	}
+
+	/**
+	 * Compara o interpretador com o interpretador que guarda os resultados
+	 * das funcoes memoizaveis.
+	 */
+	private static void verificarMemoizado(String codigo) throws ParseException {
+		Programa programa = ler(codigo);
+		programa.setCapacidadeMemoizacao(100);
+		verificar("memoizado", codigo, executar(programa));
+	}
+
+	/**
+	 * Executa duas vezes, com memoizacao, um programa com no maximo uma
+	 * funcao memoizavel e compara os caches, depois de cada execucao, com o
+	 * texto esperado. Os caches sao mantidos entre as execucoes.
+	 */
+	private static void verificarCache(String codigo, int capacidade,
+			String primeira, String segunda) throws ParseException {
+		Programa programa = ler(codigo);
+		programa.setCapacidadeMemoizacao(capacidade);
+		verificar("memoizado", codigo, executar(programa));
+		verificar("cache", codigo, "[" + primeira + "]", String
+				.valueOf(programa.getCachesMemoizacao()));
+		verificar("memoizado de novo", codigo, executar(programa));
+		verificar("cache", codigo, "[" + segunda + "]", String
+				.valueOf(programa.getCachesMemoizacao()));
+		// sem memoizacao o programa volta a ser apenas interpretado
+		programa.setCapacidadeMemoizacao(0);
+		verificar("sem memoizacao", codigo, executar(programa));
+		verificar("cache", codigo, "[]", String.valueOf(programa
+				.getCachesMemoizacao()));
+	}
+
+	/**
+	 * Verifica que um programa com funcoes polimorficas e' bem tipado e que
+	 * produz o resultado esperado. A verificacao e' feita duas vezes: a
+	 * unificacao de uma aplicacao nao altera os tipos da funcao aplicada.
+	 */
+	private static void verificarBemTipado(String codigo, String resultado)
+			throws ParseException {
+		Programa programa = analisar(codigo);
+		verificar("bem tipado", codigo, "true true", programa.checaTipo()
+				+ " " + programa.checaTipo());
+		verificar("bem tipado", codigo, resultado, executar(programa));
+	}
+
+	private static void verificarMalTipado(String codigo)
+			throws ParseException {
+		Programa programa = analisar(codigo);
+		verificar("mal tipado", codigo, "false false", programa.checaTipo()
+				+ " " + programa.checaTipo());
+	}
+
+	private static void verificar(String modo, String codigo, String obtido)
+			throws ParseException {
+		verificar(modo, codigo, executar(ler(codigo)), obtido);
+	}
+
+	private static void verificar(String modo, String codigo,
+			String esperado, String obtido) {
+		if (!esperado.equals(obtido)) {
+			throw new IllegalStateException(modo + ": " + codigo
+					+ ": esperado " + esperado + ", obtido " + obtido);
+		}
+		System.out.println(modo + ": " + codigo + " = " + obtido);
+	}
+
+	/**
+	 * Retorna o valor do programa como texto, ou o nome do erro lancado.
+	 */
+	private static String executar(Programa programa) {
+		try {
+			return String.valueOf(programa.executar());
+		} catch (RuntimeException e) {
+			return e.getClass().getSimpleName();
+		}
+	}
+
+	/**
+	 * Le e verifica os tipos de um programa.
+	 */
+	private static Programa ler(String codigo) throws ParseException {
+		Programa programa = analisar(codigo);
+		if (!programa.checaTipo()) {
+			throw new IllegalStateException("tipos invalidos: " + codigo);
+		}
+		return programa;
+	}
+
+	/**
+	 * Le um programa. O parser gerado e' estatico, portanto e' criado uma
+	 * unica vez e reiniciado a cada leitura.
+	 */
+	private static Programa analisar(String codigo) throws ParseException {
+		ByteArrayInputStream entrada = new ByteArrayInputStream(codigo
+				.getBytes());
+		if (parser == null) {
+			parser = new Func1Parser(entrada);
+		} else {
+			Func1Parser.ReInit(entrada);
+		}
+		return Func1Parser.Input();
+	}
+}
@@ -11,6 +11,7 @@ import lf2.plp.expressions2.memory.AmbienteCompilacao;
 import lf2.plp.expressions2.memory.AmbienteExecucao;
 import lf2.plp.expressions2.memory.VariavelJaDeclaradaException;
 import lf2.plp.expressions2.memory.VariavelNaoDeclaradaException;
+import lf2.plp.functional2.util.ExpressaoVisitor;
 
 public class ExpDeclaracao implements Expressao {
 
@@ -138,6 +139,16 @@ public class ExpDeclaracao implements Expressao {
 	 */
 	public Tipo getTipo(AmbienteCompilacao ambiente)
 			throws VariavelNaoDeclaradaException, VariavelJaDeclaradaException {
+		Tipo tipo = ambiente.getTipoCalculado(this);
+		if (tipo == null) {
+			tipo = calcularTipo(ambiente);
+			ambiente.mapTipoCalculado(this, tipo);
+		}
+		return tipo;
+	}
+
+	private Tipo calcularTipo(AmbienteCompilacao ambiente)
+			throws VariavelNaoDeclaradaException, VariavelJaDeclaradaException {
 		ambiente.incrementa();
 
 		Map<Id, Tipo> resolvedTypes = this.resolveTypeBindings(ambiente);
@@ -173,4 +184,8 @@ public class ExpDeclaracao implements Expressao {
 		
 		return retorno;
 	}
+
+	public <T> T accept(ExpressaoVisitor<T> visitor) {
+		return visitor.visit(this);
+	}
 }
\ No newline at end of file
@@ -6,11 +6,12 @@ import lf2.plp.expressions2.memory.AmbienteCompilacao;
 import lf2.plp.expressions2.memory.AmbienteExecucao;
 import lf2.plp.expressions2.memory.VariavelJaDeclaradaException;
 import lf2.plp.expressions2.memory.VariavelNaoDeclaradaException;
+import lf2.plp.functional2.util.ExpressaoVisitor;
 
 /**
  * Um objeto desta classe representa uma Expressao de tamanho de String.
  */
-public class ExpLength extends ExpUnaria {
+public class ExpLength extends ExpUnaria implements ExpressaoInteira {
  
 	/**
 	 * Controi uma Expressao de tamanho  com a expressao especificada
@@ -35,7 +36,12 @@ public class ExpLength extends ExpUnaria {
 	 */
 	public Valor avaliar(AmbienteExecucao amb) throws VariavelJaDeclaradaException,
 			VariavelNaoDeclaradaException {
-		return new ValorInteiro (((ValorString)getExp().avaliar(amb)).valor().length());
+		return ValorInteiro.cria(((ValorString)getExp().avaliar(amb)).valor().length());
+	}
+
+	public int avaliarInteiro(AmbienteExecucao amb) throws VariavelJaDeclaradaException,
+			VariavelNaoDeclaradaException {
+		return ((ValorString)getExp().avaliar(amb)).valor().length();
 	}
 
 	/**
@@ -68,4 +74,8 @@ public class ExpLength extends ExpUnaria {
 	public ExpUnaria clone() {
 		return new ExpLength(exp.clone());
 	}
+
+	public <T> T accept(ExpressaoVisitor<T> visitor) {
+		return visitor.visit(this);
+	}
 }
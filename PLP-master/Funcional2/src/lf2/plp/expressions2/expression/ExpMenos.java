@@ -6,11 +6,12 @@ import lf2.plp.expressions2.memory.AmbienteCompilacao;
 import lf2.plp.expressions2.memory.AmbienteExecucao;
 import lf2.plp.expressions2.memory.VariavelJaDeclaradaException;
 import lf2.plp.expressions2.memory.VariavelNaoDeclaradaException;
+import lf2.plp.functional2.util.ExpressaoVisitor;
 
 /**
  * Um objeto desta classe representa uma Expressao de menos unario.
  */
-public class ExpMenos extends ExpUnaria {
+public class ExpMenos extends ExpUnaria implements ExpressaoInteira {
 
 	/**
 	 * Controi uma Expressao de menos unario com expressao especificada
@@ -33,7 +34,18 @@ public class ExpMenos extends ExpUnaria {
 	 */
 	public Valor avaliar(AmbienteExecucao amb) throws VariavelJaDeclaradaException, 
 			VariavelNaoDeclaradaException {
-		return new ValorInteiro(- ((ValorInteiro)getExp().avaliar(amb)).valor());
+		int valor = exp instanceof ExpressaoInteira ? ((ExpressaoInteira) exp)
+				.avaliarInteiro(amb) : ((ValorInteiro) exp.avaliar(amb))
+				.valorPrimitivo();
+		return ValorInteiro.cria(- valor);
+	}
+
+	public int avaliarInteiro(AmbienteExecucao amb) throws VariavelJaDeclaradaException, 
+			VariavelNaoDeclaradaException {
+		int valor = exp instanceof ExpressaoInteira ? ((ExpressaoInteira) exp)
+				.avaliarInteiro(amb) : ((ValorInteiro) exp.avaliar(amb))
+				.valorPrimitivo();
+		return - valor;
 	}
 
 	/**
@@ -67,4 +79,8 @@ public class ExpMenos extends ExpUnaria {
 	
 		return new ExpMenos(exp.clone());
 	}
+
+	public <T> T accept(ExpressaoVisitor<T> visitor) {
+		return visitor.visit(this);
+	}
 }
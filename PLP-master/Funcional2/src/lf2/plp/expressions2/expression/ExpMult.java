@@ -4,11 +4,12 @@ import lf2.plp.expressions1.util.Tipo;
 import lf2.plp.expressions2.memory.AmbienteCompilacao;
 import lf2.plp.expressions2.memory.AmbienteExecucao;
 import lf2.plp.expressions2.memory.VariavelNaoDeclaradaException;
+import lf2.plp.functional2.util.ExpressaoVisitor;
 
 /**
  * Expressão de multiplicação inteira: esq * dir
  */
-public class ExpMult implements Expressao {
+public class ExpMult implements ExpressaoInteira {
 
     private Expressao esq;
     private Expressao dir;
@@ -33,13 +34,29 @@ public class ExpMult implements Expressao {
     public Valor avaliar(AmbienteExecucao ambiente)
             throws VariavelNaoDeclaradaException {
 
-        Valor v1 = esq.avaliar(ambiente);
-        Valor v2 = dir.avaliar(ambiente);
+        int valorEsq = esq instanceof ExpressaoInteira ? ((ExpressaoInteira) esq)
+                .avaliarInteiro(ambiente) : ((ValorInteiro) esq.avaliar(ambiente))
+                .valorPrimitivo();
+        int valorDir = dir instanceof ExpressaoInteira ? ((ExpressaoInteira) dir)
+                .avaliarInteiro(ambiente) : ((ValorInteiro) dir.avaliar(ambiente))
+                .valorPrimitivo();
+        return ValorInteiro.cria(valorEsq * valorDir);
+    }
 
-        int i1 = ((ValorInteiro) v1).valor();
-        int i2 = ((ValorInteiro) v2).valor();
+    /**
+     * Avalia a multiplicacao sem criar valores intermediarios para os
+     * operandos inteiros.
+     */
+    public int avaliarInteiro(AmbienteExecucao ambiente)
+            throws VariavelNaoDeclaradaException {
 
-        return new ValorInteiro(i1 * i2);
+        int valorEsq = esq instanceof ExpressaoInteira ? ((ExpressaoInteira) esq)
+                .avaliarInteiro(ambiente) : ((ValorInteiro) esq.avaliar(ambiente))
+                .valorPrimitivo();
+        int valorDir = dir instanceof ExpressaoInteira ? ((ExpressaoInteira) dir)
+                .avaliarInteiro(ambiente) : ((ValorInteiro) dir.avaliar(ambiente))
+                .valorPrimitivo();
+        return valorEsq * valorDir;
     }
 
     /**
@@ -61,7 +78,12 @@ public class ExpMult implements Expressao {
     public Tipo getTipo(AmbienteCompilacao amb)
             throws VariavelNaoDeclaradaException {
 
-        return esq.getTipo(amb);
+        Tipo tipo = amb.getTipoCalculado(this);
+        if (tipo == null) {
+            tipo = esq.getTipo(amb);
+            amb.mapTipoCalculado(this, tipo);
+        }
+        return tipo;
     }
 
     @Override
@@ -79,8 +101,8 @@ public class ExpMult implements Expressao {
             Expressao rDir = dir.reduzir(ambiente);
 
             if (rEsq instanceof ValorInteiro && rDir instanceof ValorInteiro) {
-                int i1 = ((ValorInteiro) rEsq).valor();
-                int i2 = ((ValorInteiro) rDir).valor();
+                int i1 = ((ValorInteiro) rEsq).valorPrimitivo();
+                int i2 = ((ValorInteiro) rDir).valorPrimitivo();
                 return new ValorInteiro(i1 * i2);
             }
 
@@ -98,4 +120,8 @@ public class ExpMult implements Expressao {
     public ExpMult clone() {
         return this;
     }
+
+    public <T> T accept(ExpressaoVisitor<T> visitor) {
+        return visitor.visit(this);
+    }
 }
\ No newline at end of file
@@ -6,6 +6,7 @@ import lf2.plp.expressions2.memory.AmbienteCompilacao;
 import lf2.plp.expressions2.memory.AmbienteExecucao;
 import lf2.plp.expressions2.memory.VariavelJaDeclaradaException;
 import lf2.plp.expressions2.memory.VariavelNaoDeclaradaException;
+import lf2.plp.functional2.util.ExpressaoVisitor;
 
 /**
  * Um objeto desta classe representa uma Expressao de Negacao logica.
@@ -66,4 +67,8 @@ public class ExpNot extends ExpUnaria{
 	public ExpUnaria clone() {
 		return new ExpNot(exp.clone());
 	}
+
+	public <T> T accept(ExpressaoVisitor<T> visitor) {
+		return visitor.visit(this);
+	}
 }
@@ -5,6 +5,7 @@ import lf2.plp.expressions2.memory.AmbienteCompilacao;
 import lf2.plp.expressions2.memory.AmbienteExecucao;
 import lf2.plp.expressions2.memory.VariavelNaoDeclaradaException;
 import lf2.plp.functional2.expression.ValorIrredutivel;
+import lf2.plp.functional2.util.ExpressaoVisitor;
 
 public class Id implements Expressao {
 
@@ -107,4 +108,8 @@ public class Id implements Expressao {
 	public Id clone() {
 		return this;
 	}
+
+	public <T> T accept(ExpressaoVisitor<T> visitor) {
+		return visitor.visit(this);
+	}
 }
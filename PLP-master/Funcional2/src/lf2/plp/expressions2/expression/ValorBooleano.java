@@ -3,6 +3,7 @@ package lf2.plp.expressions2.expression;
 import lf2.plp.expressions1.util.Tipo;
 import lf2.plp.expressions1.util.TipoPrimitivo;
 import lf2.plp.expressions2.memory.AmbienteCompilacao;
+import lf2.plp.functional2.util.ExpressaoVisitor;
 
 /**
  * Este valor primitivo encapsula um valor booleano.
@@ -31,4 +32,8 @@ public class ValorBooleano extends ValorConcreto<Boolean>{
 	public ValorBooleano clone() {
 		return new ValorBooleano(this.valor());
 	}
+
+	public <T> T accept(ExpressaoVisitor<T> visitor) {
+		return visitor.visit(this);
+	}
 }
\ No newline at end of file
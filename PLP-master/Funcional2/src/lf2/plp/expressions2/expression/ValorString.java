@@ -3,6 +3,7 @@ package lf2.plp.expressions2.expression;
 import lf2.plp.expressions1.util.Tipo;
 import lf2.plp.expressions1.util.TipoPrimitivo;
 import lf2.plp.expressions2.memory.AmbienteCompilacao;
+import lf2.plp.functional2.util.ExpressaoVisitor;
 
 /**
  * Este valor primitivo encapsula um String.
@@ -35,4 +36,8 @@ public class ValorString extends ValorConcreto<String> {
 	public ValorString clone() {
 		return new ValorString(this.valor());
 	}
+
+	public <T> T accept(ExpressaoVisitor<T> visitor) {
+		return visitor.visit(this);
+	}
 }
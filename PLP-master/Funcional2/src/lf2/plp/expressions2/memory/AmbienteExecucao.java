@@ -1,10 +1,18 @@
 package lf2.plp.expressions2.memory;
 
 import lf2.plp.expressions2.expression.Valor;
+import lf2.plp.functional2.util.AvaliadorParalelo;
 
 
 public interface AmbienteExecucao extends Ambiente<Valor> {
 
 	public AmbienteExecucao clone();
 
+	/**
+	 * Retorna o avaliador usado para avaliar em paralelo argumentos e
+	 * declaracoes independentes, ou <code>null</code> se a avaliacao e'
+	 * sequencial.
+	 */
+	public AvaliadorParalelo getAvaliadorParalelo();
+
 }
@@ -1,9 +1,36 @@
 package lf2.plp.expressions2.memory;
 
+import java.util.IdentityHashMap;
+import java.util.Map;
+
 import lf2.plp.expressions1.util.Tipo;
+import lf2.plp.expressions1.util.TipoPrimitivo;
+import lf2.plp.expressions2.expression.Expressao;
 
 
 public class ContextoCompilacao extends Contexto<Tipo>
 		implements AmbienteCompilacao {
 
+	/**
+	 * Tipos ja calculados, indexados pela identidade do no. Cada contexto
+	 * corresponde a uma verificacao de tipos, portanto os tipos guardados
+	 * nao sobrevivem a ela.
+	 */
+	private Map<Expressao, Tipo> tiposCalculados = new IdentityHashMap<Expressao, Tipo>();
+
+	public Tipo getTipoCalculado(Expressao expressao) {
+		return tiposCalculados.get(expressao);
+	}
+
+	/**
+	 * Apenas tipos primitivos sao guardados: os demais podem conter tipos
+	 * polimorficos, que sao recriados e inferidos a cada vez que o corpo de
+	 * uma funcao e' verificado.
+	 */
+	public void mapTipoCalculado(Expressao expressao, Tipo tipo) {
+		if (tipo instanceof TipoPrimitivo) {
+			tiposCalculados.put(expressao, tipo);
+		}
+	}
+
 }
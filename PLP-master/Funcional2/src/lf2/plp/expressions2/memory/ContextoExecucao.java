@@ -7,11 +7,35 @@ import java.util.Map.Entry;
 import lf2.plp.expressions2.expression.Id;
 import lf2.plp.expressions2.expression.Valor;
 import lf2.plp.functional1.memory.ContextoExecucaoFuncional;
+import lf2.plp.functional2.util.AvaliadorParalelo;
 
 
 public class ContextoExecucao extends Contexto<Valor>
         implements AmbienteExecucao {
 
+	private AvaliadorParalelo avaliadorParalelo;
+
+	public ContextoExecucao() {
+	}
+
+	/**
+	 * Cria um contexto que enxerga os blocos de <code>base</code> sem
+	 * copia-los. Os mapeamentos feitos depois de um <code>incrementa</code>
+	 * vao para blocos proprios deste contexto.
+	 */
+	public ContextoExecucao(ContextoExecucao base) {
+		pilha.addAll(base.pilha);
+		avaliadorParalelo = base.avaliadorParalelo;
+	}
+
+	public AvaliadorParalelo getAvaliadorParalelo() {
+		return avaliadorParalelo;
+	}
+
+	public void setAvaliadorParalelo(AvaliadorParalelo avaliadorParalelo) {
+		this.avaliadorParalelo = avaliadorParalelo;
+	}
+
 	public ContextoExecucao clone() {
 		ContextoExecucaoFuncional retorno = new ContextoExecucaoFuncional();
 		
@@ -27,6 +51,7 @@ public class ContextoExecucao extends Contexto<Valor>
 		}
 		
 		retorno.setPilha(novaPilha);
+		retorno.setAvaliadorParalelo(avaliadorParalelo);
 		
 		return retorno;
 	}
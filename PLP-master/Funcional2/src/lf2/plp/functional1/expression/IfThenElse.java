@@ -8,6 +8,7 @@ import lf2.plp.expressions2.memory.AmbienteCompilacao;
 import lf2.plp.expressions2.memory.AmbienteExecucao;
 import lf2.plp.expressions2.memory.VariavelJaDeclaradaException;
 import lf2.plp.expressions2.memory.VariavelNaoDeclaradaException;
+import lf2.plp.functional2.util.ExpressaoVisitor;
 
 public class IfThenElse implements Expressao {
 
@@ -97,6 +98,16 @@ public class IfThenElse implements Expressao {
 	 */
 	public Tipo getTipo(AmbienteCompilacao amb)
 			throws VariavelNaoDeclaradaException, VariavelJaDeclaradaException {
+		Tipo tipo = amb.getTipoCalculado(this);
+		if (tipo == null) {
+			tipo = calcularTipo(amb);
+			amb.mapTipoCalculado(this, tipo);
+		}
+		return tipo;
+	}
+
+	private Tipo calcularTipo(AmbienteCompilacao amb)
+			throws VariavelNaoDeclaradaException, VariavelJaDeclaradaException {
 		return then.getTipo(amb).intersecao(elseExpressao.getTipo(amb));
 	}
 
@@ -117,4 +128,8 @@ public class IfThenElse implements Expressao {
 	public IfThenElse clone() {
 		return new IfThenElse(this.condicao.clone(), this.then.clone(), this.elseExpressao.clone());
 	}
+
+	public <T> T accept(ExpressaoVisitor<T> visitor) {
+		return visitor.visit(this);
+	}
 }
@@ -0,0 +1,86 @@
+package lf2.plp.functional1.util;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import lf2.plp.expressions2.expression.Id;
+import lf2.plp.expressions2.expression.Valor;
+
+/**
+ * Resultados ja calculados das aplicacoes de uma funcao, indexados pela lista
+ * dos valores dos argumentos. Guarda no maximo <code>capacidade</code>
+ * resultados; quando cheio, descarta o que foi usado ha mais tempo.
+ */
+public class CacheAplicacao {
+
+	private Id funcao;
+
+	private Map<List<Valor>, Valor> resultados;
+
+	private long acertos;
+
+	private long falhas;
+
+	public CacheAplicacao(Id funcao, final int capacidade) {
+		this.funcao = funcao;
+		this.resultados = new LinkedHashMap<List<Valor>, Valor>(16, 0.75f,
+				true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(
+					Map.Entry<List<Valor>, Valor> maisAntigo) {
+				return size() > capacidade;
+			}
+		};
+	}
+
+	/**
+	 * Retorna o resultado guardado para os argumentos dados, ou
+	 * <code>null</code> se nao houver.
+	 */
+	public synchronized Valor get(List<Valor> argumentos) {
+		Valor resultado = resultados.get(argumentos);
+		if (resultado == null) {
+			falhas++;
+		} else {
+			acertos++;
+		}
+		return resultado;
+	}
+
+	public synchronized void put(List<Valor> argumentos, Valor resultado) {
+		resultados.put(argumentos, resultado);
+	}
+
+	public Id getFuncao() {
+		return funcao;
+	}
+
+	public long getAcertos() {
+		return acertos;
+	}
+
+	public long getFalhas() {
+		return falhas;
+	}
+
+	/**
+	 * Retorna a fracao das consultas que encontraram o resultado guardado.
+	 */
+	public double getTaxaAcerto() {
+		long consultas = acertos + falhas;
+		return consultas == 0 ? 0 : (double) acertos / consultas;
+	}
+
+	public int getTamanho() {
+		return resultados.size();
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s: %d acertos, %d falhas, %d resultados",
+				funcao, acertos, falhas, resultados.size());
+	}
+}
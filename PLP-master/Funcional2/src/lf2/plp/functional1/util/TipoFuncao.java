@@ -136,30 +136,13 @@ public class TipoFuncao implements Tipo {
 		return getNome();
 	}
 
-	/**
-	 * Este m�todo � usado para limpar os tipos curingas, pois ap�s a aplica��o
-	 * os mesmos podem estar instanciados e isto pode influenciar um erro de
-	 * tipos na pr�xima aplica��o.
-	 */
-	private void limparTiposCuringas() {
-		for (Tipo tDom : getDominio()) {
-			if (tDom instanceof TipoPolimorfico) {
-				((TipoPolimorfico) tDom).limpar();
-			}
-
-		}
-		if (getImagem() instanceof TipoPolimorfico) {
-			((TipoPolimorfico) getImagem()).limpar();
-		}
-	}
-
 	private boolean checkArgumentListSize(
 			List<? extends Expressao> parametrosFormais) {
 		return getDominio().size() == parametrosFormais.size();
 	}
 
 	private boolean checkArgumentTypes(AmbienteCompilacao ambiente,
-			List<? extends Expressao> parametrosFormais)
+			Unificador unificador, List<? extends Expressao> parametrosFormais)
 			throws VariavelNaoDeclaradaException, VariavelJaDeclaradaException {
 		boolean result = true;
 
@@ -172,41 +155,31 @@ public class TipoFuncao implements Tipo {
 			tipoArg = valorReal.getTipo(ambiente);
 			Tipo tipoDom = it.next();
 
-			result &= tipoArg.eIgual(tipoDom);
+			result &= unificador.unificar(tipoArg, tipoDom);
 		}
 		return result;
 	}
 
 	public boolean checaTipo(AmbienteCompilacao ambiente,
 			List<? extends Expressao> parametrosFormais) {
-		boolean result = checkArgumentListSize(parametrosFormais)
-				&& checkArgumentTypes(ambiente, parametrosFormais);
-		limparTiposCuringas();
-		return result;
+		return checkArgumentListSize(parametrosFormais)
+				&& checkArgumentTypes(ambiente, new Unificador(),
+						parametrosFormais);
 	}
 
 	public Tipo getTipo(AmbienteCompilacao ambiente,
 			List<? extends Expressao> parametrosFormais) {
 		// Infere os par�metros
+		Unificador unificador = new Unificador();
 		Iterator<Tipo> it = getDominio().iterator();
 		Tipo tipoArg;
 		for (Expressao valorReal : parametrosFormais) {
 			tipoArg = valorReal.getTipo(ambiente);
-			tipoArg.eIgual(it.next());
-		}
-
-		// Obtem o resultado. 
-		Tipo ret = getImagem();
-		// Caso seja um tipo polimorfico procura a mais espec�fica instancia��o.
-		while (ret instanceof TipoPolimorfico) {
-			if (((TipoPolimorfico) ret).getTipoInstanciado() == null) {
-				break;
-			}
-			ret = ((TipoPolimorfico) ret).getTipoInstanciado();
+			unificador.unificar(tipoArg, it.next());
 		}
 
-		limparTiposCuringas();
-		return ret;
+		// Obtem o resultado, instanciando os curingas da imagem.
+		return unificador.instanciar(getImagem());
 	}
 
 }
@@ -0,0 +1,198 @@
+package lf2.plp.functional1.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import lf2.plp.expressions1.util.Tipo;
+
+/**
+ * Unificacao dos tipos de uma aplicacao com o tipo da funcao aplicada.
+ * 
+ * Os tipos curingas da funcao sao instanciados apenas dentro deste
+ * unificador: cada um aponta, em uma estrutura de conjuntos disjuntos
+ * (union-find) com compressao de caminho, para o tipo com o qual foi
+ * unificado. Assim os curingas nao sao alterados e nao precisam ser limpos
+ * depois da aplicacao. Tipos polimorficos ainda nao inferidos continuam sendo
+ * inferidos por {@link TipoPolimorfico#eIgual(Tipo)}.
+ * 
+ * Um curinga pode ter uma forma inferida na definicao da funcao, como a lista
+ * de um parametro usado com <code>head</code>. Essa forma e' copiada para o
+ * unificador, com um curinga novo no lugar de cada tipo polimorfico que ela
+ * contem e que nunca foi inferido; a imagem da funcao, que pode usar os
+ * mesmos tipos polimorficos, e' instanciada com as mesmas copias.
+ */
+public class Unificador {
+
+	/**
+	 * O tipo com o qual cada curinga foi unificado.
+	 */
+	private Map<TipoPolimorfico, Tipo> pai = new HashMap<TipoPolimorfico, Tipo>();
+
+	/**
+	 * Limite superior da altura de cada conjunto de curingas, usado para
+	 * pendurar o conjunto mais baixo no mais alto.
+	 */
+	private Map<TipoPolimorfico, Integer> posto = new HashMap<TipoPolimorfico, Integer>();
+
+	/**
+	 * O curinga novo que substitui cada tipo polimorfico nao inferido das
+	 * formas copiadas.
+	 */
+	private Map<TipoPolimorfico, TipoPolimorfico> copias = new HashMap<TipoPolimorfico, TipoPolimorfico>();
+
+	/**
+	 * Unifica dois tipos.
+	 * 
+	 * @return <code>true</code> se os tipos puderam ser unificados;
+	 *         <code>false</code> caso contrario.
+	 */
+	public boolean unificar(Tipo tipo1, Tipo tipo2) {
+		Tipo t1 = representante(tipo1);
+		Tipo t2 = representante(tipo2);
+
+		if (t1 == t2) {
+			return true;
+		}
+		if (ehCuringaLivre(t1)) {
+			ligar((TipoPolimorfico) t1, t2);
+			return true;
+		}
+		if (ehCuringaLivre(t2)) {
+			ligar((TipoPolimorfico) t2, t1);
+			return true;
+		}
+		if (t1 instanceof TipoPolimorfico || t2 instanceof TipoPolimorfico) {
+			return t1.eIgual(t2);
+		}
+		if (t1 instanceof TipoFuncao && t2 instanceof TipoFuncao) {
+			TipoFuncao f1 = (TipoFuncao) t1;
+			TipoFuncao f2 = (TipoFuncao) t2;
+			if (f1.getDominio().size() != f2.getDominio().size()) {
+				return false;
+			}
+			boolean ret = true;
+			Iterator<Tipo> it = f1.getDominio().iterator();
+			for (Tipo t : f2.getDominio()) {
+				ret &= unificar(t, it.next());
+			}
+			return ret && unificar(f1.getImagem(), f2.getImagem());
+		}
+		return t1.eIgual(t2);
+	}
+
+	/**
+	 * Retorna o tipo que representa <code>tipo</code> neste unificador: o
+	 * tipo inferido, se <code>tipo</code> for um tipo polimorfico ja
+	 * inferido, o tipo com o qual o curinga foi unificado, ou a copia da
+	 * forma do curinga.
+	 */
+	public Tipo representante(Tipo tipo) {
+		if (!(tipo instanceof TipoPolimorfico)) {
+			return tipo;
+		}
+		TipoPolimorfico variavel = ((TipoPolimorfico) tipo).raiz();
+		if (variavel.jaInferiu() && !variavel.ehCoringa()) {
+			return variavel.getTipoInferido();
+		}
+		TipoPolimorfico copia = copias.get(variavel);
+		if (copia != null) {
+			variavel = copia;
+		}
+		Tipo tipoPai = pai.get(variavel);
+		if (tipoPai == null) {
+			if (!ehCuringaLivre(variavel) || !temForma(variavel)) {
+				return variavel;
+			}
+			tipoPai = copiar(variavel.getTipoInstanciado());
+			pai.put(variavel, tipoPai);
+			return tipoPai;
+		}
+		Tipo raiz = representante(tipoPai);
+		pai.put(variavel, raiz);
+		return raiz;
+	}
+
+	/**
+	 * Retorna <code>tipo</code> com cada tipo polimorfico substituido pelo
+	 * seu representante, inclusive dentro de funcoes.
+	 */
+	public Tipo instanciar(Tipo tipo) {
+		Tipo t = representante(tipo);
+		if (t instanceof TipoFuncao) {
+			TipoFuncao funcao = (TipoFuncao) t;
+			List<Tipo> dominio = new ArrayList<Tipo>();
+			for (Tipo d : funcao.getDominio()) {
+				dominio.add(instanciar(d));
+			}
+			return new TipoFuncao(dominio, instanciar(funcao.getImagem()));
+		}
+		return t;
+	}
+
+	/**
+	 * Retorna uma copia da forma de um curinga em que cada tipo polimorfico
+	 * nunca inferido e' substituido pelo seu curinga novo.
+	 */
+	private Tipo copiar(Tipo tipo) {
+		if (tipo instanceof TipoPolimorfico) {
+			TipoPolimorfico variavel = ((TipoPolimorfico) tipo).raiz();
+			if (variavel.jaInferiu()) {
+				return variavel.ehCoringa() ? variavel : copiar(variavel
+						.getTipoInferido());
+			}
+			TipoPolimorfico copia = copias.get(variavel);
+			if (copia == null) {
+				copia = new TipoPolimorfico();
+				copia.inferir();
+				copias.put(variavel, copia);
+			}
+			return copia;
+		}
+		if (tipo instanceof TipoFuncao) {
+			TipoFuncao funcao = (TipoFuncao) tipo;
+			List<Tipo> dominio = new ArrayList<Tipo>();
+			for (Tipo d : funcao.getDominio()) {
+				dominio.add(copiar(d));
+			}
+			return new TipoFuncao(dominio, copiar(funcao.getImagem()));
+		}
+		return tipo;
+	}
+
+	/**
+	 * Indica se o curinga tem uma forma inferida na definicao da funcao.
+	 */
+	private static boolean temForma(TipoPolimorfico curinga) {
+		Tipo forma = curinga.getTipoInstanciado();
+		return forma instanceof TipoFuncao;
+	}
+
+	private static boolean ehCuringaLivre(Tipo tipo) {
+		return tipo instanceof TipoPolimorfico
+				&& ((TipoPolimorfico) tipo).ehCoringa();
+	}
+
+	private void ligar(TipoPolimorfico curinga, Tipo tipo) {
+		if (ehCuringaLivre(tipo)) {
+			TipoPolimorfico outro = (TipoPolimorfico) tipo;
+			int p1 = getPosto(curinga);
+			int p2 = getPosto(outro);
+			if (p1 > p2) {
+				pai.put(outro, curinga);
+				return;
+			}
+			if (p1 == p2) {
+				posto.put(outro, p2 + 1);
+			}
+		}
+		pai.put(curinga, tipo);
+	}
+
+	private int getPosto(TipoPolimorfico curinga) {
+		Integer p = posto.get(curinga);
+		return p == null ? 0 : p;
+	}
+}
@@ -1,36 +1,166 @@
 package lf2.plp.functional2;
 
+import java.util.Collections;
+import java.util.List;
+
 import lf2.plp.expressions2.expression.Expressao;
 import lf2.plp.expressions2.expression.Valor;
 import lf2.plp.expressions2.memory.AmbienteCompilacao;
-import lf2.plp.expressions2.memory.AmbienteExecucao;
 import lf2.plp.expressions2.memory.ContextoCompilacao;
 import lf2.plp.expressions2.memory.ContextoExecucao;
 import lf2.plp.expressions2.memory.VariavelJaDeclaradaException;
 import lf2.plp.expressions2.memory.VariavelNaoDeclaradaException;
+import lf2.plp.functional1.util.CacheAplicacao;
+import lf2.plp.functional2.compilacao.CompiladorJava;
+import lf2.plp.functional2.compilacao.ProgramaCompilado;
+import lf2.plp.functional2.util.AvaliadorParalelo;
+import lf2.plp.functional2.util.Memoizador;
+import lf2.plp.functional2.util.Otimizador;
 
 public class Programa {
 
 	private Expressao exp;
 
+	/**
+	 * Indica se o programa deve ser traduzido para Java e compilado antes de
+	 * ser executado.
+	 */
+	private boolean compilado;
+
+	private ProgramaCompilado programaCompilado;
+
+	/**
+	 * Indica se o compilador ja recusou o programa, que entao e' interpretado
+	 * sem nova tentativa de compilacao.
+	 */
+	private boolean compilacaoFalhou;
+
+	/**
+	 * A quantidade maxima de resultados guardados por funcao memoizada, ou 0
+	 * se a memoizacao esta desligada.
+	 */
+	private int capacidadeMemoizacao;
+
+	private Memoizador memoizador;
+
+	/**
+	 * O custo estimado a partir do qual argumentos e declaracoes
+	 * independentes sao avaliados em paralelo, ou 0 se a avaliacao e'
+	 * sequencial.
+	 */
+	private int limiarParalelismo;
+
 	public Programa(Expressao exp) {
 		this.exp = exp;
 	}
 
 	public Valor executar()
 		throws VariavelJaDeclaradaException, VariavelNaoDeclaradaException {
-		AmbienteExecucao ambExec = new ContextoExecucao();
+		if (compilado && programaCompilado == null && !compilacaoFalhou) {
+			programaCompilado = CompiladorJava.compilar(exp);
+			compilacaoFalhou = programaCompilado == null;
+		}
+		if (programaCompilado != null) {
+			return programaCompilado.executar();
+		}
+		// Construcoes nao suportadas pelo compilador sao interpretadas.
+		if (capacidadeMemoizacao > 0 && memoizador == null) {
+			memoizador = new Memoizador(capacidadeMemoizacao);
+			memoizador.memoizar(exp);
+		}
+		ContextoExecucao ambExec = new ContextoExecucao();
+		if (limiarParalelismo > 0) {
+			ambExec.setAvaliadorParalelo(new AvaliadorParalelo(
+					limiarParalelismo));
+		}
 		return exp.avaliar(ambExec);
 	}
 
 	public boolean checaTipo()
 		throws VariavelJaDeclaradaException, VariavelNaoDeclaradaException {
+		compilacaoFalhou = false;
 		AmbienteCompilacao ambComp = new ContextoCompilacao();
 		return exp.checaTipo(ambComp);
 	}
 
+	/**
+	 * Substitui as sub-expressoes constantes do programa pelos seus valores
+	 * e elimina os ramos de condicionais que nunca serao avaliados. Deve ser
+	 * chamado depois de <code>checaTipo</code>.
+	 *
+	 * @return a quantidade de nos removidos da arvore do programa.
+	 */
+	public int otimizar() {
+		Otimizador otimizador = new Otimizador();
+		exp = otimizador.otimizar(exp);
+		programaCompilado = null;
+		memoizador = null;
+		return otimizador.getNosRemovidos();
+	}
+
 	public Expressao getExpressao() {
 		return exp;
 	}
 
+	public boolean isCompilado() {
+		return compilado;
+	}
+
+	/**
+	 * Define se o programa deve ser compilado. O programa deve ter sido
+	 * verificado por <code>checaTipo</code> antes da primeira execucao
+	 * compilada.
+	 */
+	public void setCompilado(boolean compilado) {
+		this.compilado = compilado;
+		compilacaoFalhou = false;
+		if (!compilado) {
+			programaCompilado = null;
+		}
+	}
+
+	public int getCapacidadeMemoizacao() {
+		return capacidadeMemoizacao;
+	}
+
+	/**
+	 * Define quantos resultados o interpretador guarda para cada funcao que
+	 * so depende dos seus argumentos e chama a si mesma fora de posicao de
+	 * cauda. Com 0 (o padrao) nenhuma funcao e' memoizada. O programa deve
+	 * ter sido verificado por <code>checaTipo</code>.
+	 */
+	public void setCapacidadeMemoizacao(int capacidade) {
+		this.capacidadeMemoizacao = capacidade;
+		if (memoizador != null) {
+			// desliga os caches da execucao anterior
+			new Memoizador(0).memoizar(exp);
+			memoizador = null;
+		}
+	}
+
+	/**
+	 * Retorna os caches das funcoes memoizadas na ultima execucao, com seus
+	 * contadores de acertos e falhas.
+	 */
+	public List<CacheAplicacao> getCachesMemoizacao() {
+		if (memoizador == null) {
+			return Collections.emptyList();
+		}
+		return memoizador.getCaches();
+	}
+
+	public int getLimiarParalelismo() {
+		return limiarParalelismo;
+	}
+
+	/**
+	 * Define o custo estimado (veja <code>AvaliadorParalelo.custo</code>) a
+	 * partir do qual os argumentos de uma aplicacao e as variaveis de um
+	 * <code>let</code> sao avaliados em paralelo, quando houver pelo menos
+	 * dois. Com 0 (o padrao) a avaliacao e' sequencial. Nao vale para
+	 * programas compilados.
+	 */
+	public void setLimiarParalelismo(int limiar) {
+		this.limiarParalelismo = limiar;
+	}
 }
@@ -0,0 +1,476 @@
+package lf2.plp.functional2.compilacao;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import lf2.plp.expressions1.util.Tipo;
+import lf2.plp.expressions1.util.TipoPrimitivo;
+import lf2.plp.expressions2.expression.ExpAnd;
+import lf2.plp.expressions2.expression.ExpBinaria;
+import lf2.plp.expressions2.expression.ExpConcat;
+import lf2.plp.expressions2.expression.ExpEquals;
+import lf2.plp.expressions2.expression.ExpLength;
+import lf2.plp.expressions2.expression.ExpMenos;
+import lf2.plp.expressions2.expression.ExpMult;
+import lf2.plp.expressions2.expression.ExpNot;
+import lf2.plp.expressions2.expression.ExpOr;
+import lf2.plp.expressions2.expression.ExpSoma;
+import lf2.plp.expressions2.expression.ExpSub;
+import lf2.plp.expressions2.expression.Expressao;
+import lf2.plp.expressions2.expression.Id;
+import lf2.plp.expressions2.expression.ValorBooleano;
+import lf2.plp.expressions2.expression.ValorInteiro;
+import lf2.plp.expressions2.expression.ValorString;
+import lf2.plp.expressions2.memory.AmbienteCompilacao;
+import lf2.plp.expressions2.memory.Contexto;
+import lf2.plp.expressions2.memory.ContextoCompilacao;
+import lf2.plp.expressions2.memory.VariavelNaoDeclaradaException;
+import lf2.plp.functional1.declaration.DecComposta;
+import lf2.plp.functional1.declaration.DecVariavel;
+import lf2.plp.functional1.declaration.DeclaracaoFuncional;
+import lf2.plp.functional1.expression.IfThenElse;
+import lf2.plp.functional1.util.TipoFuncao;
+import lf2.plp.functional2.declaration.DecFuncao;
+import lf2.plp.functional2.expression.Aplicacao;
+import lf2.plp.functional2.expression.ExpDeclaracao;
+
+/**
+ * Traduz uma expressao ja verificada quanto a tipos para o codigo fonte de
+ * uma classe Java que implementa <code>ProgramaCompilado</code>.
+ *
+ * Cada funcao vira um metodo estatico com parametros de tipo primitivo. Cada
+ * <code>let</code> que declara variaveis vira um metodo auxiliar que recebe
+ * as variaveis declaradas e as variaveis visiveis no ponto da declaracao.
+ *
+ * O interpretador resolve os identificadores usados no corpo de uma funcao
+ * no ambiente de quem a chama. Para que o codigo gerado, que os resolve no
+ * ponto da declaracao, se comporte da mesma forma, o gerador so aceita
+ * funcoes cujo corpo usa apenas os seus parametros e outras funcoes, e
+ * programas em que cada funcao tem um nome unico. Funcoes polimorficas,
+ * funcoes anonimas e funcoes usadas como valores (parametros, variaveis ou
+ * resultados) nao sao suportadas.
+ */
+public class GeradorJava {
+
+	private List<String> metodos;
+	private AmbienteCompilacao tipos;
+	private Contexto<String> nomes;
+	private Contexto<String> funcoes;
+	private Set<Id> funcoesDeclaradas;
+	private List<String> parametrosVisiveis;
+	private List<String> nomesVisiveis;
+	private int contador;
+
+	private GeradorJava() {
+		metodos = new ArrayList<String>();
+		tipos = new ContextoCompilacao();
+		nomes = new Contexto<String>();
+		funcoes = new Contexto<String>();
+		funcoesDeclaradas = new HashSet<Id>();
+		parametrosVisiveis = new ArrayList<String>();
+		nomesVisiveis = new ArrayList<String>();
+	}
+
+	/**
+	 * Gera o codigo fonte da classe que avalia a expressao dada.
+	 *
+	 * @exception ConstrucaoNaoSuportadaException
+	 *                se a expressao usar alguma construcao que o gerador nao
+	 *                sabe traduzir.
+	 */
+	public static String gerar(String nomeClasse, Expressao exp)
+			throws ConstrucaoNaoSuportadaException {
+		GeradorJava gerador = new GeradorJava();
+		TipoPrimitivo tipo = primitivo(exp.getTipo(gerador.tipos));
+		String corpo = gerador.expressao(exp);
+
+		StringBuilder classe = new StringBuilder();
+		classe.append("import lf2.plp.expressions2.expression.*;\n");
+		classe.append("import lf2.plp.functional2.compilacao.*;\n\n");
+		classe.append("public class ").append(nomeClasse)
+				.append(" implements ProgramaCompilado {\n\n");
+		classe.append("\tpublic Valor executar() {\n");
+		classe.append("\t\treturn new ").append(classeValor(tipo))
+				.append("(").append(corpo).append(");\n");
+		classe.append("\t}\n");
+		for (String metodo : gerador.metodos) {
+			classe.append('\n').append(metodo);
+		}
+		classe.append("}\n");
+		return classe.toString();
+	}
+
+	private String expressao(Expressao exp) {
+		if (exp instanceof ValorInteiro) {
+			int valor = ((ValorInteiro) exp).valorPrimitivo();
+			return valor < 0 ? "(" + valor + ")" : Integer.toString(valor);
+		}
+		if (exp instanceof ValorBooleano) {
+			return ((ValorBooleano) exp).valor().toString();
+		}
+		if (exp instanceof ValorString) {
+			return literal(((ValorString) exp).valor());
+		}
+		if (exp instanceof Id) {
+			try {
+				return nomes.get((Id) exp);
+			} catch (VariavelNaoDeclaradaException e) {
+				// identificador livre no corpo de uma funcao
+				throw new ConstrucaoNaoSuportadaException(exp);
+			}
+		}
+		if (exp instanceof ExpSoma) {
+			return binaria((ExpBinaria) exp, "+");
+		}
+		if (exp instanceof ExpSub) {
+			return binaria((ExpBinaria) exp, "-");
+		}
+		if (exp instanceof ExpMult) {
+			ExpMult mult = (ExpMult) exp;
+			return "(" + expressao(mult.getEsq()) + " * "
+					+ expressao(mult.getDir()) + ")";
+		}
+		if (exp instanceof ExpConcat) {
+			return binaria((ExpBinaria) exp, "+");
+		}
+		if (exp instanceof ExpAnd) {
+			return binaria((ExpBinaria) exp, "&&");
+		}
+		if (exp instanceof ExpOr) {
+			return binaria((ExpBinaria) exp, "||");
+		}
+		if (exp instanceof ExpEquals) {
+			ExpEquals igual = (ExpEquals) exp;
+			if (primitivo(igual.getEsq().getTipo(tipos)).eString()) {
+				return "(" + expressao(igual.getEsq()) + ".equals("
+						+ expressao(igual.getDir()) + "))";
+			}
+			return binaria(igual, "==");
+		}
+		if (exp instanceof ExpMenos) {
+			return "(-" + expressao(((ExpMenos) exp).getExp()) + ")";
+		}
+		if (exp instanceof ExpNot) {
+			return "(!" + expressao(((ExpNot) exp).getExp()) + ")";
+		}
+		if (exp instanceof ExpLength) {
+			return "(" + expressao(((ExpLength) exp).getExp()) + ".length())";
+		}
+		if (exp instanceof IfThenElse) {
+			IfThenElse se = (IfThenElse) exp;
+			return "(" + expressao(se.getCondicao()) + " ? "
+					+ expressao(se.getThen()) + " : "
+					+ expressao(se.getElseExpressao()) + ")";
+		}
+		if (exp instanceof Aplicacao) {
+			return aplicacao((Aplicacao) exp);
+		}
+		if (exp instanceof ExpDeclaracao) {
+			return declaracao((ExpDeclaracao) exp);
+		}
+		throw new ConstrucaoNaoSuportadaException(exp);
+	}
+
+	private String aplicacao(Aplicacao aplicacao) {
+		if (!(aplicacao.getFunc() instanceof Id)) {
+			throw new ConstrucaoNaoSuportadaException(aplicacao);
+		}
+		String funcao;
+		try {
+			funcao = funcoes.get((Id) aplicacao.getFunc());
+		} catch (VariavelNaoDeclaradaException e) {
+			// aplicacao de uma variavel ou parametro cujo valor e' uma funcao
+			throw new ConstrucaoNaoSuportadaException(aplicacao);
+		}
+		StringBuilder retorno = new StringBuilder(funcao);
+		retorno.append('(');
+		boolean primeiro = true;
+		for (Expressao argumento : aplicacao.getArgsExpressao()) {
+			if (!primeiro) {
+				retorno.append(", ");
+			}
+			retorno.append(expressao(argumento));
+			primeiro = false;
+		}
+		return retorno.append(')').toString();
+	}
+
+	/**
+	 * As expressoes das variaveis sao avaliadas no escopo atual e passadas ao
+	 * metodo auxiliar, como faz <code>elabora</code> no interpretador.
+	 */
+	private String declaracao(ExpDeclaracao expDeclaracao) {
+		DeclaracaoFuncional declaracao = expDeclaracao.getDeclaracao();
+		List<DecVariavel> variaveis = new ArrayList<DecVariavel>();
+		List<DecFuncao> decFuncoes = new ArrayList<DecFuncao>();
+		coletar(declaracao, variaveis, decFuncoes);
+
+		List<String> argumentos = new ArrayList<String>();
+		for (DecVariavel variavel : variaveis) {
+			argumentos.add(expressao(variavel.getExpressao()));
+		}
+
+		tipos.incrementa();
+		AmbienteCompilacao aux = new ContextoCompilacao();
+		aux.incrementa();
+		declaracao.elabora(tipos, aux);
+		List<TipoPrimitivo> tiposVariaveis = new ArrayList<TipoPrimitivo>();
+		for (DecVariavel variavel : variaveis) {
+			tiposVariaveis.add(primitivo(aux.get(variavel.getId())));
+		}
+		List<Tipo> tiposFuncoes = new ArrayList<Tipo>();
+		for (DecFuncao decFuncao : decFuncoes) {
+			tiposFuncoes.add(aux.get(decFuncao.getId()));
+		}
+		declaracao.incluir(tipos, aux, false);
+		aux.restaura();
+
+		funcoes.incrementa();
+		for (int i = 0; i < decFuncoes.size(); i++) {
+			funcao(decFuncoes.get(i), tiposFuncoes.get(i));
+		}
+
+		String retorno;
+		if (variaveis.isEmpty()) {
+			retorno = expressao(expDeclaracao.getExpressao());
+		} else {
+			int visiveis = nomesVisiveis.size();
+			argumentos.addAll(0, nomesVisiveis);
+			nomes.incrementa();
+			for (int i = 0; i < variaveis.size(); i++) {
+				Id id = variaveis.get(i).getId();
+				String nome = novoNome(id);
+				nomes.map(id, nome);
+				parametrosVisiveis.add(tipoJava(tiposVariaveis.get(i)) + " "
+						+ nome);
+				nomesVisiveis.add(nome);
+			}
+			String nomeMetodo = "let_" + (++contador);
+			TipoPrimitivo tipo = primitivo(expDeclaracao.getExpressao()
+					.getTipo(tipos));
+			metodos.add(metodo(tipo, nomeMetodo, parametrosVisiveis,
+					expressao(expDeclaracao.getExpressao())));
+			nomes.restaura();
+			parametrosVisiveis.subList(visiveis, parametrosVisiveis.size())
+					.clear();
+			nomesVisiveis.subList(visiveis, nomesVisiveis.size()).clear();
+			retorno = nomeMetodo + "(" + juntar(argumentos) + ")";
+		}
+
+		funcoes.restaura();
+		tipos.restaura();
+		return retorno;
+	}
+
+	/**
+	 * Gera o metodo correspondente a funcao. A funcao e' mapeada antes do
+	 * corpo ser gerado, para permitir recursao.
+	 */
+	private void funcao(DecFuncao decFuncao, Tipo tipo) {
+		List<Id> parametros = decFuncao.getFuncao().getListaId();
+		if (!funcoesDeclaradas.add(decFuncao.getId())
+				|| parametros == null || parametros.isEmpty()
+				|| !(tipo instanceof TipoFuncao)) {
+			throw new ConstrucaoNaoSuportadaException(decFuncao);
+		}
+		TipoFuncao tipoFuncao = (TipoFuncao) tipo;
+		TipoPrimitivo imagem = primitivo(tipoFuncao.getImagem());
+		String nomeMetodo = novoNome(decFuncao.getId());
+		funcoes.map(decFuncao.getId(), nomeMetodo);
+
+		Contexto<String> nomesExternos = nomes;
+		List<String> parametrosExternos = parametrosVisiveis;
+		List<String> nomesExternosVisiveis = nomesVisiveis;
+		nomes = new Contexto<String>();
+		parametrosVisiveis = new ArrayList<String>();
+		nomesVisiveis = new ArrayList<String>();
+
+		nomes.incrementa();
+		tipos.incrementa();
+		List<TipoPrimitivo> tiposParametros = new ArrayList<TipoPrimitivo>();
+		for (int i = 0; i < parametros.size(); i++) {
+			Id parametro = parametros.get(i);
+			TipoPrimitivo tipoParametro = primitivo(tipoFuncao.getDominio()
+					.get(i));
+			String nome = novoNome(parametro);
+			nomes.map(parametro, nome);
+			tipos.map(parametro, tipoParametro);
+			parametrosVisiveis.add(tipoJava(tipoParametro) + " " + nome);
+			nomesVisiveis.add(nome);
+			tiposParametros.add(tipoParametro);
+		}
+		Expressao corpo = decFuncao.getExpressao();
+		if (chamaASiMesmaEmCauda(decFuncao.getId(), corpo)) {
+			metodos.add(laco(imagem, nomeMetodo, parametrosVisiveis, cauda(
+					decFuncao, tiposParametros, corpo, "\t\t\t")));
+		} else {
+			metodos.add(metodo(imagem, nomeMetodo, parametrosVisiveis,
+					expressao(corpo)));
+		}
+		tipos.restaura();
+
+		nomes = nomesExternos;
+		parametrosVisiveis = parametrosExternos;
+		nomesVisiveis = nomesExternosVisiveis;
+	}
+
+	/**
+	 * Indica se o corpo tem, em posicao de cauda, uma chamada a propria
+	 * funcao. As posicoes sao as marcadas por <code>DefFuncao</code>: o
+	 * corpo e os ramos de um <code>if</code> em posicao de cauda.
+	 */
+	private static boolean chamaASiMesmaEmCauda(Id funcao, Expressao exp) {
+		if (exp instanceof IfThenElse) {
+			IfThenElse se = (IfThenElse) exp;
+			return chamaASiMesmaEmCauda(funcao, se.getThen())
+					|| chamaASiMesmaEmCauda(funcao, se.getElseExpressao());
+		}
+		return exp instanceof Aplicacao
+				&& ((Aplicacao) exp).isChamadaCauda()
+				&& funcao.equals(((Aplicacao) exp).getFunc());
+	}
+
+	/**
+	 * Gera os comandos do corpo de uma funcao que chama a si mesma em
+	 * posicao de cauda. Essas chamadas atribuem os novos argumentos aos
+	 * parametros e voltam ao inicio do laco, sem crescer a pilha, como no
+	 * interpretador; as demais posicoes retornam o valor da expressao.
+	 */
+	private String cauda(DecFuncao decFuncao,
+			List<TipoPrimitivo> tiposParametros, Expressao exp, String recuo) {
+		if (exp instanceof IfThenElse) {
+			IfThenElse se = (IfThenElse) exp;
+			return recuo + "if (" + expressao(se.getCondicao()) + ") {\n"
+					+ cauda(decFuncao, tiposParametros, se.getThen(), recuo
+							+ "\t") + recuo + "} else {\n"
+					+ cauda(decFuncao, tiposParametros, se
+							.getElseExpressao(), recuo + "\t") + recuo
+					+ "}\n";
+		}
+		if (exp instanceof Aplicacao && ((Aplicacao) exp).isChamadaCauda()
+				&& decFuncao.getId().equals(((Aplicacao) exp).getFunc())) {
+			// os argumentos sao avaliados antes de qualquer atribuicao
+			List<Id> parametros = decFuncao.getFuncao().getListaId();
+			List<? extends Expressao> argumentos = ((Aplicacao) exp)
+					.getArgsExpressao();
+			StringBuilder retorno = new StringBuilder();
+			List<String> temporarios = new ArrayList<String>();
+			for (int i = 0; i < parametros.size(); i++) {
+				String temporario = novoNome(parametros.get(i));
+				temporarios.add(temporario);
+				retorno.append(recuo).append(
+						tipoJava(tiposParametros.get(i))).append(' ').append(
+						temporario).append(" = ").append(
+						expressao(argumentos.get(i))).append(";\n");
+			}
+			for (int i = 0; i < parametros.size(); i++) {
+				retorno.append(recuo).append(nomes.get(parametros.get(i)))
+						.append(" = ").append(temporarios.get(i)).append(
+								";\n");
+			}
+			return retorno.append(recuo).append("continue;\n").toString();
+		}
+		return recuo + "return " + expressao(exp) + ";\n";
+	}
+
+	private void coletar(DeclaracaoFuncional declaracao,
+			List<DecVariavel> variaveis, List<DecFuncao> decFuncoes) {
+		if (declaracao instanceof DecComposta) {
+			coletar(((DecComposta) declaracao).getD1(), variaveis, decFuncoes);
+			coletar(((DecComposta) declaracao).getD2(), variaveis, decFuncoes);
+		} else if (declaracao instanceof DecVariavel) {
+			variaveis.add((DecVariavel) declaracao);
+		} else if (declaracao instanceof DecFuncao) {
+			decFuncoes.add((DecFuncao) declaracao);
+		} else {
+			throw new ConstrucaoNaoSuportadaException(declaracao);
+		}
+	}
+
+	private String binaria(ExpBinaria exp, String operador) {
+		return "(" + expressao(exp.getEsq()) + " " + operador + " "
+				+ expressao(exp.getDir()) + ")";
+	}
+
+	private String novoNome(Id id) {
+		return id.getIdName() + "_" + (++contador);
+	}
+
+	private static String metodo(TipoPrimitivo tipo, String nome,
+			List<String> parametros, String corpo) {
+		return "\tprivate static " + tipoJava(tipo) + " " + nome + "("
+				+ juntar(parametros) + ") {\n\t\treturn " + corpo + ";\n\t}\n";
+	}
+
+	private static String laco(TipoPrimitivo tipo, String nome,
+			List<String> parametros, String comandos) {
+		return "\tprivate static " + tipoJava(tipo) + " " + nome + "("
+				+ juntar(parametros) + ") {\n\t\twhile (true) {\n" + comandos
+				+ "\t\t}\n\t}\n";
+	}
+
+	private static String juntar(List<String> partes) {
+		StringBuilder retorno = new StringBuilder();
+		for (String parte : partes) {
+			if (retorno.length() > 0) {
+				retorno.append(", ");
+			}
+			retorno.append(parte);
+		}
+		return retorno.toString();
+	}
+
+	/**
+	 * Obtem o tipo primitivo correspondente ao tipo dado. O nome e' usado na
+	 * comparacao porque <code>eIgual</code> de um tipo polimorfico ainda nao
+	 * inferido o instanciaria.
+	 */
+	private static TipoPrimitivo primitivo(Tipo tipo) {
+		for (TipoPrimitivo primitivo : TipoPrimitivo.values()) {
+			if (primitivo.getNome().equals(tipo.getNome())) {
+				return primitivo;
+			}
+		}
+		throw new ConstrucaoNaoSuportadaException(tipo);
+	}
+
+	private static String tipoJava(TipoPrimitivo tipo) {
+		switch (tipo) {
+		case INTEIRO:
+			return "int";
+		case BOOLEANO:
+			return "boolean";
+		default:
+			return "String";
+		}
+	}
+
+	private static String classeValor(TipoPrimitivo tipo) {
+		switch (tipo) {
+		case INTEIRO:
+			return "ValorInteiro";
+		case BOOLEANO:
+			return "ValorBooleano";
+		default:
+			return "ValorString";
+		}
+	}
+
+	private static String literal(String valor) {
+		StringBuilder retorno = new StringBuilder("\"");
+		for (char c : valor.toCharArray()) {
+			if (c == '"' || c == '\\') {
+				retorno.append('\\').append(c);
+			} else if (c < 0x20) {
+				retorno.append(String.format("\\%03o", (int) c));
+			} else if (c > 0x7e) {
+				retorno.append(String.format("\\u%04x", (int) c));
+			} else {
+				retorno.append(c);
+			}
+		}
+		return retorno.append('"').toString();
+	}
+}
@@ -0,0 +1,17 @@
+package lf2.plp.functional2.compilacao;
+
+import lf2.plp.expressions2.expression.Valor;
+
+/**
+ * Interface implementada pelas classes geradas pelo <code>GeradorJava</code>.
+ */
+public interface ProgramaCompilado {
+
+	/**
+	 * Executa o programa.
+	 * 
+	 * @return o valor da expressao do programa.
+	 */
+	public Valor executar();
+
+}
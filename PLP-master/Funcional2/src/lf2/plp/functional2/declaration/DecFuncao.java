@@ -138,13 +138,8 @@ public class DecFuncao implements DeclaracaoFuncional {
 
 	@Override
 	public void elabora(AmbienteExecucao amb, AmbienteExecucao aux) throws VariavelJaDeclaradaException {
-		aux.map(getId(), getFuncao());
-		
-		//passos a mais
-		AmbienteExecucao ambienteClone = amb.clone();
-		ambienteClone.incrementa();
-		ambienteClone.map(getId(), getFuncao());
 		getFuncao().setId(getId());
+		aux.map(getId(), getFuncao().fechar(amb));
 	}
 
 	@Override
@@ -4,10 +4,8 @@ import static java.util.Arrays.asList;
 import static lf2.plp.expressions1.util.ToStringProvider.listToString;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 
 import lf2.plp.expressions1.util.Tipo;
 import lf2.plp.expressions2.expression.Expressao;
@@ -17,15 +15,27 @@ import lf2.plp.expressions2.memory.AmbienteCompilacao;
 import lf2.plp.expressions2.memory.AmbienteExecucao;
 import lf2.plp.expressions2.memory.VariavelJaDeclaradaException;
 import lf2.plp.expressions2.memory.VariavelNaoDeclaradaException;
+import lf2.plp.functional1.util.CacheAplicacao;
 import lf2.plp.functional1.util.DefFuncao;
 import lf2.plp.functional1.util.TipoFuncao;
 import lf2.plp.functional1.util.TipoPolimorfico;
+import lf2.plp.functional1.util.Unificador;
+import lf2.plp.functional2.util.AvaliadorParalelo;
+import lf2.plp.functional2.util.ExpressaoVisitor;
 
 public class Aplicacao implements Expressao {
 
 	private Expressao func;
 	private List<? extends Expressao> argsExpressao;
 
+	/**
+	 * Indica se esta aplicacao esta em posicao de cauda no corpo de uma
+	 * funcao. Definido durante a verificacao de tipos.
+	 */
+	private boolean chamadaCauda;
+
+	private static final Valor[] SEM_ARGUMENTOS = new Valor[0];
+
 	public Aplicacao(Expressao f, Expressao... expressoes) {
 		this(f, asList(expressoes));
 	}
@@ -39,24 +49,58 @@ public class Aplicacao implements Expressao {
 			throws VariavelNaoDeclaradaException, VariavelJaDeclaradaException {
 
 		ValorFuncao funcao = (ValorFuncao) func.avaliar(ambiente);
+		if (!funcao.isFechada()) {
+			// funcao construida durante a avaliacao, como a resultante de
+			// uma derivada: usa os mapeamentos visiveis no ponto da chamada
+			funcao = funcao.fechar(ambiente);
+		}
 
-		Map<Id, Valor> mapIdValor = resolveParametersBindings(ambiente, funcao);
-		ambiente.incrementa();		
-		includeValueBindings(ambiente, mapIdValor);
+		Valor[] argumentos = resolveParametersBindings(ambiente, funcao);
 
-		if(funcao.getId() != null){
-			ambiente.map(funcao.getId(), funcao.clone());
+		CacheAplicacao cache = funcao.getCache();
+		List<Valor> chave = null;
+		if (cache != null) {
+			chave = asList(argumentos);
+			Valor vresult = cache.get(chave);
+			if (vresult != null) {
+				return vresult;
+			}
+		} else if (chamadaCauda) {
+			return new ChamadaCauda(this, funcao, argumentos);
+		}
+
+		Valor vresult = funcao.getExp().avaliar(
+				novoAmbiente(funcao, argumentos));
+		while (vresult instanceof ChamadaCauda) {
+			// o corpo terminou numa chamada em posicao de cauda, executada
+			// neste mesmo laco, sem crescer a pilha
+			ChamadaCauda cauda = (ChamadaCauda) vresult;
+			vresult = cauda.getFuncao().getExp().avaliar(
+					novoAmbiente(cauda.getFuncao(), cauda.getArgumentos()));
+		}
+
+		if (cache != null) {
+			cache.put(chave, vresult);
 		}
-		Expressao exp = funcao.getExp().clone();
-		exp.reduzir(ambiente);
-		
-		Valor vresult = exp.avaliar(ambiente);
-		
-		ambiente.restaura();
-		
 		return vresult;
 	}
 
+	/**
+	 * Retorna o ambiente em que o corpo da funcao e' avaliado, formado pelo
+	 * ambiente capturado pela funcao, pelos parametros e pela propria
+	 * funcao. O corpo e' compartilhado, sem copia nem substituicao.
+	 */
+	private static AmbienteExecucao novoAmbiente(ValorFuncao funcao,
+			Valor[] argumentos) throws VariavelJaDeclaradaException {
+		AmbienteExecucao ambiente = funcao.novoAmbiente();
+		includeValueBindings(ambiente, funcao.getListaId(), argumentos);
+
+		if(funcao.getId() != null){
+			ambiente.map(funcao.getId(), funcao);
+		}
+		return ambiente;
+	}
+
 	/**
 	 * Realiza a verificacao de tipos desta expressao.
 	 * 
@@ -90,6 +134,12 @@ public class Aplicacao implements Expressao {
 			tipoFuncao = ((ValorFuncao) func).getTipo(ambiente);
 		}
 
+		// Um parametro cujo tipo ja foi inferido como funcao usa esse tipo.
+		Tipo inferido = new Unificador().representante(tipoFuncao);
+		if (inferido instanceof TipoFuncao) {
+			tipoFuncao = inferido;
+		}
+
 		if (tipoFuncao == null || tipoFuncao instanceof TipoPolimorfico) {
 			ArrayList<Tipo> params = new ArrayList<Tipo>();
 			for (Expressao valorReal : argsExpressao) {
@@ -141,32 +191,60 @@ public class Aplicacao implements Expressao {
 		return tipoFuncao.getTipo(ambiente, argsExpressao);
 	}
 
-	private void includeValueBindings(AmbienteExecucao ambiente,
-			Map<Id, Valor> mapIdValor) throws VariavelJaDeclaradaException {
-		for (Map.Entry<Id, Valor> mapeamento : mapIdValor.entrySet()) {
-			Id id = mapeamento.getKey();
-			Valor valor = mapeamento.getValue();
-			ambiente.map(id, valor);
+	/**
+	 * Liga cada parametro ao argumento da mesma posicao, diretamente no
+	 * bloco atual do ambiente.
+	 */
+	private static void includeValueBindings(AmbienteExecucao ambiente,
+			List<Id> parametros, Valor[] argumentos)
+			throws VariavelJaDeclaradaException {
+		switch (argumentos.length) {
+		case 0:
+			break;
+		case 1:
+			ambiente.map(parametros.get(0), argumentos[0]);
+			break;
+		case 2:
+			ambiente.map(parametros.get(0), argumentos[0]);
+			ambiente.map(parametros.get(1), argumentos[1]);
+			break;
+		default:
+			for (int i = 0; i < argumentos.length; i++) {
+				ambiente.map(parametros.get(i), argumentos[i]);
+			}
 		}
 	}
 
-	private Map<Id, Valor> resolveParametersBindings(AmbienteExecucao ambiente,
+	/**
+	 * Avalia os argumentos na ordem dos parametros. As aridades mais comuns
+	 * tem um caminho proprio, sem laco nem iterador.
+	 */
+	private Valor[] resolveParametersBindings(AmbienteExecucao ambiente,
 			DefFuncao funcao) throws VariavelNaoDeclaradaException,
 			VariavelJaDeclaradaException {
-		List<Id> parametrosId = funcao.getListaId();
-		List<? extends Expressao> expressoesValorReal = argsExpressao;
+		List<? extends Expressao> args = argsExpressao;
 
-		Map<Id, Valor> mapIdValor = new HashMap<Id, Valor>();
-
-		Iterator<? extends Expressao> iterExpressoesValor = expressoesValorReal
-				.iterator();
-		for (Id id : parametrosId) {
-			Expressao exp = iterExpressoesValor.next();
-			Valor valorReal = exp.avaliar(ambiente);
-			mapIdValor.put(id, valorReal);
+		AvaliadorParalelo paralelo = ambiente.getAvaliadorParalelo();
+		if (paralelo != null) {
+			return paralelo.avaliar(args, ambiente).toArray(
+					new Valor[funcao.getAridade()]);
 		}
 
-		return mapIdValor;
+		switch (funcao.getAridade()) {
+		case 0:
+			return SEM_ARGUMENTOS;
+		case 1:
+			return new Valor[] { args.get(0).avaliar(ambiente) };
+		case 2:
+			return new Valor[] { args.get(0).avaliar(ambiente),
+					args.get(1).avaliar(ambiente) };
+		default:
+			Valor[] argumentos = new Valor[funcao.getAridade()];
+			for (int i = 0; i < argumentos.length; i++) {
+				argumentos[i] = args.get(i).avaliar(ambiente);
+			}
+			return argumentos;
+		}
 	}
 
 	/**
@@ -193,6 +271,14 @@ public class Aplicacao implements Expressao {
 		return this;
 	}
 	
+	public boolean isChamadaCauda() {
+		return chamadaCauda;
+	}
+
+	public void setChamadaCauda(boolean chamadaCauda) {
+		this.chamadaCauda = chamadaCauda;
+	}
+
 	public Aplicacao clone() {
 		Aplicacao retorno;
 		ArrayList<Expressao> novaLista = new ArrayList<Expressao>(this.argsExpressao.size());
@@ -204,7 +290,12 @@ public class Aplicacao implements Expressao {
 		}
 		
 		retorno = new Aplicacao(this.func.clone(), novaLista);
+		retorno.setChamadaCauda(chamadaCauda);
 		
 		return retorno;
 	}
+
+	public <T> T accept(ExpressaoVisitor<T> visitor) {
+		return visitor.visit(this);
+	}
 }
@@ -0,0 +1,72 @@
+package lf2.plp.functional2.expression;
+
+import lf2.plp.expressions1.util.Tipo;
+import lf2.plp.expressions2.expression.Expressao;
+import lf2.plp.expressions2.expression.Valor;
+import lf2.plp.expressions2.memory.AmbienteCompilacao;
+import lf2.plp.expressions2.memory.AmbienteExecucao;
+import lf2.plp.expressions2.memory.VariavelJaDeclaradaException;
+import lf2.plp.expressions2.memory.VariavelNaoDeclaradaException;
+import lf2.plp.functional2.util.ExpressaoVisitor;
+
+/**
+ * Resultado de uma aplicacao em posicao de cauda. Em vez de avaliar o corpo
+ * da funcao chamada, a aplicacao devolve a chamada pendente, com os
+ * argumentos ja avaliados, para a aplicacao que esta avaliando o corpo
+ * atual; esta a executa no mesmo laco. Nunca escapa de
+ * <code>Aplicacao</code>.
+ */
+class ChamadaCauda implements Valor {
+
+	/**
+	 * A aplicacao que produziu esta chamada, usada na verificacao de tipos.
+	 */
+	private Aplicacao aplicacao;
+
+	private ValorFuncao funcao;
+
+	private Valor[] argumentos;
+
+	public ChamadaCauda(Aplicacao aplicacao, ValorFuncao funcao, Valor[] argumentos) {
+		this.aplicacao = aplicacao;
+		this.funcao = funcao;
+		this.argumentos = argumentos;
+	}
+
+	public ValorFuncao getFuncao() {
+		return funcao;
+	}
+
+	/**
+	 * Retorna os argumentos, na ordem dos parametros da funcao.
+	 */
+	public Valor[] getArgumentos() {
+		return argumentos;
+	}
+
+	public Valor avaliar(AmbienteExecucao amb) {
+		return this;
+	}
+
+	public boolean checaTipo(AmbienteCompilacao amb)
+			throws VariavelNaoDeclaradaException, VariavelJaDeclaradaException {
+		return aplicacao.checaTipo(amb);
+	}
+
+	public Tipo getTipo(AmbienteCompilacao amb)
+			throws VariavelNaoDeclaradaException, VariavelJaDeclaradaException {
+		return aplicacao.getTipo(amb);
+	}
+
+	public Expressao reduzir(AmbienteExecucao ambiente) {
+		return this;
+	}
+
+	public ChamadaCauda clone() {
+		return this;
+	}
+
+	public <T> T accept(ExpressaoVisitor<T> visitor) {
+		return visitor.visitValorInterno(this);
+	}
+}
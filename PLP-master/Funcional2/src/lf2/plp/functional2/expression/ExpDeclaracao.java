@@ -14,6 +14,8 @@ import lf2.plp.expressions2.memory.ContextoExecucao;
 import lf2.plp.expressions2.memory.VariavelJaDeclaradaException;
 import lf2.plp.expressions2.memory.VariavelNaoDeclaradaException;
 import lf2.plp.functional1.declaration.DeclaracaoFuncional;
+import lf2.plp.functional2.util.AvaliadorParalelo;
+import lf2.plp.functional2.util.ExpressaoVisitor;
 
 public class ExpDeclaracao implements Expressao {
 
@@ -46,12 +48,17 @@ public class ExpDeclaracao implements Expressao {
 		// fazer o mapeamento.
 		AmbienteExecucao aux = new ContextoExecucao();
 		aux.incrementa();
-		declaracao.elabora(ambiente,aux);
+		AvaliadorParalelo paralelo = ambiente.getAvaliadorParalelo();
+		if (paralelo != null) {
+			paralelo.elaborar(declaracao, ambiente, aux);
+		} else {
+			declaracao.elabora(ambiente,aux);
+		}
 		declaracao.incluir(ambiente,aux);
 		aux.restaura();
 		Valor vresult = expressao.avaliar(ambiente);
 		
-		if(vresult instanceof ValorFuncao)
+		if(vresult instanceof ValorFuncao && !((ValorFuncao) vresult).isFechada())
 			vresult.reduzir(ambiente);
 		
 		ambiente.restaura();
@@ -107,6 +114,16 @@ public class ExpDeclaracao implements Expressao {
 	 */
 	public Tipo getTipo(AmbienteCompilacao ambiente)
 			throws VariavelNaoDeclaradaException, VariavelJaDeclaradaException {
+		Tipo tipo = ambiente.getTipoCalculado(this);
+		if (tipo == null) {
+			tipo = calcularTipo(ambiente);
+			ambiente.mapTipoCalculado(this, tipo);
+		}
+		return tipo;
+	}
+
+	private Tipo calcularTipo(AmbienteCompilacao ambiente)
+			throws VariavelNaoDeclaradaException, VariavelJaDeclaradaException {
 		ambiente.incrementa();
 
 		Tipo vresult = null;
@@ -121,6 +138,10 @@ public class ExpDeclaracao implements Expressao {
 		return vresult;
 	}
 
+	public DeclaracaoFuncional getDeclaracao() {
+		return declaracao;
+	}
+
 	/**
 	 * Returns the expressao.
 	 * 
@@ -162,4 +183,8 @@ public class ExpDeclaracao implements Expressao {
 		return retorno;
 	}
 	
+
+	public <T> T accept(ExpressaoVisitor<T> visitor) {
+		return visitor.visit(this);
+	}
 }
@@ -15,6 +15,7 @@ import lf2.plp.expressions2.memory.VariavelNaoDeclaradaException;
 import lf2.plp.functional1.util.TipoFuncao;
 import lf2.plp.functional2.util.Derivador;
 import lf2.plp.functional2.expression.ValorFuncao;
+import lf2.plp.functional2.util.ExpressaoVisitor;
 /**
  * Expressão que representa a avaliação da derivada simbólica de uma função
  * em relação a uma variável.
@@ -69,7 +70,7 @@ public class ExpDeriv implements Expressao {
         // Por isso, o resultado da derivada seria 0, o que está incorreto.
         // Neste caso, temos reduzir o corpo original primeiro.
         if (ResultadoFinal instanceof lf2.plp.expressions2.expression.ValorInteiro && 
-            ((lf2.plp.expressions2.expression.ValorInteiro) ResultadoFinal).valor() == 0) {
+            ((lf2.plp.expressions2.expression.ValorInteiro) ResultadoFinal).valorPrimitivo() == 0) {
             
             Expressao corpoReduzido = this.funcao.reduzir(amb); 
 
@@ -156,4 +157,8 @@ public class ExpDeriv implements Expressao {
     public String toString() {
         return "derive(" + funcao.toString() + " by " + variavel.toString() + ")";
     }
+
+    public <T> T accept(ExpressaoVisitor<T> visitor) {
+        return visitor.visit(this);
+    }
 }
\ No newline at end of file
@@ -8,6 +8,7 @@ import lf2.plp.expressions2.expression.Id;
 import lf2.plp.functional2.expression.ValorVetor;
 import lf2.plp.functional2.util.Derivador;
 import lf2.plp.expressions1.util.Tipo;
+import lf2.plp.functional2.util.ExpressaoVisitor;
 import lf2.plp.functional2.util.TipoVetor;
 
 import lf2.plp.expressions2.memory.AmbienteCompilacao;
@@ -73,6 +74,8 @@ public class ExpGradiente implements Expressao {
     public Expressao clone() {
         return new ExpGradiente(funcao.clone(), List.copyOf(variaveis));
     }
-}
-
 
+    public <T> T accept(ExpressaoVisitor<T> visitor) {
+        return visitor.visit(this);
+    }
+}
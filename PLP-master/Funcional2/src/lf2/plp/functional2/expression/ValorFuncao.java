@@ -9,7 +9,9 @@ import lf2.plp.expressions2.expression.Expressao;
 import lf2.plp.expressions2.expression.Id;
 import lf2.plp.expressions2.expression.Valor;
 import lf2.plp.expressions2.memory.AmbienteExecucao;
+import lf2.plp.expressions2.memory.ContextoExecucao;
 import lf2.plp.functional1.util.DefFuncao;
+import lf2.plp.functional2.util.ExpressaoVisitor;
 
 /**
  * @author S�rgio
@@ -18,18 +20,73 @@ public class ValorFuncao extends DefFuncao implements ValorAbstrato {
 
 	private Id id;
 
+	/**
+	 * O ambiente capturado quando a funcao foi avaliada, ou
+	 * <code>null</code> se esta instancia e' a expressao <code>fn</code>
+	 * do programa. Os parametros e o corpo sao compartilhados com essa
+	 * expressao e nunca sao alterados pela aplicacao.
+	 */
+	private ContextoExecucao ambienteCapturado;
+
 	public ValorFuncao(List<Id> argsId, Expressao exp) {
 		super(argsId, exp);
 	}
 
+	private ValorFuncao(ValorFuncao codigo, ContextoExecucao ambienteCapturado) {
+		super(codigo.argsId, codigo.exp);
+		this.id = codigo.id;
+		this.ambienteCapturado = ambienteCapturado;
+		setCache(codigo.getCache());
+	}
+
 	public Valor avaliar(AmbienteExecucao ambiente) {
-		this.reduzir(ambiente);
-		return this;
+		if (isFechada()) {
+			return this;
+		}
+		return fechar(ambiente);
+	}
+
+	/**
+	 * Retorna o fecho desta funcao no ambiente dado: uma funcao com os
+	 * mesmos parametros e o mesmo corpo, que guarda uma copia dos
+	 * mapeamentos visiveis em <code>ambiente</code>.
+	 */
+	public ValorFuncao fechar(AmbienteExecucao ambiente) {
+		return new ValorFuncao(this, (ContextoExecucao) ambiente.clone());
+	}
+
+	public boolean isFechada() {
+		return ambienteCapturado != null;
+	}
+
+	/**
+	 * Retorna um novo ambiente, com um bloco vazio sobre o ambiente
+	 * capturado, no qual o corpo de uma aplicacao desta funcao e' avaliado.
+	 * 
+	 * @precondition this.isFechada();
+	 */
+	public AmbienteExecucao novoAmbiente() {
+		AmbienteExecucao ambiente = new ContextoExecucao(ambienteCapturado);
+		ambiente.incrementa();
+		return ambiente;
+	}
+
+	/**
+	 * Retorna esta funcao com os valores capturados substituidos no corpo,
+	 * sem alterar o codigo compartilhado.
+	 */
+	private ValorFuncao expandir() {
+		ValorFuncao retorno = new ValorFuncao(argsId, exp).clone();
+		retorno.setId(id);
+		retorno.reduzir(new ContextoExecucao(ambienteCapturado));
+		return retorno;
 	}
 
 	@Override
 	public String toString() {
-	
+		if (isFechada()) {
+			return expandir().toString();
+		}
 		return String.format("fn %s . %s", listToString(getListaId(), " "),
 				getExp());
 	}
@@ -43,6 +100,9 @@ public class ValorFuncao extends DefFuncao implements ValorAbstrato {
 	}
 	
 	public Expressao reduzir(AmbienteExecucao ambiente) {
+		if (isFechada()) {
+			return expandir();
+		}
 		ambiente.incrementa();
 
 		if(this.id != null){
@@ -64,6 +124,9 @@ public class ValorFuncao extends DefFuncao implements ValorAbstrato {
 	}
 	
 	public ValorFuncao clone() {
+		if (isFechada()) {
+			return expandir();
+		}
 		ValorFuncao retorno;
 		List<Id> novaLista = new ArrayList<Id>(this.argsId.size());
 		
@@ -78,4 +141,8 @@ public class ValorFuncao extends DefFuncao implements ValorAbstrato {
 		
 		return retorno;
 	}
+
+	public <T> T accept(ExpressaoVisitor<T> visitor) {
+		return visitor.visit(this);
+	}
 }
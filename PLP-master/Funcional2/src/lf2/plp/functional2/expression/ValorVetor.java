@@ -6,6 +6,7 @@ import java.util.List;
 import lf2.plp.expressions1.util.Tipo;
 import lf2.plp.expressions2.memory.AmbienteCompilacao;
 import lf2.plp.expressions2.memory.VariavelNaoDeclaradaException;
+import lf2.plp.functional2.util.ExpressaoVisitor;
 import lf2.plp.functional2.util.TipoVetor;
 import lf2.plp.expressions2.memory.VariavelJaDeclaradaException;
 import lf2.plp.expressions2.memory.AmbienteExecucao;
@@ -67,4 +68,8 @@ public class ValorVetor implements Valor {
     public String toString() {
         return elementos.toString();
     }
+
+    public <T> T accept(ExpressaoVisitor<T> visitor) {
+        return visitor.visit(this);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,187 @@
+package lf2.plp.functional2.util;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+import lf2.plp.expressions2.expression.ExpBinaria;
+import lf2.plp.expressions2.expression.ExpMult;
+import lf2.plp.expressions2.expression.ExpUnaria;
+import lf2.plp.expressions2.expression.Expressao;
+import lf2.plp.expressions2.expression.Valor;
+import lf2.plp.expressions2.memory.AmbienteExecucao;
+import lf2.plp.expressions2.memory.ContextoExecucao;
+import lf2.plp.expressions2.memory.VariavelJaDeclaradaException;
+import lf2.plp.functional1.declaration.DecComposta;
+import lf2.plp.functional1.declaration.DecVariavel;
+import lf2.plp.functional1.declaration.DeclaracaoFuncional;
+import lf2.plp.functional1.expression.IfThenElse;
+import lf2.plp.functional2.expression.Aplicacao;
+import lf2.plp.functional2.expression.ExpDeclaracao;
+
+/**
+ * Avalia em paralelo expressoes irmas, que nao dependem umas das outras: os
+ * argumentos de uma aplicacao e as variaveis declaradas num mesmo
+ * <code>let</code>. Cada expressao cujo custo estimado atinge o limiar vira
+ * uma tarefa fork/join, avaliada numa visao propria do ambiente que enxerga
+ * os blocos existentes sem altera-los. Como a linguagem nao tem efeitos
+ * colaterais, o resultado e' o mesmo da avaliacao sequencial.
+ */
+public class AvaliadorParalelo {
+
+	/**
+	 * Custo estimado de uma aplicacao, cujo corpo so e' conhecido durante a
+	 * avaliacao.
+	 */
+	public static final int CUSTO_APLICACAO = 100;
+
+	private int limiar;
+
+	/**
+	 * @param limiar
+	 *            o custo estimado a partir do qual uma expressao e' avaliada
+	 *            numa tarefa separada.
+	 */
+	public AvaliadorParalelo(int limiar) {
+		this.limiar = limiar;
+	}
+
+	/**
+	 * Retorna os valores das expressoes, na mesma ordem. Se menos de duas
+	 * expressoes atingem o limiar, todas sao avaliadas na thread atual.
+	 */
+	public List<Valor> avaliar(List<? extends Expressao> expressoes,
+			AmbienteExecucao ambiente) {
+		List<Tarefa> tarefas = new ArrayList<Tarefa>();
+		for (Expressao exp : expressoes) {
+			if (custo(exp) >= limiar) {
+				tarefas.add(new Tarefa(exp, (ContextoExecucao) ambiente));
+			}
+		}
+		if (tarefas.size() < 2) {
+			tarefas.clear();
+		} else {
+			ForkJoinTask.invokeAll(tarefas);
+		}
+
+		List<Valor> valores = new ArrayList<Valor>(expressoes.size());
+		Iterator<Tarefa> it = tarefas.iterator();
+		Tarefa proxima = it.hasNext() ? it.next() : null;
+		for (Expressao exp : expressoes) {
+			if (proxima != null && proxima.expressao == exp) {
+				valores.add(proxima.join());
+				proxima = it.hasNext() ? it.next() : null;
+			} else {
+				valores.add(exp.avaliar(ambiente));
+			}
+		}
+		return valores;
+	}
+
+	/**
+	 * Elabora <code>declaracao</code> como <code>elabora</code>, mas
+	 * avaliando em paralelo as expressoes das variaveis declaradas.
+	 */
+	public void elaborar(DeclaracaoFuncional declaracao,
+			AmbienteExecucao amb, AmbienteExecucao aux)
+			throws VariavelJaDeclaradaException {
+		List<DecVariavel> variaveis = new ArrayList<DecVariavel>();
+		coletarVariaveis(declaracao, variaveis);
+		List<Expressao> expressoes = new ArrayList<Expressao>();
+		for (DecVariavel variavel : variaveis) {
+			expressoes.add(variavel.getExpressao());
+		}
+		elaborar(declaracao, amb, aux, avaliar(expressoes, amb).iterator());
+	}
+
+	private static void elaborar(DeclaracaoFuncional declaracao,
+			AmbienteExecucao amb, AmbienteExecucao aux, Iterator<Valor> valores)
+			throws VariavelJaDeclaradaException {
+		if (declaracao instanceof DecComposta) {
+			DecComposta composta = (DecComposta) declaracao;
+			elaborar(composta.getD1(), amb, aux, valores);
+			elaborar(composta.getD2(), amb, aux, valores);
+		} else if (declaracao instanceof DecVariavel) {
+			aux.map(((DecVariavel) declaracao).getId(), valores.next());
+		} else {
+			declaracao.elabora(amb, aux);
+		}
+	}
+
+	private static void coletarVariaveis(DeclaracaoFuncional declaracao,
+			List<DecVariavel> variaveis) {
+		if (declaracao instanceof DecComposta) {
+			DecComposta composta = (DecComposta) declaracao;
+			coletarVariaveis(composta.getD1(), variaveis);
+			coletarVariaveis(composta.getD2(), variaveis);
+		} else if (declaracao instanceof DecVariavel) {
+			variaveis.add((DecVariavel) declaracao);
+		}
+	}
+
+	/**
+	 * Estima o custo de avaliar <code>exp</code> pela quantidade de nos, em
+	 * que cada aplicacao conta <code>CUSTO_APLICACAO</code>.
+	 */
+	public static int custo(Expressao exp) {
+		if (exp instanceof Aplicacao) {
+			int total = CUSTO_APLICACAO;
+			for (Expressao argumento : ((Aplicacao) exp).getArgsExpressao()) {
+				total += custo(argumento);
+			}
+			return total;
+		}
+		if (exp instanceof ExpBinaria) {
+			ExpBinaria binaria = (ExpBinaria) exp;
+			return 1 + custo(binaria.getEsq()) + custo(binaria.getDir());
+		}
+		if (exp instanceof ExpMult) {
+			ExpMult mult = (ExpMult) exp;
+			return 1 + custo(mult.getEsq()) + custo(mult.getDir());
+		}
+		if (exp instanceof ExpUnaria) {
+			return 1 + custo(((ExpUnaria) exp).getExp());
+		}
+		if (exp instanceof IfThenElse) {
+			IfThenElse se = (IfThenElse) exp;
+			return 1 + custo(se.getCondicao())
+					+ Math.max(custo(se.getThen()), custo(se.getElseExpressao()));
+		}
+		if (exp instanceof ExpDeclaracao) {
+			ExpDeclaracao expDec = (ExpDeclaracao) exp;
+			List<DecVariavel> variaveis = new ArrayList<DecVariavel>();
+			coletarVariaveis(expDec.getDeclaracao(), variaveis);
+			int total = 1 + custo(expDec.getExpressao());
+			for (DecVariavel variavel : variaveis) {
+				total += custo(variavel.getExpressao());
+			}
+			return total;
+		}
+		return 1;
+	}
+
+	/**
+	 * Avalia uma expressao numa visao propria do ambiente, para que a
+	 * avaliacao nao altere a pilha de blocos compartilhada.
+	 */
+	private static class Tarefa extends RecursiveTask<Valor> {
+
+		private static final long serialVersionUID = 1L;
+
+		private Expressao expressao;
+
+		private ContextoExecucao ambiente;
+
+		Tarefa(Expressao expressao, ContextoExecucao ambiente) {
+			this.expressao = expressao;
+			this.ambiente = ambiente;
+		}
+
+		@Override
+		protected Valor compute() {
+			return expressao.avaliar(new ContextoExecucao(ambiente));
+		}
+	}
+}
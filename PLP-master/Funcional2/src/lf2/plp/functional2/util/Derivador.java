@@ -125,11 +125,11 @@ public class Derivador {
                 Id x1 = null; Id x2 = null;
 
                 // Extrai coeficientes e IDs
-                if (m1.getEsq() instanceof ValorInteiro && m1.getDir() instanceof Id) { c1 = ((ValorInteiro) m1.getEsq()).valor(); x1 = (Id) m1.getDir(); } 
-                else if (m1.getDir() instanceof ValorInteiro && m1.getEsq() instanceof Id) { c1 = ((ValorInteiro) m1.getDir()).valor(); x1 = (Id) m1.getEsq(); }
+                if (m1.getEsq() instanceof ValorInteiro && m1.getDir() instanceof Id) { c1 = ((ValorInteiro) m1.getEsq()).valorPrimitivo(); x1 = (Id) m1.getDir(); } 
+                else if (m1.getDir() instanceof ValorInteiro && m1.getEsq() instanceof Id) { c1 = ((ValorInteiro) m1.getDir()).valorPrimitivo(); x1 = (Id) m1.getEsq(); }
                 
-                if (m2.getEsq() instanceof ValorInteiro && m2.getDir() instanceof Id) { c2 = ((ValorInteiro) m2.getEsq()).valor(); x2 = (Id) m2.getDir(); } 
-                else if (m2.getDir() instanceof ValorInteiro && m2.getEsq() instanceof Id) { c2 = ((ValorInteiro) m2.getDir()).valor(); x2 = (Id) m2.getEsq(); }
+                if (m2.getEsq() instanceof ValorInteiro && m2.getDir() instanceof Id) { c2 = ((ValorInteiro) m2.getEsq()).valorPrimitivo(); x2 = (Id) m2.getDir(); } 
+                else if (m2.getDir() instanceof ValorInteiro && m2.getEsq() instanceof Id) { c2 = ((ValorInteiro) m2.getDir()).valorPrimitivo(); x2 = (Id) m2.getEsq(); }
 
                 if (c1 != null && c2 != null && x1 != null && x2 != null && x1.getIdName().equals(x2.getIdName())) {
                     int coef = c1 + c2;
@@ -140,12 +140,12 @@ public class Derivador {
             }
 
             // 2. Regras de Adição com Zero
-            if (esq instanceof ValorInteiro && ((ValorInteiro) esq).valor() == 0) return dir;
-            if (dir instanceof ValorInteiro && ((ValorInteiro) dir).valor() == 0) return esq;
+            if (esq instanceof ValorInteiro && ((ValorInteiro) esq).valorPrimitivo() == 0) return dir;
+            if (dir instanceof ValorInteiro && ((ValorInteiro) dir).valorPrimitivo() == 0) return esq;
 
             // 3. Soma de Constantes
             if (esq instanceof ValorInteiro && dir instanceof ValorInteiro) {
-                int v = ((ValorInteiro) esq).valor() + ((ValorInteiro) dir).valor();
+                int v = ((ValorInteiro) esq).valorPrimitivo() + ((ValorInteiro) dir).valorPrimitivo();
                 return new ValorInteiro(v);
             }
 
@@ -163,12 +163,12 @@ public class Derivador {
             Expressao dir = simplificarRecursivo(s.getDir());
 
             // 1. Regras de Subtração com Zero
-            if (dir instanceof ValorInteiro && ((ValorInteiro) dir).valor() == 0) return esq;
-            if (esq instanceof ValorInteiro && ((ValorInteiro) esq).valor() == 0) return new ExpMenos(dir);
+            if (dir instanceof ValorInteiro && ((ValorInteiro) dir).valorPrimitivo() == 0) return esq;
+            if (esq instanceof ValorInteiro && ((ValorInteiro) esq).valorPrimitivo() == 0) return new ExpMenos(dir);
 
             // 2. Subtração de Constantes
             if (esq instanceof ValorInteiro && dir instanceof ValorInteiro) {
-                int v = ((ValorInteiro) esq).valor() - ((ValorInteiro) dir).valor();
+                int v = ((ValorInteiro) esq).valorPrimitivo() - ((ValorInteiro) dir).valorPrimitivo();
                 return new ValorInteiro(v);
             }
 
@@ -180,7 +180,7 @@ public class Derivador {
             Expressao exp = simplificarRecursivo(m.getExp());
 
             // 1. Regra do -0 e -(-e)
-            if (exp instanceof ValorInteiro && ((ValorInteiro) exp).valor() == 0) return new ValorInteiro(0);
+            if (exp instanceof ValorInteiro && ((ValorInteiro) exp).valorPrimitivo() == 0) return new ValorInteiro(0);
             if (exp instanceof ExpMenos) return simplificarRecursivo(((ExpMenos) exp).getExp());
 
             return new ExpMenos(exp);
@@ -192,16 +192,16 @@ public class Derivador {
             Expressao dir = simplificarRecursivo(m.getDir());
 
             // 1. Regras de Multiplicação por Zero
-            if (esq instanceof ValorInteiro && ((ValorInteiro) esq).valor() == 0) return new ValorInteiro(0);
-            if (dir instanceof ValorInteiro && ((ValorInteiro) dir).valor() == 0) return new ValorInteiro(0);
+            if (esq instanceof ValorInteiro && ((ValorInteiro) esq).valorPrimitivo() == 0) return new ValorInteiro(0);
+            if (dir instanceof ValorInteiro && ((ValorInteiro) dir).valorPrimitivo() == 0) return new ValorInteiro(0);
 
             // 2. Regras de Multiplicação por Um
-            if (esq instanceof ValorInteiro && ((ValorInteiro) esq).valor() == 1) return dir;
-            if (dir instanceof ValorInteiro && ((ValorInteiro) dir).valor() == 1) return esq;
+            if (esq instanceof ValorInteiro && ((ValorInteiro) esq).valorPrimitivo() == 1) return dir;
+            if (dir instanceof ValorInteiro && ((ValorInteiro) dir).valorPrimitivo() == 1) return esq;
 
             // 3. Multiplicação de Constantes
             if (esq instanceof ValorInteiro && dir instanceof ValorInteiro) {
-                int v = ((ValorInteiro) esq).valor() * ((ValorInteiro) dir).valor();
+                int v = ((ValorInteiro) esq).valorPrimitivo() * ((ValorInteiro) dir).valorPrimitivo();
                 return new ValorInteiro(v);
             }
 
@@ -0,0 +1,89 @@
+package lf2.plp.functional2.util;
+
+import lf2.plp.expressions2.expression.ExpAnd;
+import lf2.plp.expressions2.expression.ExpConcat;
+import lf2.plp.expressions2.expression.ExpEquals;
+import lf2.plp.expressions2.expression.ExpLength;
+import lf2.plp.expressions2.expression.ExpMenos;
+import lf2.plp.expressions2.expression.ExpMult;
+import lf2.plp.expressions2.expression.ExpNot;
+import lf2.plp.expressions2.expression.ExpOr;
+import lf2.plp.expressions2.expression.ExpSoma;
+import lf2.plp.expressions2.expression.ExpSub;
+import lf2.plp.expressions2.expression.Id;
+import lf2.plp.expressions2.expression.Valor;
+import lf2.plp.expressions2.expression.ValorBooleano;
+import lf2.plp.expressions2.expression.ValorInteiro;
+import lf2.plp.expressions2.expression.ValorString;
+import lf2.plp.functional1.expression.IfThenElse;
+import lf2.plp.functional2.expression.Aplicacao;
+import lf2.plp.functional2.expression.ExpDeclaracao;
+import lf2.plp.functional2.expression.ExpDeriv;
+import lf2.plp.functional2.expression.ExpGradiente;
+import lf2.plp.functional2.expression.ValorFuncao;
+import lf2.plp.functional2.expression.ValorIrredutivel;
+import lf2.plp.functional2.expression.ValorVetor;
+
+/**
+ * Visitante das expressoes da Linguagem Funcional 2. Cada expressao concreta
+ * chama, em <code>accept</code>, o metodo <code>visit</code> do seu proprio
+ * tipo; uma nova expressao que nao tenha o metodo correspondente aqui nao
+ * compila.
+ *
+ * @param <T>
+ *            o tipo do resultado da visita.
+ */
+public interface ExpressaoVisitor<T> {
+
+	T visit(ExpAnd expressao);
+
+	T visit(ExpConcat expressao);
+
+	T visit(ExpEquals expressao);
+
+	T visit(ExpLength expressao);
+
+	T visit(ExpMenos expressao);
+
+	T visit(ExpMult expressao);
+
+	T visit(ExpNot expressao);
+
+	T visit(ExpOr expressao);
+
+	T visit(ExpSoma expressao);
+
+	T visit(ExpSub expressao);
+
+	T visit(lf2.plp.expressions2.expression.ExpDeclaracao expressao);
+
+	T visit(Id id);
+
+	T visit(ValorBooleano valor);
+
+	T visit(ValorInteiro valor);
+
+	T visit(ValorString valor);
+
+	T visit(IfThenElse expressao);
+
+	T visit(Aplicacao expressao);
+
+	T visit(ExpDeclaracao expressao);
+
+	T visit(ExpDeriv expressao);
+
+	T visit(ExpGradiente expressao);
+
+	T visit(ValorFuncao valor);
+
+	T visit(ValorIrredutivel valor);
+
+	T visit(ValorVetor valor);
+
+	/**
+	 * Visita um valor interno ao interpretador, que nao aparece em programas,
+	 * como o resultado pendente de uma chamada em posicao de cauda.
+	 */
+	T visitValorInterno(Valor valor);
+}
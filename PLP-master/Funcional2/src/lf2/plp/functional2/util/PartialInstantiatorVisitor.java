@@ -1,12 +1,8 @@
 package lf2.plp.functional2.util;
 
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 
 import lf2.plp.expressions2.expression.ExpAnd;
@@ -14,12 +10,14 @@ import lf2.plp.expressions2.expression.ExpConcat;
 import lf2.plp.expressions2.expression.ExpEquals;
 import lf2.plp.expressions2.expression.ExpLength;
 import lf2.plp.expressions2.expression.ExpMenos;
+import lf2.plp.expressions2.expression.ExpMult;
 import lf2.plp.expressions2.expression.ExpNot;
 import lf2.plp.expressions2.expression.ExpOr;
 import lf2.plp.expressions2.expression.ExpSoma;
 import lf2.plp.expressions2.expression.ExpSub;
 import lf2.plp.expressions2.expression.Expressao;
 import lf2.plp.expressions2.expression.Id;
+import lf2.plp.expressions2.expression.Valor;
 import lf2.plp.expressions2.expression.ValorBooleano;
 import lf2.plp.expressions2.expression.ValorInteiro;
 import lf2.plp.expressions2.expression.ValorString;
@@ -31,7 +29,11 @@ import lf2.plp.functional1.expression.IfThenElse;
 import lf2.plp.functional2.declaration.DecFuncao;
 import lf2.plp.functional2.expression.Aplicacao;
 import lf2.plp.functional2.expression.ExpDeclaracao;
+import lf2.plp.functional2.expression.ExpDeriv;
+import lf2.plp.functional2.expression.ExpGradiente;
 import lf2.plp.functional2.expression.ValorFuncao;
+import lf2.plp.functional2.expression.ValorIrredutivel;
+import lf2.plp.functional2.expression.ValorVetor;
 
 /**
  * @author S�rgio
@@ -40,82 +42,44 @@ import lf2.plp.functional2.expression.ValorFuncao;
  * Window>Preferences>Java>Templates. To enable and disable the creation of type
  * comments go to Window>Preferences>Java>Code Generation.
  */
-public class PartialInstantiatorVisitor {
-	private Map<String, Method> metodosVisit;
+public class PartialInstantiatorVisitor implements ExpressaoVisitor<Expressao> {
 
-	private static PartialInstantiatorVisitor instance = null;
+	private AmbienteExecucao ambiente;
 
-	protected PartialInstantiatorVisitor() {
-		metodosVisit = new HashMap<String, Method>();
-		Method metodos[] = this.getClass().getMethods();
-		for (Method method : metodos) {
-			if (method.getName().startsWith("_visit")) {
-				metodosVisit.put(method.getName(), method);
-			}
-		}
-	}
+	private Set<Id> localVariables;
 
-	public static PartialInstantiatorVisitor getInstance() {
-		if (instance == null) {
-			instance = new PartialInstantiatorVisitor();
-		}
-		return instance;
+	public PartialInstantiatorVisitor(AmbienteExecucao ambiente,
+			Set<Id> localVariables) {
+		this.ambiente = ambiente;
+		this.localVariables = localVariables;
 	}
 
-	public Expressao visit(Expressao exp, AmbienteExecucao ambiente,
-			Set<Id> localVariables) {
+	/**
+	 * Retorna <code>exp</code> com os identificadores nao locais
+	 * substituidos pelos seus valores em <code>ambiente</code>.
+	 */
+	public static Expressao instanciar(Expressao exp,
+			AmbienteExecucao ambiente, Set<Id> localVariables) {
+		return exp.accept(new PartialInstantiatorVisitor(ambiente,
+				localVariables));
+	}
 
-		// Class.getName() returns package information as well.
-		// This strips off the package information giving us
-		// just the class name
-		String methodName = exp.getClass().getName();
-		methodName = "_visit"
-				+ methodName.substring(methodName.lastIndexOf('.') + 1);
+	private Expressao visit(Expressao exp) {
+		return exp.accept(this);
+	}
 
-		Expressao result = null;
-		// Now we try to invoke the method visit
-		try {
-			// Get the method visitFoo(Foo foo)
-			Method m = getMethod(methodName);
-			// o metodo visit existe
-			// Try to invoke visitFoo(Foo foo)
-			result = (Expressao) m.invoke(this, new Object[] { exp, ambiente,
-					localVariables });
-		} catch (IllegalAccessException e) {
-			System.out.println(e.getMessage());
-			e.printStackTrace();
-			throw new IllegalStateException(
-					"N�o foi poss�vel executar o m�todo (" + methodName
-							+ "). IllegalAccessException");
-
-		} catch (InvocationTargetException e) {
-			System.out.println(e.getMessage());
-			e.printStackTrace();
-
-			throw new IllegalStateException(
-					"N�o foi poss�vel executar o m�todo (" + methodName
-							+ "). InvocationTargetException");
-
-		} catch (NoSuchMethodException e) {
-			System.out.println(e.getMessage());
-			e.printStackTrace();
-
-			throw new IllegalStateException("O m�todo visit chamado ("
-					+ methodName + ") n�o foi implementado");
-		}
-		return result;
+	private Expressao visit(Expressao exp, Set<Id> novasVariaveisLocais) {
+		return instanciar(exp, ambiente, novasVariaveisLocais);
 	}
 
-	private Method getMethod(String name) throws NoSuchMethodException {
-		Object method = metodosVisit.get(name);
-		if (method == null)
-			throw new NoSuchMethodException("O m�todo '" + name
-					+ "' especificado n�o foi encontrado");
-		return (Method) method;
+	private Expressao naoImplementado(Expressao exp) {
+		String nome = exp.getClass().getName();
+		throw new IllegalStateException("O mtodo visit chamado ("
+				+ nome.substring(nome.lastIndexOf('.') + 1)
+				+ ") no foi implementado");
 	}
 
-	public Expressao _visitAplicacao(Aplicacao expressao,
-			AmbienteExecucao ambiente, Set<Id> localVariables) {
+	public Expressao visit(Aplicacao expressao) {
 		List<Expressao> novosValoresReais = new ArrayList<Expressao>(expressao
 				.getArgsExpressao().size());
 		Set<Id> novasVariaveisLocais = new HashSet<Id>(localVariables);
@@ -125,7 +89,7 @@ public class PartialInstantiatorVisitor {
 			novasVariaveisLocais.add((Id) func);
 
 		for (Expressao argReal : expressao.getArgsExpressao()) {
-			Expressao novoArg = visit(argReal, ambiente, novasVariaveisLocais);
+			Expressao novoArg = visit(argReal, novasVariaveisLocais);
 			novosValoresReais.add(novoArg);
 		}
 		
@@ -141,19 +105,17 @@ public class PartialInstantiatorVisitor {
 		return resultado;
 	}
 
-	public Expressao _visitExpAnd(ExpAnd expressao, AmbienteExecucao ambiente,
-			Set<Id> localVariables) {
+	public Expressao visit(ExpAnd expressao) {
 
-		Expressao esquerda = visit(expressao.getEsq(), ambiente, localVariables);
-		Expressao direita = visit(expressao.getDir(), ambiente, localVariables);
+		Expressao esquerda = visit(expressao.getEsq());
+		Expressao direita = visit(expressao.getDir());
 		ExpAnd resultado = new ExpAnd(esquerda, direita);
 		return resultado;
 	}
 
-	public Expressao _visitExpConcat(ExpConcat expressao,
-			AmbienteExecucao ambiente, Set<Id> localVariables) {
-		Expressao esquerda = visit(expressao.getEsq(), ambiente, localVariables);
-		Expressao direita = visit(expressao.getDir(), ambiente, localVariables);
+	public Expressao visit(ExpConcat expressao) {
+		Expressao esquerda = visit(expressao.getEsq());
+		Expressao direita = visit(expressao.getDir());
 		ExpConcat resultado = new ExpConcat(esquerda, direita);
 		return resultado;
 	}
@@ -189,72 +151,68 @@ public class PartialInstantiatorVisitor {
 //		return resultado;
 //	}
 
-	private DecFuncao visitDecFuncao(DecFuncao declaracao,
-			AmbienteExecucao ambiente, Set<Id> localVariables) {
+	private DecFuncao visitDecFuncao(DecFuncao declaracao) {
 		Set<Id> novasVariaveisLocais = new HashSet<Id>(localVariables);
 		novasVariaveisLocais.add(declaracao.getId());
-		ValorFuncao novaExpressao = (ValorFuncao) _visitValorFuncao(declaracao
-				.getFuncao(), ambiente, novasVariaveisLocais);
+		ValorFuncao novaExpressao = (ValorFuncao) visit(declaracao
+				.getFuncao(), novasVariaveisLocais);
 		DecFuncao resultado = new DecFuncao(declaracao.getId(), novaExpressao);
 		return resultado;
 	}
 
-	private DecVariavel visitDecVariavel(DecVariavel declaracao,
-			AmbienteExecucao ambiente, Set<Id> localVariables) {
+	private DecVariavel visitDecVariavel(DecVariavel declaracao) {
 		Set<Id> novasVariaveisLocais = new HashSet<Id>(localVariables);
 		novasVariaveisLocais.add(declaracao.getId());
-		Expressao novaExpressao = visit(declaracao.getExpressao(), ambiente,
+		Expressao novaExpressao = visit(declaracao.getExpressao(),
 				novasVariaveisLocais);
 		DecVariavel resultado = new DecVariavel(declaracao.getId(),
 				novaExpressao);
 		return resultado;
 	}
 
-	public Expressao _visitExpEquals(ExpEquals expressao,
-			AmbienteExecucao ambiente, Set<Id> localVariables) {
-		Expressao esquerda = visit(expressao.getEsq(), ambiente, localVariables);
-		Expressao direita = visit(expressao.getDir(), ambiente, localVariables);
+	public Expressao visit(ExpEquals expressao) {
+		Expressao esquerda = visit(expressao.getEsq());
+		Expressao direita = visit(expressao.getDir());
 		ExpEquals resultado = new ExpEquals(esquerda, direita);
 		return resultado;
 	}
 
-	public Expressao _visitExpLength(ExpLength expressao,
-			AmbienteExecucao ambiente, Set<Id> localVariables) {
+	public Expressao visit(ExpLength expressao) {
 
-		Expressao expInterna = visit(expressao.getExp(), ambiente,
-				localVariables);
+		Expressao expInterna = visit(expressao.getExp());
 		ExpLength resultado = new ExpLength(expInterna);
 		return resultado;
 	}
 
-	public Expressao _visitExpMenos(ExpMenos expressao,
-			AmbienteExecucao ambiente, Set<Id> localVariables) {
-		Expressao expInterna = visit(expressao.getExp(), ambiente,
-				localVariables);
+	public Expressao visit(ExpMenos expressao) {
+		Expressao expInterna = visit(expressao.getExp());
 		ExpMenos resultado = new ExpMenos(expInterna);
 		return resultado;
 	}
 
-	public Expressao _visitExpNot(ExpNot expressao, AmbienteExecucao ambiente,
-			Set<Id> localVariables) {
-		Expressao expInterna = visit(expressao.getExp(), ambiente,
-				localVariables);
+	public Expressao visit(ExpNot expressao) {
+		Expressao expInterna = visit(expressao.getExp());
 		ExpNot resultado = new ExpNot(expInterna);
 		return resultado;
 	}
 
-	public Expressao _visitExpOr(ExpOr expressao, AmbienteExecucao ambiente,
-			Set<Id> localVariables) {
-		Expressao esquerda = visit(expressao.getEsq(), ambiente, localVariables);
-		Expressao direita = visit(expressao.getDir(), ambiente, localVariables);
+	public Expressao visit(ExpMult expressao) {
+		Expressao esquerda = visit(expressao.getEsq());
+		Expressao direita = visit(expressao.getDir());
+		ExpMult resultado = new ExpMult(esquerda, direita);
+		return resultado;
+	}
+
+	public Expressao visit(ExpOr expressao) {
+		Expressao esquerda = visit(expressao.getEsq());
+		Expressao direita = visit(expressao.getDir());
 		ExpOr resultado = new ExpOr(esquerda, direita);
 		return resultado;
 	}
 
-	public Expressao _visitExpSoma(ExpSoma expressao,
-			AmbienteExecucao ambiente, Set<Id> localVariables) {
-		Expressao esquerda = visit(expressao.getEsq(), ambiente, localVariables);
-		Expressao direita = visit(expressao.getDir(), ambiente, localVariables);
+	public Expressao visit(ExpSoma expressao) {
+		Expressao esquerda = visit(expressao.getEsq());
+		Expressao direita = visit(expressao.getDir());
 	
 		
 		
@@ -262,28 +220,23 @@ public class PartialInstantiatorVisitor {
 		return resultado;
 	}
 
-	public Expressao _visitExpSub(ExpSub expressao, AmbienteExecucao ambiente,
-			Set<Id> localVariables) {
-		Expressao esquerda = visit(expressao.getEsq(), ambiente, localVariables);
-		Expressao direita = visit(expressao.getDir(), ambiente, localVariables);
+	public Expressao visit(ExpSub expressao) {
+		Expressao esquerda = visit(expressao.getEsq());
+		Expressao direita = visit(expressao.getDir());
 		ExpSub resultado = new ExpSub(esquerda, direita);
 		return resultado;
 	}
 
-	public Expressao _visitIfThenElse(IfThenElse expressao,
-			AmbienteExecucao ambiente, Set<Id> localVariables) {
+	public Expressao visit(IfThenElse expressao) {
 
-		Expressao condicao = visit(expressao.getCondicao(), ambiente,
-				localVariables);
-		Expressao then = visit(expressao.getThen(), ambiente, localVariables);
-		Expressao elseExpressao = visit(expressao.getElseExpressao(), ambiente,
-				localVariables);
+		Expressao condicao = visit(expressao.getCondicao());
+		Expressao then = visit(expressao.getThen());
+		Expressao elseExpressao = visit(expressao.getElseExpressao());
 		IfThenElse resultado = new IfThenElse(condicao, then, elseExpressao);
 		return resultado;
 	}
 
-	public Expressao _visitId(Id thisId, AmbienteExecucao ambiente,
-			Set<Id> localVariables) {
+	public Expressao visit(Id thisId) {
 		Expressao resultado;
 		if (localVariables.contains(thisId)) {
 			resultado = thisId;
@@ -297,18 +250,15 @@ public class PartialInstantiatorVisitor {
 		return resultado;
 	}
 
-	public Expressao _visitValorInteiro(ValorInteiro valor,
-			AmbienteExecucao ambiente, Set<Id> localVariables) {
+	public Expressao visit(ValorInteiro valor) {
 		return valor;
 	}
 
-	public Expressao _visitValorString(ValorString valor,
-			AmbienteExecucao ambiente, Set<Id> localVariables) {
+	public Expressao visit(ValorString valor) {
 		return valor;
 	}
 
-	public Expressao _visitValorBooleano(ValorBooleano valor,
-			AmbienteExecucao ambiente, Set<Id> localVariables) {
+	public Expressao visit(ValorBooleano valor) {
 		return valor;
 	}
 
@@ -321,14 +271,12 @@ public class PartialInstantiatorVisitor {
 	//		return ValorLista.getInstancia(novoHead, novoTail);
 	//	}
 
-	public Expressao _visitValorFuncao(ValorFuncao valor,
-			AmbienteExecucao ambiente, Set<Id> localVariables) {
+	public Expressao visit(ValorFuncao valor) {
 		Set<Id> novasVariaveisLocais = new HashSet<Id>(localVariables);
 		novasVariaveisLocais.addAll(valor.getListaId());
-		Expressao novaExpressao = visit(valor.getExp(), ambiente,
-				novasVariaveisLocais);
+		Expressao novaExpressao = visit(valor.getExp(), novasVariaveisLocais);
 		
-		List<Id> listaId = valor.getListaId();
+		List<Id> listaId = new ArrayList<Id>(valor.getListaId());
 		if (novaExpressao instanceof ValorFuncao){
 			List<Id> listaIdValor = ((ValorFuncao) novaExpressao).getListaId();
 			listaId.addAll(listaIdValor);
@@ -338,4 +286,33 @@ public class PartialInstantiatorVisitor {
 		return resultado;
 	}
 
+	public Expressao visit(ValorIrredutivel valor) {
+		return valor;
+	}
+
+	public Expressao visit(ValorVetor valor) {
+		return valor;
+	}
+
+	public Expressao visitValorInterno(Valor valor) {
+		return valor;
+	}
+
+	public Expressao visit(
+			lf2.plp.expressions2.expression.ExpDeclaracao expressao) {
+		return naoImplementado(expressao);
+	}
+
+	public Expressao visit(ExpDeclaracao expressao) {
+		return naoImplementado(expressao);
+	}
+
+	public Expressao visit(ExpDeriv expressao) {
+		return naoImplementado(expressao);
+	}
+
+	public Expressao visit(ExpGradiente expressao) {
+		return naoImplementado(expressao);
+	}
+
 }
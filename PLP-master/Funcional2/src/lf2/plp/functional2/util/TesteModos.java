@@ -0,0 +1,247 @@
+package lf2.plp.functional2.util;
+
+import java.io.ByteArrayInputStream;
+
+import lf2.plp.functional2.Programa;
+import lf2.plp.functional2.parser.Func2Parser;
+import lf2.plp.functional2.parser.ParseException;
+
+/**
+ * Executa programas da Funcional2 no interpretador e nos modos de execucao
+ * opcionais, e verifica que cada modo produz o mesmo resultado que o
+ * interpretador.
+ */
+public class TesteModos {
+
+	private static final String[] PROGRAMAS = {
+			"let fun fat n = if n == 0 then 1 else n * fat(n - 1) in fat(10)",
+			"let fun soma x acc = if x == 0 then acc else soma(x - 1, acc + x) "
+					+ "in soma(1500, 0)",
+			"let fun fib n = if n == 0 then 0 else if n == 1 then 1 "
+					+ "else fib(n - 1) + fib(n - 2) in fib(15)",
+			"let fun twice f x = f(f(x)), fun inc n = n + 1 "
+					+ "in twice(inc, 5) + twice(fn z . z * 2, 3)",
+			"let var a = 1, var b = (2+3), var c = 1, var d = 2, "
+					+ "fun doido a b = a+b, fun boa a b = a+b+b "
+					+ "in doido(boa(a,b),doido(c,d))",
+			"let fun dobro x = x * 2 in let fun f n s = let var t = s ++ \"x\" in "
+					+ "if n == 0 then length t else f(n - 1, t) + dobro(1) "
+					+ "in f(5, \"\") + dobro(-3)",
+			"let fun f x = if 1 + 1 == 2 then x * (2 * 3) "
+					+ "else f(x - 1) + length (\"ab\" ++ \"c\"), fun g h = h(2 * 2) "
+					+ "in f(-(4)) + (if not true then 7 else 8) + g(fn y . y + (1 + 1))" };
+
+	/**
+	 * Quantos nos <code>otimizar</code> remove de cada programa.
+	 */
+	private static final int[] NOS_REMOVIDOS = { 0, 0, 0, 0, 2, 1, 27 };
+
+	private static Func2Parser parser;
+
+	public static void main(String[] args) throws ParseException {
+		for (int i = 0; i < PROGRAMAS.length; i++) {
+			verificarCompilado(PROGRAMAS[i]);
+			verificarOtimizado(PROGRAMAS[i], NOS_REMOVIDOS[i]);
+			verificarMemoizado(PROGRAMAS[i]);
+			verificarParalelo(PROGRAMAS[i], false);
+			verificarParalelo(PROGRAMAS[i], true);
+		}
+		verificarCauda("let fun conta n acc = if n == 0 then acc "
+				+ "else conta(n - 1, acc + 1) in conta(100000, 0)", "100000");
+		verificarCauda("let fun par n = if n == 0 then true "
+				+ "else if n == 1 then false else par(n - 2) in par(100001)",
+				"false");
+		verificarCauda("let fun aplica f n = if n == 0 then f(n) "
+				+ "else aplica(f, n - 1) in aplica(fn x . x + 1, 100000)", "1");
+		verificarCache("let fun fib n = if n == 0 then 0 else if n == 1 then 1 "
+				+ "else fib(n - 1) + fib(n - 2) in fib(18)", 100,
+				"fib: 16 acertos, 19 falhas, 19 resultados",
+				"fib: 17 acertos, 19 falhas, 19 resultados");
+		verificarCache("let fun fib n = if n == 0 then 0 else if n == 1 then 1 "
+				+ "else fib(n - 1) + fib(n - 2) in fib(18)", 2,
+				"fib: 180 acertos, 869 falhas, 2 resultados",
+				"fib: 181 acertos, 869 falhas, 2 resultados");
+		verificarCache("let var k = 1 in let fun f n = if n == 0 then k "
+				+ "else f(n - 1) + f(n - 1) in f(10)", 100,
+				"", "");
+		verificarBemTipado("let fun twice f x = f(f(x)) in twice(fn s . s ++ \"!\", \"a\")", "\"a!!\"");
+		verificarBemTipado("let fun aplica f x = f(x) in "
+				+ "aplica(fn y . y + 1, 2) + aplica(fn y . length y, \"ab\")", "5");
+		verificarBemTipado("let fun compoe f g x = f(g(x)) in "
+				+ "compoe(fn a . a + 1, fn b . length b, \"xyz\")", "4");
+		verificarBemTipado("let fun k x y = x in k(fn z . z, 3)(4)", "4");
+		verificarBemTipado("let fun f x = x in f(f)(5)", "5");
+		verificarMalTipado("let fun id x = x in id(3) ++ \"a\"");
+		// o primeiro argumento falha, pois a verificacao de tipos aceita
+		// twice com um inteiro, e o erro e' lancado sem esperar pelo
+		// segundo, que nao termina
+		verificarParalelo("let fun loop n = loop(n), fun k x y = x, "
+				+ "fun twice f x = f(f(x)) "
+				+ "in k(twice(fn s . s ++ \"!\", 1), loop(0))", false);
+
+		System.out.println("TesteModos: ok");
+	}
+
+	/**
+	 * Compara o interpretador com o <code>CompiladorJava</code>. O programa
+	 * compilado e' executado duas vezes, a segunda com a classe compilada
+	 * guardada pelo programa.
+	 */
+	private static void verificarCompilado(String codigo) throws ParseException {
+		Programa programa = ler(codigo);
+		programa.setCompilado(true);
+		verificar("compilado", codigo, executar(programa));
+		verificar("compilado de novo", codigo, executar(programa));
+	}
+
+	/**
+	 * Compara o interpretador com o programa otimizado, interpretado e
+	 * compilado, e verifica quantos nos a otimizacao removeu.
+	 */
+	private static void verificarOtimizado(String codigo, int removidos)
+			throws ParseException {
+		Programa programa = ler(codigo);
+		int obtidos = programa.otimizar();
+		if (obtidos != removidos) {
+			throw new IllegalStateException("otimizado: " + codigo
+					+ ": esperados " + removidos + " nos removidos, obtidos "
+					+ obtidos);
+		}
+		verificar("otimizado", codigo, executar(programa));
+		programa.setCompilado(true);
+		verificar("otimizado e compilado", codigo, executar(programa));
+	}
+
+	/**
+	 * Executa uma recursao de cauda mais profunda do que a pilha do Java
+	 * suportaria se cada chamada empilhasse um novo bloco, no interpretador
+	 * e no programa compilado.
+	 */
+	private static void verificarCauda(String codigo, String esperado)
+			throws ParseException {
+		verificar("cauda", codigo, esperado, executar(ler(codigo)));
+		Programa programa = ler(codigo);
+		programa.setCompilado(true);
+		verificar("cauda compilada", codigo, esperado, executar(programa));
+	}
+
+	/**
+	 * Compara o interpretador com o interpretador que guarda os resultados
+	 * das funcoes memoizaveis.
+	 */
+	private static void verificarMemoizado(String codigo) throws ParseException {
+		Programa programa = ler(codigo);
+		programa.setCapacidadeMemoizacao(100);
+		verificar("memoizado", codigo, executar(programa));
+	}
+
+	/**
+	 * Executa duas vezes, com memoizacao, um programa com no maximo uma
+	 * funcao memoizavel e compara os caches, depois de cada execucao, com o
+	 * texto esperado. Os caches sao mantidos entre as execucoes.
+	 */
+	private static void verificarCache(String codigo, int capacidade,
+			String primeira, String segunda) throws ParseException {
+		Programa programa = ler(codigo);
+		programa.setCapacidadeMemoizacao(capacidade);
+		verificar("memoizado", codigo, executar(programa));
+		verificar("cache", codigo, "[" + primeira + "]", String
+				.valueOf(programa.getCachesMemoizacao()));
+		verificar("memoizado de novo", codigo, executar(programa));
+		verificar("cache", codigo, "[" + segunda + "]", String
+				.valueOf(programa.getCachesMemoizacao()));
+		// sem memoizacao o programa volta a ser apenas interpretado
+		programa.setCapacidadeMemoizacao(0);
+		verificar("sem memoizacao", codigo, executar(programa));
+		verificar("cache", codigo, "[]", String.valueOf(programa
+				.getCachesMemoizacao()));
+	}
+
+	/**
+	 * Verifica que um programa com funcoes polimorficas e' bem tipado e que
+	 * produz o resultado esperado. A verificacao e' feita duas vezes: a
+	 * unificacao de uma aplicacao nao altera os tipos da funcao aplicada.
+	 */
+	/**
+	 * Compara o interpretador com a avaliacao paralela, em que todo
+	 * argumento e toda variavel de um <code>let</code> com pelo menos um
+	 * irmao vira uma tarefa, opcionalmente com memoizacao.
+	 */
+	private static void verificarParalelo(String codigo, boolean memoizado)
+			throws ParseException {
+		Programa programa = ler(codigo);
+		programa.setLimiarParalelismo(1);
+		if (memoizado) {
+			programa.setCapacidadeMemoizacao(100);
+		}
+		verificar(memoizado ? "paralelo e memoizado" : "paralelo", codigo,
+				executar(programa));
+	}
+
+	private static void verificarBemTipado(String codigo, String resultado)
+			throws ParseException {
+		Programa programa = analisar(codigo);
+		verificar("bem tipado", codigo, "true true", programa.checaTipo()
+				+ " " + programa.checaTipo());
+		verificar("bem tipado", codigo, resultado, executar(programa));
+	}
+
+	private static void verificarMalTipado(String codigo)
+			throws ParseException {
+		Programa programa = analisar(codigo);
+		verificar("mal tipado", codigo, "false false", programa.checaTipo()
+				+ " " + programa.checaTipo());
+	}
+
+	private static void verificar(String modo, String codigo, String obtido)
+			throws ParseException {
+		verificar(modo, codigo, executar(ler(codigo)), obtido);
+	}
+
+	private static void verificar(String modo, String codigo,
+			String esperado, String obtido) {
+		if (!esperado.equals(obtido)) {
+			throw new IllegalStateException(modo + ": " + codigo
+					+ ": esperado " + esperado + ", obtido " + obtido);
+		}
+		System.out.println(modo + ": " + codigo + " = " + obtido);
+	}
+
+	/**
+	 * Retorna o valor do programa como texto, ou o nome do erro lancado.
+	 */
+	private static String executar(Programa programa) {
+		try {
+			return String.valueOf(programa.executar());
+		} catch (RuntimeException e) {
+			return e.getClass().getSimpleName();
+		}
+	}
+
+	/**
+	 * Le e verifica os tipos de um programa.
+	 */
+	private static Programa ler(String codigo) throws ParseException {
+		Programa programa = analisar(codigo);
+		if (!programa.checaTipo()) {
+			throw new IllegalStateException("tipos invalidos: " + codigo);
+		}
+		return programa;
+	}
+
+	/**
+	 * Le um programa. O parser gerado e' estatico, portanto e' criado uma
+	 * unica vez e reiniciado a cada leitura.
+	 */
+	private static Programa analisar(String codigo) throws ParseException {
+		ByteArrayInputStream entrada = new ByteArrayInputStream(codigo
+				.getBytes());
+		if (parser == null) {
+			parser = new Func2Parser(entrada);
+			Func2Parser.disable_tracing();
+		} else {
+			Func2Parser.ReInit(entrada);
+		}
+		return Func2Parser.Input();
+	}
+}
@@ -6,6 +6,7 @@ import lf3.plp.expressions2.memory.AmbienteCompilacao;
 import lf3.plp.expressions2.memory.AmbienteExecucao;
 import lf3.plp.expressions2.memory.VariavelJaDeclaradaException;
 import lf3.plp.expressions2.memory.VariavelNaoDeclaradaException;
+import lf3.plp.functional3.util.ExpressaoVisitor;
 
 /**
  * Um objeto desta classe representa uma Expressao de Igualdade entre Expressoes
@@ -72,4 +73,8 @@ public class ExpEquals extends ExpBinaria {
 	public ExpBinaria clone() {
 		return new ExpEquals(esq.clone(), dir.clone());
 	}
+
+	public <T> T accept(ExpressaoVisitor<T> visitor) {
+		return visitor.visit(this);
+	}
 }
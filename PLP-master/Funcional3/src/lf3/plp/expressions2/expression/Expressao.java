@@ -5,6 +5,7 @@ import lf3.plp.expressions2.memory.AmbienteCompilacao;
 import lf3.plp.expressions2.memory.AmbienteExecucao;
 import lf3.plp.expressions2.memory.VariavelJaDeclaradaException;
 import lf3.plp.expressions2.memory.VariavelNaoDeclaradaException;
+import lf3.plp.functional3.util.ExpressaoVisitor;
 
 /** 
  * Uma expressao &eacute; a unidade basica na Linguagem de Expressoes.
@@ -47,4 +48,10 @@ public interface Expressao {
 	 * @return
 	 */
 	public Expressao clone();
+
+	/**
+	 * Aceita um visitante, chamando o seu metodo <code>visit</code> para o
+	 * tipo concreto desta expressao.
+	 */
+	<T> T accept(ExpressaoVisitor<T> visitor);
 }
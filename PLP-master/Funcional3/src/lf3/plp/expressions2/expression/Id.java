@@ -5,6 +5,8 @@ import lf3.plp.expressions2.memory.AmbienteCompilacao;
 import lf3.plp.expressions2.memory.AmbienteExecucao;
 import lf3.plp.expressions2.memory.VariavelNaoDeclaradaException;
 import lf3.plp.functional2.expression.ValorIrredutivel;
+import lf3.plp.functional2.expression.ValorSuspenso;
+import lf3.plp.functional3.util.ExpressaoVisitor;
 
 public class Id implements Expressao {
 
@@ -21,7 +23,11 @@ public class Id implements Expressao {
 
 	public Valor avaliar(AmbienteExecucao ambiente)
 			throws VariavelNaoDeclaradaException {
-		return ambiente.get(this);
+		Valor valor = ambiente.get(this);
+		if (valor instanceof ValorSuspenso) {
+			return ((ValorSuspenso) valor).forcar();
+		}
+		return valor;
 	}
 
 	/**
@@ -107,4 +113,8 @@ public class Id implements Expressao {
 	public Id clone() {
 		return this;
 	}
+
+	public <T> T accept(ExpressaoVisitor<T> visitor) {
+		return visitor.visit(this);
+	}
 }
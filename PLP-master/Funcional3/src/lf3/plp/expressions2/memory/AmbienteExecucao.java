@@ -1,5 +1,6 @@
 package lf3.plp.expressions2.memory;
 
+import lf3.plp.expressions2.expression.Id;
 import lf3.plp.expressions2.expression.Valor;
 
 
@@ -7,4 +8,37 @@ public interface AmbienteExecucao extends Ambiente<Valor> {
 
 	public AmbienteExecucao clone();
 
+	/**
+	 * Indica se os argumentos das aplicacoes sao avaliados apenas quando
+	 * usados.
+	 */
+	public boolean isAvaliacaoPreguicosa();
+
+	/**
+	 * Retorna o tamanho a partir do qual a lista do primeiro gerador de uma
+	 * compreensao e' dividida entre tarefas paralelas, ou 0 se as
+	 * compreensoes sao sempre avaliadas na thread atual.
+	 */
+	public int getLimiarParalelismo();
+
+	/**
+	 * Retorna quantos elementos de uma lista produzida sob demanda ficam na
+	 * memoria; os inteiros e strings seguintes sao guardados num arquivo
+	 * temporario mapeado. Com 0 todos os elementos ficam na memoria.
+	 */
+	public int getLimiteListaEmMemoria();
+
+	/**
+	 * Retorna uma copia independente deste ambiente, com um unico bloco
+	 * contendo os mapeamentos visiveis agora.
+	 */
+	public AmbienteExecucao copiar();
+
+	/**
+	 * Troca o valor de um identificador do bloco do topo, sem empilhar um
+	 * novo bloco. As copias feitas por <code>copiar</code> continuam vendo o
+	 * valor anterior.
+	 */
+	public void remap(Id idArg, Valor valorId);
+
 }
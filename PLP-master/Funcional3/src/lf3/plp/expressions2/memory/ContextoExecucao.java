@@ -12,6 +12,18 @@ import lf3.plp.functional1.memory.ContextoExecucaoFuncional;
 public class ContextoExecucao extends Contexto<Valor>
         implements AmbienteExecucao {
 
+	private boolean avaliacaoPreguicosa;
+
+	private int limiarParalelismo;
+
+	private int limiteListaEmMemoria;
+
+	/**
+	 * Quantos blocos, a partir da base da pilha, sao compartilhados com
+	 * copias feitas por <code>copiar</code>.
+	 */
+	private int blocosCompartilhados;
+
 	public ContextoExecucao clone() {
 		ContextoExecucaoFuncional retorno = new ContextoExecucaoFuncional();
 		
@@ -27,7 +39,83 @@ public class ContextoExecucao extends Contexto<Valor>
 		}
 		
 		retorno.setPilha(novaPilha);
+		retorno.setAvaliacaoPreguicosa(avaliacaoPreguicosa);
+		retorno.setLimiarParalelismo(limiarParalelismo);
+		retorno.setLimiteListaEmMemoria(limiteListaEmMemoria);
 		
 		return retorno;
 	}
+
+	/**
+	 * Ao contrario de <code>clone</code>, que em um
+	 * <code>ContextoExecucaoFuncional</code> retorna o proprio contexto, a
+	 * copia e' sempre independente deste contexto. Os blocos sao
+	 * compartilhados entre os dois contextos e copiados apenas quando um
+	 * deles precisar acrescentar um mapeamento a um bloco compartilhado.
+	 */
+	public ContextoExecucao copiar() {
+		ContextoExecucao retorno = new ContextoExecucao();
+		retorno.pilha.addAll(this.pilha);
+		retorno.blocosCompartilhados = retorno.pilha.size();
+		this.blocosCompartilhados = this.pilha.size();
+		retorno.setAvaliacaoPreguicosa(avaliacaoPreguicosa);
+		retorno.setLimiarParalelismo(limiarParalelismo);
+		retorno.setLimiteListaEmMemoria(limiteListaEmMemoria);
+		return retorno;
+	}
+
+	@Override
+	public void map(Id idArg, Valor valorId)
+			throws VariavelJaDeclaradaException {
+		if (blocosCompartilhados > 0 && pilha.size() == blocosCompartilhados) {
+			pilha.push(new HashMap<Id, Valor>(pilha.pop()));
+			blocosCompartilhados--;
+		}
+		super.map(idArg, valorId);
+	}
+
+	public void remap(Id idArg, Valor valorId) {
+		if (blocosCompartilhados >= pilha.size()) {
+			pilha.push(new HashMap<Id, Valor>(pilha.pop()));
+			blocosCompartilhados = pilha.size() - 1;
+		}
+		pilha.peek().put(idArg, valorId);
+	}
+
+	@Override
+	public void restaura() {
+		super.restaura();
+		if (blocosCompartilhados > pilha.size()) {
+			blocosCompartilhados = pilha.size();
+		}
+	}
+
+	public boolean isAvaliacaoPreguicosa() {
+		return avaliacaoPreguicosa;
+	}
+
+	/**
+	 * Define se os argumentos das aplicacoes avaliadas neste contexto sao
+	 * ligados aos parametros sem serem avaliados, como
+	 * <code>ValorSuspenso</code>.
+	 */
+	public void setAvaliacaoPreguicosa(boolean avaliacaoPreguicosa) {
+		this.avaliacaoPreguicosa = avaliacaoPreguicosa;
+	}
+
+	public int getLimiarParalelismo() {
+		return limiarParalelismo;
+	}
+
+	public void setLimiarParalelismo(int limiarParalelismo) {
+		this.limiarParalelismo = limiarParalelismo;
+	}
+
+	public int getLimiteListaEmMemoria() {
+		return limiteListaEmMemoria;
+	}
+
+	public void setLimiteListaEmMemoria(int limiteListaEmMemoria) {
+		this.limiteListaEmMemoria = limiteListaEmMemoria;
+	}
 }
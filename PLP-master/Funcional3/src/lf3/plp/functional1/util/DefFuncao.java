@@ -16,6 +16,12 @@ public class DefFuncao {
 
 	protected Expressao exp;
 
+	/**
+	 * Os resultados ja calculados desta funcao, ou <code>null</code> se ela
+	 * nao e' memoizada.
+	 */
+	private CacheAplicacao cache;
+
 	public DefFuncao(List<Id> argsId, Expressao exp) {
 		this.argsId = argsId;
 		this.exp = exp;
@@ -29,6 +35,14 @@ public class DefFuncao {
 		return exp;
 	}
 
+	public CacheAplicacao getCache() {
+		return cache;
+	}
+
+	public void setCache(CacheAplicacao cache) {
+		this.cache = cache;
+	}
+
 	/**
 	 * Retorna a aridade desta funcao.
 	 * 
@@ -67,6 +67,24 @@ public class TipoPolimorfico implements Tipo {
 		return this.tipoInstanciado;
 	}
 
+	Tipo getTipoInferido() {
+		return this.tipoInferido;
+	}
+
+	/**
+	 * Retorna o ultimo tipo polimorfico da cadeia formada quando um tipo
+	 * polimorfico e' inferido como outro. A cadeia e' encurtada para que as
+	 * proximas consultas a percorram uma unica vez.
+	 */
+	TipoPolimorfico raiz() {
+		if (!(tipoInferido instanceof TipoPolimorfico) || ehCoringa()) {
+			return this;
+		}
+		TipoPolimorfico raiz = ((TipoPolimorfico) tipoInferido).raiz();
+		tipoInferido = raiz;
+		return raiz;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -100,6 +118,10 @@ public class TipoPolimorfico implements Tipo {
 		if (tipo == this)
 			return true;
 
+		if (jaInferiu() && !ehCoringa()
+				&& tipoInferido instanceof TipoPolimorfico)
+			return raiz().eIgual(tipo);
+
 		if (jaInferiu()) {
 			if (ehCoringa()) {
 				if (jaInstanciou())
@@ -140,11 +162,11 @@ public class TipoPolimorfico implements Tipo {
 		return tipoInstanciado != null;
 	}
 
-	private boolean ehCoringa() {
+	boolean ehCoringa() {
 		return tipoInferido == CURINGA;
 	}
 
-	private boolean jaInferiu() {
+	boolean jaInferiu() {
 		return tipoInferido != null;
 	}
 
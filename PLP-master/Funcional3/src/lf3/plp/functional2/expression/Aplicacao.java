@@ -4,22 +4,26 @@ import static java.util.Arrays.asList;
 import static lf3.plp.expressions1.util.ToStringProvider.listToString;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 
 import lf3.plp.expressions1.util.Tipo;
 import lf3.plp.expressions2.expression.Expressao;
 import lf3.plp.expressions2.expression.Id;
 import lf3.plp.expressions2.expression.Valor;
+import lf3.plp.expressions2.expression.ValorBooleano;
+import lf3.plp.expressions2.expression.ValorInteiro;
+import lf3.plp.expressions2.expression.ValorString;
 import lf3.plp.expressions2.memory.AmbienteCompilacao;
 import lf3.plp.expressions2.memory.AmbienteExecucao;
 import lf3.plp.expressions2.memory.VariavelJaDeclaradaException;
 import lf3.plp.expressions2.memory.VariavelNaoDeclaradaException;
+import lf3.plp.functional1.util.CacheAplicacao;
 import lf3.plp.functional1.util.DefFuncao;
 import lf3.plp.functional1.util.TipoFuncao;
 import lf3.plp.functional1.util.TipoPolimorfico;
+import lf3.plp.functional1.util.Unificador;
+import lf3.plp.functional3.util.ExpressaoVisitor;
 
 public class Aplicacao implements Expressao {
 
@@ -40,9 +44,30 @@ public class Aplicacao implements Expressao {
 
 		ValorFuncao funcao = (ValorFuncao) func.avaliar(ambiente);
 
-		Map<Id, Valor> mapIdValor = resolveParametersBindings(ambiente, funcao);
+		Valor[] argumentos = resolveParametersBindings(ambiente, funcao);
+
+		CacheAplicacao cache = funcao.getCache();
+		List<Valor> chave = null;
+		if (cache != null) {
+			Valor[] forcados = new Valor[argumentos.length];
+			for (int i = 0; i < argumentos.length; i++) {
+				Valor argumento = argumentos[i];
+				if (argumento instanceof ValorSuspenso) {
+					argumento = ((ValorSuspenso) argumento).forcar();
+				}
+				forcados[i] = argumento;
+			}
+			chave = asList(forcados);
+			Valor vresult = cache.get(chave);
+			if (vresult != null) {
+				return vresult;
+			}
+		}
+
+		// o corpo e' avaliado aqui mesmo, e nao num metodo auxiliar, para
+		// que cada chamada ocupe um unico quadro da pilha Java
 		ambiente.incrementa();		
-		includeValueBindings(ambiente, mapIdValor);
+		includeValueBindings(ambiente, funcao.getListaId(), argumentos);
 
 		if(funcao.getId() != null){
 			ambiente.map(funcao.getId(), funcao.clone());
@@ -54,7 +79,10 @@ public class Aplicacao implements Expressao {
 		Valor vresult = exp.avaliar(ambiente);
 		
 		ambiente.restaura();
-		
+
+		if (cache != null) {
+			cache.put(chave, vresult);
+		}
 		return vresult;
 	}
 
@@ -91,6 +119,12 @@ public class Aplicacao implements Expressao {
 			tipoFuncao = ((ValorFuncao) func).getTipo(ambiente);
 		}
 
+		// Um parametro cujo tipo ja foi inferido como funcao usa esse tipo.
+		Tipo inferido = new Unificador().representante(tipoFuncao);
+		if (inferido instanceof TipoFuncao) {
+			tipoFuncao = inferido;
+		}
+
 		if (tipoFuncao == null || tipoFuncao instanceof TipoPolimorfico) {
 			ArrayList<Tipo> params = new ArrayList<Tipo>();
 			for (Expressao valorReal : argsExpressao) {
@@ -142,32 +176,48 @@ public class Aplicacao implements Expressao {
 		return tipoFuncao.getTipo(ambiente, argsExpressao);
 	}
 
+	/**
+	 * Liga cada parametro ao argumento da mesma posicao, diretamente no
+	 * bloco atual do ambiente.
+	 */
 	private void includeValueBindings(AmbienteExecucao ambiente,
-			Map<Id, Valor> mapIdValor) throws VariavelJaDeclaradaException {
-		for (Map.Entry<Id, Valor> mapeamento : mapIdValor.entrySet()) {
-			Id id = mapeamento.getKey();
-			Valor valor = mapeamento.getValue();
-			ambiente.map(id, valor);
+			List<Id> parametros, Valor[] argumentos)
+			throws VariavelJaDeclaradaException {
+		for (int i = 0; i < argumentos.length; i++) {
+			ambiente.map(parametros.get(i), argumentos[i]);
 		}
 	}
 
-	private Map<Id, Valor> resolveParametersBindings(AmbienteExecucao ambiente,
+	/**
+	 * Avalia ou suspende os argumentos, na ordem dos parametros.
+	 */
+	private Valor[] resolveParametersBindings(AmbienteExecucao ambiente,
 			DefFuncao funcao) throws VariavelNaoDeclaradaException,
 			VariavelJaDeclaradaException {
-		List<Id> parametrosId = funcao.getListaId();
-		List<? extends Expressao> expressoesValorReal = argsExpressao;
-
-		Map<Id, Valor> mapIdValor = new HashMap<Id, Valor>();
-
-		Iterator<? extends Expressao> iterExpressoesValor = expressoesValorReal
-				.iterator();
-		for (Id id : parametrosId) {
-			Expressao exp = iterExpressoesValor.next();
-			Valor valorReal = exp.avaliar(ambiente);
-			mapIdValor.put(id, valorReal);
+		List<? extends Expressao> args = argsExpressao;
+
+		Valor[] argumentos = new Valor[funcao.getAridade()];
+
+		AmbienteExecucao ambienteArgumentos = null;
+		for (int i = 0; i < argumentos.length; i++) {
+			Expressao exp = args.get(i);
+			Valor valorReal;
+			if (!ambiente.isAvaliacaoPreguicosa() || exp instanceof ValorInteiro
+					|| exp instanceof ValorBooleano || exp instanceof ValorString) {
+				valorReal = exp.avaliar(ambiente);
+			} else if (exp instanceof Id) {
+				// compartilha o argumento, ainda que suspenso
+				valorReal = ambiente.get((Id) exp);
+			} else {
+				if (ambienteArgumentos == null) {
+					ambienteArgumentos = ambiente.copiar();
+				}
+				valorReal = new ValorSuspenso(exp, ambienteArgumentos);
+			}
+			argumentos[i] = valorReal;
 		}
 
-		return mapIdValor;
+		return argumentos;
 	}
 
 	/**
@@ -208,4 +258,8 @@ public class Aplicacao implements Expressao {
 		
 		return retorno;
 	}
+
+	public <T> T accept(ExpressaoVisitor<T> visitor) {
+		return visitor.visit(this);
+	}
 }
@@ -20,6 +20,7 @@ import lf3.plp.expressions2.memory.VariavelNaoDeclaradaException;
 import lf3.plp.functional1.declaration.DeclaracaoFuncional;
 import lf3.plp.functional1.util.TipoPolimorfico;
 import lf3.plp.functional2.declaration.DecFuncao;
+import lf3.plp.functional3.util.ExpressaoVisitor;
 
 public class ExpDeclaracao implements Expressao {
 
@@ -113,6 +114,16 @@ public class ExpDeclaracao implements Expressao {
 	 */
 	public Tipo getTipo(AmbienteCompilacao ambiente)
 			throws VariavelNaoDeclaradaException, VariavelJaDeclaradaException {
+		Tipo tipo = ambiente.getTipoCalculado(this);
+		if (tipo == null) {
+			tipo = calcularTipo(ambiente);
+			ambiente.mapTipoCalculado(this, tipo);
+		}
+		return tipo;
+	}
+
+	private Tipo calcularTipo(AmbienteCompilacao ambiente)
+			throws VariavelNaoDeclaradaException, VariavelJaDeclaradaException {
 		ambiente.incrementa();
 
 		Tipo vresult = null;
@@ -126,6 +137,10 @@ public class ExpDeclaracao implements Expressao {
 		return vresult;
 	}
 
+	public DeclaracaoFuncional getDeclaracao() {
+		return declaracao;
+	}
+
 	/**
 	 * Returns the expressao.
 	 * 
@@ -154,4 +169,8 @@ public class ExpDeclaracao implements Expressao {
 		return retorno;
 	}
 	
+
+	public <T> T accept(ExpressaoVisitor<T> visitor) {
+		return visitor.visit(this);
+	}
 }
@@ -10,6 +10,7 @@ import lf3.plp.expressions2.expression.Id;
 import lf3.plp.expressions2.expression.Valor;
 import lf3.plp.expressions2.memory.AmbienteExecucao;
 import lf3.plp.functional1.util.DefFuncao;
+import lf3.plp.functional3.util.ExpressaoVisitor;
 
 /**
  * @author S�rgio
@@ -71,7 +72,12 @@ public class ValorFuncao extends DefFuncao implements ValorAbstrato {
 		
 		if (this.id != null)
 			retorno.setId(this.id.clone());
+		retorno.setCache(getCache());
 		
 		return retorno;
 	}
+
+	public <T> T accept(ExpressaoVisitor<T> visitor) {
+		return visitor.visit(this);
+	}
 }
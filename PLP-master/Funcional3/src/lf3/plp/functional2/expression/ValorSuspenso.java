@@ -0,0 +1,91 @@
+package lf3.plp.functional2.expression;
+
+import lf3.plp.expressions1.util.Tipo;
+import lf3.plp.expressions2.expression.Expressao;
+import lf3.plp.expressions2.expression.Valor;
+import lf3.plp.expressions2.memory.AmbienteCompilacao;
+import lf3.plp.expressions2.memory.AmbienteExecucao;
+import lf3.plp.expressions2.memory.VariavelJaDeclaradaException;
+import lf3.plp.expressions2.memory.VariavelNaoDeclaradaException;
+import lf3.plp.functional3.util.ExpressaoVisitor;
+
+/**
+ * Argumento de uma aplicacao ainda nao avaliado, usado na avaliacao
+ * preguicosa. A expressao e' avaliada, no ambiente da aplicacao, apenas na
+ * primeira vez em que o valor e' usado; o resultado e' guardado e
+ * compartilhado por todas as ocorrencias do parametro.
+ */
+public class ValorSuspenso implements Valor {
+
+	private Expressao expressao;
+
+	private AmbienteExecucao ambiente;
+
+	private Valor valor;
+
+	public ValorSuspenso(Expressao expressao, AmbienteExecucao ambiente) {
+		this.expressao = expressao;
+		this.ambiente = ambiente;
+	}
+
+	/**
+	 * Retorna o valor do argumento, avaliando-o se ainda nao foi avaliado.
+	 */
+	public Valor forcar() throws VariavelNaoDeclaradaException,
+			VariavelJaDeclaradaException {
+		if (valor == null) {
+			Valor resultado = expressao.avaliar(ambiente);
+			if (resultado instanceof ValorSuspenso) {
+				resultado = ((ValorSuspenso) resultado).forcar();
+			}
+			valor = resultado;
+			// o ambiente capturado nao e' mais necessario
+			expressao = null;
+			ambiente = null;
+		}
+		return valor;
+	}
+
+	public boolean isAvaliado() {
+		return valor != null;
+	}
+
+	public Valor avaliar(AmbienteExecucao amb)
+			throws VariavelNaoDeclaradaException, VariavelJaDeclaradaException {
+		return forcar();
+	}
+
+	public boolean checaTipo(AmbienteCompilacao amb)
+			throws VariavelNaoDeclaradaException, VariavelJaDeclaradaException {
+		return true;
+	}
+
+	public Tipo getTipo(AmbienteCompilacao amb)
+			throws VariavelNaoDeclaradaException, VariavelJaDeclaradaException {
+		return null;
+	}
+
+	public Expressao reduzir(AmbienteExecucao ambiente) {
+		return this;
+	}
+
+	/**
+	 * Enquanto nao for avaliado, as copias sao o proprio objeto, para que o
+	 * argumento seja avaliado uma unica vez.
+	 */
+	public Expressao clone() {
+		if (valor == null) {
+			return this;
+		}
+		return valor.clone();
+	}
+
+	@Override
+	public String toString() {
+		return valor == null ? expressao.toString() : valor.toString();
+	}
+
+	public <T> T accept(ExpressaoVisitor<T> visitor) {
+		return visitor.visit(this);
+	}
+}
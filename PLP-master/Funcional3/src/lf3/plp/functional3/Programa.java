@@ -1,25 +1,60 @@
 package lf3.plp.functional3;
 
+import java.util.Collections;
+import java.util.List;
+
 import lf3.plp.expressions2.expression.Expressao;
 import lf3.plp.expressions2.expression.Valor;
 import lf3.plp.expressions2.memory.AmbienteCompilacao;
-import lf3.plp.expressions2.memory.AmbienteExecucao;
 import lf3.plp.expressions2.memory.ContextoCompilacao;
 import lf3.plp.expressions2.memory.ContextoExecucao;
 import lf3.plp.expressions2.memory.VariavelJaDeclaradaException;
 import lf3.plp.expressions2.memory.VariavelNaoDeclaradaException;
+import lf3.plp.functional1.util.CacheAplicacao;
+import lf3.plp.functional3.util.Memoizador;
 
 public class Programa {
 
 	private Expressao exp;
 
+	/**
+	 * A quantidade maxima de resultados guardados por funcao memoizada, ou 0
+	 * se a memoizacao esta desligada.
+	 */
+	private int capacidadeMemoizacao;
+
+	private Memoizador memoizador;
+
+	private boolean avaliacaoPreguicosa;
+
+	/**
+	 * O tamanho a partir do qual a lista do primeiro gerador de uma
+	 * compreensao e' dividida entre tarefas paralelas, ou 0 se o paralelismo
+	 * esta desligado.
+	 */
+	private int limiarParalelismo;
+
+	/**
+	 * Quantos elementos de uma lista produzida sob demanda ficam na memoria
+	 * antes de os seguintes serem guardados num arquivo mapeado, ou 0 se
+	 * todos ficam na memoria.
+	 */
+	private int limiteListaEmMemoria;
+
 	public Programa(Expressao exp) {
 		this.exp = exp;
 	}
 
 	public Valor executar()
 		throws VariavelJaDeclaradaException, VariavelNaoDeclaradaException {
-		AmbienteExecucao ambExec = new ContextoExecucao();
+		if (capacidadeMemoizacao > 0 && memoizador == null) {
+			memoizador = new Memoizador(capacidadeMemoizacao);
+			memoizador.memoizar(exp);
+		}
+		ContextoExecucao ambExec = new ContextoExecucao();
+		ambExec.setAvaliacaoPreguicosa(avaliacaoPreguicosa);
+		ambExec.setLimiarParalelismo(limiarParalelismo);
+		ambExec.setLimiteListaEmMemoria(limiteListaEmMemoria);
 		return exp.avaliar(ambExec);
 	}
 
@@ -33,4 +68,77 @@ public class Programa {
 		return exp;
 	}
 
+	public boolean isAvaliacaoPreguicosa() {
+		return avaliacaoPreguicosa;
+	}
+
+	/**
+	 * Define se os argumentos das aplicacoes sao avaliados apenas quando o
+	 * parametro e' usado pela primeira vez (chamada por necessidade), em vez
+	 * de antes da chamada.
+	 */
+	public void setAvaliacaoPreguicosa(boolean avaliacaoPreguicosa) {
+		this.avaliacaoPreguicosa = avaliacaoPreguicosa;
+	}
+
+	public int getLimiarParalelismo() {
+		return limiarParalelismo;
+	}
+
+	/**
+	 * Define a quantidade de elementos que a lista do primeiro gerador de
+	 * uma compreensao precisa ter para que a compreensao seja avaliada em
+	 * paralelo. Com 0 (o padrao) as compreensoes sao avaliadas na thread
+	 * atual. O resultado e' o mesmo nos dois casos; na avaliacao preguicosa
+	 * o paralelismo nao e' usado, pois os argumentos suspensos sao
+	 * compartilhados entre as tarefas.
+	 */
+	public void setLimiarParalelismo(int limiar) {
+		this.limiarParalelismo = limiar;
+	}
+
+	public int getLimiteListaEmMemoria() {
+		return limiteListaEmMemoria;
+	}
+
+	/**
+	 * Define quantos elementos de cada lista produzida sob demanda, como o
+	 * resultado de uma compreensao, ficam na memoria. Os inteiros e strings
+	 * seguintes sao gravados num arquivo temporario e lidos do arquivo
+	 * mapeado quando a lista e' percorrida, entao listas muito grandes nao
+	 * ocupam o heap. Com 0 (o padrao) todos os elementos ficam na memoria.
+	 */
+	public void setLimiteListaEmMemoria(int limite) {
+		this.limiteListaEmMemoria = limite;
+	}
+
+	public int getCapacidadeMemoizacao() {
+		return capacidadeMemoizacao;
+	}
+
+	/**
+	 * Define quantos resultados o interpretador guarda para cada funcao que
+	 * so depende dos seus argumentos e chama a si mesma. Com 0 (o padrao)
+	 * nenhuma funcao e' memoizada.
+	 */
+	public void setCapacidadeMemoizacao(int capacidade) {
+		this.capacidadeMemoizacao = capacidade;
+		if (memoizador != null) {
+			// desliga os caches da execucao anterior
+			new Memoizador(0).memoizar(exp);
+			memoizador = null;
+		}
+	}
+
+	/**
+	 * Retorna os caches das funcoes memoizadas na ultima execucao, com seus
+	 * contadores de acertos e falhas.
+	 */
+	public List<CacheAplicacao> getCachesMemoizacao() {
+		if (memoizador == null) {
+			return Collections.emptyList();
+		}
+		return memoizador.getCaches();
+	}
+
 }
@@ -21,6 +21,14 @@ public class DecComposta implements DeclaracaoFuncional {
 		this.d2=d2;
 	}
 
+	public DeclaracaoFuncional getD1() {
+		return d1;
+	}
+
+	public DeclaracaoFuncional getD2() {
+		return d2;
+	}
+
 	public boolean checaTipo(AmbienteCompilacao ambiente)
 			throws VariavelNaoDeclaradaException, VariavelJaDeclaradaException {
 		return (d1.checaTipo(ambiente) && d2.checaTipo(ambiente));
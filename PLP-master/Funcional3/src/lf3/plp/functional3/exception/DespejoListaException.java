@@ -0,0 +1,14 @@
+package lf3.plp.functional3.exception;
+
+import java.io.IOException;
+
+public class DespejoListaException extends RuntimeException {
+	
+	private static final long serialVersionUID = 1L;
+	private static String formatStr = "Erro ao guardar os elementos de uma lista em arquivo: %s";
+	
+	public DespejoListaException(IOException causa) {
+		super(String.format(formatStr, causa.getMessage()), causa);
+	}
+	
+}
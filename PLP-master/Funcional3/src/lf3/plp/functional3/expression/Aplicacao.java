@@ -4,7 +4,6 @@ import static lf3.plp.expressions1.util.ToStringProvider.listToString;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
 import lf3.plp.expressions1.util.Tipo;
 import lf3.plp.expressions2.expression.Expressao;
@@ -16,9 +15,10 @@ import lf3.plp.expressions2.memory.VariavelJaDeclaradaException;
 import lf3.plp.expressions2.memory.VariavelNaoDeclaradaException;
 import lf3.plp.functional1.util.TipoFuncao;
 import lf3.plp.functional1.util.TipoPolimorfico;
-import lf3.plp.functional3.declaration.DecPadrao;
+import lf3.plp.functional1.util.Unificador;
 import lf3.plp.functional3.exception.PadraoNaoEncontradoException;
 import lf3.plp.functional3.util.AmbienteUtil;
+import lf3.plp.functional3.util.ExpressaoVisitor;
 
 public class Aplicacao implements Expressao {
 	
@@ -43,14 +43,14 @@ public class Aplicacao implements Expressao {
 			VariavelJaDeclaradaException, PadraoNaoEncontradoException {
 		
 		ValorFuncao valorFuncao = (ValorFuncao) this.funcao.avaliar(ambiente);
-		DecPadrao decPadrao = valorFuncao.getMatch(this.argumentos, ambiente);
+		List<Expressao> valores = valorFuncao.avaliarArgumentos(this.argumentos,
+				ambiente);
+		Casamento casamento = valorFuncao.casar(valores, ambiente);
 		
-		Map<Id, Valor> mapIdValor = AmbienteUtil.resolveParametersBindings(ambiente,
-				decPadrao, this.argumentos);
 		ambiente.incrementa();
-		AmbienteUtil.includeValueBindings(ambiente, mapIdValor);
+		AmbienteUtil.includeValueBindings(ambiente, casamento.getLigacoes());
 		
-		Expressao exp = decPadrao.getExpressao();
+		Expressao exp = casamento.getDecPadrao().getExpressao();
 		exp.reduzir(ambiente);		
 		
 		Valor result = exp.avaliar(ambiente);
@@ -81,6 +81,12 @@ public class Aplicacao implements Expressao {
 			tipoFuncao = ((ValorFuncao) this.funcao).getTipo(ambiente);
 		}
 		
+		// Um parametro cujo tipo ja foi inferido como funcao usa esse tipo.
+		Tipo inferido = new Unificador().representante(tipoFuncao);
+		if ( inferido instanceof TipoFuncao ) {
+			tipoFuncao = inferido;
+		}
+		
 		if ( tipoFuncao == null || tipoFuncao instanceof TipoPolimorfico ) {
 			ArrayList<Tipo> params = new ArrayList<Tipo>();
 			for ( Expressao valorReal : this.argumentos ) {
@@ -127,4 +133,8 @@ public class Aplicacao implements Expressao {
 		
 		return new Aplicacao(this.funcao.clone(), novaLista);
 	}
+
+	public <T> T accept(ExpressaoVisitor<T> visitor) {
+		return visitor.visit(this);
+	}
 }
@@ -0,0 +1,32 @@
+package lf3.plp.functional3.expression;
+
+import java.util.Map;
+
+import lf3.plp.expressions2.expression.Id;
+import lf3.plp.expressions2.expression.Valor;
+import lf3.plp.functional3.declaration.DecPadrao;
+
+/**
+ * A clausula escolhida para uma aplicacao, junto com os valores ligados aos
+ * parametros do seu padrao. As mesmas ligacoes sao usadas pelo filtro da
+ * clausula e pelo corpo.
+ */
+public class Casamento {
+
+	private DecPadrao decPadrao;
+
+	private Map<Id, Valor> ligacoes;
+
+	public Casamento(DecPadrao decPadrao, Map<Id, Valor> ligacoes) {
+		this.decPadrao = decPadrao;
+		this.ligacoes = ligacoes;
+	}
+
+	public DecPadrao getDecPadrao() {
+		return decPadrao;
+	}
+
+	public Map<Id, Valor> getLigacoes() {
+		return ligacoes;
+	}
+}
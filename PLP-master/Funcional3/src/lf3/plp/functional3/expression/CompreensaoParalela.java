@@ -0,0 +1,163 @@
+package lf3.plp.functional3.expression;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+import lf3.plp.expressions2.expression.Expressao;
+import lf3.plp.expressions2.expression.Valor;
+import lf3.plp.expressions2.memory.AmbienteExecucao;
+
+/**
+ * Avalia uma compreensao de lista dividindo a lista do primeiro gerador em
+ * partes, cada uma percorrida por uma tarefa fork/join com o seu proprio
+ * <code>IteradorCompreensao</code> e a sua propria copia do ambiente. Como a
+ * linguagem nao tem efeitos colaterais, as partes sao independentes; os
+ * resultados sao juntados na ordem das partes e formam a mesma lista da
+ * avaliacao sequencial. Um erro na avaliacao de um elemento interrompe a sua
+ * parte e so e' lancado quando a lista chega a esse elemento, como na
+ * avaliacao sequencial.
+ */
+class CompreensaoParalela {
+
+	/**
+	 * Quantas partes sao criadas para cada thread do pool, para que uma
+	 * parte mais demorada nao deixe as outras threads paradas.
+	 */
+	private static final int PARTES_POR_THREAD = 4;
+
+	/**
+	 * Retorna o valor da compreensao. Se a lista do primeiro gerador tem
+	 * menos de <code>limiar</code> elementos, a compreensao e' avaliada na
+	 * thread atual, sob demanda, sem avaliar a lista de novo. Para decidir,
+	 * no maximo <code>limiar</code> celulas sao percorridas; os elementos so
+	 * sao copiados quando a avaliacao e' paralela.
+	 */
+	static ValorLista avaliar(AmbienteExecucao amb, Expressao expressao,
+			Expressao filtro, Gerador gerador, int limiar) {
+		ValorLista lista = (ValorLista) gerador.getExpressao().avaliar(amb);
+		ValorLista celula = lista;
+		for (int i = 0; i < limiar; i++) {
+			if (celula == null || celula.isEmpty()) {
+				return ValorLista.getSequencia(new IteradorCompreensao(amb,
+						expressao, filtro, substituir(gerador, lista)), amb
+						.getLimiteListaEmMemoria());
+			}
+			celula = celula.getTail();
+		}
+
+		List<Valor> elementos = new ArrayList<Valor>();
+		celula = lista;
+		while (celula != null && !celula.isEmpty()) {
+			elementos.add((Valor) celula.getHead());
+			celula = celula.getTail();
+		}
+
+		int partes = Math.min(elementos.size(), PARTES_POR_THREAD
+				* ForkJoinPool.getCommonPoolParallelism());
+		List<Tarefa> tarefas = new ArrayList<Tarefa>(partes);
+		for (int i = 0; i < partes; i++) {
+			List<Valor> parte = elementos.subList(i * elementos.size()
+					/ partes, (i + 1) * elementos.size() / partes);
+			// o iterador copia o ambiente aqui, antes de a tarefa comecar
+			tarefas.add(new Tarefa(new IteradorCompreensao(amb, expressao,
+					filtro, substituir(gerador,
+							ValorLista.getSequencia(parte.iterator())))));
+		}
+		ForkJoinTask.invokeAll(tarefas);
+
+		return ValorLista.getSequencia(new Resultado(tarefas.iterator()), amb
+				.getLimiteListaEmMemoria());
+	}
+
+	/**
+	 * Retorna um gerador com a mesma variavel e os mesmos geradores
+	 * seguintes de <code>gerador</code>, que percorre <code>lista</code>.
+	 */
+	private static Gerador substituir(Gerador gerador, ValorLista lista) {
+		Gerador novo = new Gerador(gerador.getId(), lista);
+		if (gerador.temProximoGerador()) {
+			novo.addProximoGerador(gerador.getProximoGerador());
+		}
+		return novo;
+	}
+
+	/**
+	 * Percorre uma parte da compreensao e guarda os valores produzidos.
+	 */
+	private static class Tarefa extends RecursiveTask<List<Valor>> {
+
+		private static final long serialVersionUID = 1L;
+
+		private IteradorCompreensao valores;
+
+		/**
+		 * O erro que interrompeu a parte, depois do ultimo valor produzido.
+		 */
+		private RuntimeException erro;
+
+		Tarefa(IteradorCompreensao valores) {
+			this.valores = valores;
+		}
+
+		@Override
+		protected List<Valor> compute() {
+			List<Valor> resultado = new ArrayList<Valor>();
+			try {
+				while (valores.hasNext()) {
+					resultado.add(valores.next());
+				}
+			} catch (RuntimeException e) {
+				erro = e;
+			}
+			return resultado;
+		}
+	}
+
+	/**
+	 * Percorre os valores das tarefas, na ordem das partes. Ao chegar ao fim
+	 * de uma parte interrompida por um erro, lanca esse erro.
+	 */
+	private static class Resultado implements Iterator<Valor> {
+
+		private Iterator<Tarefa> tarefas;
+
+		private Tarefa tarefa;
+
+		private Iterator<Valor> valores = Collections.<Valor> emptyIterator();
+
+		Resultado(Iterator<Tarefa> tarefas) {
+			this.tarefas = tarefas;
+		}
+
+		public boolean hasNext() {
+			while (!valores.hasNext()) {
+				if (tarefa != null && tarefa.erro != null) {
+					throw tarefa.erro;
+				}
+				if (!tarefas.hasNext()) {
+					return false;
+				}
+				tarefa = tarefas.next();
+				valores = tarefa.join().iterator();
+			}
+			return true;
+		}
+
+		public Valor next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			return valores.next();
+		}
+
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+	}
+}
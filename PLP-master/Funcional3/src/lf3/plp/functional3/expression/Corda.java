@@ -0,0 +1,120 @@
+package lf3.plp.functional3.expression;
+
+/**
+ * Concatenacao de listas, representada por uma arvore AVL cujas folhas sao
+ * as listas concatenadas, em ordem. A celula de uma lista concatenada guarda
+ * a corda da lista inteira, a partir do seu head. Concatenar duas cordas e
+ * retirar o primeiro elemento custam O(log n) no numero de folhas; as listas
+ * das folhas sao compartilhadas, sem serem copiadas nem percorridas.
+ */
+class Corda extends ValorLista.Pendente {
+
+	private final ValorLista folha;
+
+	private final Corda esq;
+
+	private final Corda dir;
+
+	private final int altura;
+
+	private final boolean avaliada;
+
+	private Corda(ValorLista folha) {
+		this.folha = folha;
+		this.esq = null;
+		this.dir = null;
+		this.altura = 0;
+		this.avaliada = folha.isAvaliada();
+	}
+
+	private Corda(Corda esq, Corda dir) {
+		this.folha = null;
+		this.esq = esq;
+		this.dir = dir;
+		this.altura = Math.max(esq.altura, dir.altura) + 1;
+		this.avaliada = esq.avaliada && dir.avaliada;
+	}
+
+	/**
+	 * Retorna a concatenacao de duas listas nao vazias.
+	 */
+	static ValorLista concatenar(ValorLista esq, ValorLista dir) {
+		return juntar(de(esq), de(dir)).celula();
+	}
+
+	/**
+	 * Retorna a corda de uma lista nao vazia: a da propria lista, se ela e'
+	 * uma concatenacao cujo tail ainda nao foi criado, ou uma folha.
+	 */
+	private static Corda de(ValorLista lista) {
+		ValorLista.Pendente pendente = lista.getPendente();
+		if (pendente instanceof Corda) {
+			return (Corda) pendente;
+		}
+		return new Corda(lista);
+	}
+
+	/**
+	 * Junta duas cordas, mantendo a diferenca de altura entre os filhos de
+	 * cada no em no maximo 1. O custo e' proporcional a diferenca de altura
+	 * entre as duas cordas.
+	 */
+	private static Corda juntar(Corda esq, Corda dir) {
+		if (esq.altura > dir.altura + 1) {
+			Corda meio = juntar(esq.dir, dir);
+			if (meio.altura <= esq.esq.altura + 1) {
+				return new Corda(esq.esq, meio);
+			}
+			if (meio.esq.altura > meio.dir.altura) {
+				return new Corda(new Corda(esq.esq, meio.esq.esq), new Corda(
+						meio.esq.dir, meio.dir));
+			}
+			return new Corda(new Corda(esq.esq, meio.esq), meio.dir);
+		}
+		if (dir.altura > esq.altura + 1) {
+			Corda meio = juntar(esq, dir.esq);
+			if (meio.altura <= dir.dir.altura + 1) {
+				return new Corda(meio, dir.dir);
+			}
+			if (meio.dir.altura > meio.esq.altura) {
+				return new Corda(new Corda(meio.esq, meio.dir.esq), new Corda(
+						meio.dir.dir, dir.dir));
+			}
+			return new Corda(meio.esq, new Corda(meio.dir, dir.dir));
+		}
+		return new Corda(esq, dir);
+	}
+
+	/**
+	 * Retorna a lista representada por esta corda.
+	 */
+	private ValorLista celula() {
+		if (folha != null) {
+			return folha;
+		}
+		Corda primeira = this;
+		while (primeira.folha == null) {
+			primeira = primeira.esq;
+		}
+		return ValorLista.getCelula(primeira.folha.getHead(), this, avaliada);
+	}
+
+	/**
+	 * Retorna esta corda sem o primeiro elemento, ou <code>null</code> se
+	 * ela so tem um elemento.
+	 */
+	private Corda semPrimeiro() {
+		if (folha != null) {
+			ValorLista resto = folha.getTail();
+			return resto == null || resto.isEmpty() ? null : de(resto);
+		}
+		Corda resto = esq.semPrimeiro();
+		return resto == null ? dir : juntar(resto, dir);
+	}
+
+	@Override
+	ValorLista criarTail(ValorLista celula) {
+		Corda resto = semPrimeiro();
+		return resto == null ? null : resto.celula();
+	}
+}
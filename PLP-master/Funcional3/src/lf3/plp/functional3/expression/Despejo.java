@@ -0,0 +1,209 @@
+package lf3.plp.functional3.expression;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import lf3.plp.expressions2.expression.Valor;
+import lf3.plp.expressions2.expression.ValorInteiro;
+import lf3.plp.expressions2.expression.ValorString;
+import lf3.plp.functional3.exception.DespejoListaException;
+
+/**
+ * Trechos de uma lista produzida sob demanda que passaram do limite de
+ * elementos na memoria. Enquanto cresce, o trecho guarda os seus elementos
+ * num vetor; quando deixa de crescer, eles sao gravados num arquivo
+ * temporario proprio, mapeado na memoria, e o vetor e' descartado. O trecho
+ * passa a ler os elementos direto da regiao mapeada, sem copia-la para o
+ * heap, entao o heap usado pela lista nao cresce com o tamanho dela. Um
+ * inteiro e' lido sem copia; uma string e' decodificada a cada leitura, pois
+ * <code>ValorString</code> guarda uma <code>String</code>, que sempre tem os
+ * seus proprios caracteres.
+ */
+class Despejo {
+
+	/**
+	 * Quantos elementos cabem em cada trecho. Os trechos sao grandes para
+	 * que haja poucas regioes mapeadas.
+	 */
+	static final int TAMANHO_BLOCO = 1 << 16;
+
+	private Despejo() {
+	}
+
+	/**
+	 * Retorna um trecho que comeca em <code>valor</code>, ou
+	 * <code>null</code> se valores desse tipo nao sao gravados.
+	 */
+	static ValorLista.Bloco criarBloco(Valor valor) {
+		if (valor instanceof ValorInteiro) {
+			return new BlocoInteiros(((ValorInteiro) valor).valorPrimitivo());
+		}
+		if (valor instanceof ValorString) {
+			return new BlocoStrings(((ValorString) valor).valor());
+		}
+		return null;
+	}
+
+	/**
+	 * Cria um arquivo temporario com o tamanho dado e o mapeia na memoria.
+	 * O arquivo e' fechado logo depois; a regiao mapeada continua valida.
+	 */
+	private static MappedByteBuffer mapear(long bytes) {
+		try {
+			File temporario = File.createTempFile("plp-lista", ".tmp");
+			RandomAccessFile arquivo = new RandomAccessFile(temporario, "rw");
+			try {
+				return arquivo.getChannel().map(FileChannel.MapMode.READ_WRITE,
+						0, bytes);
+			} finally {
+				arquivo.close();
+				// onde um arquivo mapeado nao pode ser apagado, ele e'
+				// apagado no fim da execucao
+				if (!temporario.delete()) {
+					temporario.deleteOnExit();
+				}
+			}
+		} catch (IOException e) {
+			throw new DespejoListaException(e);
+		}
+	}
+
+	/**
+	 * Retorna a capacidade do vetor de um trecho que precisa de mais uma
+	 * posicao.
+	 */
+	private static int crescer(int capacidade) {
+		return Math.min(2 * capacidade, TAMANHO_BLOCO);
+	}
+
+	private static class BlocoInteiros extends ValorLista.Bloco {
+
+		/**
+		 * Os elementos, enquanto o trecho nao foi gravado.
+		 */
+		private volatile int[] valores;
+
+		private volatile IntBuffer gravados;
+
+		private BlocoInteiros(int primeiro) {
+			super(1);
+			this.valores = new int[16];
+			this.valores[0] = primeiro;
+		}
+
+		@Override
+		Valor valor(int indice) {
+			int[] valores = this.valores;
+			if (valores != null) {
+				return ValorInteiro.cria(valores[indice]);
+			}
+			return ValorInteiro.cria(gravados.get(indice));
+		}
+
+		@Override
+		boolean acrescentar(Valor valor, int indice) {
+			if (!(valor instanceof ValorInteiro) || indice == TAMANHO_BLOCO) {
+				return false;
+			}
+			int[] valores = this.valores;
+			if (indice == valores.length) {
+				valores = Arrays.copyOf(valores, crescer(indice));
+			}
+			valores[indice] = ((ValorInteiro) valor).valorPrimitivo();
+			this.valores = valores;
+			return true;
+		}
+
+		@Override
+		void encerrar(int tamanho) {
+			IntBuffer inteiros = mapear(4L * tamanho).asIntBuffer();
+			inteiros.put(valores, 0, tamanho);
+			gravados = inteiros;
+			valores = null;
+		}
+	}
+
+	private static class BlocoStrings extends ValorLista.Bloco {
+
+		/**
+		 * Os elementos, enquanto o trecho nao foi gravado.
+		 */
+		private volatile String[] valores;
+
+		private volatile IntBuffer inicios;
+
+		private volatile ByteBuffer dados;
+
+		private BlocoStrings(String primeiro) {
+			super(1);
+			this.valores = new String[16];
+			this.valores[0] = primeiro;
+		}
+
+		@Override
+		Valor valor(int indice) {
+			String[] valores = this.valores;
+			if (valores != null) {
+				return new ValorString(valores[indice]);
+			}
+			// a lista pode ser percorrida por varias threads, entao cada
+			// leitura usa a sua propria posicao na regiao
+			ByteBuffer trecho = dados.duplicate();
+			trecho.position(inicios.get(indice));
+			trecho.limit(inicios.get(indice + 1));
+			return new ValorString(StandardCharsets.UTF_8.decode(trecho)
+					.toString());
+		}
+
+		@Override
+		boolean acrescentar(Valor valor, int indice) {
+			if (!(valor instanceof ValorString) || indice == TAMANHO_BLOCO) {
+				return false;
+			}
+			String[] valores = this.valores;
+			if (indice == valores.length) {
+				valores = Arrays.copyOf(valores, crescer(indice));
+			}
+			valores[indice] = ((ValorString) valor).valor();
+			this.valores = valores;
+			return true;
+		}
+
+		/**
+		 * Grava o trecho numa regiao que comeca com a posicao de cada string
+		 * nos dados, seguida dos dados em UTF-8.
+		 */
+		@Override
+		void encerrar(int tamanho) {
+			byte[][] bytes = new byte[tamanho][];
+			long total = 0;
+			for (int i = 0; i < tamanho; i++) {
+				bytes[i] = valores[i].getBytes(StandardCharsets.UTF_8);
+				total += bytes[i].length;
+			}
+			MappedByteBuffer regiao = mapear(4L * (tamanho + 1) + total);
+			int inicio = 0;
+			for (int i = 0; i < tamanho; i++) {
+				regiao.putInt(inicio);
+				inicio += bytes[i].length;
+			}
+			regiao.putInt(inicio);
+			ByteBuffer dados = regiao.slice();
+			for (int i = 0; i < tamanho; i++) {
+				dados.put(bytes[i]);
+			}
+			regiao.rewind();
+			inicios = regiao.asIntBuffer();
+			dados.rewind();
+			this.dados = dados;
+			valores = null;
+		}
+	}
+}
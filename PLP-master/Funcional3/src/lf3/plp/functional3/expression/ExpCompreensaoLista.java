@@ -14,6 +14,7 @@ import lf3.plp.expressions2.memory.AmbienteCompilacao;
 import lf3.plp.expressions2.memory.AmbienteExecucao;
 import lf3.plp.expressions2.memory.VariavelJaDeclaradaException;
 import lf3.plp.expressions2.memory.VariavelNaoDeclaradaException;
+import lf3.plp.functional3.util.ExpressaoVisitor;
 import lf3.plp.functional3.util.TipoLista;
 
 public class ExpCompreensaoLista implements Expressao {
@@ -46,11 +47,14 @@ public class ExpCompreensaoLista implements Expressao {
 
 	public Valor avaliar(AmbienteExecucao amb)
 			throws VariavelNaoDeclaradaException, VariavelJaDeclaradaException {
-		ValorLista result = ValorLista.getInstancia(null, null);
-
-		gerador.gerarValores(amb, result, expressao, filtro);
-
-		return result.inverter();
+		int limiar = amb.getLimiarParalelismo();
+		if (limiar > 0 && !amb.isAvaliacaoPreguicosa()) {
+			return CompreensaoParalela.avaliar(amb, expressao, filtro,
+					gerador, limiar);
+		}
+		// os valores sao produzidos a medida que a lista e' percorrida
+		return ValorLista.getSequencia(new IteradorCompreensao(amb,
+				expressao, filtro, gerador), amb.getLimiteListaEmMemoria());
 	}
 
 	public boolean checaTipo(AmbienteCompilacao amb)
@@ -161,4 +165,8 @@ public class ExpCompreensaoLista implements Expressao {
 		
 		return aux;
 	}
+
+	public <T> T accept(ExpressaoVisitor<T> visitor) {
+		return visitor.visit(this);
+	}
 }
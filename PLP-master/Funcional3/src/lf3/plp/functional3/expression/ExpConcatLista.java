@@ -8,6 +8,7 @@ import lf3.plp.expressions2.memory.AmbienteCompilacao;
 import lf3.plp.expressions2.memory.AmbienteExecucao;
 import lf3.plp.expressions2.memory.VariavelJaDeclaradaException;
 import lf3.plp.expressions2.memory.VariavelNaoDeclaradaException;
+import lf3.plp.functional3.util.ExpressaoVisitor;
 
 public class ExpConcatLista extends ExpBinaria {
 
@@ -55,10 +56,8 @@ public class ExpConcatLista extends ExpBinaria {
 	 */
 	public Valor avaliar(AmbienteExecucao amb)
 			throws VariavelNaoDeclaradaException, VariavelJaDeclaradaException {
-		ValorLista lista = ValorLista.getInstancia(null, null);
-		lista = ((ValorLista) this.getEsq().avaliar(amb)).clone();
-		lista = lista.concat((ValorLista) this.getDir().avaliar(amb));
-		return lista;
+		ValorLista lista = (ValorLista) this.getEsq().avaliar(amb);
+		return lista.concat((ValorLista) this.getDir().avaliar(amb));
 	}
 
 	/**
@@ -78,4 +77,8 @@ public class ExpConcatLista extends ExpBinaria {
 	public ExpConcatLista clone() {
 		return new ExpConcatLista(this.esq.clone(), this.dir.clone());
 	}
+
+	public <T> T accept(ExpressaoVisitor<T> visitor) {
+		return visitor.visit(this);
+	}
 }
@@ -8,6 +8,7 @@ import lf3.plp.expressions2.memory.AmbienteCompilacao;
 import lf3.plp.expressions2.memory.AmbienteExecucao;
 import lf3.plp.expressions2.memory.VariavelJaDeclaradaException;
 import lf3.plp.expressions2.memory.VariavelNaoDeclaradaException;
+import lf3.plp.functional3.util.ExpressaoVisitor;
 import lf3.plp.functional3.util.TipoLista;
 
 public class ExpCons extends ExpBinaria {
@@ -62,11 +63,10 @@ public class ExpCons extends ExpBinaria {
 	 */
 	public Valor avaliar(AmbienteExecucao amb)
 			throws VariavelNaoDeclaradaException, VariavelJaDeclaradaException {
-		ValorLista listResult = ((ValorLista) this.getDir().avaliar(amb))
-				.clone();
-		listResult.cons(this.getEsq().avaliar(amb));
+		// a lista da direita e' compartilhada como tail do resultado
+		ValorLista tail = (ValorLista) this.getDir().avaliar(amb);
 
-		return listResult;
+		return ValorLista.getInstancia(this.getEsq().avaliar(amb), tail);
 	}
 
 	/**
@@ -87,4 +87,8 @@ public class ExpCons extends ExpBinaria {
 	public ExpCons clone() {
 		return new ExpCons(this.esq.clone(), this.dir.clone());
 	}
+
+	public <T> T accept(ExpressaoVisitor<T> visitor) {
+		return visitor.visit(this);
+	}
 }
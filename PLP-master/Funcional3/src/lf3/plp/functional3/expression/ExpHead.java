@@ -9,6 +9,7 @@ import lf3.plp.expressions2.memory.AmbienteExecucao;
 import lf3.plp.expressions2.memory.VariavelJaDeclaradaException;
 import lf3.plp.expressions2.memory.VariavelNaoDeclaradaException;
 import lf3.plp.functional1.util.TipoPolimorfico;
+import lf3.plp.functional3.util.ExpressaoVisitor;
 import lf3.plp.functional3.util.ListaVaziaException;
 import lf3.plp.functional3.util.TipoLista;
 
@@ -82,4 +83,8 @@ public class ExpHead extends ExpUnaria {
 	public ExpHead clone() {
 		return new ExpHead(this.exp.clone());
 	}
+
+	public <T> T accept(ExpressaoVisitor<T> visitor) {
+		return visitor.visit(this);
+	}
 }
\ No newline at end of file
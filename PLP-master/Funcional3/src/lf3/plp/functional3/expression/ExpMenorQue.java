@@ -4,6 +4,7 @@ import lf3.plp.expressions1.util.Tipo;
 import lf3.plp.expressions1.util.TipoPrimitivo;
 import lf3.plp.expressions2.expression.ExpBinaria;
 import lf3.plp.expressions2.expression.Expressao;
+import lf3.plp.expressions2.expression.ExpressaoInteira;
 import lf3.plp.expressions2.expression.Valor;
 import lf3.plp.expressions2.expression.ValorBooleano;
 import lf3.plp.expressions2.expression.ValorInteiro;
@@ -11,6 +12,7 @@ import lf3.plp.expressions2.memory.AmbienteCompilacao;
 import lf3.plp.expressions2.memory.AmbienteExecucao;
 import lf3.plp.expressions2.memory.VariavelJaDeclaradaException;
 import lf3.plp.expressions2.memory.VariavelNaoDeclaradaException;
+import lf3.plp.functional3.util.ExpressaoVisitor;
 
 public class ExpMenorQue extends ExpBinaria {
 
@@ -22,9 +24,13 @@ public class ExpMenorQue extends ExpBinaria {
 	 * Retorna o valor da Expressao de Soma
 	 */
 	public Valor avaliar(AmbienteExecucao amb) throws VariavelNaoDeclaradaException, VariavelJaDeclaradaException {
-		return new ValorBooleano(
-			((ValorInteiro) getEsq().avaliar(amb)).valor() <
-			((ValorInteiro) getDir().avaliar(amb)).valor() );
+		int valorEsq = esq instanceof ExpressaoInteira ? ((ExpressaoInteira) esq)
+				.avaliarInteiro(amb) : ((ValorInteiro) esq.avaliar(amb))
+				.valorPrimitivo();
+		int valorDir = dir instanceof ExpressaoInteira ? ((ExpressaoInteira) dir)
+				.avaliarInteiro(amb) : ((ValorInteiro) dir.avaliar(amb))
+				.valorPrimitivo();
+		return new ValorBooleano(valorEsq < valorDir);
 	}
 	
 	/**
@@ -56,4 +62,8 @@ public class ExpMenorQue extends ExpBinaria {
 	public ExpMenorQue clone() {
 		return new ExpMenorQue(this.esq.clone(), this.dir.clone());
 	}
+
+	public <T> T accept(ExpressaoVisitor<T> visitor) {
+		return visitor.visit(this);
+	}
 }
@@ -4,14 +4,16 @@ import lf3.plp.expressions1.util.Tipo;
 import lf3.plp.expressions1.util.TipoPrimitivo;
 import lf3.plp.expressions2.expression.ExpBinaria;
 import lf3.plp.expressions2.expression.Expressao;
+import lf3.plp.expressions2.expression.ExpressaoInteira;
 import lf3.plp.expressions2.expression.Valor;
 import lf3.plp.expressions2.expression.ValorInteiro;
 import lf3.plp.expressions2.memory.AmbienteCompilacao;
 import lf3.plp.expressions2.memory.AmbienteExecucao;
 import lf3.plp.expressions2.memory.VariavelJaDeclaradaException;
 import lf3.plp.expressions2.memory.VariavelNaoDeclaradaException;
+import lf3.plp.functional3.util.ExpressaoVisitor;
 
-public class ExpMult extends ExpBinaria {
+public class ExpMult extends ExpBinaria implements ExpressaoInteira {
 
 	/**
 	 * Controi uma Expressao de Multiplica��o com as sub-expressoes
@@ -32,8 +34,28 @@ public class ExpMult extends ExpBinaria {
 	 */
 	public Valor avaliar(AmbienteExecucao amb)
 			throws VariavelNaoDeclaradaException, VariavelJaDeclaradaException {
-		return new ValorInteiro(((ValorInteiro) getEsq().avaliar(amb)).valor()
-				* ((ValorInteiro) getDir().avaliar(amb)).valor());
+		int valorEsq = esq instanceof ExpressaoInteira ? ((ExpressaoInteira) esq)
+				.avaliarInteiro(amb) : ((ValorInteiro) esq.avaliar(amb))
+				.valorPrimitivo();
+		int valorDir = dir instanceof ExpressaoInteira ? ((ExpressaoInteira) dir)
+				.avaliarInteiro(amb) : ((ValorInteiro) dir.avaliar(amb))
+				.valorPrimitivo();
+		return ValorInteiro.cria(valorEsq * valorDir);
+	}
+
+	/**
+	 * Retorna o produto sem criar valores intermediarios para as
+	 * sub-expressoes inteiras.
+	 */
+	public int avaliarInteiro(AmbienteExecucao amb)
+			throws VariavelNaoDeclaradaException, VariavelJaDeclaradaException {
+		int valorEsq = esq instanceof ExpressaoInteira ? ((ExpressaoInteira) esq)
+				.avaliarInteiro(amb) : ((ValorInteiro) esq.avaliar(amb))
+				.valorPrimitivo();
+		int valorDir = dir instanceof ExpressaoInteira ? ((ExpressaoInteira) dir)
+				.avaliarInteiro(amb) : ((ValorInteiro) dir.avaliar(amb))
+				.valorPrimitivo();
+		return valorEsq * valorDir;
 	}
 
 	/**
@@ -70,4 +92,8 @@ public class ExpMult extends ExpBinaria {
 	public ExpMult clone() {
 		return new ExpMult(this.esq.clone(), this.dir.clone());
 	}
+
+	public <T> T accept(ExpressaoVisitor<T> visitor) {
+		return visitor.visit(this);
+	}
 }
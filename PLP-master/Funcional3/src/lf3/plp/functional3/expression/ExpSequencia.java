@@ -10,6 +10,7 @@ import lf3.plp.expressions2.memory.AmbienteCompilacao;
 import lf3.plp.expressions2.memory.AmbienteExecucao;
 import lf3.plp.expressions2.memory.VariavelJaDeclaradaException;
 import lf3.plp.expressions2.memory.VariavelNaoDeclaradaException;
+import lf3.plp.functional3.util.ExpressaoVisitor;
 import lf3.plp.functional3.util.TipoLista;
 
 public class ExpSequencia extends ExpBinaria {
@@ -31,22 +32,8 @@ public class ExpSequencia extends ExpBinaria {
 		ValorInteiro esq = (ValorInteiro) getEsq().avaliar(amb);
 		ValorInteiro dir = (ValorInteiro) getDir().avaliar(amb);
 
-		ValorLista retorno = ValorLista.getInstancia(null, null);
-
-		int fim = dir.valor();
-		int inicio = esq.valor();
-		int incremento = inicio < fim ? 1 : -1;
-		if (inicio < fim) {
-			for (int i = fim; i >= inicio; i -= incremento) {
-				retorno.cons(new ValorInteiro(i));
-			}
-		} else {
-			for (int i = fim; i <= inicio; i -= incremento) {
-				retorno.cons(new ValorInteiro(i));
-			}
-		}
-
-		return retorno;
+		// os elementos sao criados a medida que o intervalo e' percorrido
+		return ValorLista.getIntervalo(esq.valor(), dir.valor());
 	}
 
 	public Tipo getTipo(AmbienteCompilacao amb)
@@ -62,4 +49,8 @@ public class ExpSequencia extends ExpBinaria {
 	public ExpSequencia clone() {
 		return new ExpSequencia(this.esq.clone(), this.dir.clone());
 	}
+
+	public <T> T accept(ExpressaoVisitor<T> visitor) {
+		return visitor.visit(this);
+	}
 }
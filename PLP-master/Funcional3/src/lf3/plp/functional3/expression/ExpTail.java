@@ -8,6 +8,7 @@ import lf3.plp.expressions2.memory.AmbienteCompilacao;
 import lf3.plp.expressions2.memory.AmbienteExecucao;
 import lf3.plp.expressions2.memory.VariavelJaDeclaradaException;
 import lf3.plp.expressions2.memory.VariavelNaoDeclaradaException;
+import lf3.plp.functional3.util.ExpressaoVisitor;
 import lf3.plp.functional3.util.ListaVaziaException;
 import lf3.plp.functional3.util.TipoLista;
 
@@ -74,4 +75,8 @@ public class ExpTail extends ExpUnaria {
 	public ExpTail clone() {
 		return new ExpTail(this.exp.clone());
 	}
+
+	public <T> T accept(ExpressaoVisitor<T> visitor) {
+		return visitor.visit(this);
+	}
 }
@@ -6,8 +6,6 @@ import java.util.Map;
 import lf3.plp.expressions1.util.Tipo;
 import lf3.plp.expressions2.expression.Expressao;
 import lf3.plp.expressions2.expression.Id;
-import lf3.plp.expressions2.expression.Valor;
-import lf3.plp.expressions2.expression.ValorBooleano;
 import lf3.plp.expressions2.memory.AmbienteCompilacao;
 import lf3.plp.expressions2.memory.AmbienteExecucao;
 import lf3.plp.expressions2.memory.VariavelJaDeclaradaException;
@@ -39,40 +37,15 @@ public class Gerador {
 		}
 	}
 
-	public void gerarValores(AmbienteExecucao amb, ValorLista resultado,
-			Expressao expressao, Expressao filtro)
-			throws VariavelNaoDeclaradaException, VariavelJaDeclaradaException {
-
-		// Usamos uma lista auxiliar pois a lista original pode ser  
-		// iterada mais de uma vez.
-		ValorLista temp = (ValorLista) this.expressao.avaliar(amb);
-
-		// Enquanto houver elementos na lista
-		while (temp != null && !temp.isEmpty()) {
-			amb.incrementa();
-
-			// Avalia o proximo valor da lista
-			Valor valor = temp.getHead().avaliar(amb);
-			amb.map(this.id, valor);
-			temp = temp.getTail();
-
-			// Se esse for o �ltimo gerador, ent�o devemos avaliar a express�o
-			// de filtro e, se o resultado for 'true', devemos avaliar a express�o
-			// em si adicionando seu resultado a lista de sa�da.
-			if (getProximoGerador() == null) {
-				if (filtro == null
-						|| ((ValorBooleano) filtro.avaliar(amb)).valor()) {
-					resultado.cons(expressao.avaliar(amb));
-				}
-			} else {
-				// Se um pr�ximo gerador encadeado devemos chamar 'gerarValores' para 
-				// que esse gerador fa�a o bind de sua vari�vel.
-				getProximoGerador().gerarValores(amb, resultado, expressao,
-						filtro);
-			}
-
-			amb.restaura();
-		}
+	public Id getId() {
+		return id;
+	}
+
+	/**
+	 * Retorna a expressao cujo valor e' a lista percorrida por este gerador.
+	 */
+	public Expressao getExpressao() {
+		return expressao;
 	}
 
 	public boolean temProximoGerador() {
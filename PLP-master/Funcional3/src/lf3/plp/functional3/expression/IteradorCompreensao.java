@@ -0,0 +1,142 @@
+package lf3.plp.functional3.expression;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import lf3.plp.expressions2.expression.Expressao;
+import lf3.plp.expressions2.expression.Valor;
+import lf3.plp.expressions2.expression.ValorBooleano;
+import lf3.plp.expressions2.memory.AmbienteExecucao;
+
+/**
+ * Produz, em ordem e sob demanda, os valores de uma compreensao de lista. Os
+ * geradores formam um unico laco aninhado: cada gerador tem um bloco proprio
+ * no ambiente, empilhado quando o gerador comeca a percorrer a sua lista, e
+ * a variavel do gerador e' trocada nesse mesmo bloco a cada elemento.
+ * Como os valores podem ser pedidos depois que a avaliacao da compreensao
+ * terminou, o laco usa uma copia do ambiente.
+ */
+class IteradorCompreensao implements Iterator<Valor> {
+
+	private AmbienteExecucao ambiente;
+
+	private Expressao expressao;
+
+	private Expressao filtro;
+
+	private Gerador[] geradores;
+
+	/**
+	 * Para cada gerador ativo, a celula da sua lista cujo head e' o valor
+	 * atual da variavel do gerador.
+	 */
+	private ValorLista[] atuais;
+
+	/**
+	 * Quantos geradores, a partir do primeiro, tem um bloco no ambiente.
+	 */
+	private int ativos;
+
+	private boolean iniciado;
+
+	private Valor proximo;
+
+	public IteradorCompreensao(AmbienteExecucao ambiente, Expressao expressao,
+			Expressao filtro, Gerador gerador) {
+		this.ambiente = ambiente.copiar();
+		this.expressao = expressao;
+		this.filtro = filtro;
+		List<Gerador> lista = new ArrayList<Gerador>();
+		for (Gerador g = gerador; g != null; g = g.getProximoGerador()) {
+			lista.add(g);
+		}
+		this.geradores = lista.toArray(new Gerador[lista.size()]);
+		this.atuais = new ValorLista[geradores.length];
+	}
+
+	public boolean hasNext() {
+		if (proximo == null && ambiente != null) {
+			proximo = calcular();
+		}
+		return proximo != null;
+	}
+
+	public Valor next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		Valor valor = proximo;
+		proximo = null;
+		return valor;
+	}
+
+	public void remove() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * Retorna o proximo valor da expressao para uma combinacao que passa
+	 * pelo filtro, ou <code>null</code> quando as combinacoes acabam.
+	 */
+	private Valor calcular() {
+		while (proximaCombinacao()) {
+			if (filtro == null
+					|| ((ValorBooleano) filtro.avaliar(ambiente)).valor()) {
+				return expressao.avaliar(ambiente);
+			}
+		}
+		// libera o ambiente e as listas percorridas
+		ambiente = null;
+		atuais = null;
+		return null;
+	}
+
+	/**
+	 * Liga as variaveis dos geradores a proxima combinacao de elementos,
+	 * variando primeiro o ultimo gerador.
+	 */
+	private boolean proximaCombinacao() {
+		if (iniciado && !avancar()) {
+			return false;
+		}
+		iniciado = true;
+		while (ativos < geradores.length) {
+			Gerador gerador = geradores[ativos];
+			ValorLista lista = (ValorLista) gerador.getExpressao().avaliar(
+					ambiente);
+			if (lista == null || lista.isEmpty()) {
+				if (!avancar()) {
+					return false;
+				}
+				continue;
+			}
+			ambiente.incrementa();
+			ambiente.map(gerador.getId(), lista.getHead().avaliar(ambiente));
+			atuais[ativos++] = lista;
+		}
+		return true;
+	}
+
+	/**
+	 * Passa o gerador ativo mais interno para o seu proximo elemento,
+	 * desempilhando os geradores que chegaram ao fim da lista.
+	 */
+	private boolean avancar() {
+		while (ativos > 0) {
+			int nivel = ativos - 1;
+			ValorLista resto = atuais[nivel].getTail();
+			if (resto != null && !resto.isEmpty()) {
+				atuais[nivel] = resto;
+				ambiente.remap(geradores[nivel].getId(), resto.getHead()
+						.avaliar(ambiente));
+				return true;
+			}
+			atuais[nivel] = null;
+			ambiente.restaura();
+			ativos--;
+		}
+		return false;
+	}
+}
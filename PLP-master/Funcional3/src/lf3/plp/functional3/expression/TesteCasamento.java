@@ -0,0 +1,101 @@
+package lf3.plp.functional3.expression;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import lf3.plp.expressions2.expression.ExpSoma;
+import lf3.plp.expressions2.expression.Expressao;
+import lf3.plp.expressions2.expression.Id;
+import lf3.plp.expressions2.expression.Valor;
+import lf3.plp.expressions2.expression.ValorInteiro;
+import lf3.plp.expressions2.memory.AmbienteExecucao;
+import lf3.plp.expressions2.memory.ContextoExecucao;
+import lf3.plp.functional2.expression.ValorSuspenso;
+import lf3.plp.functional3.declaration.DecPadrao;
+
+/**
+ * Verifica que o filtro e o corpo de uma clausula usam as mesmas ligacoes.
+ * Na avaliacao preguicosa ha uma unica suspensao por parametro: o argumento
+ * forcado pelo filtro nao e' avaliado de novo pelo corpo. As clausulas
+ * <code>DecPadrao</code> sao montadas aqui diretamente, pois o parser da
+ * Funcional3 so gera funcoes da Funcional2.
+ */
+public class TesteCasamento {
+
+	private static int avaliacoes;
+
+	public static void main(String[] args) {
+		ContextoExecucao ambiente = new ContextoExecucao();
+		ambiente.setAvaliacaoPreguicosa(true);
+
+		ValorFuncao f = new ValorFuncao(clausulas());
+		List<Expressao> argumentos = f.avaliarArgumentos(lista(argumento()),
+				ambiente);
+		Casamento casamento = f.casar(argumentos, ambiente);
+		Valor x = casamento.getLigacoes().get(id("x"));
+		verificar("clausula escolhida", f.getDecPadroes().get(0), casamento
+				.getDecPadrao());
+		verificar("suspensao forcada pelo filtro", true,
+				x instanceof ValorSuspenso && ((ValorSuspenso) x).isAvaliado());
+		verificar("avaliacoes no filtro", 1, avaliacoes);
+
+		avaliacoes = 0;
+		ambiente.incrementa();
+		ambiente.map(id("f"), new ValorFuncao(clausulas()));
+		Valor resultado = new Aplicacao(id("f"), lista(argumento()))
+				.avaliar(ambiente);
+		ambiente.restaura();
+		verificar("resultado", new ValorInteiro(10), resultado);
+		verificar("avaliacoes no filtro e no corpo", 1, avaliacoes);
+
+		System.out.println("TesteCasamento: ok");
+	}
+
+	/**
+	 * Retorna as clausulas de f:
+	 *
+	 * <pre>
+	 * f x = x + x, if x &gt; 0
+	 * f x = 0
+	 * </pre>
+	 */
+	private static List<DecPadrao> clausulas() {
+		List<DecPadrao> clausulas = new ArrayList<DecPadrao>();
+		clausulas.add(new DecPadrao(id("f"), lista(id("x")), new ExpSoma(
+				id("x"), id("x")), new ExpMaiorQue(id("x"),
+				new ValorInteiro(0))));
+		clausulas.add(new DecPadrao(id("f"), lista(id("x")),
+				new ValorInteiro(0)));
+		return clausulas;
+	}
+
+	/**
+	 * Retorna o argumento 2 + 3, que conta quantas vezes e' avaliado.
+	 */
+	private static Expressao argumento() {
+		return new ExpSoma(new ValorInteiro(2), new ValorInteiro(3)) {
+			@Override
+			public Valor avaliar(AmbienteExecucao amb) {
+				avaliacoes++;
+				return super.avaliar(amb);
+			}
+		};
+	}
+
+	private static void verificar(String caso, Object esperado, Object obtido) {
+		if (!esperado.equals(obtido)) {
+			throw new IllegalStateException(caso + ": esperado " + esperado
+					+ ", obtido " + obtido);
+		}
+		System.out.println(caso + ": " + obtido);
+	}
+
+	private static Id id(String nome) {
+		return new Id(nome);
+	}
+
+	private static List<Expressao> lista(Expressao... expressoes) {
+		return new ArrayList<Expressao>(Arrays.asList(expressoes));
+	}
+}
@@ -28,7 +28,8 @@ import lf3.plp.functional3.exception.PadraoNaoEncontradoException;
 import lf3.plp.functional3.exception.TipoParametrosException;
 import lf3.plp.functional3.exception.TipoRetornoPadraoException;
 import lf3.plp.functional3.util.AmbienteUtil;
-import lf3.plp.functional3.util.Padrao;
+import lf3.plp.functional3.util.ArvoreDecisao;
+import lf3.plp.functional3.util.ExpressaoVisitor;
 import lf3.plp.functional3.util.PartialInstantiatorVisitor;
 import lf3.plp.functional3.util.padrao.ExpPadrao;
 
@@ -36,6 +37,11 @@ public class ValorFuncao implements ValorAbstrato {
 	
 	private List<DecPadrao> decPadroes;
 	
+	/**
+	 * A arvore de decisao das clausulas, montada na primeira aplicacao.
+	 */
+	private ArvoreDecisao arvore;
+	
 	public ValorFuncao(List<DecPadrao> listaDecPadroes) {
 		this.decPadroes = listaDecPadroes;
 	}
@@ -48,28 +54,67 @@ public class ValorFuncao implements ValorAbstrato {
 		return this.decPadroes.get(0).getNumeroExpressoes();
 	}
 	
+	/**
+	 * Retorna a primeira clausula cujo padrao casa com os argumentos e cujo
+	 * filtro e' verdadeiro. As clausulas sao escolhidas pela arvore de
+	 * decisao; apenas os filtros das clausulas candidatas sao avaliados.
+	 */
 	public DecPadrao getMatch(List<Expressao> expressoes, AmbienteExecucao ambiente) {
-		for ( DecPadrao decPadrao : this.decPadroes ) {
-			Padrao padrao = decPadrao.getPadrao();
-			
-			boolean match = padrao.match(ambiente, expressoes);
-			match &= this.avaliarFiltro(ambiente, decPadrao, expressoes);
-			
-			if ( match ) {
-				return decPadrao;
+		return this.casar(expressoes, ambiente).getDecPadrao();
+	}
+	
+	/**
+	 * Como <code>getMatch</code>, mas retorna tambem os valores ligados aos
+	 * parametros da clausula escolhida. As ligacoes feitas para avaliar o
+	 * filtro de uma clausula sao as mesmas usadas no corpo, sem avaliar os
+	 * argumentos de novo.
+	 */
+	public Casamento casar(List<Expressao> expressoes, AmbienteExecucao ambiente) {
+		for ( DecPadrao decPadrao : this.getArvore(ambiente).getCandidatas(ambiente,
+				expressoes) ) {
+			Map<Id, Valor> mapIdValor = AmbienteUtil.resolveParametersBindings(
+					ambiente, decPadrao, expressoes);
+			if ( this.avaliarFiltro(ambiente, decPadrao, mapIdValor) ) {
+				return new Casamento(decPadrao, mapIdValor);
 			}
 		}
 		throw new PadraoNaoEncontradoException();
 	}
 	
+	/**
+	 * Avalia uma unica vez os argumentos de uma aplicacao desta funcao, para
+	 * que a escolha da clausula, os filtros e a ligacao dos parametros usem
+	 * os mesmos valores. Na avaliacao preguicosa, so sao avaliados os
+	 * argumentos comparados com constantes; os demais continuam sendo
+	 * ligados aos parametros sem serem avaliados.
+	 */
+	public List<Expressao> avaliarArgumentos(List<Expressao> argumentos,
+			AmbienteExecucao ambiente) {
+		ArvoreDecisao arvore = this.getArvore(ambiente);
+		List<Expressao> valores = new ArrayList<Expressao>(argumentos.size());
+		for ( int i = 0; i < argumentos.size(); i++ ) {
+			Expressao argumento = argumentos.get(i);
+			if ( !ambiente.isAvaliacaoPreguicosa() || arvore.isTestada(i) ) {
+				argumento = argumento.avaliar(ambiente);
+			}
+			valores.add(argumento);
+		}
+		return valores;
+	}
+	
+	private ArvoreDecisao getArvore(AmbienteExecucao ambiente) {
+		if ( this.arvore == null ) {
+			this.arvore = ArvoreDecisao.compilar(this.decPadroes, ambiente);
+		}
+		return this.arvore;
+	}
+	
 	private boolean avaliarFiltro(AmbienteExecucao ambiente, DecPadrao decPadrao,
-			List<Expressao> padraoAplicacao) {
+			Map<Id, Valor> mapIdValor) {
 		if ( decPadrao.getFiltro() == null ) {
 			return true;
 		}
 		
-		Map<Id, Valor> mapIdValor = AmbienteUtil.resolveParametersBindings(ambiente,
-				decPadrao, padraoAplicacao);
 		ambiente.incrementa();
 		AmbienteUtil.includeValueBindings(ambiente, mapIdValor);
 		
@@ -84,7 +129,7 @@ public class ValorFuncao implements ValorAbstrato {
 		
 		Set<Id> variaveisLocais = Collections.unmodifiableSet(new HashSet<Id>());
 		
-		return (Valor) PartialInstantiatorVisitor.getInstance().visit(this, ambiente,
+		return (Valor) PartialInstantiatorVisitor.instanciar(this, ambiente,
 				variaveisLocais);
 	}
 	
@@ -249,6 +294,7 @@ public class ValorFuncao implements ValorAbstrato {
 			novaLista.add(dec.reduzir(ambiente));
 		
 		this.decPadroes = novaLista;
+		this.arvore = null;
 		
 		return this;
 	}
@@ -262,4 +308,8 @@ public class ValorFuncao implements ValorAbstrato {
 		
 		return null;
 	}
+
+	public <T> T accept(ExpressaoVisitor<T> visitor) {
+		return visitor.visit(this);
+	}
 }
@@ -1,16 +1,23 @@
 package lf3.plp.functional3.expression;
 
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 
 import lf3.plp.expressions1.util.Tipo;
 import lf3.plp.expressions2.expression.Expressao;
 import lf3.plp.expressions2.expression.Valor;
 import lf3.plp.expressions2.expression.ValorConcreto;
+import lf3.plp.expressions2.expression.ValorInteiro;
+import lf3.plp.expressions2.expression.ValorString;
 import lf3.plp.expressions2.memory.AmbienteCompilacao;
 import lf3.plp.expressions2.memory.AmbienteExecucao;
 import lf3.plp.expressions2.memory.VariavelJaDeclaradaException;
 import lf3.plp.expressions2.memory.VariavelNaoDeclaradaException;
+import lf3.plp.functional3.util.ExpressaoVisitor;
 import lf3.plp.functional3.util.ListaVaziaException;
 import lf3.plp.functional3.util.TipoLista;
 
@@ -25,16 +32,60 @@ public class ValorLista extends ValorConcreto<List<Expressao>> {
 	private ValorLista tail; // lista sem o primeiro elemento
 
 	/**
-	 * Contrutor de valorLista que referencia o construtor da classe super. �
-	 * declarado como private para n�o ser instanciado diretamente por outra
-	 * classe, obrigando a instanica��o via getInstancia
-	 * 
-	 * @param valor:
-	 *            Lista
+	 * Indica se todos os elementos ja sao valores, caso em que
+	 * <code>avaliar</code> retorna a propria lista.
+	 */
+	private boolean avaliada = true;
+
+	/**
+	 * O hash da lista a partir desta celula, guardado para que listas
+	 * diferentes sejam rejeitadas sem serem percorridas; 0 indica que ele
+	 * ainda nao foi calculado. O hash de uma lista e' o hash do head mais 31
+	 * vezes o hash do tail, e o da lista vazia e' 1, entao listas de tamanhos
+	 * diferentes tem, em geral, hashes diferentes, e o hash de uma lista
+	 * criada por <code>getInstancia</code> sai do hash do seu tail. As
+	 * celulas de um intervalo recebem o hash ao serem criadas, e a primeira
+	 * celula de uma lista produzida sob demanda, quando os valores acabam.
+	 */
+	private int hash;
+
+	/**
+	 * Como criar o tail desta celula, se ele ainda nao foi criado: a celula
+	 * pode ser parte de um intervalo, de uma lista produzida sob demanda ou
+	 * de uma concatenacao. O tail so e' criado quando pedido.
+	 */
+	private volatile Pendente pendente;
+
+	/**
+	 * O tamanho maximo da lista da esquerda de uma concatenacao para que as
+	 * suas celulas sejam copiadas, em vez de formar uma <code>Corda</code>.
+	 */
+	private static final int LIMITE_COPIA = 8;
+
+	/**
+	 * Quantos inteiros de uma lista produzida sob demanda sao guardados
+	 * juntos num <code>Bloco</code>.
+	 */
+	private static final int TAMANHO_BLOCO = 256;
+
+	/**
+	 * O inverso de 31 na aritmetica de <code>int</code>: o hash do tail de
+	 * uma celula e' o hash dela menos o do head, vezes este inverso.
 	 */
-	private ValorLista(List<Expressao> valor) {
-		// S� � poss�vel ter um construtor nesta classe devido a superClasse (valorConcreto), e deve obedecer a assinatura da sua superClasse
-		super(valor);
+	private static final int INVERSO_31 = 0xBDEF7BDF;
+
+	/**
+	 * Cria uma celula da lista. As celulas nao sao alteradas depois de
+	 * compartilhadas, por isso o tail de uma lista pode ser o tail de
+	 * outras.
+	 */
+	private ValorLista(Expressao head, ValorLista tail) {
+		this.head = head;
+		this.tail = tail;
+		if (head != null) {
+			avaliada = elementoAvaliado(head)
+					&& (tail == null || tail.avaliada);
+		}
 	}
 
 	/**
@@ -48,41 +99,440 @@ public class ValorLista extends ValorConcreto<List<Expressao>> {
 	 * @return
 	 */
 	public static ValorLista getInstancia(Expressao head, ValorLista tail) {
-		/*
-		 * A instancia do ValorLista � criada com o padr�o Factory Method devido
-		 * a necessidade de ter construtores com parametros diferentes de List.
+		if (head == null) {
+			return new ValorLista(null, null);
+		}
+		// a lista vazia nao e' guardada como tail, como em tail([x]) == null
+		if (tail != null && tail.isEmpty()) {
+			tail = null;
+		}
+		ValorLista celula = new ValorLista(head, tail);
+		celula.resumir();
+		return celula;
+	}
+
+	/**
+	 * Cria o intervalo de inteiros de <code>inicio</code> a <code>fim</code>,
+	 * em ordem crescente ou decrescente. As celulas sao criadas a medida que
+	 * a lista e' percorrida, entao percorrer o intervalo sem guardar o seu
+	 * inicio usa memoria constante. O hash do intervalo e' calculado sem
+	 * percorre-lo, e cada celula criada recebe o hash do restante.
+	 */
+	public static ValorLista getIntervalo(int inicio, int fim) {
+		int passo = inicio <= fim ? 1 : -1;
+		ValorLista celula = intervalo(inicio, new Intervalo(fim, passo));
+		celula.hash = hashIntervalo(inicio, passo,
+				Math.abs((long) fim - inicio) + 1);
+		return celula;
+	}
+
+	/**
+	 * Retorna o hash de um intervalo de <code>n</code> inteiros: a soma de
+	 * <code>(31 + inicio + k * passo) * 31^k</code>, para <code>k</code> de 0
+	 * a <code>n - 1</code>, mais <code>31^n</code> (o hash de
+	 * <code>ValorInteiro</code> e' 31 mais o valor). As somas sao calculadas
+	 * em O(log n), dobrando a quantidade de termos a cada bit de
+	 * <code>n</code>.
+	 */
+	private static int hashIntervalo(int inicio, int passo, long n) {
+		// com m termos: g = soma de 31^k, s = soma de k * 31^k, p = 31^m
+		int g = 0;
+		int s = 0;
+		int p = 1;
+		int m = 0;
+		for (int bit = 63 - Long.numberOfLeadingZeros(n); bit >= 0; bit--) {
+			s += p * (s + m * g);
+			g += p * g;
+			p *= p;
+			m *= 2;
+			if ((n >> bit & 1) != 0) {
+				g += p;
+				s += m * p;
+				p *= 31;
+				m++;
+			}
+		}
+		return (31 + inicio) * g + passo * s + p;
+	}
+
+	private static ValorLista intervalo(int atual, Intervalo intervalo) {
+		ValorLista celula = new ValorLista(ValorInteiro.cria(atual), null);
+		if (atual != intervalo.fim) {
+			celula.pendente = intervalo;
+		}
+		return celula;
+	}
+
+	/**
+	 * Cria uma celula cujo tail e' criado por <code>pendente</code> quando
+	 * pedido.
+	 */
+	static ValorLista getCelula(Expressao head, Pendente pendente,
+			boolean avaliada) {
+		ValorLista celula = new ValorLista(head, null);
+		celula.pendente = pendente;
+		celula.avaliada = avaliada;
+		return celula;
+	}
+
+	/**
+	 * O restante de uma lista cujas celulas sao criadas a medida que ela e'
+	 * percorrida.
+	 */
+	abstract static class Pendente {
+
+		/**
+		 * Cria o tail de <code>celula</code>, que tem este restante, ou
+		 * retorna <code>null</code> se a celula e' a ultima.
 		 */
+		abstract ValorLista criarTail(ValorLista celula);
 
-		List<Expressao> lista = new ArrayList<Expressao>();
-		ValorLista instancia;
+		/**
+		 * Indica se outra celula com o mesmo head, como um clone, pode ter
+		 * este mesmo restante.
+		 */
+		boolean isCompartilhavel() {
+			return true;
+		}
 
-		if (head == null) {
-			instancia = new ValorLista(lista);
-		} else {
-			lista.add(head);
-			if (tail != null) {
-				/*
-				 * Ser� montada uma lista do tipo List com todos os elementos
-				 * (head + tail) para ser passando na instancia de ValorLista,
-				 * que referencia a instancia de ValorConcreta, que por sua vez
-				 * espera um valor unico do tipo generico
-				 */
-				ValorLista list = tail;
-				while (list != null && !list.isEmpty()) {
-					lista.add(list.getHead());
-					list = list.getTail();
+		/**
+		 * Indica se o tail criado e' guardado na celula. Quando nao e', um
+		 * novo tail e' criado a cada pedido, e a lista percorrida nao fica
+		 * guardada na memoria.
+		 */
+		boolean isTailGuardado() {
+			return true;
+		}
+	}
+
+	/**
+	 * O fim e o passo de um intervalo, compartilhados por todas as suas
+	 * celulas.
+	 */
+	private static class Intervalo extends Pendente {
+
+		private final int fim;
+
+		private final int passo;
+
+		private Intervalo(int fim, int passo) {
+			this.fim = fim;
+			this.passo = passo;
+		}
+
+		@Override
+		ValorLista criarTail(ValorLista celula) {
+			ValorLista tail = intervalo(((ValorInteiro) celula.head).valorPrimitivo() + passo, this);
+			if (celula.hash != 0) {
+				tail.hash = (celula.hash - celula.head.hashCode()) * INVERSO_31;
+			}
+			return tail;
+		}
+
+		@Override
+		boolean isTailGuardado() {
+			return false;
+		}
+	}
+
+	/**
+	 * Os valores seguintes de uma lista produzida sob demanda, como o
+	 * resultado de uma compreensao. Cada valor so pode ser retirado uma vez.
+	 */
+	private static class Sequencia extends Pendente {
+
+		private final Iterator<? extends Valor> valores;
+
+		/**
+		 * Quantos elementos ficam na memoria antes de os seguintes serem
+		 * despejados, ou 0 se todos ficam na memoria.
+		 */
+		private final int limite;
+
+		private int guardados;
+
+		/**
+		 * A primeira celula da lista, que recebe o hash da lista inteira
+		 * quando os valores acabam. A referencia e' fraca para que a lista
+		 * percorrida sem guardar o seu inicio nao fique na memoria.
+		 */
+		private WeakReference<ValorLista> primeira;
+
+		/**
+		 * O hash dos valores ja retirados: a soma de cada hash vezes
+		 * <code>potencia</code> no momento em que ele foi retirado.
+		 */
+		private int soma;
+
+		private int potencia = 1;
+
+		/**
+		 * Indica se o hash de algum valor so seria conhecido percorrendo-o,
+		 * caso em que o hash da lista nao e' calculado.
+		 */
+		private boolean semHash;
+
+		private Sequencia(Iterator<? extends Valor> valores, int limite) {
+			this.valores = valores;
+			this.limite = limite;
+		}
+
+		@Override
+		ValorLista criarTail(ValorLista celula) {
+			if (valores.hasNext()) {
+				return sequencia(retirar(), this);
+			}
+			if (primeira != null && !semHash) {
+				ValorLista lista = primeira.get();
+				if (lista != null) {
+					lista.hash = soma + potencia;
 				}
-				List<Expressao> aux = new ArrayList<Expressao>();
-				for (Expressao exp : lista) {
-					aux.add(exp);
+			}
+			return null;
+		}
+
+		/**
+		 * Retira o proximo valor e o soma ao hash da lista.
+		 */
+		private Valor retirar() {
+			Valor valor = valores.next();
+			if (semHash) {
+				return valor;
+			}
+			if (valor instanceof ValorLista ? ((ValorLista) valor).isEmpty()
+					|| ((ValorLista) valor).hash != 0
+					: valor instanceof ValorConcreto) {
+				soma += potencia * valor.hashCode();
+				potencia *= 31;
+			} else {
+				semHash = true;
+			}
+			return valor;
+		}
+
+		/**
+		 * Indica se os elementos seguintes sao gravados num
+		 * <code>Despejo</code>, em vez de ficarem na memoria.
+		 */
+		private boolean isDespejada() {
+			return limite > 0 && guardados >= limite;
+		}
+
+		@Override
+		boolean isCompartilhavel() {
+			return false;
+		}
+	}
+
+	/**
+	 * Um trecho de uma lista produzida sob demanda cujos elementos sao
+	 * guardados juntos, sem celulas. As celulas do trecho sao criadas cada
+	 * vez que a lista e' percorrida; so o restante da lista, depois do
+	 * trecho, e' guardado. O trecho cresce a medida que a lista e'
+	 * percorrida: um valor so e' retirado da sequencia quando a celula
+	 * seguinte a ultima do trecho e' pedida.
+	 */
+	abstract static class Bloco {
+
+		/**
+		 * Quantos elementos o trecho ja tem.
+		 */
+		private volatile int tamanho;
+
+		/**
+		 * Os valores seguintes da lista, enquanto o trecho pode crescer e o
+		 * restante da lista ainda nao foi criado.
+		 */
+		private Sequencia sequencia;
+
+		private ValorLista proximo;
+
+		Bloco(int tamanho) {
+			this.tamanho = tamanho;
+		}
+
+		/**
+		 * Retorna o elemento na posicao dada do trecho.
+		 */
+		abstract Valor valor(int indice);
+
+		/**
+		 * Guarda o valor na posicao dada, logo depois do ultimo elemento do
+		 * trecho. Retorna <code>false</code>, sem guardar o valor, se ele nao
+		 * cabe no trecho, por ser de outro tipo ou porque o trecho esta
+		 * cheio.
+		 */
+		abstract boolean acrescentar(Valor valor, int indice);
+
+		/**
+		 * Chamado quando o trecho deixa de crescer, com o seu tamanho final.
+		 */
+		void encerrar(int tamanho) {
+		}
+
+		private ValorLista celula(int indice) {
+			return getCelula(valor(indice), new Posicao(this, indice), true);
+		}
+
+		/**
+		 * Retorna a celula na posicao dada, que e' a seguinte a ultima ja
+		 * criada, ou o restante da lista se o trecho termina antes dela.
+		 */
+		private ValorLista seguinte(int indice) {
+			if (indice < tamanho) {
+				return celula(indice);
+			}
+			synchronized (this) {
+				if (indice < tamanho) {
+					return celula(indice);
+				}
+				Sequencia sequencia = this.sequencia;
+				if (sequencia == null) {
+					return proximo;
+				}
+				if (sequencia.valores.hasNext()) {
+					Valor valor = sequencia.retirar();
+					if (acrescentar(valor, indice)) {
+						sequencia.guardados++;
+						tamanho = indice + 1;
+						return celula(indice);
+					}
+					proximo = sequencia(valor, sequencia);
+				} else {
+					proximo = sequencia.criarTail(null);
 				}
-				lista = aux;
+				this.sequencia = null;
+				encerrar(indice);
+				return proximo;
 			}
-			instancia = new ValorLista(lista);
-			instancia.head = head;
-			instancia.tail = tail;
 		}
-		return instancia;
+
+		/**
+		 * Retorna a primeira celula do trecho, que cresce com os valores
+		 * seguintes de <code>sequencia</code>.
+		 */
+		private ValorLista iniciar(Sequencia sequencia) {
+			this.sequencia = sequencia;
+			return celula(0);
+		}
+	}
+
+	/**
+	 * Um trecho de uma lista de inteiros, guardado num vetor de
+	 * <code>int</code>. O vetor dobra de tamanho enquanto o trecho cresce,
+	 * ate <code>TAMANHO_BLOCO</code>, e e' reduzido ao tamanho final quando
+	 * o trecho deixa de crescer.
+	 */
+	private static class BlocoInteiros extends Bloco {
+
+		private volatile int[] valores;
+
+		private BlocoInteiros(int primeiro) {
+			super(1);
+			this.valores = new int[16];
+			this.valores[0] = primeiro;
+		}
+
+		@Override
+		Valor valor(int indice) {
+			return ValorInteiro.cria(valores[indice]);
+		}
+
+		@Override
+		boolean acrescentar(Valor valor, int indice) {
+			if (!(valor instanceof ValorInteiro) || indice == TAMANHO_BLOCO) {
+				return false;
+			}
+			int[] valores = this.valores;
+			if (indice == valores.length) {
+				valores = Arrays.copyOf(valores, Math.min(2 * indice,
+						TAMANHO_BLOCO));
+			}
+			valores[indice] = ((ValorInteiro) valor).valorPrimitivo();
+			this.valores = valores;
+			return true;
+		}
+
+		@Override
+		void encerrar(int tamanho) {
+			if (tamanho < valores.length) {
+				valores = Arrays.copyOf(valores, tamanho);
+			}
+		}
+	}
+
+	/**
+	 * A posicao de uma celula no seu <code>Bloco</code>.
+	 */
+	private static class Posicao extends Pendente {
+
+		private final Bloco bloco;
+
+		private final int indice;
+
+		private Posicao(Bloco bloco, int indice) {
+			this.bloco = bloco;
+			this.indice = indice;
+		}
+
+		@Override
+		ValorLista criarTail(ValorLista celula) {
+			return bloco.seguinte(indice + 1);
+		}
+
+		@Override
+		boolean isTailGuardado() {
+			return false;
+		}
+	}
+
+	/**
+	 * Cria uma lista cujos elementos sao os valores de <code>valores</code>,
+	 * retirados um a um a medida que a lista e' percorrida. Cada valor e'
+	 * retirado uma unica vez; quem so usa o inicio da lista nao produz o
+	 * restante.
+	 */
+	public static ValorLista getSequencia(Iterator<? extends Valor> valores) {
+		return getSequencia(valores, 0);
+	}
+
+	/**
+	 * Como <code>getSequencia(valores)</code>, mas so os primeiros
+	 * <code>limite</code> elementos ficam na memoria; os inteiros e strings
+	 * seguintes sao gravados em arquivos temporarios, a medida que sao
+	 * produzidos, e lidos dos arquivos mapeados a cada vez que a lista e'
+	 * percorrida. Com <code>limite</code>
+	 * 0 todos os elementos ficam na memoria.
+	 */
+	public static ValorLista getSequencia(Iterator<? extends Valor> valores,
+			int limite) {
+		if (!valores.hasNext()) {
+			return getInstancia(null, null);
+		}
+		Sequencia sequencia = new Sequencia(valores, limite);
+		ValorLista lista = sequencia(sequencia.retirar(), sequencia);
+		sequencia.primeira = new WeakReference<ValorLista>(lista);
+		return lista;
+	}
+
+	/**
+	 * Retorna a lista que comeca em <code>valor</code>, ja retirado de
+	 * <code>sequencia</code>, e continua nos valores seguintes dela.
+	 */
+	private static ValorLista sequencia(Valor valor, Sequencia sequencia) {
+		Bloco bloco = null;
+		if (sequencia.isDespejada()) {
+			bloco = Despejo.criarBloco(valor);
+		} else if (valor instanceof ValorInteiro) {
+			// os inteiros seguintes sao guardados juntos num Bloco
+			bloco = new BlocoInteiros(((ValorInteiro) valor).valorPrimitivo());
+		}
+		sequencia.guardados++;
+		if (bloco != null) {
+			return bloco.iniciar(sequencia);
+		}
+		// os valores produzidos ja foram avaliados
+		return getCelula(valor, sequencia, true);
 	}
 
 	/**
@@ -94,12 +544,17 @@ public class ValorLista extends ValorConcreto<List<Expressao>> {
 	 */
 
 	public ValorLista cons(Expressao value) {
-		Expressao aux = this.head;
-		this.head = value;
-		this.valor().add(0, head);
-		if (aux != null) {
-			this.tail = ValorLista.getInstancia(aux, this.tail);
+		// a celula atual passa a ser o tail; so pode ser usado numa lista
+		// ainda em construcao, que nao foi compartilhada
+		if (this.head != null) {
+			this.tail = this.clone();
+			this.pendente = null;
 		}
+		this.head = value;
+		this.avaliada = elementoAvaliado(value)
+				&& (tail == null || tail.avaliada);
+		this.hash = 0;
+		resumir();
 		return this;
 	}
 
@@ -111,16 +566,11 @@ public class ValorLista extends ValorConcreto<List<Expressao>> {
 	 */
 	public ValorLista inverter() {
 		ValorLista listReturn = ValorLista.getInstancia(null, null);
-		ValorLista list = this.clone();
+		ValorLista list = this;
 
-		if (!list.isEmpty()) {
-			listReturn = ValorLista.getInstancia(list.getHead(), null);
+		while (list != null && !list.isEmpty()) {
+			listReturn = ValorLista.getInstancia(list.getHead(), listReturn);
 			list = list.getTail();
-			while (list != null && !list.isEmpty()) {
-				listReturn.cons(list.getHead());
-				list = list.getTail();
-			}
-
 		}
 
 		return listReturn;
@@ -134,7 +584,17 @@ public class ValorLista extends ValorConcreto<List<Expressao>> {
 
 	@Override
 	public ValorLista clone() {
-		return ValorLista.getInstancia(this.head, this.tail);
+		Pendente pendente = this.pendente;
+		if (pendente != null && pendente.isCompartilhavel()) {
+			ValorLista retorno = getCelula(this.head, pendente, this.avaliada);
+			retorno.hash = this.hash;
+			return retorno;
+		}
+		// nova celula, que pode receber cons sem alterar esta lista; o tail
+		// de uma lista produzida sob demanda precisa ser criado antes, pois
+		// os valores seguintes so podem ser retirados uma vez
+		return ValorLista.getInstancia(this.head, pendente != null ? getTail()
+				: this.tail);
 	}
 
 	/**
@@ -150,19 +610,32 @@ public class ValorLista extends ValorConcreto<List<Expressao>> {
 		if (lista == null)
 			throw new ListaVaziaException();
 
-		return concat(lista, this.clone());
-	}
-
-	private ValorLista concat(ValorLista esq, ValorLista dir)
-			throws ListaVaziaException {
-		if (dir == null || dir.getHead() == null)
-			return esq;
-
-		ValorLista retorno = concat(esq, dir.getTail());
-
-		retorno.cons(dir.getHead());
-
-		return retorno;
+		if (this.isEmpty()) {
+			return lista;
+		}
+		if (lista.isEmpty()) {
+			return this;
+		}
+		// uma lista curta e ja criada e' copiada sobre a lista passada, que
+		// e' compartilhada pelo resultado
+		Expressao[] esquerda = new Expressao[LIMITE_COPIA];
+		int tamanho = 0;
+		ValorLista atual = this;
+		while (atual != null && atual.pendente == null
+				&& tamanho < LIMITE_COPIA) {
+			esquerda[tamanho++] = atual.head;
+			atual = atual.tail;
+		}
+		if (atual == null) {
+			ValorLista retorno = lista;
+			for (int i = tamanho - 1; i >= 0; i--) {
+				retorno = getInstancia(esquerda[i], retorno);
+			}
+			return retorno;
+		}
+		// nas demais, as duas listas sao compartilhadas pelo resultado,
+		// cujas celulas sao criadas a medida que ele e' percorrido
+		return Corda.concatenar(this, lista);
 	}
 
 	/**
@@ -174,14 +647,14 @@ public class ValorLista extends ValorConcreto<List<Expressao>> {
 	 */
 	@Override
 	public Valor avaliar(AmbienteExecucao amb) {
+		if (avaliada) {
+			return this;
+		}
 
+		List<Expressao> lista = valor();
 		ValorLista retorno = getInstancia(null, null);
-
-		ValorLista listAux = this.inverter();
-
-		while (listAux != null && !listAux.isEmpty()) {
-			retorno.cons(listAux.getHead().avaliar(amb));
-			listAux = listAux.getTail();
+		for (int i = lista.size() - 1; i >= 0; i--) {
+			retorno = getInstancia(lista.get(i).avaliar(amb), retorno);
 		}
 		return retorno;
 	}
@@ -249,9 +722,36 @@ public class ValorLista extends ValorConcreto<List<Expressao>> {
 	 * @return Lista sem o primeiro elemento
 	 */
 	public ValorLista getTail() {
+		Pendente pendente = this.pendente;
+		if (pendente != null) {
+			if (!pendente.isTailGuardado()) {
+				return pendente.criarTail(this);
+			}
+			criarTail();
+		}
 		return this.tail;
 	}
 
+	/**
+	 * Cria o tail de uma celula pendente. Tarefas de uma compreensao
+	 * paralela podem percorrer a mesma lista, por isso o tail e' criado uma
+	 * unica vez e atribuido antes de a celula deixar de estar pendente.
+	 */
+	private synchronized void criarTail() {
+		if (pendente != null) {
+			tail = pendente.criarTail(this);
+			pendente = null;
+		}
+	}
+
+	Pendente getPendente() {
+		return pendente;
+	}
+
+	boolean isAvaliada() {
+		return avaliada;
+	}
+
 	/**
 	 * Verifica se a lista est� vazia
 	 * 
@@ -264,23 +764,19 @@ public class ValorLista extends ValorConcreto<List<Expressao>> {
 	}
 
 	/**
-	 * Atribui o elemento passado como argumento ao primeiro elemento da lista
-	 * 
-	 * @param head -
-	 *            Elemento que representa o primeiro elemento da lista
+	 * Retorna os elementos da lista em ordem, numa lista que nao pode ser
+	 * alterada. A lista e' montada a cada chamada, para que as celulas nao
+	 * guardem mais que o head e o tail.
 	 */
-	public void setHead(Expressao head) {
-		this.head = head;
-	}
-
-	/**
-	 * atribui a lista sem o primeiro elemento ao atributo tail
-	 * 
-	 * @param tail -
-	 *            lista sem o primeiro elemento
-	 */
-	public void setTail(ValorLista tail) {
-		this.tail = tail;
+	@Override
+	public List<Expressao> valor() {
+		List<Expressao> lista = new ArrayList<Expressao>();
+		ValorLista atual = this;
+		while (atual != null && !atual.isEmpty()) {
+			lista.add(atual.getHead());
+			atual = atual.getTail();
+		}
+		return Collections.unmodifiableList(lista);
 	}
 
 	/**
@@ -295,8 +791,90 @@ public class ValorLista extends ValorConcreto<List<Expressao>> {
 
 	@Override
 	public boolean isEquals(ValorConcreto<List<Expressao>> obj) {
-		ValorLista other = (ValorLista) obj;
+		// compara celula a celula, sem montar as listas inteiras; comparar
+		// com [] olha so a primeira celula. Hashes ja calculados diferentes
+		// rejeitam as listas, e um tail compartilhado as aceita
+		ValorLista esq = this;
+		ValorLista dir = (ValorLista) obj;
+		while (esq != dir) {
+			boolean esqVazia = esq == null || esq.isEmpty();
+			boolean dirVazia = dir == null || dir.isEmpty();
+			if (esqVazia || dirVazia) {
+				return esqVazia && dirVazia;
+			}
+			if (esq.hash != 0 && dir.hash != 0 && esq.hash != dir.hash) {
+				return false;
+			}
+			if (!esq.getHead().equals(dir.getHead())) {
+				return false;
+			}
+			esq = esq.getTail();
+			dir = dir.getTail();
+		}
+		return true;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		return obj instanceof ValorLista && isEquals((ValorLista) obj);
+	}
+
+	/**
+	 * Retorna o hash da lista, calculado na primeira chamada e guardado na
+	 * celula. A lista e' percorrida ate o fim ou ate uma celula cujo hash ja
+	 * e' conhecido.
+	 */
+	@Override
+	public int hashCode() {
+		if (isEmpty()) {
+			return 1;
+		}
+		int hash = this.hash;
+		if (hash == 0) {
+			int potencia = 1;
+			ValorLista atual = this;
+			while (atual != null && !atual.isEmpty() && atual.hash == 0) {
+				hash += potencia * atual.head.hashCode();
+				potencia *= 31;
+				atual = atual.getTail();
+			}
+			hash += potencia * (atual == null || atual.isEmpty() ? 1 : atual.hash);
+			this.hash = hash;
+		}
+		return hash;
+	}
+
+	/**
+	 * Calcula o hash de uma celula criada sobre um tail ja criado, quando o
+	 * hash do head e' conhecido sem percorrer nada.
+	 */
+	private void resumir() {
+		if (pendente != null || tail != null && tail.hash == 0) {
+			return;
+		}
+		int hashHead;
+		if (head instanceof ValorLista) {
+			ValorLista lista = (ValorLista) head;
+			if (!lista.isEmpty() && lista.hash == 0) {
+				return;
+			}
+			hashHead = lista.isEmpty() ? 1 : lista.hash;
+		} else if (head instanceof ValorConcreto) {
+			hashHead = head.hashCode();
+		} else {
+			return;
+		}
+		hash = hashHead + 31 * (tail == null ? 1 : tail.hash);
+	}
+
+	private static boolean elementoAvaliado(Expressao elemento) {
+		if (elemento instanceof ValorLista) {
+			return ((ValorLista) elemento).avaliada;
+		}
+		return elemento instanceof ValorConcreto;
+	}
 
-		return valor().equals(other.valor());
+	public <T> T accept(ExpressaoVisitor<T> visitor) {
+		return visitor.visit(this);
 	}
 }
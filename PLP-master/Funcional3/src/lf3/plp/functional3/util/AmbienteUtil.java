@@ -11,6 +11,7 @@ import lf3.plp.expressions2.expression.Valor;
 import lf3.plp.expressions2.memory.AmbienteExecucao;
 import lf3.plp.expressions2.memory.VariavelJaDeclaradaException;
 import lf3.plp.expressions2.memory.VariavelNaoDeclaradaException;
+import lf3.plp.functional2.expression.ValorSuspenso;
 import lf3.plp.functional3.declaration.DecPadrao;
 import lf3.plp.functional3.expression.ExpCons;
 import lf3.plp.functional3.expression.ValorLista;
@@ -57,7 +58,12 @@ public class AmbienteUtil {
 	private static void mapIdAmbiente(AmbienteExecucao ambiente,
 			Map<Id, Valor> mapIdValor, Id id, Expressao argumento) {
 		
-		Valor valorReal = argumento.avaliar(ambiente);
+		Valor valorReal;
+		if (ambiente.isAvaliacaoPreguicosa() && !(argumento instanceof Valor)) {
+			valorReal = new ValorSuspenso(argumento, ambiente.copiar());
+		} else {
+			valorReal = argumento.avaliar(ambiente);
+		}
 		mapIdValor.put(id, valorReal);
 	}
 	
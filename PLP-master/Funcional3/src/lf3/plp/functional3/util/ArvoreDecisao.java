@@ -0,0 +1,187 @@
+package lf3.plp.functional3.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import lf3.plp.expressions2.expression.Expressao;
+import lf3.plp.expressions2.expression.Valor;
+import lf3.plp.expressions2.memory.AmbienteExecucao;
+import lf3.plp.functional3.declaration.DecPadrao;
+import lf3.plp.functional3.util.padrao.ExpPadrao;
+import lf3.plp.functional3.util.padrao.ExpPadraoCons;
+import lf3.plp.functional3.util.padrao.ExpPadraoConstante;
+
+/**
+ * Arvore de decisao que escolhe as clausulas de uma funcao definida por
+ * padroes. Cada no interno compara um argumento com as constantes que as
+ * clausulas esperam nessa posicao; as folhas guardam, na ordem da
+ * declaracao, as clausulas cujos padroes casam com os argumentos. Assim cada
+ * argumento e' comparado no maximo uma vez, e a escolha depende da
+ * quantidade de argumentos, nao da quantidade de clausulas.
+ */
+public class ArvoreDecisao {
+
+	/**
+	 * O argumento comparado por este no, ou -1 se o no e' uma folha.
+	 */
+	private int coluna = -1;
+
+	private Map<Valor, ArvoreDecisao> ramos;
+
+	/**
+	 * O ramo seguido quando o argumento nao e' nenhuma das constantes, com as
+	 * clausulas que aceitam qualquer valor nessa posicao.
+	 */
+	private ArvoreDecisao senao;
+
+	private List<DecPadrao> clausulas;
+
+	private ArvoreDecisao(List<DecPadrao> clausulas) {
+		this.clausulas = Collections.unmodifiableList(clausulas);
+	}
+
+	/**
+	 * Monta a arvore de decisao das clausulas dadas. As constantes dos
+	 * padroes sao avaliadas aqui, uma unica vez.
+	 */
+	public static ArvoreDecisao compilar(List<DecPadrao> decPadroes,
+			AmbienteExecucao ambiente) {
+		List<Valor[]> testes = new ArrayList<Valor[]>();
+		List<DecPadrao> clausulas = new ArrayList<DecPadrao>();
+		int aridade = 0;
+		for (DecPadrao decPadrao : decPadroes) {
+			Valor[] teste = new Valor[decPadrao.getNumeroExpressoes()];
+			boolean podeCasar = true;
+			int i = 0;
+			for (ExpPadrao<?> expPadrao : decPadrao.getPadrao()
+					.getListaExpPadrao()) {
+				if (expPadrao instanceof ExpPadraoConstante
+						|| expPadrao instanceof ExpPadraoCons
+						&& expPadrao.getAridade() == 0) {
+					teste[i] = expPadrao.getExpressao().avaliar(ambiente);
+				} else if (expPadrao instanceof ExpPadraoCons
+						&& expPadrao.getAridade() == 1) {
+					// x:[] e [1]:xs nunca casam, como em ExpPadraoCons.match
+					podeCasar = false;
+				}
+				i++;
+			}
+			if (podeCasar) {
+				testes.add(teste);
+				clausulas.add(decPadrao);
+			}
+			aridade = Math.max(aridade, teste.length);
+		}
+		boolean[] testadas = new boolean[aridade];
+		return compilar(clausulas, testes, testadas);
+	}
+
+	private static ArvoreDecisao compilar(List<DecPadrao> clausulas,
+			List<Valor[]> testes, boolean[] testadas) {
+		ArvoreDecisao no = new ArvoreDecisao(clausulas);
+		int coluna = escolherColuna(testes, testadas);
+		if (coluna < 0) {
+			return no;
+		}
+		no.coluna = coluna;
+		testadas[coluna] = true;
+
+		// as clausulas que aceitam qualquer valor entram em todos os ramos
+		List<DecPadrao> outras = new ArrayList<DecPadrao>();
+		List<Valor[]> testesOutras = new ArrayList<Valor[]>();
+		for (int i = 0; i < clausulas.size(); i++) {
+			if (constante(testes.get(i), coluna) == null) {
+				outras.add(clausulas.get(i));
+				testesOutras.add(testes.get(i));
+			}
+		}
+		no.ramos = new LinkedHashMap<Valor, ArvoreDecisao>();
+		for (Valor[] teste : testes) {
+			Valor constante = constante(teste, coluna);
+			if (constante == null || no.ramos.containsKey(constante)) {
+				continue;
+			}
+			List<DecPadrao> ramo = new ArrayList<DecPadrao>();
+			List<Valor[]> testesRamo = new ArrayList<Valor[]>();
+			for (int i = 0; i < clausulas.size(); i++) {
+				Valor outra = constante(testes.get(i), coluna);
+				if (outra == null || outra.equals(constante)) {
+					ramo.add(clausulas.get(i));
+					testesRamo.add(testes.get(i));
+				}
+			}
+			no.ramos.put(constante, compilar(ramo, testesRamo, testadas));
+		}
+		no.senao = compilar(outras, testesOutras, testadas);
+
+		testadas[coluna] = false;
+		return no;
+	}
+
+	/**
+	 * Retorna a constante com que a clausula compara o argumento da coluna
+	 * dada, ou <code>null</code> se ela aceita qualquer valor nessa posicao
+	 * ou tem menos padroes que a coluna.
+	 */
+	private static Valor constante(Valor[] teste, int coluna) {
+		return coluna < teste.length ? teste[coluna] : null;
+	}
+
+	/**
+	 * Retorna o primeiro argumento ainda nao comparado que alguma das
+	 * clausulas compara com uma constante, ou -1 se nao houver.
+	 */
+	private static int escolherColuna(List<Valor[]> testes, boolean[] testadas) {
+		for (int coluna = 0; coluna < testadas.length; coluna++) {
+			if (testadas[coluna]) {
+				continue;
+			}
+			for (Valor[] teste : testes) {
+				if (constante(teste, coluna) != null) {
+					return coluna;
+				}
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Indica se o argumento na posicao dada e' comparado com alguma
+	 * constante, caso em que ele precisa ser avaliado antes da escolha da
+	 * clausula.
+	 */
+	public boolean isTestada(int coluna) {
+		if (this.coluna < 0) {
+			return false;
+		}
+		if (this.coluna == coluna) {
+			return true;
+		}
+		for (ArvoreDecisao ramo : ramos.values()) {
+			if (ramo.isTestada(coluna)) {
+				return true;
+			}
+		}
+		return senao.isTestada(coluna);
+	}
+
+	/**
+	 * Retorna, na ordem da declaracao, as clausulas cujos padroes casam com
+	 * os argumentos, sem considerar os filtros. Cada argumento comparado e'
+	 * avaliado uma vez; se os argumentos ja foram avaliados, nenhum e'
+	 * avaliado de novo.
+	 */
+	public List<DecPadrao> getCandidatas(AmbienteExecucao ambiente,
+			List<Expressao> argumentos) {
+		ArvoreDecisao no = this;
+		while (no.coluna >= 0) {
+			Valor valor = argumentos.get(no.coluna).avaliar(ambiente);
+			ArvoreDecisao ramo = no.ramos.get(valor);
+			no = ramo != null ? ramo : no.senao;
+		}
+		return no.clausulas;
+	}
+}
@@ -0,0 +1,106 @@
+package lf3.plp.functional3.util;
+
+import lf3.plp.expressions2.expression.ExpAnd;
+import lf3.plp.expressions2.expression.ExpConcat;
+import lf3.plp.expressions2.expression.ExpEquals;
+import lf3.plp.expressions2.expression.ExpLength;
+import lf3.plp.expressions2.expression.ExpMenos;
+import lf3.plp.expressions2.expression.ExpNot;
+import lf3.plp.expressions2.expression.ExpOr;
+import lf3.plp.expressions2.expression.ExpSoma;
+import lf3.plp.expressions2.expression.ExpSub;
+import lf3.plp.expressions2.expression.Id;
+import lf3.plp.expressions2.expression.ValorBooleano;
+import lf3.plp.expressions2.expression.ValorInteiro;
+import lf3.plp.expressions2.expression.ValorString;
+import lf3.plp.functional1.expression.IfThenElse;
+import lf3.plp.functional2.expression.ValorIrredutivel;
+import lf3.plp.functional2.expression.ValorSuspenso;
+import lf3.plp.functional3.expression.Aplicacao;
+import lf3.plp.functional3.expression.ExpCompreensaoLista;
+import lf3.plp.functional3.expression.ExpConcatLista;
+import lf3.plp.functional3.expression.ExpCons;
+import lf3.plp.functional3.expression.ExpHead;
+import lf3.plp.functional3.expression.ExpMaiorQue;
+import lf3.plp.functional3.expression.ExpMenorQue;
+import lf3.plp.functional3.expression.ExpMult;
+import lf3.plp.functional3.expression.ExpSequencia;
+import lf3.plp.functional3.expression.ExpTail;
+import lf3.plp.functional3.expression.ValorFuncao;
+import lf3.plp.functional3.expression.ValorLista;
+
+/**
+ * Visitante das expressoes da Linguagem Funcional 3. Cada expressao concreta
+ * chama, em <code>accept</code>, o metodo <code>visit</code> do seu proprio
+ * tipo; uma nova expressao que nao tenha o metodo correspondente aqui nao
+ * compila.
+ *
+ * @param <T>
+ *            o tipo do resultado da visita.
+ */
+public interface ExpressaoVisitor<T> {
+
+	T visit(ExpAnd expressao);
+
+	T visit(ExpConcat expressao);
+
+	T visit(ExpEquals expressao);
+
+	T visit(ExpLength expressao);
+
+	T visit(ExpMenos expressao);
+
+	T visit(ExpNot expressao);
+
+	T visit(ExpOr expressao);
+
+	T visit(ExpSoma expressao);
+
+	T visit(ExpSub expressao);
+
+	T visit(lf3.plp.expressions2.expression.ExpDeclaracao expressao);
+
+	T visit(Id id);
+
+	T visit(ValorBooleano valor);
+
+	T visit(ValorInteiro valor);
+
+	T visit(ValorString valor);
+
+	T visit(IfThenElse expressao);
+
+	T visit(lf3.plp.functional2.expression.Aplicacao expressao);
+
+	T visit(lf3.plp.functional2.expression.ExpDeclaracao expressao);
+
+	T visit(lf3.plp.functional2.expression.ValorFuncao valor);
+
+	T visit(ValorIrredutivel valor);
+
+	T visit(ValorSuspenso valor);
+
+	T visit(Aplicacao expressao);
+
+	T visit(ExpCompreensaoLista expressao);
+
+	T visit(ExpConcatLista expressao);
+
+	T visit(ExpCons expressao);
+
+	T visit(ExpHead expressao);
+
+	T visit(ExpMaiorQue expressao);
+
+	T visit(ExpMenorQue expressao);
+
+	T visit(ExpMult expressao);
+
+	T visit(ExpSequencia expressao);
+
+	T visit(ExpTail expressao);
+
+	T visit(ValorFuncao valor);
+
+	T visit(ValorLista valor);
+}
@@ -0,0 +1,162 @@
+package lf3.plp.functional3.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lf3.plp.expressions2.expression.ExpBinaria;
+import lf3.plp.expressions2.expression.ExpUnaria;
+import lf3.plp.expressions2.expression.Expressao;
+import lf3.plp.expressions2.expression.Id;
+import lf3.plp.expressions2.expression.ValorConcreto;
+import lf3.plp.functional1.declaration.DecVariavel;
+import lf3.plp.functional1.declaration.DeclaracaoFuncional;
+import lf3.plp.functional1.expression.IfThenElse;
+import lf3.plp.functional1.util.CacheAplicacao;
+import lf3.plp.functional2.declaration.DecFuncao;
+import lf3.plp.functional2.expression.Aplicacao;
+import lf3.plp.functional2.expression.ExpDeclaracao;
+import lf3.plp.functional2.expression.ValorFuncao;
+import lf3.plp.functional3.declaration.DecComposta;
+
+/**
+ * Liga um <code>CacheAplicacao</code> a cada funcao cujo resultado depende
+ * apenas dos argumentos e que chama a si mesma, como a definicao ingenua de
+ * fibonacci. O corpo de uma funcao assim usa apenas os parametros,
+ * constantes, operadores, condicionais e chamadas a propria funcao; as copias
+ * da funcao feitas a cada aplicacao compartilham o mesmo cache.
+ */
+public class Memoizador {
+
+	private int capacidade;
+
+	private List<CacheAplicacao> caches = new ArrayList<CacheAplicacao>();
+
+	/**
+	 * @param capacidade
+	 *            a quantidade maxima de resultados guardados por funcao; com
+	 *            0, os caches ligados antes sao desligados.
+	 */
+	public Memoizador(int capacidade) {
+		this.capacidade = capacidade;
+	}
+
+	/**
+	 * Liga um novo cache a cada funcao elegivel declarada em <code>exp</code>
+	 * e desliga o das demais.
+	 */
+	public void memoizar(Expressao exp) {
+		if (exp instanceof ExpBinaria) {
+			ExpBinaria binaria = (ExpBinaria) exp;
+			memoizar(binaria.getEsq());
+			memoizar(binaria.getDir());
+		} else if (exp instanceof ExpUnaria) {
+			memoizar(((ExpUnaria) exp).getExp());
+		} else if (exp instanceof ValorFuncao) {
+			memoizar(((ValorFuncao) exp).getExp());
+		} else if (exp instanceof IfThenElse) {
+			IfThenElse se = (IfThenElse) exp;
+			memoizar(se.getCondicao());
+			memoizar(se.getThen());
+			memoizar(se.getElseExpressao());
+		} else if (exp instanceof Aplicacao) {
+			Aplicacao aplicacao = (Aplicacao) exp;
+			memoizar(aplicacao.getFunc());
+			for (Expressao argumento : aplicacao.getArgsExpressao()) {
+				memoizar(argumento);
+			}
+		} else if (exp instanceof ExpDeclaracao) {
+			ExpDeclaracao expDec = (ExpDeclaracao) exp;
+			memoizar(expDec.getDeclaracao());
+			memoizar(expDec.getExpressao());
+		}
+	}
+
+	/**
+	 * Retorna os caches ligados pelas chamadas a <code>memoizar</code> feitas
+	 * ate agora.
+	 */
+	public List<CacheAplicacao> getCaches() {
+		return caches;
+	}
+
+	private void memoizar(DeclaracaoFuncional declaracao) {
+		if (declaracao instanceof DecComposta) {
+			DecComposta composta = (DecComposta) declaracao;
+			memoizar(composta.getD1());
+			memoizar(composta.getD2());
+		} else if (declaracao instanceof DecVariavel) {
+			memoizar(((DecVariavel) declaracao).getExpressao());
+		} else if (declaracao instanceof DecFuncao) {
+			DecFuncao funcao = (DecFuncao) declaracao;
+			Expressao corpo = funcao.getExpressao();
+			memoizar(corpo);
+			CacheAplicacao cache = null;
+			if (capacidade > 0
+					&& elegivel(funcao.getId(), funcao.getFuncao().getListaId(), corpo)
+					&& chamaASiMesma(funcao.getId(), corpo)) {
+				cache = new CacheAplicacao(funcao.getId(), capacidade);
+				caches.add(cache);
+			}
+			funcao.getFuncao().setCache(cache);
+		}
+	}
+
+	private static boolean elegivel(Id funcao, List<Id> parametros,
+			Expressao exp) {
+		if (exp instanceof ValorConcreto) {
+			return true;
+		}
+		if (exp instanceof Id) {
+			return parametros.contains(exp);
+		}
+		if (exp instanceof ExpBinaria) {
+			ExpBinaria binaria = (ExpBinaria) exp;
+			return elegivel(funcao, parametros, binaria.getEsq())
+					&& elegivel(funcao, parametros, binaria.getDir());
+		}
+		if (exp instanceof ExpUnaria) {
+			return elegivel(funcao, parametros, ((ExpUnaria) exp).getExp());
+		}
+		if (exp instanceof IfThenElse) {
+			IfThenElse se = (IfThenElse) exp;
+			return elegivel(funcao, parametros, se.getCondicao())
+					&& elegivel(funcao, parametros, se.getThen())
+					&& elegivel(funcao, parametros, se.getElseExpressao());
+		}
+		if (exp instanceof Aplicacao) {
+			Aplicacao aplicacao = (Aplicacao) exp;
+			if (!funcao.equals(aplicacao.getFunc())) {
+				return false;
+			}
+			for (Expressao argumento : aplicacao.getArgsExpressao()) {
+				if (!elegivel(funcao, parametros, argumento)) {
+					return false;
+				}
+			}
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Indica se <code>exp</code> contem uma aplicacao; como <code>exp</code>
+	 * e' elegivel, toda aplicacao nela e' uma chamada a <code>funcao</code>.
+	 */
+	private static boolean chamaASiMesma(Id funcao, Expressao exp) {
+		if (exp instanceof ExpBinaria) {
+			ExpBinaria binaria = (ExpBinaria) exp;
+			return chamaASiMesma(funcao, binaria.getEsq())
+					|| chamaASiMesma(funcao, binaria.getDir());
+		}
+		if (exp instanceof ExpUnaria) {
+			return chamaASiMesma(funcao, ((ExpUnaria) exp).getExp());
+		}
+		if (exp instanceof IfThenElse) {
+			IfThenElse se = (IfThenElse) exp;
+			return chamaASiMesma(funcao, se.getCondicao())
+					|| chamaASiMesma(funcao, se.getThen())
+					|| chamaASiMesma(funcao, se.getElseExpressao());
+		}
+		return exp instanceof Aplicacao;
+	}
+}
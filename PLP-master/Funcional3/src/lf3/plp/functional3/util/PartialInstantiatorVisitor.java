@@ -1,13 +1,9 @@
 package lf3.plp.functional3.util;
 
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 
 import lf3.plp.expressions2.expression.ExpAnd;
@@ -29,12 +25,21 @@ import lf3.plp.expressions2.memory.VariavelNaoDeclaradaException;
 import lf3.plp.functional1.declaration.DecVariavel;
 import lf3.plp.functional1.declaration.DeclaracaoFuncional;
 import lf3.plp.functional1.expression.IfThenElse;
+import lf3.plp.functional2.expression.ValorIrredutivel;
+import lf3.plp.functional2.expression.ValorSuspenso;
 import lf3.plp.functional3.declaration.DecPadrao;
 import lf3.plp.functional3.expression.Aplicacao;
+import lf3.plp.functional3.expression.ExpCompreensaoLista;
+import lf3.plp.functional3.expression.ExpConcatLista;
+import lf3.plp.functional3.expression.ExpCons;
+import lf3.plp.functional3.expression.ExpHead;
 import lf3.plp.functional3.expression.ExpMaiorQue;
 import lf3.plp.functional3.expression.ExpMenorQue;
 import lf3.plp.functional3.expression.ExpMult;
+import lf3.plp.functional3.expression.ExpSequencia;
+import lf3.plp.functional3.expression.ExpTail;
 import lf3.plp.functional3.expression.ValorFuncao;
+import lf3.plp.functional3.expression.ValorLista;
 
 /**
  * @author S�rgio
@@ -44,83 +49,40 @@ import lf3.plp.functional3.expression.ValorFuncao;
  *         disable the creation of type comments go to
  *         Window>Preferences>Java>Code Generation.
  */
-public class PartialInstantiatorVisitor {
-	private Map<String, Method> metodosVisit;
+public class PartialInstantiatorVisitor implements ExpressaoVisitor<Expressao> {
+	private AmbienteExecucao ambiente;
 	
-	private static PartialInstantiatorVisitor instance = null;
+	private Set<Id> localVariables;
 	
-	protected PartialInstantiatorVisitor() {
-		this.metodosVisit = new HashMap<String, Method>();
-		Method metodos[] = this.getClass().getMethods();
-		for ( Method method : metodos ) {
-			if ( method.getName().startsWith("_visit") ) {
-				this.metodosVisit.put(method.getName(), method);
-			}
-		}
+	public PartialInstantiatorVisitor(AmbienteExecucao ambiente, Set<Id> localVariables) {
+		this.ambiente = ambiente;
+		this.localVariables = localVariables;
 	}
 	
-	public static PartialInstantiatorVisitor getInstance() {
-		if ( instance == null ) {
-			instance = new PartialInstantiatorVisitor();
-		}
-		return instance;
+	/**
+	 * Retorna <code>exp</code> com os identificadores nao locais substituidos
+	 * pelos seus valores em <code>ambiente</code>.
+	 */
+	public static Expressao instanciar(Expressao exp, AmbienteExecucao ambiente,
+			Set<Id> localVariables) {
+		return exp.accept(new PartialInstantiatorVisitor(ambiente, localVariables));
 	}
 	
-	public Expressao visit(Expressao exp, AmbienteExecucao ambiente,
-			Set<Id> localVariables) {
-		
-		// Class.getName() returns package information as well.
-		// This strips off the package information giving us
-		// just the class name
-		String methodName = exp.getClass().getName();
-		methodName = "_visit" + methodName.substring(methodName.lastIndexOf('.') + 1);
-		
-		Expressao result = null;
-		// Now we try to invoke the method visit
-		try {
-			// Get the method visitFoo(Foo foo)
-			Method m = this.getMethod(methodName);
-			// o metodo visit existe
-			// Try to invoke visitFoo(Foo foo)
-			result = (Expressao) m.invoke(this, new Object[] { exp, ambiente,
-					localVariables });
-		}
-		catch ( IllegalAccessException e ) {
-			System.out.println(e.getMessage());
-			e.printStackTrace();
-			throw new IllegalStateException("N�o foi poss�vel executar o m�todo ("
-					+ methodName + "). IllegalAccessException");
-			
-		}
-		catch ( InvocationTargetException e ) {
-			System.out.println(e.getMessage());
-			e.printStackTrace();
-			
-			throw new IllegalStateException(e.getTargetException().getMessage());
-			
-		}
-		catch ( NoSuchMethodException e ) {
-			System.out.println(e.getMessage());
-			e.printStackTrace();
-			
-			throw new IllegalStateException("O m�todo visit chamado (" + methodName
-					+ ") n�o foi implementado");
-		}
-		
-		return result;
+	private Expressao visit(Expressao exp) {
+		return exp.accept(this);
 	}
 	
-	private Method getMethod(String name) throws NoSuchMethodException {
-		Object method = this.metodosVisit.get(name);
-		if ( method == null ) {
-			throw new NoSuchMethodException("O m�todo '" + name
-					+ "' especificado n�o foi encontrado");
-		}
-		return (Method) method;
+	private Expressao visit(Expressao exp, Set<Id> novasVariaveisLocais) {
+		return instanciar(exp, this.ambiente, novasVariaveisLocais);
 	}
 	
-	public Expressao _visitAplicacao(Aplicacao aplicacao, AmbienteExecucao ambiente,
-			Set<Id> localVariables) {
+	private Expressao naoImplementado(Expressao exp) {
+		String nome = exp.getClass().getName();
+		throw new IllegalStateException("O mtodo visit chamado ("
+				+ nome.substring(nome.lastIndexOf('.') + 1) + ") no foi implementado");
+	}
+	
+	public Expressao visit(Aplicacao aplicacao) {
 		
 		List<Expressao> novosValoresReais = new ArrayList<Expressao>();
 		Set<Id> novasVariaveisLocais = new HashSet<Id>(localVariables);
@@ -131,7 +93,7 @@ public class PartialInstantiatorVisitor {
 		}
 		
 		for ( Expressao argReal : aplicacao.getArgumentos() ) {
-			Expressao novoArg = this.visit(argReal, ambiente, novasVariaveisLocais);
+			Expressao novoArg = this.visit(argReal, novasVariaveisLocais);
 			
 			novosValoresReais.add(novoArg);
 		}
@@ -140,8 +102,7 @@ public class PartialInstantiatorVisitor {
 		return resultado;
 	}
 	
-	/*public Expressao _visitExpDeclaracao(ExpDeclaracao expressao,
-			AmbienteExecucao ambiente, Set<Id> localVariables) {
+	/*public Expressao visit(ExpDeclaracao expressao) {
 		
 		// Adicionando as variaveis locais da declaracao funcional
 		Set<Id> novasVariaveisLocais = new HashSet<Id>(localVariables);
@@ -189,18 +150,17 @@ public class PartialInstantiatorVisitor {
 		return new DecFuncao(visited);
 	}*/
 	
-	private DecPadrao _visitDecPadrao(DecPadrao decPadrao, AmbienteExecucao ambiente,
-			Set<Id> localVariables) {
+	private DecPadrao visitDecPadrao(DecPadrao decPadrao) {
 		
-		Set<Id> novasVariaveisLocais = new HashSet<Id>(localVariables);
+		Set<Id> novasVariaveisLocais = new HashSet<Id>(this.localVariables);
 		novasVariaveisLocais.addAll(decPadrao.getPadrao().getListaIds());
 		
-		Expressao novaExpressao = this.visit(decPadrao.getExpressao(), ambiente,
+		Expressao novaExpressao = this.visit(decPadrao.getExpressao(),
 				novasVariaveisLocais);
 		Expressao filtro = decPadrao.getFiltro();
 		
 		if ( filtro != null ) {
-			filtro = this.visit(filtro, ambiente, localVariables);
+			filtro = this.visit(filtro);
 		}
 		DecPadrao resultado = new DecPadrao(decPadrao.getIdFuncao(), decPadrao
 				.getPadrao(), novaExpressao, filtro);
@@ -208,124 +168,141 @@ public class PartialInstantiatorVisitor {
 		return resultado;
 	}
 	
-	private DecVariavel visitDecVariavel(DecVariavel declaracao,
-			AmbienteExecucao ambiente, Set<Id> localVariables) {
-		Set<Id> novasVariaveisLocais = new HashSet<Id>(localVariables);
+	private DecVariavel visitDecVariavel(DecVariavel declaracao) {
+		Set<Id> novasVariaveisLocais = new HashSet<Id>(this.localVariables);
 		novasVariaveisLocais.add(declaracao.getId());
-		Expressao novaExpressao = this.visit(declaracao.getExpressao(), ambiente,
+		Expressao novaExpressao = this.visit(declaracao.getExpressao(),
 				novasVariaveisLocais);
 		DecVariavel resultado = new DecVariavel(declaracao.getId(), novaExpressao);
 		return resultado;
 	}
 	
-	public Expressao _visitExpLength(ExpLength expressao, AmbienteExecucao ambiente,
-			Set<Id> localVariables) {
+	public Expressao visit(ExpLength expressao) {
 		
-		Expressao expInterna = this.visit(expressao.getExp(), ambiente, localVariables);
+		Expressao expInterna = this.visit(expressao.getExp());
 		ExpLength resultado = new ExpLength(expInterna);
 		return resultado;
 	}
 	
-	public Expressao _visitExpMenos(ExpMenos expressao, AmbienteExecucao ambiente,
-			Set<Id> localVariables) {
-		Expressao expInterna = this.visit(expressao.getExp(), ambiente, localVariables);
+	public Expressao visit(ExpHead expressao) {
+		Expressao expInterna = this.visit(expressao.getExp());
+		ExpHead resultado = new ExpHead(expInterna);
+		return resultado;
+	}
+	
+	public Expressao visit(ExpTail expressao) {
+		Expressao expInterna = this.visit(expressao.getExp());
+		ExpTail resultado = new ExpTail(expInterna);
+		return resultado;
+	}
+	
+	public Expressao visit(ExpMenos expressao) {
+		Expressao expInterna = this.visit(expressao.getExp());
 		ExpMenos resultado = new ExpMenos(expInterna);
 		return resultado;
 	}
 	
-	public Expressao _visitExpNot(ExpNot expressao, AmbienteExecucao ambiente,
-			Set<Id> localVariables) {
-		Expressao expInterna = this.visit(expressao.getExp(), ambiente, localVariables);
+	public Expressao visit(ExpNot expressao) {
+		Expressao expInterna = this.visit(expressao.getExp());
 		ExpNot resultado = new ExpNot(expInterna);
 		return resultado;
 	}
 	
-	public Expressao _visitExpSoma(ExpSoma expressao, AmbienteExecucao ambiente,
-			Set<Id> localVariables) {
-		Expressao esquerda = this.visit(expressao.getEsq(), ambiente, localVariables);
-		Expressao direita = this.visit(expressao.getDir(), ambiente, localVariables);
+	public Expressao visit(ExpSoma expressao) {
+		Expressao esquerda = this.visit(expressao.getEsq());
+		Expressao direita = this.visit(expressao.getDir());
 		ExpSoma resultado = new ExpSoma(esquerda, direita);
 		return resultado;
 	}
 	
-	public Expressao _visitExpSub(ExpSub expressao, AmbienteExecucao ambiente,
-			Set<Id> localVariables) {
-		Expressao esquerda = this.visit(expressao.getEsq(), ambiente, localVariables);
-		Expressao direita = this.visit(expressao.getDir(), ambiente, localVariables);
+	public Expressao visit(ExpSub expressao) {
+		Expressao esquerda = this.visit(expressao.getEsq());
+		Expressao direita = this.visit(expressao.getDir());
 		ExpSub resultado = new ExpSub(esquerda, direita);
 		return resultado;
 	}
 	
-	public Expressao _visitExpMult(ExpMult expressao, AmbienteExecucao ambiente,
-			Set<Id> localVariables) {
-		Expressao esquerda = this.visit(expressao.getEsq(), ambiente, localVariables);
-		Expressao direita = this.visit(expressao.getDir(), ambiente, localVariables);
+	public Expressao visit(ExpMult expressao) {
+		Expressao esquerda = this.visit(expressao.getEsq());
+		Expressao direita = this.visit(expressao.getDir());
 		ExpMult resultado = new ExpMult(esquerda, direita);
 		return resultado;
 	}
 	
-	public Expressao _visitExpMaiorQue(ExpMaiorQue expressao, AmbienteExecucao ambiente,
-			Set<Id> localVariables) {
-		Expressao esquerda = this.visit(expressao.getEsq(), ambiente, localVariables);
-		Expressao direita = this.visit(expressao.getDir(), ambiente, localVariables);
+	public Expressao visit(ExpMaiorQue expressao) {
+		Expressao esquerda = this.visit(expressao.getEsq());
+		Expressao direita = this.visit(expressao.getDir());
 		ExpMaiorQue resultado = new ExpMaiorQue(esquerda, direita);
 		return resultado;
 	}
 	
-	public Expressao _visitExpMenorQue(ExpMenorQue expressao, AmbienteExecucao ambiente,
-			Set<Id> localVariables) {
-		Expressao esquerda = this.visit(expressao.getEsq(), ambiente, localVariables);
-		Expressao direita = this.visit(expressao.getDir(), ambiente, localVariables);
+	public Expressao visit(ExpMenorQue expressao) {
+		Expressao esquerda = this.visit(expressao.getEsq());
+		Expressao direita = this.visit(expressao.getDir());
 		ExpMenorQue resultado = new ExpMenorQue(esquerda, direita);
 		return resultado;
 	}
 	
-	public Expressao _visitExpAnd(ExpAnd expressao, AmbienteExecucao ambiente,
-			Set<Id> localVariables) {
+	public Expressao visit(ExpCons expressao) {
+		Expressao esquerda = this.visit(expressao.getEsq());
+		Expressao direita = this.visit(expressao.getDir());
+		ExpCons resultado = new ExpCons(esquerda, direita);
+		return resultado;
+	}
+	
+	public Expressao visit(ExpConcatLista expressao) {
+		Expressao esquerda = this.visit(expressao.getEsq());
+		Expressao direita = this.visit(expressao.getDir());
+		ExpConcatLista resultado = new ExpConcatLista(esquerda, direita);
+		return resultado;
+	}
+	
+	public Expressao visit(ExpSequencia expressao) {
+		Expressao esquerda = this.visit(expressao.getEsq());
+		Expressao direita = this.visit(expressao.getDir());
+		ExpSequencia resultado = new ExpSequencia(esquerda, direita);
+		return resultado;
+	}
+	
+	public Expressao visit(ExpAnd expressao) {
 		
-		Expressao esquerda = this.visit(expressao.getEsq(), ambiente, localVariables);
-		Expressao direita = this.visit(expressao.getDir(), ambiente, localVariables);
+		Expressao esquerda = this.visit(expressao.getEsq());
+		Expressao direita = this.visit(expressao.getDir());
 		ExpAnd resultado = new ExpAnd(esquerda, direita);
 		return resultado;
 	}
 	
-	public Expressao _visitExpOr(ExpOr expressao, AmbienteExecucao ambiente,
-			Set<Id> localVariables) {
-		Expressao esquerda = this.visit(expressao.getEsq(), ambiente, localVariables);
-		Expressao direita = this.visit(expressao.getDir(), ambiente, localVariables);
+	public Expressao visit(ExpOr expressao) {
+		Expressao esquerda = this.visit(expressao.getEsq());
+		Expressao direita = this.visit(expressao.getDir());
 		ExpOr resultado = new ExpOr(esquerda, direita);
 		return resultado;
 	}
 	
-	public Expressao _visitExpEquals(ExpEquals expressao, AmbienteExecucao ambiente,
-			Set<Id> localVariables) {
-		Expressao esquerda = this.visit(expressao.getEsq(), ambiente, localVariables);
-		Expressao direita = this.visit(expressao.getDir(), ambiente, localVariables);
+	public Expressao visit(ExpEquals expressao) {
+		Expressao esquerda = this.visit(expressao.getEsq());
+		Expressao direita = this.visit(expressao.getDir());
 		ExpEquals resultado = new ExpEquals(esquerda, direita);
 		return resultado;
 	}
 	
-	public Expressao _visitExpConcat(ExpConcat expressao, AmbienteExecucao ambiente,
-			Set<Id> localVariables) {
-		Expressao esquerda = this.visit(expressao.getEsq(), ambiente, localVariables);
-		Expressao direita = this.visit(expressao.getDir(), ambiente, localVariables);
+	public Expressao visit(ExpConcat expressao) {
+		Expressao esquerda = this.visit(expressao.getEsq());
+		Expressao direita = this.visit(expressao.getDir());
 		ExpConcat resultado = new ExpConcat(esquerda, direita);
 		return resultado;
 	}
 	
-	public Expressao _visitIfThenElse(IfThenElse expressao, AmbienteExecucao ambiente,
-			Set<Id> localVariables) {
+	public Expressao visit(IfThenElse expressao) {
 		
-		Expressao condicao = this
-				.visit(expressao.getCondicao(), ambiente, localVariables);
-		Expressao then = this.visit(expressao.getThen(), ambiente, localVariables);
-		Expressao elseExpressao = this.visit(expressao.getElseExpressao(), ambiente,
-				localVariables);
+		Expressao condicao = this.visit(expressao.getCondicao());
+		Expressao then = this.visit(expressao.getThen());
+		Expressao elseExpressao = this.visit(expressao.getElseExpressao());
 		IfThenElse resultado = new IfThenElse(condicao, then, elseExpressao);
 		return resultado;
 	}
 	
-	public Expressao _visitId(Id thisId, AmbienteExecucao ambiente, Set<Id> localVariables) {
+	public Expressao visit(Id thisId) {
 		Expressao resultado;
 		if ( localVariables.contains(thisId) ) {
 			resultado = thisId;
@@ -341,18 +318,15 @@ public class PartialInstantiatorVisitor {
 		return resultado;
 	}
 	
-	public Expressao _visitValorInteiro(ValorInteiro valor, AmbienteExecucao ambiente,
-			Set<Id> localVariables) {
+	public Expressao visit(ValorInteiro valor) {
 		return valor;
 	}
 	
-	public Expressao _visitValorString(ValorString valor, AmbienteExecucao ambiente,
-			Set<Id> localVariables) {
+	public Expressao visit(ValorString valor) {
 		return valor;
 	}
 	
-	public Expressao _visitValorBooleano(ValorBooleano valor, AmbienteExecucao ambiente,
-			Set<Id> localVariables) {
+	public Expressao visit(ValorBooleano valor) {
 		return valor;
 	}
 	
@@ -375,8 +349,7 @@ public class PartialInstantiatorVisitor {
 	// return resultado;
 	// }
 	
-	public Expressao _visitValorFuncao(ValorFuncao valorFuncao,
-			AmbienteExecucao ambiente, Set<Id> localVariables) {
+	public Expressao visit(ValorFuncao valorFuncao) {
 		
 		List<DecPadrao> listDecPadroes = valorFuncao.getDecPadroes();
 		List<DecPadrao> listResult = new ArrayList<DecPadrao>();
@@ -386,8 +359,8 @@ public class PartialInstantiatorVisitor {
 			Set<Id> variaveisLocais = Collections.unmodifiableSet(new HashSet<Id>(
 					decPadrao.getPadrao().getListaIds()));
 			
-			DecPadrao valorResult = this._visitDecPadrao(decPadrao, ambiente,
-					variaveisLocais);
+			DecPadrao valorResult = new PartialInstantiatorVisitor(this.ambiente,
+					variaveisLocais).visitDecPadrao(decPadrao);
 			listResult.add(valorResult);
 		}
 		
@@ -395,4 +368,53 @@ public class PartialInstantiatorVisitor {
 		
 	}
 	
+	public Expressao visit(lf3.plp.functional2.expression.Aplicacao aplicacao) {
+		
+		List<Expressao> novosValoresReais = new ArrayList<Expressao>();
+		Set<Id> novasVariaveisLocais = new HashSet<Id>(this.localVariables);
+		
+		Expressao func = aplicacao.getFunc();
+		if ( func instanceof Id ) {
+			novasVariaveisLocais.add((Id) func);
+		}
+		
+		for ( Expressao argReal : aplicacao.getArgsExpressao() ) {
+			novosValoresReais.add(this.visit(argReal, novasVariaveisLocais));
+		}
+		return new lf3.plp.functional2.expression.Aplicacao(func.avaliar(ambiente),
+				novosValoresReais);
+	}
+	
+	public Expressao visit(lf3.plp.functional2.expression.ValorFuncao valor) {
+		Set<Id> novasVariaveisLocais = new HashSet<Id>(this.localVariables);
+		novasVariaveisLocais.addAll(valor.getListaId());
+		Expressao novaExpressao = this.visit(valor.getExp(), novasVariaveisLocais);
+		return new lf3.plp.functional2.expression.ValorFuncao(new ArrayList<Id>(
+				valor.getListaId()), novaExpressao);
+	}
+	
+	public Expressao visit(ValorIrredutivel valor) {
+		return valor;
+	}
+
+	public Expressao visit(ValorSuspenso valor) {
+		return valor;
+	}
+	
+	public Expressao visit(ValorLista valor) {
+		return valor;
+	}
+	
+	public Expressao visit(lf3.plp.expressions2.expression.ExpDeclaracao expressao) {
+		return this.naoImplementado(expressao);
+	}
+	
+	public Expressao visit(lf3.plp.functional2.expression.ExpDeclaracao expressao) {
+		return this.naoImplementado(expressao);
+	}
+	
+	public Expressao visit(ExpCompreensaoLista expressao) {
+		return this.naoImplementado(expressao);
+	}
+	
 }
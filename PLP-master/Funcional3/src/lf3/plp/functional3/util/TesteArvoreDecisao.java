@@ -0,0 +1,118 @@
+package lf3.plp.functional3.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import lf3.plp.expressions2.expression.ExpEquals;
+import lf3.plp.expressions2.expression.ExpSoma;
+import lf3.plp.expressions2.expression.Expressao;
+import lf3.plp.expressions2.expression.Id;
+import lf3.plp.expressions2.expression.Valor;
+import lf3.plp.expressions2.expression.ValorInteiro;
+import lf3.plp.expressions2.memory.ContextoExecucao;
+import lf3.plp.functional3.declaration.DecPadrao;
+import lf3.plp.functional3.expression.Aplicacao;
+import lf3.plp.functional3.expression.ValorFuncao;
+
+/**
+ * Verifica a escolha de clausulas feita pela <code>ArvoreDecisao</code>. O
+ * parser da Funcional3 so gera funcoes da Funcional2, portanto as clausulas
+ * <code>DecPadrao</code> sao montadas aqui diretamente.
+ */
+public class TesteArvoreDecisao {
+
+	public static void main(String[] args) {
+		ContextoExecucao ambiente = new ContextoExecucao();
+
+		// a primeira clausula que casa vence, mesmo que outra tambem case
+		verificar("ordem", 107, aplicar(ambiente, 0, 7));
+		verificar("constante", 203, aplicar(ambiente, 1, 3));
+		// um filtro falso passa para a clausula seguinte
+		verificar("filtro verdadeiro", -7, aplicar(ambiente, 99, 7));
+		verificar("filtro falso", -8, aplicar(ambiente, 98, 7));
+		verificar("senao", 11, aplicar(ambiente, 5, 6));
+
+		List<DecPadrao> clausulas = clausulas();
+		ArvoreDecisao arvore = ArvoreDecisao.compilar(clausulas, ambiente);
+		verificar("candidatas", Arrays.asList(clausulas.get(1), clausulas
+				.get(2), clausulas.get(3), clausulas.get(4)), arvore
+				.getCandidatas(ambiente, lista(inteiro(1), inteiro(7))));
+
+		// g 1 = 10 | g x 2 = 20: a coluna que falta a uma clausula nao e'
+		// comparada com nenhuma constante
+		List<DecPadrao> aridades = new ArrayList<DecPadrao>();
+		aridades.add(new DecPadrao(id("g"), lista(inteiro(1)), inteiro(10)));
+		aridades.add(new DecPadrao(id("g"), lista(id("x"), inteiro(2)),
+				inteiro(20)));
+		verificar("aridades diferentes", aridades, ArvoreDecisao.compilar(
+				aridades, ambiente).getCandidatas(ambiente,
+				lista(inteiro(1), inteiro(2))));
+
+		System.out.println("TesteArvoreDecisao: ok");
+	}
+
+	/**
+	 * Retorna as clausulas de f:
+	 * 
+	 * <pre>
+	 * f 0 y = 100 + y
+	 * f x 7 = -7, if x == 99
+	 * f x 7 = -8
+	 * f 1 y = 200 + y
+	 * f x y = x + y
+	 * </pre>
+	 */
+	private static List<DecPadrao> clausulas() {
+		List<DecPadrao> clausulas = new ArrayList<DecPadrao>();
+		clausulas.add(new DecPadrao(id("f"), lista(inteiro(0), id("y")),
+				new ExpSoma(inteiro(100), id("y"))));
+		clausulas.add(new DecPadrao(id("f"), lista(id("x"), inteiro(7)),
+				inteiro(-7), new ExpEquals(id("x"), inteiro(99))));
+		clausulas.add(new DecPadrao(id("f"), lista(id("x"), inteiro(7)),
+				inteiro(-8)));
+		clausulas.add(new DecPadrao(id("f"), lista(inteiro(1), id("y")),
+				new ExpSoma(inteiro(200), id("y"))));
+		clausulas.add(new DecPadrao(id("f"), lista(id("x"), id("y")),
+				new ExpSoma(id("x"), id("y"))));
+		return clausulas;
+	}
+
+	/**
+	 * Aplica uma nova funcao f aos argumentos. A aplicacao reduz o corpo da
+	 * clausula escolhida no proprio <code>DecPadrao</code>, portanto as
+	 * clausulas nao sao reaproveitadas entre os casos.
+	 */
+	private static Valor aplicar(ContextoExecucao ambiente, int x, int y) {
+		ambiente.incrementa();
+		ambiente.map(id("f"), new ValorFuncao(clausulas()));
+		Valor resultado = new Aplicacao(id("f"), lista(inteiro(x),
+				inteiro(y))).avaliar(ambiente);
+		ambiente.restaura();
+		return resultado;
+	}
+
+	private static void verificar(String caso, int esperado, Valor obtido) {
+		verificar(caso, inteiro(esperado), obtido);
+	}
+
+	private static void verificar(String caso, Object esperado, Object obtido) {
+		if (!esperado.equals(obtido)) {
+			throw new IllegalStateException(caso + ": esperado " + esperado
+					+ ", obtido " + obtido);
+		}
+		System.out.println(caso + ": " + obtido);
+	}
+
+	private static Id id(String nome) {
+		return new Id(nome);
+	}
+
+	private static ValorInteiro inteiro(int valor) {
+		return new ValorInteiro(valor);
+	}
+
+	private static List<Expressao> lista(Expressao... expressoes) {
+		return new ArrayList<Expressao>(Arrays.asList(expressoes));
+	}
+}
@@ -0,0 +1,219 @@
+package lf3.plp.functional3.util;
+
+import java.io.ByteArrayInputStream;
+
+import lf3.plp.functional3.Programa;
+import lf3.plp.functional3.parser.Func3Parser;
+import lf3.plp.functional3.parser.ParseException;
+
+/**
+ * Executa programas da Funcional3 no interpretador padrao e nos modos de
+ * execucao opcionais, e verifica que cada modo produz o mesmo resultado, ou
+ * o mesmo erro, que o interpretador padrao.
+ */
+public class TesteModos {
+
+	private static final String[] PROGRAMAS = {
+			"let fun soma a b = a + b, fun map op xxs = if (xxs==[]) then [] "
+					+ "else (let var x = head xxs, var xs = tail xxs in "
+					+ "op(x,x) : map(op, xs)) in map(soma,[3,2,5,3,4,5])",
+			"let fun len xs = if xs == [] then 0 else 1 + len(tail xs) "
+					+ "in len((1 .. 300) ^^ [5, 6])",
+			"let var xs = [1, 2, 3], var ys = [1, 2, 3] in (xs == ys) and "
+					+ "(not ([1,2] == [1,2,3])) and ((0 : xs) == [0,1,2,3])",
+			"let fun fib n = if n < 2 then n else fib(n - 1) + fib(n - 2) "
+					+ "in [fib(x) for x in (0 .. 12)]",
+			"let fun qs xs = if xs == [] then [] else let var p = head xs, "
+					+ "var r = tail xs in qs([y for y in r if y < p]) ^^ "
+					+ "([p] ^^ qs([y for y in r if not (y < p)])) "
+					+ "in qs([5, 3, 9, 1, 7, 2, 8, 2])",
+			"let fun build n = if n == 0 then [] else n : build(n - 1) "
+					+ "in length \"abc\" + head (build(400))",
+			"let var r = (7 .. 3), var s = (9 .. 20) "
+					+ "in (head r) + (head (tail (tail s)))" };
+
+	private static Func3Parser parser;
+
+	public static void main(String[] args) throws ParseException {
+		for (String codigo : PROGRAMAS) {
+			verificarMemoizado(codigo);
+			verificarPreguicoso(codigo);
+		}
+		verificarCache("let fun fib n = if n < 2 then n "
+				+ "else fib(n - 1) + fib(n - 2) in fib(18)", 100,
+				"fib: 16 acertos, 19 falhas, 19 resultados",
+				"fib: 17 acertos, 19 falhas, 19 resultados");
+		verificarCache("let fun fib n = if n < 2 then n "
+				+ "else fib(n - 1) + fib(n - 2) in fib(18)", 2,
+				"fib: 180 acertos, 869 falhas, 2 resultados",
+				"fib: 181 acertos, 869 falhas, 2 resultados");
+		verificarCache("let var k = 1 in let fun f n = if n == 0 then k "
+				+ "else f(n - 1) + f(n - 1) in f(10)", 100,
+				"", "");
+
+		// compreensoes com a lista do primeiro gerador maior que o limiar
+		verificarParalelo("[x * 2 for x in (1 .. 50) if x > 10]");
+		verificarParalelo("[x + y for x in (1 .. 6) for y in [10, 20]]");
+		verificarParalelo("head [ head x for x in [[1], []] ]");
+		verificarParalelo("[ head x for x in [[1], []] ]");
+		verificarParalelo("head (tail [ head x for x in [[1], [2], [], [4]] ])");
+		verificarBemTipado("let fun map f xs = if xs == [] then [] "
+				+ "else f(head xs) : map(f, tail xs) in map(fn x . length x, [\"a\", \"bc\"])", "[1, 2]");
+		verificarBemTipado("let fun len xs = if xs == [] then 0 else 1 + len(tail xs) "
+				+ "in len([1, 2]) + len([\"a\"])", "3");
+		verificarBemTipado("let fun twice f x = f(f(x)) in twice(fn l . 0 : l, [1])", "[0, 0, 1]");
+		verificarBemTipado("let fun cab xs = head xs in cab([\"a\"]) ++ \"b\"", "\"ab\"");
+		verificarBemTipado("let fun cab xs = head xs in cab([1]) + length(cab([\"a\"]))", "2");
+		verificarMalTipado("let fun cab xs = head xs in cab([\"a\"]) + 1");
+		verificarMalTipado("let fun id x = x in id([1]) ++ \"a\"");
+		// argumentos que a avaliacao preguicosa nunca avalia
+		verificarPreguicoso("let fun k x y = x in k(1, head [])", "1");
+		verificarPreguicoso("let fun k x y = y in k(head [], 2)", "2");
+		verificarPreguicoso("let fun se c a b = if c then a else b "
+				+ "in se(true, 1, head [])", "1");
+		verificarPreguicoso("let fun loop n = loop(n) in "
+				+ "let fun k x y = x in k(7, loop(0))", "7");
+		// o erro de um argumento usado continua sendo lancado
+		verificarPreguicoso("let fun k x y = y in k(1, head [])");
+		verificarPreguicoso("let fun f x = x + x in f(head [3])");
+
+		System.out.println("TesteModos: ok");
+	}
+
+	/**
+	 * Compara a avaliacao sequencial com a avaliacao paralela das
+	 * compreensoes de lista.
+	 */
+	private static void verificarParalelo(String codigo) throws ParseException {
+		Programa programa = ler(codigo);
+		programa.setLimiarParalelismo(2);
+		verificar("paralelo", codigo, executar(programa));
+	}
+
+	/**
+	 * Compara o interpretador com o interpretador que guarda os resultados
+	 * das funcoes memoizaveis.
+	 */
+	private static void verificarMemoizado(String codigo) throws ParseException {
+		Programa programa = ler(codigo);
+		programa.setCapacidadeMemoizacao(100);
+		verificar("memoizado", codigo, executar(programa));
+	}
+
+	/**
+	 * Executa duas vezes, com memoizacao, um programa com no maximo uma
+	 * funcao memoizavel e compara os caches, depois de cada execucao, com o
+	 * texto esperado. Os caches sao mantidos entre as execucoes.
+	 */
+	private static void verificarCache(String codigo, int capacidade,
+			String primeira, String segunda) throws ParseException {
+		Programa programa = ler(codigo);
+		programa.setCapacidadeMemoizacao(capacidade);
+		verificar("memoizado", codigo, executar(programa));
+		verificar("cache", codigo, "[" + primeira + "]", String
+				.valueOf(programa.getCachesMemoizacao()));
+		verificar("memoizado de novo", codigo, executar(programa));
+		verificar("cache", codigo, "[" + segunda + "]", String
+				.valueOf(programa.getCachesMemoizacao()));
+		// sem memoizacao o programa volta a ser apenas interpretado
+		programa.setCapacidadeMemoizacao(0);
+		verificar("sem memoizacao", codigo, executar(programa));
+		verificar("cache", codigo, "[]", String.valueOf(programa
+				.getCachesMemoizacao()));
+	}
+
+	/**
+	 * Compara o interpretador com a avaliacao preguicosa dos argumentos.
+	 */
+	private static void verificarPreguicoso(String codigo)
+			throws ParseException {
+		Programa programa = ler(codigo);
+		programa.setAvaliacaoPreguicosa(true);
+		verificar("preguicoso", codigo, executar(programa));
+	}
+
+	/**
+	 * Verifica o resultado da avaliacao preguicosa de um programa com um
+	 * argumento que nao e' usado e cuja avaliacao falharia ou nao terminaria.
+	 * O interpretador padrao nao e' executado.
+	 */
+	private static void verificarPreguicoso(String codigo, String resultado)
+			throws ParseException {
+		Programa programa = ler(codigo);
+		programa.setAvaliacaoPreguicosa(true);
+		verificar("preguicoso", codigo, resultado, executar(programa));
+	}
+
+	/**
+	 * Verifica que um programa com funcoes polimorficas e' bem tipado e que
+	 * produz o resultado esperado. A verificacao e' feita duas vezes: a
+	 * unificacao de uma aplicacao nao altera os tipos da funcao aplicada.
+	 */
+	private static void verificarBemTipado(String codigo, String resultado)
+			throws ParseException {
+		Programa programa = analisar(codigo);
+		verificar("bem tipado", codigo, "true true", programa.checaTipo()
+				+ " " + programa.checaTipo());
+		verificar("bem tipado", codigo, resultado, executar(programa));
+	}
+
+	private static void verificarMalTipado(String codigo)
+			throws ParseException {
+		Programa programa = analisar(codigo);
+		verificar("mal tipado", codigo, "false false", programa.checaTipo()
+				+ " " + programa.checaTipo());
+	}
+
+	private static void verificar(String modo, String codigo, String obtido)
+			throws ParseException {
+		verificar(modo, codigo, executar(ler(codigo)), obtido);
+	}
+
+	private static void verificar(String modo, String codigo,
+			String esperado, String obtido) {
+		if (!esperado.equals(obtido)) {
+			throw new IllegalStateException(modo + ": " + codigo
+					+ ": esperado " + esperado + ", obtido " + obtido);
+		}
+		System.out.println(modo + ": " + codigo + " = " + obtido);
+	}
+
+	/**
+	 * Retorna o valor do programa como texto, ou o nome do erro lancado. A
+	 * conversao para texto percorre as listas produzidas sob demanda.
+	 */
+	private static String executar(Programa programa) {
+		try {
+			return String.valueOf(programa.executar());
+		} catch (RuntimeException e) {
+			return e.getClass().getSimpleName();
+		}
+	}
+
+	/**
+	 * Le e verifica os tipos de um programa.
+	 */
+	private static Programa ler(String codigo) throws ParseException {
+		Programa programa = analisar(codigo);
+		if (!programa.checaTipo()) {
+			throw new IllegalStateException("tipos invalidos: " + codigo);
+		}
+		return programa;
+	}
+
+	/**
+	 * Le um programa. O parser gerado e' estatico, portanto e' criado uma
+	 * unica vez e reiniciado a cada leitura.
+	 */
+	private static Programa analisar(String codigo) throws ParseException {
+		ByteArrayInputStream entrada = new ByteArrayInputStream(codigo
+				.getBytes());
+		if (parser == null) {
+			parser = new Func3Parser(entrada);
+			Func3Parser.disable_tracing();
+		} else {
+			Func3Parser.ReInit(entrada);
+		}
+		return Func3Parser.Input();
+	}
+}
@@ -10,7 +10,7 @@ import li1.plp.expressions2.memory.VariavelNaoDeclaradaException;
 /**
  * Um objeto desta classe representa uma Expressao de menos unario.
  */
-public class ExpMenos extends ExpUnaria {
+public class ExpMenos extends ExpUnaria implements ExpressaoInteira {
 
 	/**
 	 * Controi uma Expressao de menos unario com expressao especificada
@@ -33,7 +33,18 @@ public class ExpMenos extends ExpUnaria {
 	 */
 	public Valor avaliar(AmbienteExecucao amb) throws VariavelJaDeclaradaException, 
 			VariavelNaoDeclaradaException {
-		return new ValorInteiro(- ((ValorInteiro)getExp().avaliar(amb)).valor());
+		int valor = exp instanceof ExpressaoInteira ? ((ExpressaoInteira) exp)
+				.avaliarInteiro(amb) : ((ValorInteiro) exp.avaliar(amb))
+				.valorPrimitivo();
+		return ValorInteiro.cria(- valor);
+	}
+
+	public int avaliarInteiro(AmbienteExecucao amb) throws VariavelJaDeclaradaException, 
+			VariavelNaoDeclaradaException {
+		int valor = exp instanceof ExpressaoInteira ? ((ExpressaoInteira) exp)
+				.avaliarInteiro(amb) : ((ValorInteiro) exp.avaliar(amb))
+				.valorPrimitivo();
+		return - valor;
 	}
 
 	/**
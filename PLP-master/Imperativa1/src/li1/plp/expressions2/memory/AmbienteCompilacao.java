@@ -1,8 +1,22 @@
 package li1.plp.expressions2.memory;
 
 import li1.plp.expressions1.util.Tipo;
+import li1.plp.expressions2.expression.Expressao;
 
 
 public interface AmbienteCompilacao extends Ambiente<Tipo> {
 
+	/**
+	 * Retorna o tipo ja calculado para a expressao dada durante esta
+	 * verificacao de tipos, ou <code>null</code> se ele ainda nao foi
+	 * calculado.
+	 */
+	public Tipo getTipoCalculado(Expressao expressao);
+
+	/**
+	 * Guarda o tipo calculado para a expressao dada, evitando que a
+	 * sub-arvore seja percorrida novamente a cada <code>getTipo</code>.
+	 */
+	public void mapTipoCalculado(Expressao expressao, Tipo tipo);
+
 }
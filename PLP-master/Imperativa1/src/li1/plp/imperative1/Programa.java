@@ -3,16 +3,33 @@ package li1.plp.imperative1;
 import li1.plp.expressions2.memory.IdentificadorJaDeclaradoException;
 import li1.plp.expressions2.memory.IdentificadorNaoDeclaradoException;
 import li1.plp.imperative1.command.Comando;
+import li1.plp.imperative1.compilacao.CompiladorJava;
+import li1.plp.imperative1.compilacao.ProgramaCompilado;
 import li1.plp.imperative1.memory.AmbienteCompilacaoImperativa;
 import li1.plp.imperative1.memory.AmbienteExecucaoImperativa;
 import li1.plp.imperative1.memory.EntradaVaziaException;
 import li1.plp.imperative1.memory.ErroTipoEntradaException;
 import li1.plp.imperative1.memory.ListaValor;
+import li1.plp.imperative1.util.Otimizador;
 
 public class Programa {
 
     private Comando comando;
 
+    /**
+     * Indica se o programa deve ser traduzido para Java e compilado antes de
+     * ser executado.
+     */
+    private boolean compilado;
+
+    private ProgramaCompilado programaCompilado;
+
+    /**
+     * Indica se o compilador ja recusou o programa, que entao e' interpretado
+     * sem nova tentativa de compilacao.
+     */
+    private boolean compilacaoFalhou;
+
     public Programa(Comando comando){
         this.comando = comando;
     }
@@ -32,6 +49,15 @@ public class Programa {
      */ 
     public ListaValor executar(AmbienteExecucaoImperativa ambienteExecucao) 
         throws IdentificadorJaDeclaradoException, IdentificadorNaoDeclaradoException, EntradaVaziaException, ErroTipoEntradaException {
+        if (compilado && programaCompilado == null && !compilacaoFalhou) {
+            programaCompilado = CompiladorJava.compilar(comando);
+            compilacaoFalhou = programaCompilado == null;
+        }
+        if (programaCompilado != null) {
+            programaCompilado.executar(ambienteExecucao);
+            return ambienteExecucao.getSaida();
+        }
+        // Construcoes nao suportadas pelo compilador sao interpretadas.
         ambienteExecucao = comando.executar(ambienteExecucao);
         return ambienteExecucao.getSaida();
     }
@@ -49,7 +75,39 @@ public class Programa {
      */
     public boolean checaTipo(AmbienteCompilacaoImperativa ambienteCompilacao)
         throws IdentificadorJaDeclaradoException, IdentificadorNaoDeclaradoException, EntradaVaziaException  {
+        compilacaoFalhou = false;
         return comando.checaTipo(ambienteCompilacao);
     }
 
+    /**
+     * Substitui as sub-expressoes constantes do programa pelos seus valores
+     * e elimina os comandos que nunca serao executados. Deve ser chamado
+     * depois de <code>checaTipo</code>.
+     *
+     * @return a quantidade de nos removidos da arvore do programa.
+     */
+    public int otimizar() {
+        Otimizador otimizador = new Otimizador();
+        comando = otimizador.otimizar(comando);
+        programaCompilado = null;
+        return otimizador.getNosRemovidos();
+    }
+
+    public boolean isCompilado() {
+        return compilado;
+    }
+
+    /**
+     * Define se o programa deve ser compilado. O programa deve ter sido
+     * verificado por <code>checaTipo</code> antes da primeira execucao
+     * compilada.
+     */
+    public void setCompilado(boolean compilado) {
+        this.compilado = compilado;
+        compilacaoFalhou = false;
+        if (!compilado) {
+            programaCompilado = null;
+        }
+    }
+
 }
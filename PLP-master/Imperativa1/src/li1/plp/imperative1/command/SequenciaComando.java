@@ -17,6 +17,14 @@ public class SequenciaComando implements Comando {
 		this.comando2 = comando2;
 	}
 
+	public Comando getComando1() {
+		return comando1;
+	}
+
+	public Comando getComando2() {
+		return comando2;
+	}
+
 	/**
 	 * Executa os comandos sequencialmente.
 	 * 
@@ -31,7 +39,15 @@ public class SequenciaComando implements Comando {
 			AmbienteExecucaoImperativa ambiente)
 			throws IdentificadorJaDeclaradoException,
 			IdentificadorNaoDeclaradoException, EntradaVaziaException, ErroTipoEntradaException {
-		return comando2.executar(comando1.executar(ambiente));
+		// O parser aninha as sequencias a direita; percorre-las iterativamente
+		// evita que programas longos esgotem a pilha da thread.
+		Comando atual = this;
+		while (atual instanceof SequenciaComando) {
+			SequenciaComando sequencia = (SequenciaComando) atual;
+			ambiente = sequencia.comando1.executar(ambiente);
+			atual = sequencia.comando2;
+		}
+		return atual.executar(ambiente);
 	}
 
 	/**
@@ -45,6 +61,14 @@ public class SequenciaComando implements Comando {
 	public boolean checaTipo(AmbienteCompilacaoImperativa ambiente)
 			throws IdentificadorJaDeclaradoException,
 			IdentificadorNaoDeclaradoException, EntradaVaziaException {
-		return comando1.checaTipo(ambiente) && comando2.checaTipo(ambiente);
+		Comando atual = this;
+		while (atual instanceof SequenciaComando) {
+			SequenciaComando sequencia = (SequenciaComando) atual;
+			if (!sequencia.comando1.checaTipo(ambiente)) {
+				return false;
+			}
+			atual = sequencia.comando2;
+		}
+		return atual.checaTipo(ambiente);
 	}
 }
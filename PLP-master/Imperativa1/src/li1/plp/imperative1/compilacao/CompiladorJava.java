@@ -0,0 +1,178 @@
+package li1.plp.imperative1.compilacao;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import li1.plp.imperative1.command.Comando;
+
+/**
+ * Compila em memoria, com o <code>javax.tools.JavaCompiler</code> do proprio
+ * JDK, o codigo Java produzido pelo <code>GeradorJava</code> e carrega a
+ * classe resultante. Nenhum arquivo e' escrito em disco.
+ */
+public class CompiladorJava {
+
+	private static final AtomicInteger contador = new AtomicInteger();
+
+	private CompiladorJava() {
+	}
+
+	/**
+	 * Compila o comando dado, que deve ter sido verificado por
+	 * <code>checaTipo</code>.
+	 * 
+	 * @param comando
+	 *            o comando principal do programa.
+	 * @return o programa compilado, ou <code>null</code> se o comando usar
+	 *         alguma construcao nao suportada pelo gerador ou se nao houver
+	 *         compilador Java disponivel (por exemplo, ao executar sobre um
+	 *         JRE). Nesses casos o programa deve ser interpretado.
+	 */
+	public static ProgramaCompilado compilar(Comando comando) {
+		String nomeClasse = "ProgramaGerado" + contador.incrementAndGet();
+		String fonte;
+		try {
+			fonte = GeradorJava.gerar(nomeClasse, comando);
+		} catch (ConstrucaoNaoSuportadaException e) {
+			return null;
+		}
+		Class<?> classe = compilar(nomeClasse, fonte);
+		if (classe == null) {
+			return null;
+		}
+		try {
+			return (ProgramaCompilado) classe.getDeclaredConstructor()
+					.newInstance();
+		} catch (ReflectiveOperationException e) {
+			return null;
+		}
+	}
+
+	private static Class<?> compilar(String nomeClasse, String fonte) {
+		JavaCompiler compilador = ToolProvider.getSystemJavaCompiler();
+		if (compilador == null) {
+			return null;
+		}
+		final Map<String, ArquivoClasse> classes = new HashMap<String, ArquivoClasse>();
+		StandardJavaFileManager padrao = compilador.getStandardFileManager(
+				null, null, null);
+		boolean sucesso;
+		try {
+			JavaFileManager gerenciador = new ForwardingJavaFileManager<StandardJavaFileManager>(
+					padrao) {
+				@Override
+				public JavaFileObject getJavaFileForOutput(Location local,
+						String nome, JavaFileObject.Kind tipo, FileObject irmao) {
+					ArquivoClasse classe = new ArquivoClasse(nome);
+					classes.put(nome, classe);
+					return classe;
+				}
+			};
+			List<String> opcoes = Arrays.asList("-classpath", getClasspath(),
+					"-g:none", "-nowarn");
+			DiagnosticCollector<JavaFileObject> diagnosticos = new DiagnosticCollector<JavaFileObject>();
+			sucesso = compilador.getTask(null, gerenciador, diagnosticos,
+					opcoes, null,
+					Collections.singletonList(new ArquivoFonte(nomeClasse, fonte)))
+					.call();
+		} finally {
+			// libera os arquivos do JDK abertos pelo gerenciador
+			try {
+				padrao.close();
+			} catch (IOException e) {
+				// a compilacao ja terminou
+			}
+		}
+		if (!sucesso) {
+			return null;
+		}
+		ClassLoader carregador = new ClassLoader(
+				CompiladorJava.class.getClassLoader()) {
+			@Override
+			protected Class<?> findClass(String nome)
+					throws ClassNotFoundException {
+				ArquivoClasse classe = classes.get(nome);
+				if (classe == null) {
+					return super.findClass(nome);
+				}
+				byte[] bytes = classe.getBytes();
+				return defineClass(nome, bytes, 0, bytes.length);
+			}
+		};
+		try {
+			return carregador.loadClass(nomeClasse);
+		} catch (ClassNotFoundException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * O codigo gerado referencia as classes da linguagem, por isso o
+	 * classpath inclui o local de onde esta propria classe foi carregada.
+	 */
+	private static String getClasspath() {
+		String classpath = System.getProperty("java.class.path");
+		try {
+			String local = new File(CompiladorJava.class.getProtectionDomain()
+					.getCodeSource().getLocation().toURI()).getPath();
+			classpath = local + File.pathSeparator + classpath;
+		} catch (Exception e) {
+			// usa apenas o classpath do sistema
+		}
+		return classpath;
+	}
+
+	private static class ArquivoFonte extends SimpleJavaFileObject {
+
+		private String fonte;
+
+		ArquivoFonte(String nomeClasse, String fonte) {
+			super(URI.create("string:///" + nomeClasse.replace('.', '/')
+					+ Kind.SOURCE.extension), Kind.SOURCE);
+			this.fonte = fonte;
+		}
+
+		@Override
+		public CharSequence getCharContent(boolean ignorarErros) {
+			return fonte;
+		}
+	}
+
+	private static class ArquivoClasse extends SimpleJavaFileObject {
+
+		private ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+		ArquivoClasse(String nomeClasse) {
+			super(URI.create("bytes:///" + nomeClasse.replace('.', '/')
+					+ Kind.CLASS.extension), Kind.CLASS);
+		}
+
+		@Override
+		public OutputStream openOutputStream() {
+			return bytes;
+		}
+
+		byte[] getBytes() {
+			return bytes.toByteArray();
+		}
+	}
+}
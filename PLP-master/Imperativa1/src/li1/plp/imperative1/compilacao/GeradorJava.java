@@ -0,0 +1,250 @@
+package li1.plp.imperative1.compilacao;
+
+import li1.plp.expressions1.util.Tipo;
+import li1.plp.expressions2.expression.ExpAnd;
+import li1.plp.expressions2.expression.ExpBinaria;
+import li1.plp.expressions2.expression.ExpConcat;
+import li1.plp.expressions2.expression.ExpEquals;
+import li1.plp.expressions2.expression.ExpLength;
+import li1.plp.expressions2.expression.ExpMenos;
+import li1.plp.expressions2.expression.ExpNot;
+import li1.plp.expressions2.expression.ExpOr;
+import li1.plp.expressions2.expression.ExpSoma;
+import li1.plp.expressions2.expression.ExpSub;
+import li1.plp.expressions2.expression.Expressao;
+import li1.plp.expressions2.expression.Id;
+import li1.plp.expressions2.expression.ValorBooleano;
+import li1.plp.expressions2.expression.ValorInteiro;
+import li1.plp.expressions2.expression.ValorString;
+import li1.plp.expressions2.memory.Contexto;
+import li1.plp.imperative1.command.Atribuicao;
+import li1.plp.imperative1.command.Comando;
+import li1.plp.imperative1.command.ComandoDeclaracao;
+import li1.plp.imperative1.command.IfThenElse;
+import li1.plp.imperative1.command.Read;
+import li1.plp.imperative1.command.SequenciaComando;
+import li1.plp.imperative1.command.Skip;
+import li1.plp.imperative1.command.While;
+import li1.plp.imperative1.command.Write;
+import li1.plp.imperative1.declaration.Declaracao;
+import li1.plp.imperative1.declaration.DeclaracaoComposta;
+import li1.plp.imperative1.declaration.DeclaracaoVariavel;
+import li1.plp.imperative1.memory.AmbienteCompilacaoImperativa;
+import li1.plp.imperative1.memory.ContextoCompilacaoImperativa;
+
+/**
+ * Traduz um comando ja verificado quanto a tipos para o codigo fonte de uma
+ * classe Java que implementa <code>ProgramaCompilado</code>.
+ *
+ * Cada variavel do programa vira uma variavel local Java do tipo primitivo
+ * correspondente, com um nome unico (o Java nao permite que um bloco interno
+ * redeclare uma variavel local). Blocos de declaracao viram blocos Java, de
+ * modo que o escopo e' preservado.
+ */
+public class GeradorJava {
+
+	private StringBuilder codigo;
+	private int recuo;
+	private AmbienteCompilacaoImperativa tipos;
+	private Contexto<String> nomes;
+	private int contador;
+
+	private GeradorJava() {
+		codigo = new StringBuilder();
+		tipos = new ContextoCompilacaoImperativa(null);
+		nomes = new Contexto<String>();
+	}
+
+	/**
+	 * Gera o codigo fonte da classe que executa o comando dado.
+	 *
+	 * @exception ConstrucaoNaoSuportadaException
+	 *                se o comando usar alguma construcao que o gerador nao
+	 *                sabe traduzir.
+	 */
+	public static String gerar(String nomeClasse, Comando comando)
+			throws ConstrucaoNaoSuportadaException {
+		GeradorJava gerador = new GeradorJava();
+		gerador.linha("import li1.plp.imperative1.compilacao.*;");
+		gerador.linha("import li1.plp.imperative1.memory.*;");
+		gerador.linha("");
+		gerador.abrir("public class " + nomeClasse
+				+ " implements ProgramaCompilado {");
+		gerador.abrir("public void executar(AmbienteExecucaoImperativa ambiente)"
+				+ " throws EntradaVaziaException, ErroTipoEntradaException {");
+		gerador.comando(comando);
+		gerador.fechar();
+		gerador.fechar();
+		return gerador.codigo.toString();
+	}
+
+	private void comando(Comando comando) {
+		if (comando instanceof Atribuicao) {
+			Atribuicao atribuicao = (Atribuicao) comando;
+			linha(nomes.get(atribuicao.getId()) + " = "
+					+ expressao(atribuicao.getExpressao()) + ";");
+		} else if (comando instanceof Read) {
+			Id id = ((Read) comando).getId();
+			linha(nomes.get(id) + " = SuporteExecucao.ler"
+					+ sufixo(tipos.get(id)) + "(ambiente, \"" + id.getIdName()
+					+ "\");");
+		} else if (comando instanceof Write) {
+			linha("SuporteExecucao.escrever(ambiente, "
+					+ expressao(((Write) comando).getExpressao()) + ");");
+		} else if (comando instanceof SequenciaComando) {
+			comando(((SequenciaComando) comando).getComando1());
+			comando(((SequenciaComando) comando).getComando2());
+		} else if (comando instanceof While) {
+			While enquanto = (While) comando;
+			abrir("while (" + expressao(enquanto.getExpressao()) + ") {");
+			comando(enquanto.getComando());
+			fechar();
+		} else if (comando instanceof IfThenElse) {
+			IfThenElse se = (IfThenElse) comando;
+			abrir("if (" + expressao(se.getExpressao()) + ") {");
+			comando(se.getComandoThen());
+			recuo--;
+			abrir("} else {");
+			comando(se.getComandoElse());
+			fechar();
+		} else if (comando instanceof ComandoDeclaracao) {
+			ComandoDeclaracao bloco = (ComandoDeclaracao) comando;
+			abrir("{");
+			tipos.incrementa();
+			nomes.incrementa();
+			declaracao(bloco.getDeclaracao());
+			comando(bloco.getComando());
+			nomes.restaura();
+			tipos.restaura();
+			fechar();
+		} else if (!(comando instanceof Skip)) {
+			throw new ConstrucaoNaoSuportadaException(comando);
+		}
+	}
+
+	private void declaracao(Declaracao declaracao) {
+		if (declaracao instanceof DeclaracaoComposta) {
+			declaracao(((DeclaracaoComposta) declaracao).getDeclaracao1());
+			declaracao(((DeclaracaoComposta) declaracao).getDeclaracao2());
+		} else if (declaracao instanceof DeclaracaoVariavel) {
+			DeclaracaoVariavel variavel = (DeclaracaoVariavel) declaracao;
+			Tipo tipo = variavel.getExpressao().getTipo(tipos);
+			String nome = variavel.getId().getIdName() + "_" + (++contador);
+			linha(tipoJava(tipo) + " " + nome + " = "
+					+ expressao(variavel.getExpressao()) + ";");
+			tipos.map(variavel.getId(), tipo);
+			nomes.map(variavel.getId(), nome);
+		} else {
+			throw new ConstrucaoNaoSuportadaException(declaracao);
+		}
+	}
+
+	private String expressao(Expressao exp) {
+		if (exp instanceof ValorInteiro) {
+			int valor = ((ValorInteiro) exp).valorPrimitivo();
+			return valor < 0 ? "(" + valor + ")" : Integer.toString(valor);
+		}
+		if (exp instanceof ValorBooleano) {
+			return ((ValorBooleano) exp).valor().toString();
+		}
+		if (exp instanceof ValorString) {
+			return literal(((ValorString) exp).valor());
+		}
+		if (exp instanceof Id) {
+			return nomes.get((Id) exp);
+		}
+		if (exp instanceof ExpSoma) {
+			return binaria((ExpBinaria) exp, "+");
+		}
+		if (exp instanceof ExpSub) {
+			return binaria((ExpBinaria) exp, "-");
+		}
+		if (exp instanceof ExpConcat) {
+			return binaria((ExpBinaria) exp, "+");
+		}
+		if (exp instanceof ExpAnd) {
+			return binaria((ExpBinaria) exp, "&&");
+		}
+		if (exp instanceof ExpOr) {
+			return binaria((ExpBinaria) exp, "||");
+		}
+		if (exp instanceof ExpEquals) {
+			ExpEquals igual = (ExpEquals) exp;
+			if (igual.getEsq().getTipo(tipos).eString()) {
+				return "(" + expressao(igual.getEsq()) + ".equals("
+						+ expressao(igual.getDir()) + "))";
+			}
+			return binaria(igual, "==");
+		}
+		if (exp instanceof ExpMenos) {
+			return "(-" + expressao(((ExpMenos) exp).getExp()) + ")";
+		}
+		if (exp instanceof ExpNot) {
+			return "(!" + expressao(((ExpNot) exp).getExp()) + ")";
+		}
+		if (exp instanceof ExpLength) {
+			return "(" + expressao(((ExpLength) exp).getExp()) + ".length())";
+		}
+		throw new ConstrucaoNaoSuportadaException(exp);
+	}
+
+	private String binaria(ExpBinaria exp, String operador) {
+		return "(" + expressao(exp.getEsq()) + " " + operador + " "
+				+ expressao(exp.getDir()) + ")";
+	}
+
+	private static String tipoJava(Tipo tipo) {
+		if (tipo.eInteiro()) {
+			return "int";
+		} else if (tipo.eBooleano()) {
+			return "boolean";
+		} else if (tipo.eString()) {
+			return "String";
+		}
+		throw new ConstrucaoNaoSuportadaException(tipo);
+	}
+
+	private static String sufixo(Tipo tipo) {
+		if (tipo.eInteiro()) {
+			return "Inteiro";
+		} else if (tipo.eBooleano()) {
+			return "Booleano";
+		} else if (tipo.eString()) {
+			return "String";
+		}
+		throw new ConstrucaoNaoSuportadaException(tipo);
+	}
+
+	private static String literal(String valor) {
+		StringBuilder retorno = new StringBuilder("\"");
+		for (char c : valor.toCharArray()) {
+			if (c == '"' || c == '\\') {
+				retorno.append('\\').append(c);
+			} else if (c < 0x20) {
+				retorno.append(String.format("\\%03o", (int) c));
+			} else if (c > 0x7e) {
+				retorno.append(String.format("\\u%04x", (int) c));
+			} else {
+				retorno.append(c);
+			}
+		}
+		return retorno.append('"').toString();
+	}
+
+	private void linha(String texto) {
+		for (int i = 0; i < recuo; i++) {
+			codigo.append('\t');
+		}
+		codigo.append(texto).append('\n');
+	}
+
+	private void abrir(String texto) {
+		linha(texto);
+		recuo++;
+	}
+
+	private void fechar() {
+		recuo--;
+		linha("}");
+	}
+}
@@ -0,0 +1,22 @@
+package li1.plp.imperative1.compilacao;
+
+import li1.plp.imperative1.memory.AmbienteExecucaoImperativa;
+import li1.plp.imperative1.memory.EntradaVaziaException;
+import li1.plp.imperative1.memory.ErroTipoEntradaException;
+
+/**
+ * Interface implementada pelas classes geradas pelo <code>GeradorJava</code>.
+ */
+public interface ProgramaCompilado {
+
+	/**
+	 * Executa o programa. As variaveis do programa sao variaveis locais da
+	 * classe gerada; o ambiente e' usado apenas para a entrada e a saida.
+	 * 
+	 * @param ambiente
+	 *            o ambiente de execucao.
+	 */
+	public void executar(AmbienteExecucaoImperativa ambiente)
+			throws EntradaVaziaException, ErroTipoEntradaException;
+
+}
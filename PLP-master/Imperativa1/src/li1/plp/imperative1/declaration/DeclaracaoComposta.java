@@ -17,6 +17,14 @@ public class DeclaracaoComposta extends Declaracao {
 		this.declaracao2 = parametro2;
 	}
 
+	public Declaracao getDeclaracao1() {
+		return declaracao1;
+	}
+
+	public Declaracao getDeclaracao2() {
+		return declaracao2;
+	}
+
 	@Override
 	public AmbienteExecucaoImperativa elabora(
 			AmbienteExecucaoImperativa ambiente)
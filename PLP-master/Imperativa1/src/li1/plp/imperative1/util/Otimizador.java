@@ -0,0 +1,284 @@
+package li1.plp.imperative1.util;
+
+import li1.plp.expressions2.expression.ExpAnd;
+import li1.plp.expressions2.expression.ExpBinaria;
+import li1.plp.expressions2.expression.ExpConcat;
+import li1.plp.expressions2.expression.ExpEquals;
+import li1.plp.expressions2.expression.ExpLength;
+import li1.plp.expressions2.expression.ExpMenos;
+import li1.plp.expressions2.expression.ExpNot;
+import li1.plp.expressions2.expression.ExpOr;
+import li1.plp.expressions2.expression.ExpSoma;
+import li1.plp.expressions2.expression.ExpSub;
+import li1.plp.expressions2.expression.ExpUnaria;
+import li1.plp.expressions2.expression.Expressao;
+import li1.plp.expressions2.expression.ValorBooleano;
+import li1.plp.expressions2.expression.ValorConcreto;
+import li1.plp.imperative1.command.Atribuicao;
+import li1.plp.imperative1.command.Comando;
+import li1.plp.imperative1.command.ComandoDeclaracao;
+import li1.plp.imperative1.command.IfThenElse;
+import li1.plp.imperative1.command.SequenciaComando;
+import li1.plp.imperative1.command.Skip;
+import li1.plp.imperative1.command.While;
+import li1.plp.imperative1.command.Write;
+import li1.plp.imperative1.declaration.Declaracao;
+import li1.plp.imperative1.declaration.DeclaracaoComposta;
+import li1.plp.imperative1.declaration.DeclaracaoVariavel;
+
+/**
+ * Otimizacao aplicada a um comando ja verificado quanto a tipos: toda
+ * sub-expressao cujos operandos sao valores e' substituida pelo seu
+ * resultado, todo <code>if</code> cuja condicao e' um valor e' substituido
+ * pelo ramo escolhido e todo <code>while</code> cuja condicao e' falsa e'
+ * removido. Os nos alterados sao reconstruidos; o comando original nao e'
+ * modificado.
+ */
+public class Otimizador {
+
+	private int nosRemovidos;
+
+	/**
+	 * Retorna o comando otimizado.
+	 */
+	public Comando otimizar(Comando comando) {
+		if (comando instanceof Atribuicao) {
+			Atribuicao atribuicao = (Atribuicao) comando;
+			Expressao expressao = otimizar(atribuicao.getExpressao());
+			if (expressao == atribuicao.getExpressao()) {
+				return comando;
+			}
+			return new Atribuicao(atribuicao.getId(), expressao);
+		}
+		if (comando instanceof Write) {
+			Write write = (Write) comando;
+			Expressao expressao = otimizar(write.getExpressao());
+			if (expressao == write.getExpressao()) {
+				return comando;
+			}
+			return new Write(expressao);
+		}
+		if (comando instanceof SequenciaComando) {
+			SequenciaComando sequencia = (SequenciaComando) comando;
+			Comando comando1 = otimizar(sequencia.getComando1());
+			Comando comando2 = otimizar(sequencia.getComando2());
+			if (comando1 instanceof Skip) {
+				nosRemovidos += 2;
+				return comando2;
+			}
+			if (comando2 instanceof Skip) {
+				nosRemovidos += 2;
+				return comando1;
+			}
+			if (comando1 == sequencia.getComando1()
+					&& comando2 == sequencia.getComando2()) {
+				return comando;
+			}
+			return new SequenciaComando(comando1, comando2);
+		}
+		if (comando instanceof IfThenElse) {
+			return otimizarIfThenElse((IfThenElse) comando);
+		}
+		if (comando instanceof While) {
+			While enquanto = (While) comando;
+			Expressao expressao = otimizar(enquanto.getExpressao());
+			if (expressao instanceof ValorBooleano
+					&& !((ValorBooleano) expressao).valor()) {
+				// o while e' trocado por um skip
+				nosRemovidos += 1 + contar(enquanto.getComando());
+				return new Skip();
+			}
+			Comando corpo = otimizar(enquanto.getComando());
+			if (expressao == enquanto.getExpressao()
+					&& corpo == enquanto.getComando()) {
+				return comando;
+			}
+			return new While(expressao, corpo);
+		}
+		if (comando instanceof ComandoDeclaracao) {
+			ComandoDeclaracao bloco = (ComandoDeclaracao) comando;
+			Declaracao declaracao = otimizar(bloco.getDeclaracao());
+			Comando corpo = otimizar(bloco.getComando());
+			if (declaracao == bloco.getDeclaracao()
+					&& corpo == bloco.getComando()) {
+				return comando;
+			}
+			return new ComandoDeclaracao(declaracao, corpo);
+		}
+		return comando;
+	}
+
+	/**
+	 * Retorna a quantidade de nos removidos pelas chamadas a
+	 * <code>otimizar</code> feitas ate agora.
+	 */
+	public int getNosRemovidos() {
+		return nosRemovidos;
+	}
+
+	private Comando otimizarIfThenElse(IfThenElse comando) {
+		Expressao expressao = otimizar(comando.getExpressao());
+		if (expressao instanceof ValorBooleano) {
+			boolean valor = ((ValorBooleano) expressao).valor();
+			Comando descartado = valor ? comando.getComandoElse() : comando
+					.getComandoThen();
+			nosRemovidos += 2 + contar(descartado);
+			return otimizar(valor ? comando.getComandoThen() : comando
+					.getComandoElse());
+		}
+		Comando then = otimizar(comando.getComandoThen());
+		Comando senao = otimizar(comando.getComandoElse());
+		if (expressao == comando.getExpressao()
+				&& then == comando.getComandoThen()
+				&& senao == comando.getComandoElse()) {
+			return comando;
+		}
+		return new IfThenElse(expressao, then, senao);
+	}
+
+	private Declaracao otimizar(Declaracao declaracao) {
+		if (declaracao instanceof DeclaracaoComposta) {
+			DeclaracaoComposta composta = (DeclaracaoComposta) declaracao;
+			Declaracao declaracao1 = otimizar(composta.getDeclaracao1());
+			Declaracao declaracao2 = otimizar(composta.getDeclaracao2());
+			if (declaracao1 == composta.getDeclaracao1()
+					&& declaracao2 == composta.getDeclaracao2()) {
+				return declaracao;
+			}
+			return new DeclaracaoComposta(declaracao1, declaracao2);
+		}
+		if (declaracao instanceof DeclaracaoVariavel) {
+			DeclaracaoVariavel variavel = (DeclaracaoVariavel) declaracao;
+			Expressao expressao = otimizar(variavel.getExpressao());
+			if (expressao == variavel.getExpressao()) {
+				return declaracao;
+			}
+			return new DeclaracaoVariavel(variavel.getId(), expressao);
+		}
+		return declaracao;
+	}
+
+	private Expressao otimizar(Expressao exp) {
+		if (exp instanceof ExpBinaria) {
+			return otimizarBinaria((ExpBinaria) exp);
+		}
+		if (exp instanceof ExpUnaria) {
+			return otimizarUnaria((ExpUnaria) exp);
+		}
+		return exp;
+	}
+
+	private Expressao otimizarBinaria(ExpBinaria exp) {
+		int removidos = nosRemovidos;
+		Expressao esq = otimizar(exp.getEsq());
+		Expressao dir = otimizar(exp.getDir());
+		Expressao nova;
+		if (esq == exp.getEsq() && dir == exp.getDir()) {
+			nova = exp;
+		} else if (exp instanceof ExpSoma) {
+			nova = new ExpSoma(esq, dir);
+		} else if (exp instanceof ExpSub) {
+			nova = new ExpSub(esq, dir);
+		} else if (exp instanceof ExpAnd) {
+			nova = new ExpAnd(esq, dir);
+		} else if (exp instanceof ExpOr) {
+			nova = new ExpOr(esq, dir);
+		} else if (exp instanceof ExpEquals) {
+			nova = new ExpEquals(esq, dir);
+		} else if (exp instanceof ExpConcat) {
+			nova = new ExpConcat(esq, dir);
+		} else {
+			// operador desconhecido: descarta o que foi feito nos operandos
+			nosRemovidos = removidos;
+			return exp;
+		}
+		if (esq instanceof ValorConcreto && dir instanceof ValorConcreto) {
+			return avaliar(nova, 2);
+		}
+		return nova;
+	}
+
+	private Expressao otimizarUnaria(ExpUnaria exp) {
+		int removidos = nosRemovidos;
+		Expressao operando = otimizar(exp.getExp());
+		Expressao nova;
+		if (operando == exp.getExp()) {
+			nova = exp;
+		} else if (exp instanceof ExpMenos) {
+			nova = new ExpMenos(operando);
+		} else if (exp instanceof ExpNot) {
+			nova = new ExpNot(operando);
+		} else if (exp instanceof ExpLength) {
+			nova = new ExpLength(operando);
+		} else {
+			nosRemovidos = removidos;
+			return exp;
+		}
+		if (operando instanceof ValorConcreto) {
+			return avaliar(nova, 1);
+		}
+		return nova;
+	}
+
+	/**
+	 * Substitui por seu valor uma expressao cujos operandos sao valores. Os
+	 * valores nao consultam o ambiente, por isso nenhum e' fornecido.
+	 */
+	private Expressao avaliar(Expressao exp, int operandos) {
+		nosRemovidos += operandos;
+		return exp.avaliar(null);
+	}
+
+	private static int contar(Comando comando) {
+		if (comando instanceof Atribuicao) {
+			return 1 + contar(((Atribuicao) comando).getExpressao());
+		}
+		if (comando instanceof Write) {
+			return 1 + contar(((Write) comando).getExpressao());
+		}
+		if (comando instanceof SequenciaComando) {
+			SequenciaComando sequencia = (SequenciaComando) comando;
+			return 1 + contar(sequencia.getComando1())
+					+ contar(sequencia.getComando2());
+		}
+		if (comando instanceof IfThenElse) {
+			IfThenElse se = (IfThenElse) comando;
+			return 1 + contar(se.getExpressao()) + contar(se.getComandoThen())
+					+ contar(se.getComandoElse());
+		}
+		if (comando instanceof While) {
+			While enquanto = (While) comando;
+			return 1 + contar(enquanto.getExpressao())
+					+ contar(enquanto.getComando());
+		}
+		if (comando instanceof ComandoDeclaracao) {
+			ComandoDeclaracao bloco = (ComandoDeclaracao) comando;
+			return 1 + contar(bloco.getDeclaracao())
+					+ contar(bloco.getComando());
+		}
+		return 1;
+	}
+
+	private static int contar(Declaracao declaracao) {
+		if (declaracao instanceof DeclaracaoComposta) {
+			DeclaracaoComposta composta = (DeclaracaoComposta) declaracao;
+			return contar(composta.getDeclaracao1())
+					+ contar(composta.getDeclaracao2());
+		}
+		if (declaracao instanceof DeclaracaoVariavel) {
+			return contar(((DeclaracaoVariavel) declaracao).getExpressao());
+		}
+		return 0;
+	}
+
+	private static int contar(Expressao exp) {
+		if (exp instanceof ExpBinaria) {
+			ExpBinaria binaria = (ExpBinaria) exp;
+			return 1 + contar(binaria.getEsq()) + contar(binaria.getDir());
+		}
+		if (exp instanceof ExpUnaria) {
+			return 1 + contar(((ExpUnaria) exp).getExp());
+		}
+		return 1;
+	}
+}
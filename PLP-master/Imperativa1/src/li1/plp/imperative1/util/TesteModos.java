@@ -0,0 +1,134 @@
+package li1.plp.imperative1.util;
+
+import java.io.ByteArrayInputStream;
+
+import li1.plp.expressions2.expression.ValorInteiro;
+import li1.plp.imperative1.Programa;
+import li1.plp.imperative1.memory.ContextoCompilacaoImperativa;
+import li1.plp.imperative1.memory.ContextoExecucaoImperativa;
+import li1.plp.imperative1.memory.ListaValor;
+import li1.plp.imperative1.parser.Imp1Parser;
+import li1.plp.imperative1.parser.ParseException;
+
+/**
+ * Executa programas da Imperativa1 no interpretador e nos modos de execucao
+ * opcionais, e verifica que cada modo produz a mesma saida que o
+ * interpretador.
+ */
+public class TesteModos {
+
+	private static final String[] PROGRAMAS = {
+			"{ var a = 0, var s = 0; while not (a == 10) do "
+					+ "(a := a + 1; s := s + a); write(s); write(\"fim\" ++ \"!\") }",
+			"{ var x = 3, var y = true; if y then write(x + 1) else write(x - 1); "
+					+ "{ var x = 10; write(x) }; write(x) }",
+			"{ var n = 0, var s = \"\", var b = false; read(n); "
+					+ "while not (n == 0) do (s := s ++ \"x\"; n := n - 1; b := not b); "
+					+ "write(length s); write(b); write(s == \"xxx\"); "
+					+ "{ var n = -5; write(-n) } }",
+			"{ var x = 1 + 2, var y = not false; if y and (1 == 1) "
+					+ "then write(x + (4 - 1)) else write(length \"abc\"); "
+					+ "while 2 == 3 do x := x + 1; "
+					+ "if false then skip else write(\"a\" ++ \"b\") }",
+			"{ var a = 0, var b = 0; read(a); read(b); write(a - b) }",
+			"{ var a = 0, var b = 0; read(a); read(b); write(a + b); read(a) }" };
+
+	/**
+	 * Quantos nos <code>otimizar</code> remove de cada programa.
+	 */
+	private static final int[] NOS_REMOVIDOS = { 2, 0, 1, 25, 0, 0 };
+
+	private static Imp1Parser parser;
+
+	public static void main(String[] args) throws ParseException {
+		for (int i = 0; i < PROGRAMAS.length; i++) {
+			verificarCompilado(PROGRAMAS[i]);
+			verificarOtimizado(PROGRAMAS[i], NOS_REMOVIDOS[i]);
+		}
+
+		System.out.println("TesteModos: ok");
+	}
+
+	/**
+	 * Compara o interpretador com o <code>CompiladorJava</code>. O programa
+	 * compilado e' executado duas vezes, a segunda com a classe compilada
+	 * guardada pelo programa.
+	 */
+	private static void verificarCompilado(String codigo) throws ParseException {
+		Programa programa = ler(codigo);
+		programa.setCompilado(true);
+		verificar("compilado", codigo, executar(programa));
+		verificar("compilado de novo", codigo, executar(programa));
+	}
+
+	/**
+	 * Compara o interpretador com o programa otimizado, interpretado e
+	 * compilado, e verifica quantos nos a otimizacao removeu.
+	 */
+	private static void verificarOtimizado(String codigo, int removidos)
+			throws ParseException {
+		Programa programa = ler(codigo);
+		int obtidos = programa.otimizar();
+		if (obtidos != removidos) {
+			throw new IllegalStateException("otimizado: " + codigo
+					+ ": esperados " + removidos + " nos removidos, obtidos "
+					+ obtidos);
+		}
+		verificar("otimizado", codigo, executar(programa));
+		programa.setCompilado(true);
+		verificar("otimizado e compilado", codigo, executar(programa));
+	}
+
+	private static void verificar(String modo, String codigo, String obtido)
+			throws ParseException {
+		String esperado = executar(ler(codigo));
+		if (!esperado.equals(obtido)) {
+			throw new IllegalStateException(modo + ": " + codigo
+					+ ": esperado " + esperado + ", obtido " + obtido);
+		}
+		System.out.println(modo + ": " + codigo + " = " + obtido);
+	}
+
+	/**
+	 * Retorna a saida do programa como texto, ou o nome do erro lancado. A
+	 * entrada tem dois valores; o programa que le um terceiro termina com
+	 * <code>EntradaVaziaException</code>.
+	 */
+	private static String executar(Programa programa) {
+		try {
+			return String.valueOf(programa
+					.executar(new ContextoExecucaoImperativa(entrada())));
+		} catch (Exception e) {
+			return e.getClass().getSimpleName();
+		}
+	}
+
+	private static ListaValor entrada() {
+		return new ListaValor(new ValorInteiro(3), new ListaValor(
+				new ValorInteiro(4)));
+	}
+
+	/**
+	 * Le e verifica os tipos de um programa. O parser gerado e' estatico,
+	 * portanto e' criado uma unica vez e reiniciado a cada leitura.
+	 */
+	private static Programa ler(String codigo) throws ParseException {
+		ByteArrayInputStream entrada = new ByteArrayInputStream(codigo
+				.getBytes());
+		if (parser == null) {
+			parser = new Imp1Parser(entrada);
+		} else {
+			Imp1Parser.ReInit(entrada);
+		}
+		Programa programa = Imp1Parser.Input();
+		try {
+			if (!programa.checaTipo(new ContextoCompilacaoImperativa(
+					entrada()))) {
+				throw new IllegalStateException("tipos invalidos: " + codigo);
+			}
+		} catch (Exception e) {
+			throw new IllegalStateException("tipos invalidos: " + codigo, e);
+		}
+		return programa;
+	}
+}
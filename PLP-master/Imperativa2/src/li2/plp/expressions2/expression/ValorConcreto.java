@@ -17,7 +17,7 @@ public abstract class ValorConcreto<T> implements Valor {
 	 */
 	@Override
 	public String toString() {
-		return String.valueOf(valor);
+		return String.valueOf(valor());
 	}
 
 	/**
@@ -27,6 +27,13 @@ public abstract class ValorConcreto<T> implements Valor {
 		this.valor = valor;
 	}
 
+	/**
+	 * Usado por subclasses que guardam o valor em um campo proprio e
+	 * redefinem <code>valor()</code>.
+	 */
+	protected ValorConcreto() {
+	}
+
 	/**
 	 * Retorna o string encapsulado pelo objeto desta classe
 	 */
@@ -66,6 +73,7 @@ public abstract class ValorConcreto<T> implements Valor {
 	public int hashCode() {
 		final int prime = 31;
 		int result = 1;
+		T valor = valor();
 		result = prime * result + (valor == null ? 0 : valor.hashCode());
 		return result;
 	}
@@ -80,10 +88,11 @@ public abstract class ValorConcreto<T> implements Valor {
 		if (getClass() != obj.getClass())
 			return false;
 		final ValorConcreto<T> other = (ValorConcreto<T>) obj;
+		T valor = valor();
 		if (valor == null) {
-			if (other.valor != null)
+			if (other.valor() != null)
 				return false;
-		} else if (!valor.equals(other.valor))
+		} else if (!valor.equals(other.valor()))
 			return false;
 		return true;
 	}
@@ -24,6 +24,18 @@ public class IfThenElse implements Comando {
 		this.comandoElse = comandoElse;
 	}
 
+	public Expressao getExpressao() {
+		return expressao;
+	}
+
+	public Comando getComandoThen() {
+		return comandoThen;
+	}
+
+	public Comando getComandoElse() {
+		return comandoElse;
+	}
+
 	/**
 	 * Implementa o comando <code>if then else</code>.
 	 * 
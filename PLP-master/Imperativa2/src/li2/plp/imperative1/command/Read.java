@@ -17,6 +17,10 @@ public class Read implements IO {
 		this.id = id;
 	}
 
+	public Id getId() {
+		return id;
+	}
+
 	/**
 	 * L� da entrada padr�o.
 	 * 
@@ -20,6 +20,14 @@ public class While implements Comando {
 		this.comando = comando;
 	}
 
+	public Expressao getExpressao() {
+		return expressao;
+	}
+
+	public Comando getComando() {
+		return comando;
+	}
+
 	/**
 	 * Implementa o comando <code>while</code>.
 	 * 
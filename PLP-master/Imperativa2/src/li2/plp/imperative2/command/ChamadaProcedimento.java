@@ -29,6 +29,14 @@ public class ChamadaProcedimento implements Comando {
 		this.parametrosReais = parametrosReais;
 	}
 
+	public Id getNomeProcedimento() {
+		return nomeProcedimento;
+	}
+
+	public ListaExpressao getParametrosReais() {
+		return parametrosReais;
+	}
+
 	public AmbienteExecucaoImperativa executar(AmbienteExecucaoImperativa amb)
 			throws IdentificadorNaoDeclaradoException,
 			IdentificadorJaDeclaradoException, EntradaVaziaException, ErroTipoEntradaException {
@@ -0,0 +1,427 @@
+package li2.plp.imperative2.compilacao;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import li2.plp.expressions1.util.Tipo;
+import li2.plp.expressions2.expression.ExpAnd;
+import li2.plp.expressions2.expression.ExpBinaria;
+import li2.plp.expressions2.expression.ExpConcat;
+import li2.plp.expressions2.expression.ExpEquals;
+import li2.plp.expressions2.expression.ExpLength;
+import li2.plp.expressions2.expression.ExpMenos;
+import li2.plp.expressions2.expression.ExpNot;
+import li2.plp.expressions2.expression.ExpOr;
+import li2.plp.expressions2.expression.ExpSoma;
+import li2.plp.expressions2.expression.ExpSub;
+import li2.plp.expressions2.expression.Expressao;
+import li2.plp.expressions2.expression.Id;
+import li2.plp.expressions2.expression.ValorBooleano;
+import li2.plp.expressions2.expression.ValorInteiro;
+import li2.plp.expressions2.expression.ValorString;
+import li2.plp.expressions2.memory.Contexto;
+import li2.plp.imperative1.command.Atribuicao;
+import li2.plp.imperative1.command.Comando;
+import li2.plp.imperative1.command.ComandoDeclaracao;
+import li2.plp.imperative1.command.IfThenElse;
+import li2.plp.imperative1.command.Read;
+import li2.plp.imperative1.command.SequenciaComando;
+import li2.plp.imperative1.command.Skip;
+import li2.plp.imperative1.command.While;
+import li2.plp.imperative1.command.Write;
+import li2.plp.imperative1.declaration.Declaracao;
+import li2.plp.imperative1.declaration.DeclaracaoComposta;
+import li2.plp.imperative1.declaration.DeclaracaoVariavel;
+import li2.plp.imperative1.memory.AmbienteCompilacaoImperativa;
+import li2.plp.imperative1.memory.ContextoCompilacaoImperativa;
+import li2.plp.imperative1.util.Lista;
+import li2.plp.imperative2.command.ChamadaProcedimento;
+import li2.plp.imperative2.declaration.DeclaracaoParametro;
+import li2.plp.imperative2.declaration.DeclaracaoProcedimento;
+import li2.plp.imperative2.declaration.DefProcedimento;
+
+/**
+ * Traduz um comando ja verificado quanto a tipos para o codigo fonte de uma
+ * classe Java que implementa <code>ProgramaCompilado</code>.
+ *
+ * Cada procedimento vira um metodo da classe gerada. Os parametros e as
+ * variaveis declaradas dentro de um procedimento viram variaveis locais do
+ * metodo; as demais variaveis viram atributos da classe, para que possam ser
+ * acessadas pelos procedimentos.
+ *
+ * O interpretador resolve os identificadores usados num procedimento no
+ * ambiente de quem o chama, enquanto o codigo gerado os resolve no ponto da
+ * declaracao. Para que os dois coincidam, o gerador so aceita programas em
+ * que cada nome e' declarado uma unica vez e em que os procedimentos acessam
+ * apenas as suas proprias variaveis e as variaveis globais.
+ */
+public class GeradorJava {
+
+	private StringBuilder codigo;
+	private int recuo;
+	private List<String> atributos;
+	private List<String> metodos;
+	private AmbienteCompilacaoImperativa tipos;
+	private Contexto<String> nomes;
+	private Set<String> globais;
+	private Set<String> locais;
+	private int contador;
+
+	private GeradorJava() {
+		codigo = new StringBuilder();
+		atributos = new ArrayList<String>();
+		metodos = new ArrayList<String>();
+		globais = new HashSet<String>();
+		tipos = new ContextoCompilacaoImperativa(null);
+		nomes = new Contexto<String>();
+	}
+
+	/**
+	 * Gera o codigo fonte da classe que executa o comando dado.
+	 *
+	 * @exception ConstrucaoNaoSuportadaException
+	 *                se o comando usar alguma construcao que o gerador nao
+	 *                sabe traduzir.
+	 */
+	public static String gerar(String nomeClasse, Comando comando)
+			throws ConstrucaoNaoSuportadaException {
+		verificarNomesUnicos(comando, new HashSet<Id>());
+
+		GeradorJava gerador = new GeradorJava();
+		gerador.recuo = 1;
+		gerador.abrir("public void executar(AmbienteExecucaoImperativa ambiente)"
+				+ " throws EntradaVaziaException, ErroTipoEntradaException {");
+		gerador.linha("this.ambiente = ambiente;");
+		gerador.comando(comando);
+		gerador.fechar();
+		gerador.metodos.add(0, gerador.codigo.toString());
+
+		StringBuilder classe = new StringBuilder();
+		classe.append("import li2.plp.imperative2.compilacao.*;\n");
+		classe.append("import li2.plp.imperative1.memory.*;\n\n");
+		classe.append("public class ").append(nomeClasse)
+				.append(" implements ProgramaCompilado {\n\n");
+		classe.append("\tprivate AmbienteExecucaoImperativa ambiente;\n");
+		for (String atributo : gerador.atributos) {
+			classe.append('\t').append(atributo).append('\n');
+		}
+		for (String metodo : gerador.metodos) {
+			classe.append('\n').append(metodo);
+		}
+		classe.append("}\n");
+		return classe.toString();
+	}
+
+	private void comando(Comando comando) {
+		if (comando instanceof Atribuicao) {
+			Atribuicao atribuicao = (Atribuicao) comando;
+			linha(nome(atribuicao.getId()) + " = "
+					+ expressao(atribuicao.getExpressao()) + ";");
+		} else if (comando instanceof Read) {
+			Id id = ((Read) comando).getId();
+			linha(nome(id) + " = SuporteExecucao.ler" + sufixo(tipos.get(id))
+					+ "(ambiente, \"" + id.getIdName() + "\");");
+		} else if (comando instanceof Write) {
+			linha("SuporteExecucao.escrever(ambiente, "
+					+ expressao(((Write) comando).getExpressao()) + ");");
+		} else if (comando instanceof SequenciaComando) {
+			comando(((SequenciaComando) comando).getComando1());
+			comando(((SequenciaComando) comando).getComando2());
+		} else if (comando instanceof While) {
+			While enquanto = (While) comando;
+			abrir("while (" + expressao(enquanto.getExpressao()) + ") {");
+			comando(enquanto.getComando());
+			fechar();
+		} else if (comando instanceof IfThenElse) {
+			IfThenElse se = (IfThenElse) comando;
+			abrir("if (" + expressao(se.getExpressao()) + ") {");
+			comando(se.getComandoThen());
+			recuo--;
+			abrir("} else {");
+			comando(se.getComandoElse());
+			fechar();
+		} else if (comando instanceof ComandoDeclaracao) {
+			ComandoDeclaracao bloco = (ComandoDeclaracao) comando;
+			abrir("{");
+			tipos.incrementa();
+			nomes.incrementa();
+			declaracao(bloco.getDeclaracao());
+			comando(bloco.getComando());
+			nomes.restaura();
+			tipos.restaura();
+			fechar();
+		} else if (comando instanceof ChamadaProcedimento) {
+			ChamadaProcedimento chamada = (ChamadaProcedimento) comando;
+			StringBuilder argumentos = new StringBuilder();
+			for (Expressao exp : elementos(chamada.getParametrosReais())) {
+				if (argumentos.length() > 0) {
+					argumentos.append(", ");
+				}
+				argumentos.append(expressao(exp));
+			}
+			linha(nomes.get(chamada.getNomeProcedimento()) + "(" + argumentos
+					+ ");");
+		} else if (!(comando instanceof Skip)) {
+			throw new ConstrucaoNaoSuportadaException(comando);
+		}
+	}
+
+	private void declaracao(Declaracao declaracao) {
+		if (declaracao instanceof DeclaracaoComposta) {
+			declaracao(((DeclaracaoComposta) declaracao).getDeclaracao1());
+			declaracao(((DeclaracaoComposta) declaracao).getDeclaracao2());
+		} else if (declaracao instanceof DeclaracaoVariavel) {
+			DeclaracaoVariavel variavel = (DeclaracaoVariavel) declaracao;
+			Tipo tipo = variavel.getExpressao().getTipo(tipos);
+			String nome = novoNome(variavel.getId());
+			String valor = expressao(variavel.getExpressao());
+			if (locais == null) {
+				globais.add(nome);
+				atributos.add("private " + tipoJava(tipo) + " " + nome + ";");
+				linha(nome + " = " + valor + ";");
+			} else {
+				locais.add(nome);
+				linha(tipoJava(tipo) + " " + nome + " = " + valor + ";");
+			}
+			tipos.map(variavel.getId(), tipo);
+			nomes.map(variavel.getId(), nome);
+		} else if (declaracao instanceof DeclaracaoProcedimento) {
+			procedimento((DeclaracaoProcedimento) declaracao);
+		} else {
+			throw new ConstrucaoNaoSuportadaException(declaracao);
+		}
+	}
+
+	/**
+	 * Gera o metodo correspondente ao procedimento. O procedimento e' mapeado
+	 * antes do corpo ser gerado, para permitir recursao.
+	 */
+	private void procedimento(DeclaracaoProcedimento declaracao) {
+		DefProcedimento definicao = declaracao.getDefProcedimento();
+		String nome = novoNome(declaracao.getId());
+		tipos.map(declaracao.getId(), definicao.getTipo());
+		nomes.map(declaracao.getId(), nome);
+
+		StringBuilder codigoExterno = codigo;
+		int recuoExterno = recuo;
+		Set<String> locaisExternos = locais;
+		codigo = new StringBuilder();
+		recuo = 1;
+		locais = new HashSet<String>();
+
+		tipos.incrementa();
+		nomes.incrementa();
+		StringBuilder parametros = new StringBuilder();
+		for (DeclaracaoParametro parametro : elementos(definicao
+				.getParametrosFormais())) {
+			String nomeParametro = novoNome(parametro.getId());
+			if (parametros.length() > 0) {
+				parametros.append(", ");
+			}
+			parametros.append(tipoJava(parametro.getTipo())).append(' ')
+					.append(nomeParametro);
+			locais.add(nomeParametro);
+			tipos.map(parametro.getId(), parametro.getTipo());
+			nomes.map(parametro.getId(), nomeParametro);
+		}
+		abrir("private void " + nome + "(" + parametros
+				+ ") throws EntradaVaziaException, ErroTipoEntradaException {");
+		comando(definicao.getComando());
+		fechar();
+		nomes.restaura();
+		tipos.restaura();
+		metodos.add(codigo.toString());
+
+		codigo = codigoExterno;
+		recuo = recuoExterno;
+		locais = locaisExternos;
+	}
+
+	/**
+	 * Dentro de um procedimento, so podem ser usadas as variaveis do proprio
+	 * procedimento e as variaveis globais (atributos da classe gerada).
+	 */
+	private String nome(Id id) {
+		String nome = nomes.get(id);
+		if (locais != null && !locais.contains(nome) && !globais.contains(nome)) {
+			throw new ConstrucaoNaoSuportadaException(id);
+		}
+		return nome;
+	}
+
+	private String novoNome(Id id) {
+		return id.getIdName() + "_" + (++contador);
+	}
+
+	private String expressao(Expressao exp) {
+		if (exp instanceof ValorInteiro) {
+			int valor = ((ValorInteiro) exp).valorPrimitivo();
+			return valor < 0 ? "(" + valor + ")" : Integer.toString(valor);
+		}
+		if (exp instanceof ValorBooleano) {
+			return ((ValorBooleano) exp).valor().toString();
+		}
+		if (exp instanceof ValorString) {
+			return literal(((ValorString) exp).valor());
+		}
+		if (exp instanceof Id) {
+			return nome((Id) exp);
+		}
+		if (exp instanceof ExpSoma) {
+			return binaria((ExpBinaria) exp, "+");
+		}
+		if (exp instanceof ExpSub) {
+			return binaria((ExpBinaria) exp, "-");
+		}
+		if (exp instanceof ExpConcat) {
+			return binaria((ExpBinaria) exp, "+");
+		}
+		if (exp instanceof ExpAnd) {
+			return binaria((ExpBinaria) exp, "&&");
+		}
+		if (exp instanceof ExpOr) {
+			return binaria((ExpBinaria) exp, "||");
+		}
+		if (exp instanceof ExpEquals) {
+			ExpEquals igual = (ExpEquals) exp;
+			if (igual.getEsq().getTipo(tipos).eString()) {
+				return "(" + expressao(igual.getEsq()) + ".equals("
+						+ expressao(igual.getDir()) + "))";
+			}
+			return binaria(igual, "==");
+		}
+		if (exp instanceof ExpMenos) {
+			return "(-" + expressao(((ExpMenos) exp).getExp()) + ")";
+		}
+		if (exp instanceof ExpNot) {
+			return "(!" + expressao(((ExpNot) exp).getExp()) + ")";
+		}
+		if (exp instanceof ExpLength) {
+			return "(" + expressao(((ExpLength) exp).getExp()) + ".length())";
+		}
+		throw new ConstrucaoNaoSuportadaException(exp);
+	}
+
+	private String binaria(ExpBinaria exp, String operador) {
+		return "(" + expressao(exp.getEsq()) + " " + operador + " "
+				+ expressao(exp.getDir()) + ")";
+	}
+
+	/**
+	 * Percorre o programa, inclusive o corpo dos procedimentos, verificando
+	 * que nenhum identificador e' declarado mais de uma vez.
+	 */
+	private static void verificarNomesUnicos(Comando comando, Set<Id> declarados) {
+		if (comando instanceof SequenciaComando) {
+			verificarNomesUnicos(((SequenciaComando) comando).getComando1(),
+					declarados);
+			verificarNomesUnicos(((SequenciaComando) comando).getComando2(),
+					declarados);
+		} else if (comando instanceof While) {
+			verificarNomesUnicos(((While) comando).getComando(), declarados);
+		} else if (comando instanceof IfThenElse) {
+			verificarNomesUnicos(((IfThenElse) comando).getComandoThen(),
+					declarados);
+			verificarNomesUnicos(((IfThenElse) comando).getComandoElse(),
+					declarados);
+		} else if (comando instanceof ComandoDeclaracao) {
+			verificarNomesUnicos(((ComandoDeclaracao) comando).getDeclaracao(),
+					declarados);
+			verificarNomesUnicos(((ComandoDeclaracao) comando).getComando(),
+					declarados);
+		}
+	}
+
+	private static void verificarNomesUnicos(Declaracao declaracao,
+			Set<Id> declarados) {
+		if (declaracao instanceof DeclaracaoComposta) {
+			verificarNomesUnicos(((DeclaracaoComposta) declaracao)
+					.getDeclaracao1(), declarados);
+			verificarNomesUnicos(((DeclaracaoComposta) declaracao)
+					.getDeclaracao2(), declarados);
+		} else if (declaracao instanceof DeclaracaoVariavel) {
+			declarar(((DeclaracaoVariavel) declaracao).getId(), declarados);
+		} else if (declaracao instanceof DeclaracaoProcedimento) {
+			DeclaracaoProcedimento procedimento = (DeclaracaoProcedimento) declaracao;
+			declarar(procedimento.getId(), declarados);
+			DefProcedimento definicao = procedimento.getDefProcedimento();
+			for (DeclaracaoParametro parametro : elementos(definicao
+					.getParametrosFormais())) {
+				declarar(parametro.getId(), declarados);
+			}
+			verificarNomesUnicos(definicao.getComando(), declarados);
+		}
+	}
+
+	private static void declarar(Id id, Set<Id> declarados) {
+		if (!declarados.add(id)) {
+			throw new ConstrucaoNaoSuportadaException(id);
+		}
+	}
+
+	private static <T> List<T> elementos(Lista<T> lista) {
+		List<T> retorno = new ArrayList<T>();
+		while (lista != null && lista.getHead() != null) {
+			retorno.add(lista.getHead());
+			lista = lista.getTail();
+		}
+		return retorno;
+	}
+
+	private static String tipoJava(Tipo tipo) {
+		if (tipo.eInteiro()) {
+			return "int";
+		} else if (tipo.eBooleano()) {
+			return "boolean";
+		} else if (tipo.eString()) {
+			return "String";
+		}
+		throw new ConstrucaoNaoSuportadaException(tipo);
+	}
+
+	private static String sufixo(Tipo tipo) {
+		if (tipo.eInteiro()) {
+			return "Inteiro";
+		} else if (tipo.eBooleano()) {
+			return "Booleano";
+		} else if (tipo.eString()) {
+			return "String";
+		}
+		throw new ConstrucaoNaoSuportadaException(tipo);
+	}
+
+	private static String literal(String valor) {
+		StringBuilder retorno = new StringBuilder("\"");
+		for (char c : valor.toCharArray()) {
+			if (c == '"' || c == '\\') {
+				retorno.append('\\').append(c);
+			} else if (c < 0x20) {
+				retorno.append(String.format("\\%03o", (int) c));
+			} else if (c > 0x7e) {
+				retorno.append(String.format("\\u%04x", (int) c));
+			} else {
+				retorno.append(c);
+			}
+		}
+		return retorno.append('"').toString();
+	}
+
+	private void linha(String texto) {
+		for (int i = 0; i < recuo; i++) {
+			codigo.append('\t');
+		}
+		codigo.append(texto).append('\n');
+	}
+
+	private void abrir(String texto) {
+		linha(texto);
+		recuo++;
+	}
+
+	private void fechar() {
+		recuo--;
+		linha("}");
+	}
+}
@@ -0,0 +1,23 @@
+package li2.plp.imperative2.compilacao;
+
+import li2.plp.imperative1.memory.AmbienteExecucaoImperativa;
+import li2.plp.imperative1.memory.EntradaVaziaException;
+import li2.plp.imperative1.memory.ErroTipoEntradaException;
+
+/**
+ * Interface implementada pelas classes geradas pelo <code>GeradorJava</code>.
+ */
+public interface ProgramaCompilado {
+
+	/**
+	 * Executa o programa. As variaveis e os procedimentos do programa sao
+	 * membros da classe gerada; o ambiente e' usado apenas para a entrada e a
+	 * saida.
+	 * 
+	 * @param ambiente
+	 *            o ambiente de execucao.
+	 */
+	public void executar(AmbienteExecucaoImperativa ambiente)
+			throws EntradaVaziaException, ErroTipoEntradaException;
+
+}
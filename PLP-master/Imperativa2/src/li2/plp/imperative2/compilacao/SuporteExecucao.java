@@ -0,0 +1,69 @@
+package li2.plp.imperative2.compilacao;
+
+import li2.plp.expressions2.expression.Valor;
+import li2.plp.expressions2.expression.ValorBooleano;
+import li2.plp.expressions2.expression.ValorInteiro;
+import li2.plp.expressions2.expression.ValorString;
+import li2.plp.imperative1.memory.AmbienteExecucaoImperativa;
+import li2.plp.imperative1.memory.EntradaVaziaException;
+import li2.plp.imperative1.memory.ErroTipoEntradaException;
+
+/**
+ * Operacoes de entrada e saida chamadas pelo codigo gerado. Reproduzem o
+ * comportamento dos comandos <code>Read</code> e <code>Write</code>.
+ */
+public class SuporteExecucao {
+
+	private SuporteExecucao() {
+	}
+
+	public static int lerInteiro(AmbienteExecucaoImperativa ambiente,
+			String variavel) throws EntradaVaziaException,
+			ErroTipoEntradaException {
+		Valor valor = ambiente.read();
+		if (!(valor instanceof ValorInteiro)) {
+			throw erroTipo(variavel);
+		}
+		return ((ValorInteiro) valor).valorPrimitivo();
+	}
+
+	public static boolean lerBooleano(AmbienteExecucaoImperativa ambiente,
+			String variavel) throws EntradaVaziaException,
+			ErroTipoEntradaException {
+		Valor valor = ambiente.read();
+		if (!(valor instanceof ValorBooleano)) {
+			throw erroTipo(variavel);
+		}
+		return ((ValorBooleano) valor).valor();
+	}
+
+	public static String lerString(AmbienteExecucaoImperativa ambiente,
+			String variavel) throws EntradaVaziaException,
+			ErroTipoEntradaException {
+		Valor valor = ambiente.read();
+		if (!(valor instanceof ValorString)) {
+			throw erroTipo(variavel);
+		}
+		return ((ValorString) valor).valor();
+	}
+
+	public static void escrever(AmbienteExecucaoImperativa ambiente, int valor) {
+		ambiente.write(new ValorInteiro(valor));
+	}
+
+	public static void escrever(AmbienteExecucaoImperativa ambiente,
+			boolean valor) {
+		ambiente.write(new ValorBooleano(valor));
+	}
+
+	public static void escrever(AmbienteExecucaoImperativa ambiente,
+			String valor) {
+		ambiente.write(new ValorString(valor));
+	}
+
+	private static ErroTipoEntradaException erroTipo(String variavel) {
+		return new ErroTipoEntradaException(
+				"Tipo do valor de entrada lido incompativel"
+						+ " com tipo da variavel (" + variavel + ")");
+	}
+}
@@ -0,0 +1,138 @@
+package li2.plp.imperative2.util;
+
+import java.io.ByteArrayInputStream;
+
+import li2.plp.expressions2.expression.ValorInteiro;
+import li2.plp.imperative1.memory.ContextoCompilacaoImperativa;
+import li2.plp.imperative1.memory.ListaValor;
+import li2.plp.imperative2.Programa;
+import li2.plp.imperative2.memory.ContextoExecucaoImperativa2;
+import li2.plp.imperative2.parser.Imp2Parser;
+import li2.plp.imperative2.parser.ParseException;
+
+/**
+ * Executa programas da Imperativa2 no interpretador e nos modos de execucao
+ * opcionais, e verifica que cada modo produz a mesma saida que o
+ * interpretador.
+ */
+public class TesteModos {
+
+	private static final String[] PROGRAMAS = {
+			"{ var a = 0, proc incA () { a := a + 1 }; call incA(); call incA(); "
+					+ "write(a) }",
+			"{ var s = 0, proc soma (int n) { { var i = 0; while not (i == n) do "
+					+ "(i := i + 1; s := s + i) } }; call soma(100); write(s) }",
+			"{ var r = 0, proc fat (int n) { if n == 0 then r := 1 else "
+					+ "(call fat(n - 1); { var t = 0, var k = 0; "
+					+ "while not (k == n) do (t := t + r; k := k + 1); r := t }) }; "
+					+ "call fat(6); write(r) }",
+			"{ var x = 1, proc p () { write(x) }; { var x = 2; call p() } }",
+			"{ var s = 0, proc soma (int n) { { var i = 0; while not (i == n) do "
+					+ "(i := i + (2 - 1); s := s + i); "
+					+ "if true then skip else write(0) } }; "
+					+ "call soma(100 + 0); write(s) }",
+			"{ var a = 0, var b = 0, proc le (string s) { read(a); read(b); "
+					+ "write(s ++ \"!\") }; call le(\"x\"); write(a - b) }",
+			"{ var a = 0, proc le () { read(a) }; call le(); call le(); "
+					+ "write(a); call le() }" };
+
+	/**
+	 * Quantos nos <code>otimizar</code> remove de cada programa.
+	 */
+	private static final int[] NOS_REMOVIDOS = { 0, 0, 0, 0, 10, 0, 0 };
+
+	private static Imp2Parser parser;
+
+	public static void main(String[] args) throws ParseException {
+		for (int i = 0; i < PROGRAMAS.length; i++) {
+			verificarCompilado(PROGRAMAS[i]);
+			verificarOtimizado(PROGRAMAS[i], NOS_REMOVIDOS[i]);
+		}
+
+		System.out.println("TesteModos: ok");
+	}
+
+	/**
+	 * Compara o interpretador com o <code>CompiladorJava</code>. O programa
+	 * compilado e' executado duas vezes, a segunda com a classe compilada
+	 * guardada pelo programa.
+	 */
+	private static void verificarCompilado(String codigo) throws ParseException {
+		Programa programa = ler(codigo);
+		programa.setCompilado(true);
+		verificar("compilado", codigo, executar(programa));
+		verificar("compilado de novo", codigo, executar(programa));
+	}
+
+	/**
+	 * Compara o interpretador com o programa otimizado, interpretado e
+	 * compilado, e verifica quantos nos a otimizacao removeu.
+	 */
+	private static void verificarOtimizado(String codigo, int removidos)
+			throws ParseException {
+		Programa programa = ler(codigo);
+		int obtidos = programa.otimizar();
+		if (obtidos != removidos) {
+			throw new IllegalStateException("otimizado: " + codigo
+					+ ": esperados " + removidos + " nos removidos, obtidos "
+					+ obtidos);
+		}
+		verificar("otimizado", codigo, executar(programa));
+		programa.setCompilado(true);
+		verificar("otimizado e compilado", codigo, executar(programa));
+	}
+
+	private static void verificar(String modo, String codigo, String obtido)
+			throws ParseException {
+		String esperado = executar(ler(codigo));
+		if (!esperado.equals(obtido)) {
+			throw new IllegalStateException(modo + ": " + codigo
+					+ ": esperado " + esperado + ", obtido " + obtido);
+		}
+		System.out.println(modo + ": " + codigo + " = " + obtido);
+	}
+
+	/**
+	 * Retorna a saida do programa como texto, ou o nome do erro lancado. A
+	 * entrada tem dois valores; o programa que le um terceiro termina com
+	 * <code>EntradaVaziaException</code>.
+	 */
+	private static String executar(Programa programa) {
+		try {
+			return String.valueOf(programa
+					.executar(new ContextoExecucaoImperativa2(entrada())));
+		} catch (Exception e) {
+			return e.getClass().getSimpleName();
+		}
+	}
+
+	private static ListaValor entrada() {
+		return new ListaValor(new ValorInteiro(3), new ListaValor(
+				new ValorInteiro(4)));
+	}
+
+	/**
+	 * Le e verifica os tipos de um programa. O parser gerado e' estatico,
+	 * portanto e' criado uma unica vez e reiniciado a cada leitura.
+	 */
+	private static Programa ler(String codigo) throws ParseException {
+		ByteArrayInputStream entrada = new ByteArrayInputStream(codigo
+				.getBytes());
+		if (parser == null) {
+			parser = new Imp2Parser(entrada);
+			Imp2Parser.disable_tracing();
+		} else {
+			Imp2Parser.ReInit(entrada);
+		}
+		Programa programa = Imp2Parser.Input();
+		try {
+			if (!programa.checaTipo(new ContextoCompilacaoImperativa(
+					entrada()))) {
+				throw new IllegalStateException("tipos invalidos: " + codigo);
+			}
+		} catch (Exception e) {
+			throw new IllegalStateException("tipos invalidos: " + codigo, e);
+		}
+		return programa;
+	}
+}